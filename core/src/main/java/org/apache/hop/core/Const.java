@@ -167,6 +167,20 @@ public class Const {
       description = "The variable which points to the alternative location for the Hop metadata.")
   public static final String HOP_METADATA_FOLDER = "HOP_METADATA_FOLDER";
 
+  /**
+   * The number of milliseconds during which a metadata JSON file which was read is considered
+   * unchanged. After that its modification time is checked again. A negative value disables the
+   * cache.
+   */
+  @Variable(
+      scope = VariableScope.SYSTEM,
+      value = "1000",
+      description =
+          "The number of milliseconds after which cached metadata files are checked for changes on"
+              + " disk. Set to -1 to disable the metadata cache.")
+  public static final String HOP_METADATA_CACHE_CHECK_INTERVAL =
+      "HOP_METADATA_CACHE_CHECK_INTERVAL";
+
   /** The variable which points to a shared folder with JDBC drivers in them. */
   @Variable(
       scope = VariableScope.SYSTEM,
@@ -780,6 +794,15 @@ public class Const {
       description = "A variable to configure refresh for Hop server workflow/pipeline status page")
   public static final String HOP_SERVER_REFRESH_STATUS = "HOP_SERVER_REFRESH_STATUS";
 
+  /** The maximum number of pipeline or workflow status streams a Hop server keeps open */
+  @Variable(
+      scope = VariableScope.SYSTEM,
+      value = "100",
+      description =
+          "The maximum number of pipeline and workflow status streams a Hop server keeps open at"
+              + " the same time. Clients asking for more streams fall back to polling the status.")
+  public static final String HOP_SERVER_MAX_STATUS_STREAMS = "HOP_SERVER_MAX_STATUS_STREAMS";
+
   /** A variable to configure s3vfs to use a temporary file on upload data to S3 Amazon." */
   public static final String S3VFS_USE_TEMPORARY_FILE_ON_UPLOAD_DATA =
       "s3.vfs.useTempFileOnUploadData";
@@ -113,4 +113,12 @@ public interface IRowSet {
 
   /** Clear this rowset: remove all rows and remove the "done" flag. */
   void clear();
+
+  /**
+   * Make sure all rows put into this row set are visible to the reading transform. Row sets which
+   * hand over rows in batches publish any pending rows. By default nothing needs to be done.
+   */
+  default void flush() {
+    // Rows are visible as soon as they are put
+  }
 }
@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free single-producer/single-consumer row set backed by a ring buffer.
+ *
+ * <p>Rows are written into the ring by the producing transform without taking any lock. The
+ * position up to which rows are visible to the consumer is only published once per batch of rows,
+ * when the flush latency has expired, when {@link #flush()} is called or when the row set is marked
+ * as done. In the same way the consumer only hands back free slots to the producer once per batch.
+ * This keeps the cache traffic between the two threads to a minimum.
+ *
+ * <p>A consumer which runs out of published rows picks up the rows which were written but not yet
+ * published by itself once the flush latency has expired. This way rows are never held back for
+ * longer than the flush latency, even when the producer stops putting rows before a batch is full.
+ *
+ * <p>This row set expects exactly one thread putting rows and one thread getting rows, which is
+ * the case for the hops between two transform copies in the local pipeline engine.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The default number of rows which are handed over to the consumer in one go */
+  public static final int DEFAULT_BATCH_SIZE = 256;
+
+  /** The default maximum time (ms) rows are kept back from the consumer */
+  public static final int DEFAULT_FLUSH_LATENCY_MILLIS = 10;
+
+  /** The number of busy-spins before we start parking a waiting thread, none on a single CPU */
+  private static final int SPIN_TRIES = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0;
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+  private final int batchSize;
+  private final long flushLatencyNanos;
+
+  private final int timeoutPut;
+  private final int timeoutGet;
+
+  /** The number of rows made visible to the consumer, written by the producer */
+  private final AtomicLong published;
+
+  /** The number of rows written into the ring, including the ones which are not published yet */
+  private final AtomicLong written;
+
+  /** The number of rows handed back to the producer as free slots, written by the consumer */
+  private final AtomicLong released;
+
+  private volatile boolean consumerWaiting;
+  private volatile boolean producerWaiting;
+  private volatile Thread consumerThread;
+  private volatile Thread producerThread;
+
+  // Only touched by the producer thread
+  //
+  private long producerIndex;
+  private long producerPublished;
+  private long producerReleasedCache;
+  private long firstPendingNanos;
+
+  // Only touched by the consumer thread
+  //
+  private long consumerIndex;
+  private long consumerReleased;
+  private long consumerPublishedCache;
+  private long consumerEmptySinceNanos;
+
+  /**
+   * Create a new ring buffer row set with the default batch size and flush latency.
+   *
+   * @param maxSize the minimum capacity of the row set, rounded up to a power of 2
+   */
+  public RingBufferRowSet(int maxSize) {
+    this(maxSize, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_LATENCY_MILLIS);
+  }
+
+  /**
+   * Create a new ring buffer row set.
+   *
+   * @param maxSize the minimum capacity of the row set, rounded up to a power of 2
+   * @param batchSize the number of rows to publish to the consumer in one go
+   * @param flushLatencyMillis the maximum time in ms rows are held back before being published
+   */
+  public RingBufferRowSet(int maxSize, int batchSize, int flushLatencyMillis) {
+    super();
+
+    int size = 2;
+    while (size < maxSize && size < (1 << 30)) {
+      size <<= 1;
+    }
+    this.capacity = size;
+    this.mask = size - 1;
+    this.buffer = new Object[size][];
+    this.batchSize = Math.max(1, Math.min(batchSize, size / 2));
+    this.flushLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushLatencyMillis));
+
+    published = new AtomicLong(0L);
+    written = new AtomicLong(0L);
+    released = new AtomicLong(0L);
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    this.rowMeta = rowMeta;
+    if (rowData == null) {
+      return false;
+    }
+
+    long index = producerIndex;
+    if (index - producerReleasedCache >= capacity) {
+      producerReleasedCache = released.get();
+      if (index - producerReleasedCache >= capacity) {
+        // The ring is full: make sure the consumer can see everything before we wait for room.
+        //
+        publish();
+        if (!waitForFreeSlot(index, tu.toNanos(time))) {
+          return false;
+        }
+      }
+    }
+
+    buffer[(int) index & mask] = rowData;
+    producerIndex = ++index;
+    // An ordered store is enough here: it's only read by a consumer which ran out of published rows
+    //
+    written.lazySet(index);
+
+    long pending = index - producerPublished;
+    if (pending == 1) {
+      firstPendingNanos = System.nanoTime();
+    }
+    if (pending >= batchSize) {
+      publish();
+    } else if ((consumerWaiting || (pending & 0x0F) == 0)
+        && System.nanoTime() - firstPendingNanos >= flushLatencyNanos) {
+      // Don't keep rows back for longer than the flush latency
+      //
+      publish();
+    }
+    return true;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return getRowWait(0L, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long index = consumerIndex;
+    if (index >= consumerPublishedCache) {
+      consumerPublishedCache = published.get();
+      if (index >= consumerPublishedCache) {
+        // Nothing to read: hand back the slots we used so the producer doesn't wait on us.
+        //
+        release();
+        if (!waitForRows(index, tu.toNanos(timeout))) {
+          return null;
+        }
+      }
+    }
+    consumerEmptySinceNanos = 0L;
+
+    int slot = (int) index & mask;
+    Object[] row = buffer[slot];
+    buffer[slot] = null; // prevent any hold-up to GC
+    consumerIndex = ++index;
+
+    if (index - consumerReleased >= batchSize) {
+      release();
+    }
+    return row;
+  }
+
+  /**
+   * Make all rows written so far visible to the consumer. This method should only be called by the
+   * thread putting rows into this row set.
+   */
+  @Override
+  public void flush() {
+    publish();
+  }
+
+  @Override
+  public void setDone() {
+    publish();
+    super.setDone();
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.max(0L, published.get() - released.get());
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < buffer.length; i++) {
+      buffer[i] = null;
+    }
+    producerIndex = 0L;
+    producerPublished = 0L;
+    producerReleasedCache = 0L;
+    consumerIndex = 0L;
+    consumerReleased = 0L;
+    consumerPublishedCache = 0L;
+    consumerEmptySinceNanos = 0L;
+    published.set(0L);
+    written.set(0L);
+    released.set(0L);
+    done.set(false);
+  }
+
+  /**
+   * Gets the capacity of the ring buffer
+   *
+   * @return value of capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets batchSize
+   *
+   * @return value of batchSize
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  private void publish() {
+    long index = producerIndex;
+    if (index != producerPublished) {
+      producerPublished = index;
+      published.set(index);
+      if (consumerWaiting) {
+        Thread thread = consumerThread;
+        if (thread != null) {
+          LockSupport.unpark(thread);
+        }
+      }
+    }
+  }
+
+  private void release() {
+    long index = consumerIndex;
+    if (index != consumerReleased) {
+      consumerReleased = index;
+      released.set(index);
+      if (producerWaiting) {
+        Thread thread = producerThread;
+        if (thread != null) {
+          LockSupport.unpark(thread);
+        }
+      }
+    }
+  }
+
+  private boolean waitForFreeSlot(long index, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    int spins = 0;
+    try {
+      while (true) {
+        producerReleasedCache = released.get();
+        if (index - producerReleasedCache < capacity) {
+          return true;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+        if (spins < SPIN_TRIES) {
+          spins++;
+          Thread.onSpinWait();
+        } else {
+          producerThread = Thread.currentThread();
+          producerWaiting = true;
+          // Check again after announcing ourselves to avoid a lost wake-up
+          //
+          if (index - released.get() >= capacity) {
+            LockSupport.parkNanos(this, remaining);
+          }
+        }
+      }
+    } finally {
+      producerWaiting = false;
+    }
+  }
+
+  /**
+   * Wait for the producer to publish rows. The waiting flag stays raised after a time-out so that
+   * the producer keeps publishing right away for as long as the consumer is starving. Once the
+   * consumer has been without rows for the flush latency it takes the rows which were written but
+   * not published yet, in case the producer stopped putting rows in the middle of a batch.
+   */
+  private boolean waitForRows(long index, long timeoutNanos) {
+    consumerThread = Thread.currentThread();
+    consumerWaiting = true;
+    long now = System.nanoTime();
+    if (consumerEmptySinceNanos == 0L) {
+      consumerEmptySinceNanos = now;
+    }
+    long deadline = now + timeoutNanos;
+    long flushDeadline = consumerEmptySinceNanos + flushLatencyNanos;
+    int spins = 0;
+    while (true) {
+      consumerPublishedCache = published.get();
+      if (index >= consumerPublishedCache && now - flushDeadline >= 0) {
+        consumerPublishedCache = written.get();
+      }
+      if (index < consumerPublishedCache) {
+        consumerWaiting = false;
+        return true;
+      }
+      long remaining = deadline - now;
+      if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      if (spins < SPIN_TRIES) {
+        spins++;
+        Thread.onSpinWait();
+      } else {
+        // Don't sleep past the flush latency: unpublished rows might be waiting for us by then
+        //
+        long untilFlush = flushDeadline - now;
+        LockSupport.parkNanos(this, untilFlush > 0 ? Math.min(remaining, untilFlush) : remaining);
+      }
+      now = System.nanoTime();
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash index with serialized keys and values, see {@link
+ * org.apache.hop.core.row.RowMeta#extractData(org.apache.hop.core.row.IRowMeta, Object[])}. Two
+ * keys are the same if their bytes are the same.
+ *
+ * <p>The keys and values are not kept as separate objects: they are packed one after the other in
+ * large byte pages. The index itself consists of a few primitive arrays. This keeps the overhead
+ * per entry at about 24 bytes where a hash map of rows easily uses 150 bytes or more, and doesn't
+ * give the garbage collector millions of small objects to track.
+ */
+public class PackedByteArrayHashIndex {
+
+  private static final int STANDARD_INDEX_SIZE = 512;
+  private static final float STANDARD_LOAD_FACTOR = 0.75f;
+  private static final int PAGE_SIZE = 1024 * 1024;
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  /** The entry number + 1 for every slot in the index, 0 for an empty slot */
+  private int[] slots;
+
+  private int resizeThreshold;
+
+  /** The hash code of every entry */
+  private int[] entryHashCodes;
+
+  /** The page (high 32 bits) and the position in the page (low 32 bits) of every entry */
+  private long[] entryAddresses;
+
+  private int size;
+
+  private byte[][] pages;
+  private int nrPages;
+  private int pagePosition;
+
+  /**
+   * Create a new index
+   *
+   * @param size the number of entries to reserve room for
+   */
+  public PackedByteArrayHashIndex(int size) {
+    // Find a suitable capacity being a factor of 2:
+    int factor2Size = 1;
+    while (factor2Size * STANDARD_LOAD_FACTOR < size) {
+      factor2Size <<= 1;
+    }
+    slots = new int[factor2Size];
+    resizeThreshold = (int) (factor2Size * STANDARD_LOAD_FACTOR);
+    entryHashCodes = new int[resizeThreshold];
+    entryAddresses = new long[resizeThreshold];
+    pages = new byte[16][];
+  }
+
+  /** Create a new index */
+  public PackedByteArrayHashIndex() {
+    this(STANDARD_INDEX_SIZE);
+  }
+
+  /**
+   * Gets the number of entries
+   *
+   * @return value of size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Look up a key
+   *
+   * @param key The serialized key
+   * @return A copy of the serialized value or null if the key is not in the index
+   */
+  public byte[] get(byte[] key) {
+    int entry = findEntry(key, generateHashCode(key));
+    if (entry < 0) {
+      return null;
+    }
+    long address = entryAddresses[entry];
+    byte[] page = pages[(int) (address >>> 32)];
+    int position = (int) address;
+    int keyLength = readInt(page, position);
+    int valueLength = readInt(page, position + 4);
+    int valueStart = position + RECORD_HEADER_SIZE + keyLength;
+    return Arrays.copyOfRange(page, valueStart, valueStart + valueLength);
+  }
+
+  /**
+   * Add a key and its value. The value of an existing key is replaced.
+   *
+   * @param key The serialized key
+   * @param value The serialized value
+   */
+  public void put(byte[] key, byte[] value) {
+    int hashCode = generateHashCode(key);
+    int entry = findEntry(key, hashCode);
+    if (entry >= 0) {
+      long address = entryAddresses[entry];
+      byte[] page = pages[(int) (address >>> 32)];
+      int position = (int) address;
+      if (readInt(page, position + 4) == value.length) {
+        // Same size: overwrite the value in place
+        System.arraycopy(
+            value, 0, page, position + RECORD_HEADER_SIZE + key.length, value.length);
+      } else {
+        entryAddresses[entry] = writeRecord(key, value);
+      }
+      return;
+    }
+
+    if (size >= resizeThreshold) {
+      resize();
+    }
+    entry = size++;
+    entryHashCodes[entry] = hashCode;
+    entryAddresses[entry] = writeRecord(key, value);
+    slots[findEmptySlot(hashCode)] = entry + 1;
+  }
+
+  /**
+   * Calculate the (approximate) number of bytes used by this index, the keys and the values.
+   *
+   * @return The memory footprint in bytes
+   */
+  public long getMemoryUsage() {
+    long bytes = 4L * slots.length + 4L * entryHashCodes.length + 8L * entryAddresses.length;
+    for (int i = 0; i < nrPages; i++) {
+      bytes += pages[i].length;
+    }
+    return bytes;
+  }
+
+  private int findEntry(byte[] key, int hashCode) {
+    int mask = slots.length - 1;
+    int slot = hashCode & mask;
+    while (slots[slot] != 0) {
+      int entry = slots[slot] - 1;
+      if (entryHashCodes[entry] == hashCode && equalsKey(entry, key)) {
+        return entry;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int findEmptySlot(int hashCode) {
+    int mask = slots.length - 1;
+    int slot = hashCode & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean equalsKey(int entry, byte[] key) {
+    long address = entryAddresses[entry];
+    byte[] page = pages[(int) (address >>> 32)];
+    int position = (int) address;
+    if (readInt(page, position) != key.length) {
+      return false;
+    }
+    int keyStart = position + RECORD_HEADER_SIZE;
+    return Arrays.equals(page, keyStart, keyStart + key.length, key, 0, key.length);
+  }
+
+  private void resize() {
+    int newSize = slots.length * 2;
+    if (newSize <= 0) {
+      throw new IllegalStateException("The hash index can't hold more than " + size + " entries");
+    }
+    slots = new int[newSize];
+    resizeThreshold = (int) (newSize * STANDARD_LOAD_FACTOR);
+    entryHashCodes = Arrays.copyOf(entryHashCodes, resizeThreshold);
+    entryAddresses = Arrays.copyOf(entryAddresses, resizeThreshold);
+
+    // The hash codes are kept so the keys don't need to be read again
+    for (int entry = 0; entry < size; entry++) {
+      slots[findEmptySlot(entryHashCodes[entry])] = entry + 1;
+    }
+  }
+
+  /** Append a record: key length, value length, key and value. Records never span pages. */
+  private long writeRecord(byte[] key, byte[] value) {
+    int recordSize = RECORD_HEADER_SIZE + key.length + value.length;
+    if (nrPages == 0 || pagePosition + recordSize > pages[nrPages - 1].length) {
+      if (nrPages == pages.length) {
+        pages = Arrays.copyOf(pages, nrPages * 2);
+      }
+      // Large records get a page of their own
+      pages[nrPages++] = new byte[Math.max(PAGE_SIZE, recordSize)];
+      pagePosition = 0;
+    }
+    int pageNr = nrPages - 1;
+    byte[] page = pages[pageNr];
+    int position = pagePosition;
+    writeInt(page, position, key.length);
+    writeInt(page, position + 4, value.length);
+    System.arraycopy(key, 0, page, position + RECORD_HEADER_SIZE, key.length);
+    System.arraycopy(value, 0, page, position + RECORD_HEADER_SIZE + key.length, value.length);
+    pagePosition += recordSize;
+
+    return ((long) pageNr << 32) | position;
+  }
+
+  private static int readInt(byte[] page, int position) {
+    return ((page[position] & 0xFF) << 24)
+        | ((page[position + 1] & 0xFF) << 16)
+        | ((page[position + 2] & 0xFF) << 8)
+        | (page[position + 3] & 0xFF);
+  }
+
+  private static void writeInt(byte[] page, int position, int value) {
+    page[position] = (byte) (value >>> 24);
+    page[position + 1] = (byte) (value >>> 16);
+    page[position + 2] = (byte) (value >>> 8);
+    page[position + 3] = (byte) value;
+  }
+
+  /** The hash code of the key bytes, spread so that the low bits can be used as index. */
+  public static int generateHashCode(byte[] key) {
+    int hashCode = Arrays.hashCode(key);
+    // Murmur3 finalizer
+    hashCode ^= hashCode >>> 16;
+    hashCode *= 0x85ebca6b;
+    hashCode ^= hashCode >>> 13;
+    hashCode *= 0xc2b2ae35;
+    hashCode ^= hashCode >>> 16;
+    return hashCode;
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.value.ValueMetaBase;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the sort fields of a row into a single byte array. Comparing two of these keys with an
+ * unsigned byte-by-byte comparison gives the same result as comparing the rows with {@link
+ * IRowMeta#compare(Object[], Object[], int[])}. This way the (expensive) value conversions are done
+ * once per row instead of once per comparison.
+ *
+ * <p>Only the standard String, Integer, Number, Date and Boolean types can be encoded. Strings
+ * which are sorted with a collator are not supported.
+ */
+public class SortKeyEncoder {
+
+  private static final byte NULL_VALUE = 0x00;
+  private static final byte NOT_NULL_VALUE = 0x01;
+  private static final byte END_OF_STRING = 0x00;
+
+  private final IValueMeta[] valueMetas;
+  private final int[] fieldNrs;
+
+  private SortKeyEncoder(IValueMeta[] valueMetas, int[] fieldNrs) {
+    this.valueMetas = valueMetas;
+    this.fieldNrs = fieldNrs;
+  }
+
+  /**
+   * Create a sort key encoder for the given sort fields.
+   *
+   * @param rowMeta The layout of the rows to sort
+   * @param fieldNrs The indexes of the sort fields
+   * @return The encoder or null if one of the sort fields can't be encoded
+   */
+  public static SortKeyEncoder create(IRowMeta rowMeta, int[] fieldNrs) {
+    IValueMeta[] valueMetas = new IValueMeta[fieldNrs.length];
+    for (int i = 0; i < fieldNrs.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(fieldNrs[i]);
+      if (!isSupported(valueMeta)) {
+        return null;
+      }
+      valueMetas[i] = valueMeta;
+    }
+    return new SortKeyEncoder(valueMetas, fieldNrs);
+  }
+
+  /**
+   * Create an encoder for rows with another layout. The keys it produces can be compared with the
+   * keys of this encoder, giving the same result as {@link IRowMeta#compare(Object[], IRowMeta,
+   * Object[], int[], int[])} with the layout of this encoder as the first row.
+   *
+   * @param otherRowMeta The layout of the other rows
+   * @param otherFieldNrs The indexes of the key fields in the other rows
+   * @return The encoder or null if the key fields don't have the same data and storage types
+   */
+  public SortKeyEncoder forRowMeta(IRowMeta otherRowMeta, int[] otherFieldNrs) {
+    if (otherFieldNrs.length != fieldNrs.length) {
+      return null;
+    }
+    for (int i = 0; i < otherFieldNrs.length; i++) {
+      IValueMeta otherValueMeta = otherRowMeta.getValueMeta(otherFieldNrs[i]);
+      // Same type and storage: the values are compared without conversion
+      //
+      if (otherValueMeta == null
+          || otherValueMeta.getType() != valueMetas[i].getType()
+          || otherValueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+          || hasComparator(otherValueMeta)) {
+        return null;
+      }
+    }
+    return new SortKeyEncoder(valueMetas, otherFieldNrs);
+  }
+
+  private static boolean isSupported(IValueMeta valueMeta) {
+    if (valueMeta == null
+        || valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+        || hasComparator(valueMeta)) {
+      return false;
+    }
+    // Only the standard implementations: other value types can have their own comparison rules
+    //
+    Class<?> valueMetaClass = valueMeta.getClass();
+    if (valueMetaClass == ValueMetaString.class) {
+      return valueMeta.isCollatorDisabled();
+    }
+    return valueMetaClass == ValueMetaInteger.class
+        || valueMetaClass == ValueMetaNumber.class
+        || valueMetaClass == ValueMetaDate.class
+        || valueMetaClass == ValueMetaBoolean.class;
+  }
+
+  /** A custom comparator decides the order in compare(), the encoded bytes can't follow it. */
+  private static boolean hasComparator(IValueMeta valueMeta) {
+    return valueMeta instanceof ValueMetaBase && ((ValueMetaBase) valueMeta).getComparator() != null;
+  }
+
+  /**
+   * Encode the sort fields of a row. This method can be called from multiple threads at once.
+   *
+   * @param row The row to encode
+   * @return The sort key or null if a value in the row can't be encoded
+   * @throws HopValueException In case a value can't be converted
+   */
+  public byte[] encode(Object[] row) throws HopValueException {
+    KeyBuilder key = new KeyBuilder();
+    for (int i = 0; i < valueMetas.length; i++) {
+      IValueMeta valueMeta = valueMetas[i];
+      Object data = row[fieldNrs[i]];
+      int start = key.length;
+
+      if (valueMeta.isNull(data)) {
+        key.add(NULL_VALUE);
+      } else {
+        key.add(NOT_NULL_VALUE);
+        if (!encodeValue(key, valueMeta, data)) {
+          return null;
+        }
+      }
+
+      // Descending: flip all the bits of this field, nulls included.
+      //
+      if (valueMeta.isSortedDescending()) {
+        key.invert(start);
+      }
+    }
+    return key.toByteArray();
+  }
+
+  private boolean encodeValue(KeyBuilder key, IValueMeta valueMeta, Object data)
+      throws HopValueException {
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+        return encodeString(key, valueMeta, valueMeta.getString(data));
+      case IValueMeta.TYPE_INTEGER:
+        key.addLong(valueMeta.getInteger(data) ^ Long.MIN_VALUE);
+        return true;
+      case IValueMeta.TYPE_NUMBER:
+        // Same order as Double.compare(): -0.0 before 0.0 and NaN last
+        //
+        long bits = Double.doubleToLongBits(valueMeta.getNumber(data));
+        key.addLong(bits ^ ((bits >> 63) | Long.MIN_VALUE));
+        return true;
+      case IValueMeta.TYPE_DATE:
+        key.addLong(valueMeta.getDate(data).getTime() ^ Long.MIN_VALUE);
+        return true;
+      case IValueMeta.TYPE_BOOLEAN:
+        key.add(valueMeta.getBoolean(data) ? (byte) 1 : (byte) 0);
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Strings are compared char by char. Chars below 0xFE take a single byte, the others take 3. The
+   * encoding is terminated with a 0 byte so that a string sorts before all longer strings starting
+   * with it.
+   */
+  private boolean encodeString(KeyBuilder key, IValueMeta valueMeta, String string) {
+    if (valueMeta.isIgnoreWhitespace()) {
+      string = string.trim();
+    }
+    boolean caseInsensitive = valueMeta.isCaseInsensitive();
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (caseInsensitive) {
+        if (Character.isSurrogate(c)) {
+          // compareToIgnoreCase() folds the case of whole code points
+          return false;
+        }
+        // The same folding as String.compareToIgnoreCase()
+        c = Character.toLowerCase(Character.toUpperCase(c));
+      }
+      if (c < 0xFE) {
+        key.add((byte) (c + 1));
+      } else {
+        key.add((byte) 0xFF);
+        key.add((byte) (c >>> 8));
+        key.add((byte) c);
+      }
+    }
+    key.add(END_OF_STRING);
+    return true;
+  }
+
+  /**
+   * Compare 2 sort keys
+   *
+   * @param key1 the first key
+   * @param key2 the second key
+   * @return a negative number, 0 or a positive number if key1 sorts before, the same as or after
+   *     key2
+   */
+  public static int compare(byte[] key1, byte[] key2) {
+    return Arrays.compareUnsigned(key1, key2);
+  }
+
+  private static final class KeyBuilder {
+    private byte[] bytes = new byte[32];
+    private int length;
+
+    private void ensureCapacity(int extra) {
+      if (length + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+      }
+    }
+
+    private void add(byte b) {
+      ensureCapacity(1);
+      bytes[length++] = b;
+    }
+
+    private void addLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[length++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void invert(int start) {
+      for (int i = start; i < length; i++) {
+        bytes[i] = (byte) ~bytes[i];
+      }
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(bytes, length);
+    }
+  }
+}
@@ -867,6 +867,13 @@ public class ValueMetaBase implements IValueMeta {
     this.caseInsensitive = caseInsensitive;
   }
 
+  /**
+   * @return the custom comparator used to compare values or null if the default rules apply
+   */
+  public Comparator<Object> getComparator() {
+    return comparator;
+  }
+
   /**
    * @return the collatorDisabled
    */
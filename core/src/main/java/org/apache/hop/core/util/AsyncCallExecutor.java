@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes slow, blocking calls (HTTP requests, ...) for the rows of a transform in the background.
+ * A bounded number of calls is in flight at any time, optionally with a lower limit per key (for
+ * example the host of a URL). Failed calls are retried with an exponential backoff without
+ * blocking the caller.
+ *
+ * <p>The results are handed back in the order in which the calls were submitted or in the order in
+ * which they completed. The methods of this class are meant to be called from a single thread: the
+ * transform thread. Only the calls themselves run in the background.
+ *
+ * @param <T> The type of the result of a call
+ */
+public class AsyncCallExecutor<T> {
+
+  /** The upper limit of the delay between 2 attempts of a call in milliseconds */
+  public static final long MAX_RETRY_DELAY = 60000L;
+
+  /**
+   * A call to execute in the background
+   *
+   * @param <T> The type of the result
+   */
+  @FunctionalInterface
+  public interface ICall<T> {
+    T call() throws Exception;
+  }
+
+  /**
+   * The result of a call
+   *
+   * @param <T> The type of the result
+   */
+  public static class Result<T> {
+    private final Object[] row;
+    private final String key;
+    private final ICall<T> call;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private int attempts;
+    private T value;
+    private Exception exception;
+
+    private Result(Object[] row, String key, ICall<T> call) {
+      this.row = row;
+      this.key = key;
+      this.call = call;
+    }
+
+    /**
+     * Gets row
+     *
+     * @return The row the call was submitted for
+     */
+    public Object[] getRow() {
+      return row;
+    }
+
+    /**
+     * Gets value
+     *
+     * @return The result of the call or null if it failed
+     */
+    public T getValue() {
+      return value;
+    }
+
+    /**
+     * Gets exception
+     *
+     * @return The error of the last attempt if the call failed, null otherwise
+     */
+    public Exception getException() {
+      return exception;
+    }
+
+    /**
+     * Gets attempts
+     *
+     * @return The number of times the call was executed
+     */
+    public int getAttempts() {
+      return attempts;
+    }
+  }
+
+  private final int maxInFlight;
+  private final int maxInFlightPerKey;
+  private final boolean preserveOrder;
+  private final int maxRetries;
+  private final long retryDelay;
+
+  private final ScheduledThreadPoolExecutor executor;
+  private final Map<String, Semaphore> keyPermits = new ConcurrentHashMap<>();
+
+  /** The calls in flight in order of submission, only used to preserve the order */
+  private final Deque<Result<T>> submitted = new ArrayDeque<>();
+
+  /** The finished calls in order of completion, only used if the order isn't preserved */
+  private final BlockingQueue<Result<T>> completed = new LinkedBlockingQueue<>();
+
+  private int nrInFlight;
+
+  /**
+   * Create a new executor. Call {@link #shutdown()} once you're done with it.
+   *
+   * @param name The name of the threads, usually the name of the transform
+   * @param maxInFlight The maximum number of calls in flight
+   * @param maxInFlightPerKey The maximum number of calls in flight with the same key, 0 for no
+   *     limit
+   * @param preserveOrder Hand back the results in the order in which the calls were submitted
+   * @param maxRetries The number of times a failed call is retried
+   * @param retryDelay The delay before the first retry in milliseconds, doubled on every retry
+   */
+  public AsyncCallExecutor(
+      String name,
+      int maxInFlight,
+      int maxInFlightPerKey,
+      boolean preserveOrder,
+      int maxRetries,
+      long retryDelay) {
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.maxInFlightPerKey = maxInFlightPerKey;
+    this.preserveOrder = preserveOrder;
+    this.maxRetries = Math.max(0, maxRetries);
+    this.retryDelay = Math.max(0L, retryDelay);
+
+    // One thread per call in flight: a thread waiting for a key permit never blocks the others.
+    // Calls which are waiting for a retry don't occupy a thread.
+    //
+    AtomicInteger threadNr = new AtomicInteger(1);
+    this.executor =
+        new ScheduledThreadPoolExecutor(
+            this.maxInFlight,
+            runnable -> {
+              Thread thread = new Thread(runnable, name + " call " + threadNr.getAndIncrement());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Submit a call. Make sure there's room for it first: see {@link #isFull()}.
+   *
+   * @param key The key to limit the number of concurrent calls on, for example the host of a URL
+   * @param row The row to submit the call for, handed back with the result
+   * @param call The call to execute
+   */
+  public void submit(String key, Object[] row, ICall<T> call) {
+    if (isFull()) {
+      throw new IllegalStateException("There are already " + nrInFlight + " calls in flight");
+    }
+    Result<T> result = new Result<>(row, key, call);
+    nrInFlight++;
+    if (preserveOrder) {
+      submitted.addLast(result);
+    }
+    executor.execute(() -> execute(result));
+  }
+
+  private void execute(Result<T> result) {
+    Semaphore permit = null;
+    if (maxInFlightPerKey > 0 && result.key != null) {
+      permit = keyPermits.computeIfAbsent(result.key, k -> new Semaphore(maxInFlightPerKey));
+    }
+    try {
+      if (permit != null) {
+        permit.acquire();
+      }
+      try {
+        result.attempts++;
+        result.value = result.call.call();
+        result.exception = null;
+      } catch (Exception e) {
+        result.exception = e;
+      } catch (Throwable t) {
+        result.exception = new Exception(t);
+      } finally {
+        if (permit != null) {
+          permit.release();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.exception = e;
+      finish(result);
+      return;
+    }
+
+    if (result.exception != null && result.attempts <= maxRetries && !executor.isShutdown()) {
+      long delay = retryDelay << Math.min(result.attempts - 1, 16);
+      try {
+        executor.schedule(
+            () -> execute(result), Math.min(delay, MAX_RETRY_DELAY), TimeUnit.MILLISECONDS);
+        return;
+      } catch (RejectedExecutionException e) {
+        // Shut down in the meantime: hand back the last error
+      }
+    }
+    finish(result);
+  }
+
+  private void finish(Result<T> result) {
+    if (!preserveOrder) {
+      completed.add(result);
+    }
+    result.done.countDown();
+  }
+
+  /**
+   * @return true if no more calls can be submitted until a result is taken
+   */
+  public boolean isFull() {
+    return nrInFlight >= maxInFlight;
+  }
+
+  /**
+   * @return true if there are no calls in flight and no results waiting to be taken
+   */
+  public boolean isEmpty() {
+    return nrInFlight == 0;
+  }
+
+  /**
+   * Get the next result if it's available.
+   *
+   * @return The next result or null if there is none yet
+   */
+  public Result<T> poll() {
+    Result<T> result;
+    if (preserveOrder) {
+      result = submitted.peekFirst();
+      if (result == null || result.done.getCount() > 0) {
+        return null;
+      }
+      submitted.removeFirst();
+    } else {
+      result = completed.poll();
+      if (result == null) {
+        return null;
+      }
+    }
+    nrInFlight--;
+    return result;
+  }
+
+  /**
+   * Get the next result, wait for it if needed.
+   *
+   * @return The next result or null if there are no calls in flight
+   * @throws InterruptedException In case we're interrupted while waiting
+   */
+  public Result<T> take() throws InterruptedException {
+    if (isEmpty()) {
+      return null;
+    }
+    Result<T> result;
+    if (preserveOrder) {
+      result = submitted.peekFirst();
+      result.done.await();
+      submitted.removeFirst();
+    } else {
+      result = completed.take();
+    }
+    nrInFlight--;
+    return result;
+  }
+
+  /** Stop all calls in flight and the threads of this executor. */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Gets maxInFlight
+   *
+   * @return value of maxInFlight
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Gets nrInFlight
+   *
+   * @return The number of calls in flight, including the finished ones which weren't taken yet
+   */
+  public int getNrInFlight() {
+    return nrInFlight;
+  }
+}
@@ -34,7 +34,6 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.ssl.TrustStrategy;
@@ -155,8 +154,12 @@ public class HttpClientManager {
               .register("http", new PlainConnectionSocketFactory())
               .build();
 
-      BasicHttpClientConnectionManager connectionManager =
-          new BasicHttpClientConnectionManager(socketFactoryRegistry);
+      // A pool so that the client can be shared by concurrent requests
+      //
+      PoolingHttpClientConnectionManager connectionManager =
+          new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+      connectionManager.setDefaultMaxPerRoute(CONNECTIONS_PER_ROUTE);
+      connectionManager.setMaxTotal(TOTAL_CONNECTIONS);
 
       httpClientBuilder.setSSLSocketFactory(sslsf).setConnectionManager(connectionManager);
     }
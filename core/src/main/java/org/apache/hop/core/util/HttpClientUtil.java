@@ -32,6 +32,7 @@ import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -138,4 +139,23 @@ public class HttpClientUtil {
       String host, int port, String user, String password) {
     return createPreemptiveBasicAuthentication(host, port, user, password, "http");
   }
+
+  /**
+   * Get the host (and port) of a URL, for example to limit the number of concurrent requests per
+   * host.
+   *
+   * @param url The URL
+   * @return The host and port of the URL or the URL itself if it can't be parsed
+   */
+  public static String getHost(String url) {
+    if (url == null) {
+      return "";
+    }
+    try {
+      String authority = URI.create(url.trim()).getRawAuthority();
+      return authority == null ? url : authority;
+    } catch (IllegalArgumentException e) {
+      return url;
+    }
+  }
 }
@@ -20,11 +20,11 @@ package org.apache.hop.core.util;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.variables.VariableResolver;
 
 import java.text.DateFormat;
 import java.text.Normalizer;
 import java.text.SimpleDateFormat;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -245,23 +245,16 @@ public class StringUtil {
 
   /**
    * Substitutes variables in <code>aString</code> with the environment values in the system
-   * properties
+   * properties. The map is read directly, it should be safe to read while other threads update it.
    *
    * @param aString the string on which to apply the substitution.
    * @param systemProperties the system properties to use
    * @return the string with the substitution applied.
+   * @see VariableResolver
    */
-  public static final synchronized String environmentSubstitute(
+  public static final String environmentSubstitute(
       String aString, Map<String, String> systemProperties) {
-    Map<String, String> sysMap = new HashMap<>();
-    synchronized (sysMap) {
-      sysMap.putAll(Collections.synchronizedMap(systemProperties));
-
-      aString = substituteWindows(aString, sysMap);
-      aString = substituteUnix(aString, sysMap);
-      aString = substituteHex(aString);
-      return aString;
-    }
+    return VariableResolver.resolve(aString, systemProperties);
   }
 
   /**
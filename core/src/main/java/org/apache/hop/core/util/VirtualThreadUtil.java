@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates virtual threads when the Java runtime supports them (Java 21 and later). Hop is compiled
+ * for older Java versions so the virtual thread builder is looked up through reflection. On older
+ * runtimes regular platform threads are created instead.
+ */
+public class VirtualThreadUtil {
+  private static final Object virtualThreadBuilder;
+  private static final Method builderNameMethod;
+  private static final Method builderUnstartedMethod;
+
+  static {
+    Object builder = null;
+    Method nameMethod = null;
+    Method unstartedMethod = null;
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      nameMethod = builderClass.getMethod("name", String.class);
+      unstartedMethod = builderClass.getMethod("unstarted", Runnable.class);
+    } catch (Exception e) {
+      // No virtual threads in this Java runtime
+      builder = null;
+    }
+    virtualThreadBuilder = builder;
+    builderNameMethod = nameMethod;
+    builderUnstartedMethod = unstartedMethod;
+  }
+
+  private VirtualThreadUtil() {}
+
+  /**
+   * @return true if the Java runtime can create virtual threads
+   */
+  public static boolean isSupported() {
+    return virtualThreadBuilder != null;
+  }
+
+  /**
+   * Create a new thread which is not started yet.
+   *
+   * @param runnable The code to run in the thread
+   * @param name The name of the thread
+   * @param virtual Create a virtual thread if the Java runtime supports it
+   * @return The new unstarted thread
+   */
+  public static Thread newThread(Runnable runnable, String name, boolean virtual) {
+    if (virtual && isSupported()) {
+      try {
+        // The builder isn't thread-safe, only use it to hand out a single thread at a time.
+        //
+        synchronized (virtualThreadBuilder) {
+          builderNameMethod.invoke(virtualThreadBuilder, name);
+          return (Thread) builderUnstartedMethod.invoke(virtualThreadBuilder, runnable);
+        }
+      } catch (Exception e) {
+        // Fall back to a platform thread below
+      }
+    }
+    Thread thread = new Thread(runnable);
+    thread.setName(name);
+    return thread;
+  }
+}
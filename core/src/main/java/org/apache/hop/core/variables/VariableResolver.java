@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.variables;
+
+import org.apache.hop.core.util.StringUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Resolves the variables in a string: first the %%var%% (Windows) variables, then the ${var}
+ * (Unix) variables and finally the $[hex] characters. Every string is parsed only once into a list
+ * of literal text and variable names, which is kept in a cache shared by the whole JVM. The
+ * variable values are looked up directly without copying the variables and without locking so
+ * many threads can resolve at the same time.
+ *
+ * <p>The cache is bounded: it holds at most {@link #MAX_CACHE_SIZE} strings per type of variable
+ * and strings longer than {@link #MAX_CACHED_LENGTH} characters are parsed every time. Strings
+ * which are built from row values, like queries per input row, can't grow it beyond that.
+ */
+public class VariableResolver {
+
+  /** The maximum number of parsed strings to keep in the cache, the cache is cleared when full */
+  public static final int MAX_CACHE_SIZE = 10000;
+
+  /** Strings longer than this are not cached: they are rarely resolved twice */
+  public static final int MAX_CACHED_LENGTH = 1000;
+
+  /** Values with more nested variables than this are considered to be an endless loop */
+  public static final int MAX_RECURSION = 50;
+
+  private static final Map<String, Template> unixCache = new ConcurrentHashMap<>();
+  private static final Map<String, Template> windowsCache = new ConcurrentHashMap<>();
+
+  private static final LongAdder cacheHits = new LongAdder();
+  private static final LongAdder cacheMisses = new LongAdder();
+
+  private VariableResolver() {
+    // Static methods only
+  }
+
+  /**
+   * Resolve the variables in a string with the values of the given variables.
+   *
+   * @param aString The string to resolve
+   * @param variables The variables to look up the values in
+   * @return The resolved string
+   */
+  public static String resolve(String aString, IVariables variables) {
+    return resolveWith(aString, variables::getVariable);
+  }
+
+  /**
+   * Resolve the variables in a string with the values in the given map.
+   *
+   * @param aString The string to resolve
+   * @param variables The variable values by name
+   * @return The resolved string
+   */
+  public static String resolve(String aString, Map<String, String> variables) {
+    return resolveWith(aString, variables::get);
+  }
+
+  private static String resolveWith(String aString, Function<String, String> lookup) {
+    if (aString == null || aString.isEmpty()) {
+      return aString;
+    }
+    String result = aString;
+    if (result.contains(StringUtil.WINDOWS_OPEN)) {
+      result = substitute(result, lookup, windowsCache, Template.WINDOWS, true, 0);
+    }
+    // Only cache the original string, not what's left after the Windows variables are resolved
+    //
+    result = substitute(result, lookup, unixCache, Template.UNIX, result == aString, 0);
+    if (result.contains(StringUtil.HEX_OPEN)) {
+      result = StringUtil.substituteHex(result);
+    }
+    return result;
+  }
+
+  private static String substitute(
+      String aString,
+      Function<String, String> lookup,
+      Map<String, Template> cache,
+      int delimiters,
+      boolean useCache,
+      int recursion) {
+    if (!aString.contains(Template.OPEN[delimiters])) {
+      return aString;
+    }
+
+    useCache = useCache && aString.length() <= MAX_CACHED_LENGTH;
+    Template template = useCache ? cache.get(aString) : null;
+    if (template != null) {
+      cacheHits.increment();
+    } else {
+      template = new Template(aString, delimiters);
+      if (useCache) {
+        cacheMisses.increment();
+        if (cache.size() >= MAX_CACHE_SIZE) {
+          cache.clear();
+        }
+        cache.put(aString, template);
+      }
+    }
+
+    String[] names = template.names;
+    if (names.length == 0) {
+      return aString;
+    }
+    StringBuilder buffer = new StringBuilder(aString.length() + 16 * names.length);
+    String open = Template.OPEN[delimiters];
+    for (int i = 0; i < names.length; i++) {
+      buffer.append(template.literals[i]);
+      String value = lookup.apply(names[i]);
+      if (value == null) {
+        buffer.append(template.placeholders[i]);
+      } else {
+        if (value.contains(open)) {
+          if (recursion > MAX_RECURSION) {
+            throw new RuntimeException(
+                "Endless loop detected for substitution of variable: " + value);
+          }
+          value = substitute(value, lookup, cache, delimiters, true, recursion + 1);
+        }
+        buffer.append(value);
+      }
+    }
+    buffer.append(template.literals[names.length]);
+    return buffer.toString();
+  }
+
+  /** @return The number of times a parsed string was found in the cache */
+  public static long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  /** @return The number of times a string had to be parsed and was added to the cache */
+  public static long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  /** @return The number of parsed strings in the cache */
+  public static int getCacheSize() {
+    return unixCache.size() + windowsCache.size();
+  }
+
+  /** Remove all parsed strings from the cache and reset the statistics */
+  public static void clearCache() {
+    unixCache.clear();
+    windowsCache.clear();
+    cacheHits.reset();
+    cacheMisses.reset();
+  }
+
+  /**
+   * A parsed string: literal text alternated with variable names. There is always one more
+   * literal than there are names, the literals can be empty.
+   */
+  private static final class Template {
+    private static final int UNIX = 0;
+    private static final int WINDOWS = 1;
+    private static final String[] OPEN = {StringUtil.UNIX_OPEN, StringUtil.WINDOWS_OPEN};
+    private static final String[] CLOSE = {StringUtil.UNIX_CLOSE, StringUtil.WINDOWS_CLOSE};
+
+    private final String[] literals;
+    private final String[] names;
+
+    /** What to put back when a variable isn't defined: the variable with its delimiters */
+    private final String[] placeholders;
+
+    private Template(String aString, int delimiters) {
+      String open = OPEN[delimiters];
+      String close = CLOSE[delimiters];
+
+      int nrNames = 0;
+      int i = aString.indexOf(open);
+      while (i > -1) {
+        int j = aString.indexOf(close, i + open.length());
+        if (j < 0) {
+          break;
+        }
+        nrNames++;
+        i = aString.indexOf(open, j + close.length());
+      }
+
+      literals = new String[nrNames + 1];
+      names = new String[nrNames];
+      placeholders = new String[nrNames];
+
+      int start = 0;
+      for (int n = 0; n < nrNames; n++) {
+        i = aString.indexOf(open, start);
+        int j = aString.indexOf(close, i + open.length());
+        literals[n] = aString.substring(start, i);
+        names[n] = aString.substring(i + open.length(), j);
+        placeholders[n] = aString.substring(i, j + close.length());
+        start = j + close.length();
+      }
+      literals[nrNames] = aString.substring(start);
+    }
+  }
+}
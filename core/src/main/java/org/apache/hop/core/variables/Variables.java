@@ -25,14 +25,17 @@ import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.StringUtil;
 import org.apache.hop.core.util.Utils;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-/** This class is an implementation of IVariables */
+/**
+ * This class is an implementation of IVariables. The variables are kept in a concurrent map: they
+ * can be read without locking while other threads set variables. Such a map can't hold null names
+ * or values: a variable set to null is removed and a null name is never defined.
+ */
 public class Variables implements IVariables {
   private Map<String, String> properties;
 
@@ -43,7 +46,7 @@ public class Variables implements IVariables {
   private boolean initialized;
 
   public Variables() {
-    properties = Collections.synchronizedMap(new HashMap<>());
+    properties = new ConcurrentHashMap<>();
     parent = null;
     injection = null;
     initialized = false;
@@ -56,7 +59,10 @@ public class Variables implements IVariables {
       // the same object as the argument.
       String[] variableNames = variables.getVariableNames();
       for (int idx = 0; idx < variableNames.length; idx++) {
-        properties.put(variableNames[idx], variables.getVariable(variableNames[idx]));
+        String value = variables.getVariable(variableNames[idx]);
+        if (variableNames[idx] != null && value != null) {
+          properties.put(variableNames[idx], value);
+        }
       }
     }
   }
@@ -73,6 +79,9 @@ public class Variables implements IVariables {
 
   @Override
   public String getVariable(String variableName, String defaultValue) {
+    if (variableName == null) {
+      return defaultValue;
+    }
     String value = properties.get(variableName);
     if (value == null) {
       return defaultValue;
@@ -82,6 +91,9 @@ public class Variables implements IVariables {
 
   @Override
   public String getVariable(String variableName) {
+    if (variableName == null) {
+      return null;
+    }
     return properties.get(variableName);
   }
 
@@ -105,12 +117,17 @@ public class Variables implements IVariables {
     //
     Set<String> systemPropertiesNames = System.getProperties().stringPropertyNames();
     for (String key : systemPropertiesNames) {
-      getProperties().put(key, System.getProperties().getProperty(key));
+      String value = System.getProperties().getProperty(key);
+      if (value != null) {
+        getProperties().put(key, value);
+      }
     }
 
     List<DescribedVariable> describedVariables = HopConfig.getInstance().getDescribedVariables();
     for (DescribedVariable describedVariable : describedVariables) {
-      getProperties().put(describedVariable.getName(), describedVariable.getValue());
+      if (describedVariable.getName() != null && describedVariable.getValue() != null) {
+        getProperties().put(describedVariable.getName(), describedVariable.getValue());
+      }
     }
 
     if (parent != null) {
@@ -130,7 +147,10 @@ public class Variables implements IVariables {
   }
 
   @Override
-  public synchronized void setVariable(String variableName, String variableValue) {
+  public void setVariable(String variableName, String variableValue) {
+    if (variableName == null) {
+      return;
+    }
     if (variableValue != null) {
       properties.put(variableName, variableValue);
     } else {
@@ -138,19 +158,27 @@ public class Variables implements IVariables {
     }
   }
 
+  /**
+   * Resolves the variables in <code>aString</code>. The values are looked up without copying or
+   * locking the variables, the parsed string is cached by the {@link VariableResolver}.
+   *
+   * @param aString the string to resolve
+   * @return the string with the variables resolved
+   */
   @Override
-  public synchronized String resolve(String aString) {
+  public String resolve(String aString) {
     if (aString == null || aString.length() == 0) {
       return aString;
     }
 
-    return StringUtil.environmentSubstitute(aString, properties);
+    return VariableResolver.resolve(aString, properties);
   }
 
   /**
    * Substitutes field values in <code>aString</code>. Field values are of the form "?{<field
    * name>}". The values are retrieved from the specified row. Please note that the getString()
-   * method is used to convert to a String, for all values in the row.
+   * method is used to convert to a String, for all values in the row. The strings are different for
+   * every row so they don't go through the cache of the {@link VariableResolver}.
    *
    * @param aString the string on which to apply the substitution.
    * @param rowMeta The row metadata to use.
@@ -47,7 +47,10 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class HopVfs {
@@ -55,21 +58,37 @@ public class HopVfs {
 
   public static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
 
-  private static DefaultFileSystemManager fsm;
+  /** The maximum number of resolved file objects to keep, the cache is cleared when full */
+  public static final int FILE_OBJECT_CACHE_SIZE = 10000;
+
+  private static volatile DefaultFileSystemManager fsm;
 
   private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+  /** The resolved file objects by the filename which was asked for */
+  private static final Map<String, FileObject> fileObjectCache = new ConcurrentHashMap<>();
+
+  private static final Map<String, VfsSchemeStatistics> schemeStatistics =
+      new ConcurrentHashMap<>();
+
   public static DefaultFileSystemManager getFileSystemManager() {
     lock.readLock().lock();
     try {
-      if (fsm == null) {
-        try {
-          fsm = createFileSystemManager();
-        } catch (Exception e) {
-          throw new RuntimeException("Error initializing file system manager : ", e);
+      DefaultFileSystemManager manager = fsm;
+      if (manager == null) {
+        synchronized (HopVfs.class) {
+          manager = fsm;
+          if (manager == null) {
+            try {
+              manager = createFileSystemManager();
+            } catch (Exception e) {
+              throw new RuntimeException("Error initializing file system manager : ", e);
+            }
+            fsm = manager;
+          }
         }
       }
-      return fsm;
+      return manager;
     } finally {
       lock.readLock().unlock();
     }
@@ -151,9 +170,39 @@ public class HopVfs {
     }
   }
 
-  public static synchronized FileObject getFileObject(String vfsFilename) throws HopFileException {
+  /**
+   * Get the file object for a filename or URL. Many threads can look up files at the same time.
+   * Resolved file objects are cached by filename and refreshed when they're handed out again, the
+   * same as the VFS cache strategy {@link CacheStrategy#ON_RESOLVE} does. Files in archives (zip:,
+   * tar:, ...) are not cached since their file systems can be closed on their own.
+   *
+   * @param vfsFilename The filename or URL
+   * @return The file object
+   * @throws HopFileException In case the filename can't be resolved
+   */
+  public static FileObject getFileObject(String vfsFilename) throws HopFileException {
+    return getFileObject(vfsFilename, true);
+  }
+
+  private static FileObject getFileObject(String vfsFilename, boolean useCache)
+      throws HopFileException {
     lock.readLock().lock();
     try {
+      if (useCache && vfsFilename != null) {
+        FileObject fileObject = fileObjectCache.get(vfsFilename);
+        if (fileObject != null) {
+          try {
+            fileObject.refresh();
+            getSchemeStatistics(fileObject.getName().getScheme()).addCacheHit();
+            return fileObject;
+          } catch (FileSystemException e) {
+            // Resolve it again below
+            //
+            fileObjectCache.remove(vfsFilename);
+          }
+        }
+      }
+
       DefaultFileSystemManager fsManager = getFileSystemManager();
 
       try {
@@ -185,8 +234,22 @@ public class HopVfs {
           }
         }
 
-        return fsManager.resolveFile(filename);
+        FileObject fileObject = fsManager.resolveFile(filename);
+        getSchemeStatistics(fileObject.getName().getScheme()).addResolve();
+
+        if (useCache && fileObject.getFileSystem().getParentLayer() == null) {
+          if (fileObjectCache.size() >= FILE_OBJECT_CACHE_SIZE) {
+            fileObjectCache.clear();
+          }
+          fileObjectCache.put(vfsFilename, fileObject);
+        }
+        return fileObject;
       } catch (Exception e) {
+        String scheme = "file";
+        if (vfsFilename != null && startsWithScheme(vfsFilename)) {
+          scheme = StringUtils.substringBefore(vfsFilename, ":");
+        }
+        getSchemeStatistics(scheme).addError();
         throw new HopFileException(
             "Unable to get VFS File object for filename '"
                 + cleanseFilename(vfsFilename)
@@ -199,6 +262,30 @@ public class HopVfs {
     }
   }
 
+  private static VfsSchemeStatistics getSchemeStatistics(String scheme) {
+    return schemeStatistics.computeIfAbsent(scheme, VfsSchemeStatistics::new);
+  }
+
+  /**
+   * Get the statistics of the file object lookups, per VFS scheme
+   *
+   * @return A copy of the statistics by scheme
+   */
+  public static Map<String, VfsSchemeStatistics> getSchemeStatistics() {
+    return new TreeMap<>(schemeStatistics);
+  }
+
+  /** @return The number of resolved file objects in the cache */
+  public static int getFileObjectCacheSize() {
+    return fileObjectCache.size();
+  }
+
+  /** Forget about all the resolved file objects and reset the statistics */
+  public static void clearFileObjectCache() {
+    fileObjectCache.clear();
+    schemeStatistics.clear();
+  }
+
   protected static boolean checkForScheme(
       String[] initialSchemes, boolean relativeFilename, String vfsFilename) {
     if (vfsFilename == null) {
@@ -387,7 +474,7 @@ public class HopVfs {
    * @return FileObject
    * @throws HopFileException
    */
-  public static synchronized FileObject createTempFile(
+  public static FileObject createTempFile(
       String prefix, String suffix, String directory) throws HopFileException {
     try {
       FileObject fileObject;
@@ -411,7 +498,9 @@ public class HopVfs {
         //
         String filename = baseUrl + "/" + prefix + "_" + UUID.randomUUID() + suffix;
 
-        fileObject = getFileObject(filename);
+        // Every temporary file is used only once: don't fill up the cache with them
+        //
+        fileObject = getFileObject(filename, false);
       } while (fileObject.exists());
       return fileObject;
     } catch (IOException e) {
@@ -486,16 +575,26 @@ public class HopVfs {
    * @see StandardFileSystemManager#freeUnusedResources()
    */
   public static void freeUnusedResources() {
-    if (fsm != null) {
-      fsm.freeUnusedResources();
+    DefaultFileSystemManager manager = fsm;
+    if (manager != null) {
+      // The cached file objects can point to file systems which are closed here
+      //
+      fileObjectCache.clear();
+      manager.freeUnusedResources();
     }
   }
 
   public static void reset() {
-    if (fsm != null) {
-      fsm.freeUnusedResources();
-      fsm.close();
-      fsm = null;
+    lock.writeLock().lock();
+    try {
+      fileObjectCache.clear();
+      if (fsm != null) {
+        fsm.freeUnusedResources();
+        fsm.close();
+        fsm = null;
+      }
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.vfs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counts how file objects of one VFS scheme were looked up in {@link HopVfs#getFileObject}. */
+public class VfsSchemeStatistics {
+  private final String scheme;
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder resolves = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  public VfsSchemeStatistics(String scheme) {
+    this.scheme = scheme;
+  }
+
+  void addCacheHit() {
+    cacheHits.increment();
+  }
+
+  void addResolve() {
+    resolves.increment();
+  }
+
+  void addError() {
+    errors.increment();
+  }
+
+  /**
+   * Gets scheme
+   *
+   * @return The VFS scheme like file, ram, sftp, ...
+   */
+  public String getScheme() {
+    return scheme;
+  }
+
+  /** @return The number of file objects which were served from the cache */
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  /** @return The number of file objects which were resolved by the file system manager */
+  public long getResolves() {
+    return resolves.sum();
+  }
+
+  /** @return The number of filenames which couldn't be resolved */
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public String toString() {
+    return scheme
+        + ": "
+        + getCacheHits()
+        + " cache hits, "
+        + getResolves()
+        + " resolves, "
+        + getErrors()
+        + " errors";
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.metadata.serializer.json;
+
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the content of the metadata JSON files in memory so they don't have to be read again every
+ * time a metadata object is loaded. The cache is shared by all JSON metadata providers in the JVM
+ * since servers create a new provider for every request. The objects themselves are not cached:
+ * they can be modified by the caller, so a new object is parsed from the cached content every time.
+ *
+ * <p>A file is considered unchanged during the check interval (see {@link
+ * Const#HOP_METADATA_CACHE_CHECK_INTERVAL}). After that the existence, modification time and size
+ * of the file are compared with what was cached. Files which are saved or deleted through a
+ * serializer are removed from the cache immediately.
+ */
+public class JsonMetadataCache {
+
+  /** The default number of milliseconds during which a file is considered unchanged */
+  public static final long DEFAULT_CHECK_INTERVAL = 1000L;
+
+  /** The maximum number of files to keep in the cache, the cache is cleared when full */
+  public static final int MAX_SIZE = 10000;
+
+  private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+
+  private static volatile long checkInterval =
+      Const.toLong(
+          EnvUtil.getSystemProperty(Const.HOP_METADATA_CACHE_CHECK_INTERVAL),
+          DEFAULT_CHECK_INTERVAL);
+
+  private JsonMetadataCache() {
+    // Static methods only
+  }
+
+  /**
+   * See if a metadata file exists
+   *
+   * @param filename The name of the file
+   * @return true if the file exists
+   * @throws HopException In case the file can't be checked or read
+   */
+  public static boolean exists(String filename) throws HopException {
+    if (checkInterval < 0) {
+      return HopVfs.fileExists(filename);
+    }
+    return getEntry(filename).content != null;
+  }
+
+  /**
+   * Get the content of a metadata file, read it if it isn't cached or if it changed.
+   *
+   * @param filename The name of the file
+   * @return The content of the file or null if the file doesn't exist. Don't modify the array.
+   * @throws HopException In case the file can't be read
+   */
+  public static byte[] getContent(String filename) throws HopException {
+    if (checkInterval < 0) {
+      FileObject fileObject = HopVfs.getFileObject(filename);
+      try {
+        if (!fileObject.exists()) {
+          return null;
+        }
+        try (InputStream inputStream = HopVfs.getInputStream(fileObject)) {
+          return inputStream.readAllBytes();
+        }
+      } catch (Exception e) {
+        throw new HopException("Error reading metadata file '" + filename + "'", e);
+      }
+    }
+    return getEntry(filename).content;
+  }
+
+  /**
+   * The file was changed or deleted: read it again the next time.
+   *
+   * @param filename The name of the file
+   */
+  public static void invalidate(String filename) {
+    cache.remove(filename);
+  }
+
+  private static Entry getEntry(String filename) throws HopException {
+    long now = System.currentTimeMillis();
+    Entry entry = cache.get(filename);
+    if (entry != null && now - entry.lastChecked < checkInterval) {
+      hits.increment();
+      return entry;
+    }
+
+    FileObject fileObject = HopVfs.getFileObject(filename);
+    try {
+      if (!fileObject.exists()) {
+        entry = new Entry(null, 0L, 0L, now);
+      } else {
+        FileContent fileContent = fileObject.getContent();
+        long lastModified = fileContent.getLastModifiedTime();
+        long size = fileContent.getSize();
+        if (entry != null
+            && entry.content != null
+            && entry.lastModified == lastModified
+            && entry.size == size) {
+          // Unchanged: no need to read it again for another check interval
+          //
+          entry.lastChecked = now;
+          hits.increment();
+          return entry;
+        }
+        try (InputStream inputStream = HopVfs.getInputStream(fileObject)) {
+          entry = new Entry(inputStream.readAllBytes(), lastModified, size, now);
+        }
+      }
+    } catch (Exception e) {
+      throw new HopException("Error reading metadata file '" + filename + "'", e);
+    }
+    misses.increment();
+
+    if (cache.size() >= MAX_SIZE) {
+      cache.clear();
+    }
+    cache.put(filename, entry);
+    return entry;
+  }
+
+  /**
+   * Gets checkInterval
+   *
+   * @return The number of milliseconds during which a file is considered unchanged
+   */
+  public static long getCheckInterval() {
+    return checkInterval;
+  }
+
+  /**
+   * @param checkInterval The number of milliseconds during which a file is considered unchanged, 0
+   *     to check every time, a negative value to disable the cache
+   */
+  public static void setCheckInterval(long checkInterval) {
+    JsonMetadataCache.checkInterval = checkInterval;
+  }
+
+  /** @return The number of times a file was served from the cache */
+  public static long getHits() {
+    return hits.sum();
+  }
+
+  /** @return The number of times a file had to be (re-)read */
+  public static long getMisses() {
+    return misses.sum();
+  }
+
+  /** @return The percentage of lookups which were served from the cache */
+  public static double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0.0 : 100.0 * hitCount / total;
+  }
+
+  /** @return The number of files in the cache */
+  public static int size() {
+    return cache.size();
+  }
+
+  /** Remove all files from the cache and reset the statistics */
+  public static void clear() {
+    cache.clear();
+    hits.reset();
+    misses.reset();
+  }
+
+  private static final class Entry {
+    private final byte[] content;
+    private final long lastModified;
+    private final long size;
+    private volatile long lastChecked;
+
+    private Entry(byte[] content, long lastModified, long size, long lastChecked) {
+      this.content = content;
+      this.lastModified = lastModified;
+      this.size = size;
+      this.lastChecked = lastChecked;
+    }
+  }
+}
@@ -35,7 +35,6 @@ import org.apache.hop.metadata.api.IHopMetadataSerializer;
 import org.json.simple.JSONObject;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -91,21 +90,21 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
     if (name == null) {
       throw new HopException("Error: you need to specify the name of the metadata object to load");
     }
-    if (!exists(name)) {
+    String filename = calculateFilename(name);
+
+    // The file content comes from the cache, we always parse a new object since the caller can
+    // modify it.
+    //
+    byte[] content = JsonMetadataCache.getContent(filename);
+    if (content == null) {
       return null;
     }
 
-    String filename = calculateFilename(name);
-
     try {
       // Load the JSON in a streaming fashion so we can parse the properties one by one...
       //
-      InputStream fileInputStream = null;
-      try {
-        fileInputStream = HopVfs.getInputStream(filename);
-        JsonFactory jsonFactory = new JsonFactory();
-        com.fasterxml.jackson.core.JsonParser jsonParser =
-            jsonFactory.createParser(fileInputStream);
+      JsonFactory jsonFactory = new JsonFactory();
+      try (com.fasterxml.jackson.core.JsonParser jsonParser = jsonFactory.createParser(content)) {
 
         jsonParser.nextToken(); // skip {
 
@@ -113,8 +112,6 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
         inheritVariables(t);
         t.setMetadataProviderName(metadataProvider.getDescription());
         return t;
-      } finally {
-        fileInputStream.close();
       }
     } catch (Exception e) {
       throw new HopException(
@@ -159,6 +156,10 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
         t.setMetadataProviderName(getMetadataProvider().getDescription());
       } catch (IOException e) {
         throw new HopException("Error serializing JSON to file '" + filename + "'", e);
+      } finally {
+        // Read the new version of the file next time
+        //
+        JsonMetadataCache.invalidate(filename);
       }
     } catch (Exception e) {
       throw new HopException(
@@ -189,6 +190,8 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
       }
     } catch (FileSystemException e) {
       throw new HopException("Error deleting Object '" + name + "' with filename : " + filename);
+    } finally {
+      JsonMetadataCache.invalidate(filename);
     }
     return t;
   }
@@ -212,7 +215,7 @@ public class JsonMetadataSerializer<T extends IHopMetadata> implements IHopMetad
 
   @Override
   public boolean exists(String name) throws HopException {
-    return HopVfs.fileExists(calculateFilename(name));
+    return JsonMetadataCache.exists(calculateFilename(name));
   }
 
   /**
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Test class for the basic functionality of the lock-free ring buffer row set. */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RingBufferRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertEquals(16, set.getCapacity());
+    assertEquals(8, set.getBatchSize());
+  }
+
+  @Test
+  public void testRowsArePublishedPerBatch() {
+    RingBufferRowSet set = new RingBufferRowSet(16, 4, 60000);
+    IRowMeta rowMeta = createRowMeta();
+
+    for (long i = 0; i < 3; i++) {
+      assertTrue(set.putRow(rowMeta, new Object[] {i}));
+    }
+    // Not a full batch yet
+    //
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+
+    assertTrue(set.putRow(rowMeta, new Object[] {3L}));
+    assertEquals(4, set.size());
+
+    for (long i = 0; i < 4; i++) {
+      Object[] row = set.getRowImmediate();
+      assertNotNull(row);
+      assertEquals(i, row[0]);
+    }
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testFlushAndDone() {
+    RingBufferRowSet set = new RingBufferRowSet(16, 8, 60000);
+    IRowMeta rowMeta = createRowMeta();
+
+    Object[] row1 = new Object[] {1L};
+    Object[] row2 = new Object[] {2L};
+    set.putRow(rowMeta, row1);
+    assertNull(set.getRowImmediate());
+
+    set.flush();
+    assertSame(row1, set.getRowImmediate());
+
+    set.putRow(rowMeta, row2);
+    set.setDone();
+    assertTrue(set.isDone());
+    assertSame(row2, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertSame(rowMeta, set.getRowMeta());
+  }
+
+  @Test
+  public void testPendingRowsReachConsumerWithinFlushLatency() throws Exception {
+    RingBufferRowSet set = new RingBufferRowSet(1024, 256, 20);
+    IRowMeta rowMeta = createRowMeta();
+
+    // The producer stops before a batch boundary without flushing or marking the row set as done
+    //
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < 3; i++) {
+                set.putRow(rowMeta, new Object[] {i});
+              }
+            });
+    producer.start();
+    producer.join();
+
+    long start = System.nanoTime();
+    for (long i = 0; i < 3; i++) {
+      Object[] row = set.getRowWait(5, TimeUnit.SECONDS);
+      assertNotNull(row);
+      assertEquals(i, row[0]);
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue("Rows were held back for " + elapsedMillis + "ms", elapsedMillis < 1000);
+    assertFalse(set.isDone());
+
+    // A consumer polling without waiting gets the rows once the latency has expired as well
+    //
+    set.putRow(rowMeta, new Object[] {3L});
+    assertNull(set.getRowImmediate());
+    Object[] row = null;
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (row == null && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+      row = set.getRowImmediate();
+    }
+    assertNotNull(row);
+    assertEquals(3L, row[0]);
+  }
+
+  @Test
+  public void testPutTimesOutWhenFull() {
+    RingBufferRowSet set = new RingBufferRowSet(2, 1, 0);
+    IRowMeta rowMeta = createRowMeta();
+
+    assertTrue(set.putRowWait(rowMeta, new Object[] {1L}, 1, TimeUnit.MILLISECONDS));
+    assertTrue(set.putRowWait(rowMeta, new Object[] {2L}, 1, TimeUnit.MILLISECONDS));
+    assertFalse(set.putRowWait(rowMeta, new Object[] {3L}, 1, TimeUnit.MILLISECONDS));
+
+    assertEquals(1L, set.getRowImmediate()[0]);
+    assertTrue(set.putRowWait(rowMeta, new Object[] {3L}, 1, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testClear() {
+    RingBufferRowSet set = new RingBufferRowSet(8, 1, 0);
+    IRowMeta rowMeta = createRowMeta();
+
+    set.putRow(rowMeta, new Object[] {1L});
+    set.setDone();
+    set.clear();
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testConcurrentProducerConsumer() throws Exception {
+    final RingBufferRowSet set = new RingBufferRowSet(100, 16, 1);
+    final IRowMeta rowMeta = createRowMeta();
+    final long nrRows = 200000L;
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              try {
+                for (long i = 0; i < nrRows; i++) {
+                  Object[] row = new Object[] {i};
+                  while (!set.putRow(rowMeta, row)) {
+                    // Keep trying
+                  }
+                }
+              } catch (Throwable e) {
+                failure.set(e);
+              } finally {
+                set.setDone();
+              }
+            });
+    producer.start();
+
+    long expected = 0L;
+    while (true) {
+      Object[] row = set.getRow();
+      if (row == null) {
+        if (set.isDone()) {
+          row = set.getRowWait(1, TimeUnit.MILLISECONDS);
+          if (row == null) {
+            break;
+          }
+        } else {
+          continue;
+        }
+      }
+      assertEquals(expected++, row[0]);
+    }
+    producer.join();
+
+    assertNull(failure.get());
+    assertEquals(nrRows, expected);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PackedByteArrayHashIndexTest {
+
+  @Test
+  public void testGetAndPut() {
+    PackedByteArrayHashIndex obj = new PackedByteArrayHashIndex(10);
+    assertTrue(obj.isEmpty());
+    assertNull(obj.get(new byte[] {10}));
+
+    obj.put(new byte[] {10}, new byte[] {53, 12});
+    assertArrayEquals(new byte[] {53, 12}, obj.get(new byte[] {10}));
+    assertNull(obj.get(new byte[] {10, 0}));
+    assertEquals(1, obj.getSize());
+
+    // Replace the value, with the same size and with another size
+    obj.put(new byte[] {10}, new byte[] {1, 2});
+    assertArrayEquals(new byte[] {1, 2}, obj.get(new byte[] {10}));
+    obj.put(new byte[] {10}, new byte[] {3});
+    assertArrayEquals(new byte[] {3}, obj.get(new byte[] {10}));
+    assertEquals(1, obj.getSize());
+  }
+
+  @Test
+  public void testManyEntries() {
+    PackedByteArrayHashIndex obj = new PackedByteArrayHashIndex();
+    int nrEntries = 100000;
+    for (int i = 0; i < nrEntries; i++) {
+      obj.put(bytes("key" + i), bytes("value" + i));
+    }
+    assertEquals(nrEntries, obj.getSize());
+    for (int i = 0; i < nrEntries; i++) {
+      assertArrayEquals(bytes("value" + i), obj.get(bytes("key" + i)));
+    }
+    assertNull(obj.get(bytes("key" + nrEntries)));
+    assertTrue(obj.getMemoryUsage() > 0);
+  }
+
+  @Test
+  public void testLargeValue() {
+    PackedByteArrayHashIndex obj = new PackedByteArrayHashIndex();
+    byte[] value = new byte[3 * 1024 * 1024];
+    value[value.length - 1] = 42;
+    obj.put(new byte[] {1}, new byte[] {2});
+    obj.put(new byte[] {3}, value);
+    obj.put(new byte[] {4}, new byte[] {5});
+    assertArrayEquals(new byte[] {2}, obj.get(new byte[] {1}));
+    assertArrayEquals(value, obj.get(new byte[] {3}));
+    assertArrayEquals(new byte[] {5}, obj.get(new byte[] {4}));
+  }
+
+  private static byte[] bytes(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SortKeyEncoderTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private static final String[] STRINGS = {
+    "", "a", "A", "ab", "aB", "b", " a ", "a\u0000", "é", "ÿ", "Ā", "￿", "zz"
+  };
+  private static final Double[] NUMBERS = {
+    -1.5, -0.0, 0.0, 1.0, 1e100, Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY
+  };
+
+  @Test
+  public void testKeysSortLikeTheRows() throws HopException {
+    Random random = new Random(42L);
+    for (int test = 0; test < 16; test++) {
+      IRowMeta rowMeta = new RowMeta();
+      rowMeta.addValueMeta(new ValueMetaString("string"));
+      rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+      rowMeta.addValueMeta(new ValueMetaNumber("number"));
+      rowMeta.addValueMeta(new ValueMetaDate("date"));
+      rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+      for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+        valueMeta.setSortedDescending(random.nextBoolean());
+        valueMeta.setCaseInsensitive(random.nextBoolean());
+      }
+      int[] fieldNrs = {0, 1, 2, 3, 4};
+
+      SortKeyEncoder encoder = SortKeyEncoder.create(rowMeta, fieldNrs);
+      assertNotNull(encoder);
+
+      List<Object[]> rows = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        rows.add(
+            new Object[] {
+              random.nextInt(10) == 0 ? null : STRINGS[random.nextInt(STRINGS.length)],
+              random.nextInt(10) == 0 ? null : (long) (random.nextInt(5) - 2) * Long.MAX_VALUE / 2,
+              random.nextInt(10) == 0 ? null : NUMBERS[random.nextInt(NUMBERS.length)],
+              random.nextInt(10) == 0 ? null : new Date(random.nextInt(3) - 1L),
+              random.nextInt(10) == 0 ? null : random.nextBoolean(),
+            });
+      }
+
+      for (Object[] row1 : rows) {
+        byte[] key1 = encoder.encode(row1);
+        for (Object[] row2 : rows) {
+          byte[] key2 = encoder.encode(row2);
+          assertEquals(
+              Integer.signum(rowMeta.compare(row1, row2, fieldNrs)),
+              Integer.signum(SortKeyEncoder.compare(key1, key2)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOtherRowLayout() throws HopException {
+    IRowMeta rowMeta1 = new RowMeta();
+    rowMeta1.addValueMeta(new ValueMetaString("name"));
+    rowMeta1.addValueMeta(new ValueMetaInteger("id"));
+    IRowMeta rowMeta2 = new RowMeta();
+    rowMeta2.addValueMeta(new ValueMetaInteger("key"));
+    rowMeta2.addValueMeta(new ValueMetaString("description"));
+    rowMeta2.addValueMeta(new ValueMetaString("code"));
+
+    int[] fieldNrs1 = {1, 0};
+    int[] fieldNrs2 = {0, 2};
+    SortKeyEncoder encoder1 = SortKeyEncoder.create(rowMeta1, fieldNrs1);
+    SortKeyEncoder encoder2 = encoder1.forRowMeta(rowMeta2, fieldNrs2);
+    assertNotNull(encoder2);
+    assertNull(encoder1.forRowMeta(rowMeta2, new int[] {1, 2}));
+    assertNull(encoder1.forRowMeta(rowMeta2, new int[] {0}));
+
+    Object[][] rows1 = {{"a", 1L}, {"b", 1L}, {null, 2L}, {"a", null}};
+    Object[][] rows2 = {{1L, "x", "a"}, {1L, "y", "c"}, {2L, "z", null}, {null, "", "b"}};
+    for (Object[] row1 : rows1) {
+      for (Object[] row2 : rows2) {
+        assertEquals(
+            Integer.signum(rowMeta1.compare(row1, rowMeta2, row2, fieldNrs1, fieldNrs2)),
+            Integer.signum(SortKeyEncoder.compare(encoder1.encode(row1), encoder2.encode(row2))));
+      }
+    }
+  }
+
+  @Test
+  public void testUnsupportedFields() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bigNumber"));
+    ValueMetaString collated = new ValueMetaString("collated");
+    collated.setCollatorDisabled(false);
+    rowMeta.addValueMeta(collated);
+
+    assertNull(SortKeyEncoder.create(rowMeta, new int[] {0}));
+    assertNull(SortKeyEncoder.create(rowMeta, new int[] {1}));
+  }
+
+  @Test
+  public void testCustomComparator() {
+    IRowMeta reversedRowMeta = new RowMeta();
+    reversedRowMeta.addValueMeta(
+        new ValueMetaString("name", (a, b) -> ((String) b).compareTo((String) a)));
+    assertNull(SortKeyEncoder.create(reversedRowMeta, new int[] {0}));
+
+    // The other rows can't have a comparator either
+    //
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    SortKeyEncoder encoder = SortKeyEncoder.create(rowMeta, new int[] {0});
+    assertNotNull(encoder);
+    assertNull(encoder.forRowMeta(reversedRowMeta, new int[] {0}));
+  }
+}
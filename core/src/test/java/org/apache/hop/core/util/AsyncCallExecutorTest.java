@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hop.core.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncCallExecutorTest {
+
+  @Test
+  public void testPreserveOrderAndLimits() throws Exception {
+    AsyncCallExecutor<Integer> executor = new AsyncCallExecutor<>("test", 8, 2, true, 0, 0L);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Integer> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < 50; i++) {
+        while (executor.isFull()) {
+          results.add(executor.take().getValue());
+        }
+        final int value = i;
+        executor.submit(
+            "host" + (i % 2),
+            new Object[] {i},
+            () -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              Thread.sleep(5);
+              running.decrementAndGet();
+              return value;
+            });
+        assertTrue(executor.getNrInFlight() <= 8);
+      }
+      AsyncCallExecutor.Result<Integer> result;
+      while ((result = executor.take()) != null) {
+        results.add(result.getValue());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertTrue(executor.isEmpty());
+    assertEquals(50, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(Integer.valueOf(i), results.get(i));
+    }
+    // 2 hosts with at most 2 calls each
+    assertTrue(maxRunning.get() <= 4);
+  }
+
+  @Test
+  public void testRetry() throws Exception {
+    AsyncCallExecutor<String> executor = new AsyncCallExecutor<>("test", 2, 0, false, 2, 1L);
+    AtomicInteger attempts = new AtomicInteger();
+    try {
+      executor.submit(
+          null,
+          new Object[] {"flaky"},
+          () -> {
+            if (attempts.incrementAndGet() < 3) {
+              throw new Exception("Failure " + attempts.get());
+            }
+            return "ok";
+          });
+      executor.submit(
+          null,
+          new Object[] {"broken"},
+          () -> {
+            throw new Exception("Always fails");
+          });
+
+      int nrResults = 0;
+      AsyncCallExecutor.Result<String> result;
+      while ((result = executor.take()) != null) {
+        nrResults++;
+        assertEquals(3, result.getAttempts());
+        if ("flaky".equals(result.getRow()[0])) {
+          assertEquals("ok", result.getValue());
+          assertNull(result.getException());
+        } else {
+          assertNull(result.getValue());
+          assertNotNull(result.getException());
+        }
+      }
+      assertEquals(2, nrResults);
+      assertNull(executor.poll());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
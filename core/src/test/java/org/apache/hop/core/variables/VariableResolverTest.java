@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.variables;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VariableResolverTest {
+
+  private Map<String, String> map;
+
+  @Before
+  public void setUp() {
+    VariableResolver.clearCache();
+
+    map = new HashMap<>();
+    map.put("one", "1");
+    map.put("two", "2");
+    map.put("nested", "${one}-${two}");
+    map.put("windows", "%%one%%${two}");
+    map.put("hex", "$[41,42]");
+    map.put("loop1", "${loop2}");
+    map.put("loop2", "${loop1}");
+  }
+
+  @Test
+  public void testResolve() {
+    assertNull(VariableResolver.resolve(null, map));
+    assertEquals("", VariableResolver.resolve("", map));
+    assertEquals("1", VariableResolver.resolve("${one}", map));
+    assertEquals("a1b2c", VariableResolver.resolve("a${one}b${two}c", map));
+    assertEquals("[1-2]", VariableResolver.resolve("[${nested}]", map));
+    assertEquals("12", VariableResolver.resolve("%%one%%${two}", map));
+    assertEquals("12", VariableResolver.resolve("%%windows%%", map));
+    assertEquals("AB", VariableResolver.resolve("${hex}", map));
+  }
+
+  @Test
+  public void testUndefinedVariables() {
+    assertEquals("${unknown}/1", VariableResolver.resolve("${unknown}/${one}", map));
+    assertEquals("%%unknown%%", VariableResolver.resolve("%%unknown%%", map));
+    assertEquals("${one", VariableResolver.resolve("${one", map));
+    assertEquals("${a${b}1", VariableResolver.resolve("${a${b}${one}", map));
+  }
+
+  @Test
+  public void testEndlessLoop() {
+    try {
+      VariableResolver.resolve("${loop1}", map);
+      fail("An endless loop should be detected");
+    } catch (RuntimeException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testCache() {
+    String plain = "No variables in here";
+    assertSame(plain, VariableResolver.resolve(plain, map));
+    assertEquals(0, VariableResolver.getCacheSize());
+
+    VariableResolver.resolve("${one}", map);
+    assertEquals(0L, VariableResolver.getCacheHits());
+    assertEquals(1L, VariableResolver.getCacheMisses());
+
+    // The values are looked up again every time, only the parsed string is cached
+    //
+    map.put("one", "uno");
+    assertEquals("uno", VariableResolver.resolve("${one}", map));
+    assertEquals(1L, VariableResolver.getCacheHits());
+    assertEquals(1L, VariableResolver.getCacheMisses());
+    assertEquals(1, VariableResolver.getCacheSize());
+
+    VariableResolver.clearCache();
+    assertEquals(0, VariableResolver.getCacheSize());
+    assertEquals(0L, VariableResolver.getCacheHits());
+  }
+
+  @Test
+  public void testCacheIsBounded() {
+    // Every string is different, like queries built from row values
+    //
+    for (int i = 0; i < VariableResolver.MAX_CACHE_SIZE + 100; i++) {
+      assertEquals("1 = " + i, VariableResolver.resolve("${one} = " + i, map));
+    }
+    assertTrue(VariableResolver.getCacheSize() <= VariableResolver.MAX_CACHE_SIZE);
+
+    // Long strings are resolved but not cached
+    //
+    VariableResolver.clearCache();
+    StringBuilder longString = new StringBuilder("${one}");
+    while (longString.length() <= VariableResolver.MAX_CACHED_LENGTH) {
+      longString.append("-");
+    }
+    String resolved = VariableResolver.resolve(longString.toString(), map);
+    assertEquals("1" + longString.substring(6), resolved);
+    assertEquals(0, VariableResolver.getCacheSize());
+  }
+
+  @Test
+  public void testResolveVariables() {
+    Variables variables = new Variables();
+    variables.setVariable("name", "value");
+    assertEquals("value/x", VariableResolver.resolve("${name}/x", variables));
+  }
+
+  @Test
+  public void testConcurrentResolve() throws Exception {
+    Variables variables = new Variables();
+    List<Callable<Boolean>> callables = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final String key = "thread" + t;
+      callables.add(
+          () -> {
+            for (int i = 0; i < 1000; i++) {
+              variables.setVariable(key, Integer.toString(i));
+              assertEquals(i + "/x", variables.resolve("${" + key + "}/x"));
+            }
+            return true;
+          });
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      for (Future<Boolean> result : executorService.invokeAll(callables)) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+}
@@ -142,6 +142,29 @@ public class VariablesTest {
     assertEquals("TheDataOne", vars.resolve("The?{FieldOne}", rm, rowData));
   }
 
+  @Test
+  public void testNullNamesAndValues() {
+    Variables vars = new Variables();
+    vars.setVariable("VarOne", "DataOne");
+    vars.setVariable("VarOne", null);
+    vars.setVariable(null, "DataTwo");
+
+    assertNull(vars.getVariable("VarOne"));
+    assertNull(vars.getVariable(null));
+    assertEquals("default", vars.getVariable(null, "default"));
+    assertEquals(0, vars.getVariableNames().length);
+
+    // Variables without a value are not copied
+    //
+    IVariables parent = mock(IVariables.class);
+    when(parent.getVariableNames()).thenReturn(new String[] {"VarOne", "VarTwo"});
+    when(parent.getVariable("VarOne")).thenReturn(null);
+    when(parent.getVariable("VarTwo")).thenReturn("DataTwo");
+    vars.copyFrom(parent);
+    assertArrayEquals(new String[] {"VarTwo"}, vars.getVariableNames());
+    assertEquals("DataTwo", vars.resolve("${VarTwo}"));
+  }
+
   @Test
   public void testEnvironmentSubstitute() {
     Variables vars = new Variables();
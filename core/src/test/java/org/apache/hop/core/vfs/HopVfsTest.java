@@ -24,7 +24,10 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class HopVfsTest {
@@ -70,4 +73,37 @@ public class HopVfsTest {
       outputStream.write("Test-content".getBytes());
     }
   }
+
+  @Test
+  public void testFileObjectCache() throws Exception {
+    HopVfs.clearFileObjectCache();
+    String filename = "ram:///test-cached-file.txt";
+
+    FileObject fileObject = HopVfs.getFileObject(filename);
+    assertFalse(fileObject.exists());
+    assertSame(fileObject, HopVfs.getFileObject(filename));
+
+    VfsSchemeStatistics statistics = HopVfs.getSchemeStatistics().get("ram");
+    assertEquals(1L, statistics.getResolves());
+    assertEquals(1L, statistics.getCacheHits());
+
+    // A cached file object is refreshed when it's handed out again
+    //
+    try (OutputStream outputStream = fileObject.getContent().getOutputStream()) {
+      outputStream.write("Test-content".getBytes());
+    }
+    assertTrue(HopVfs.getFileObject(filename).exists());
+    fileObject.delete();
+    assertFalse(HopVfs.fileExists(filename));
+
+    // Temporary files are not cached
+    //
+    int size = HopVfs.getFileObjectCacheSize();
+    HopVfs.createTempFile("cache-test", ".tmp", "ram:///tmp");
+    assertEquals(size, HopVfs.getFileObjectCacheSize());
+
+    HopVfs.clearFileObjectCache();
+    assertEquals(0, HopVfs.getFileObjectCacheSize());
+    assertNull(HopVfs.getSchemeStatistics().get("ram"));
+  }
 }
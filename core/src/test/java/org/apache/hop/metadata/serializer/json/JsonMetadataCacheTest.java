@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.metadata.serializer.json;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonMetadataCacheTest {
+
+  private File file;
+  private String filename;
+
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("metadata-cache", ".json");
+    filename = file.getAbsolutePath();
+    write("{\"name\":\"one\"}");
+    JsonMetadataCache.clear();
+    JsonMetadataCache.setCheckInterval(JsonMetadataCache.DEFAULT_CHECK_INTERVAL);
+  }
+
+  @After
+  public void tearDown() {
+    JsonMetadataCache.setCheckInterval(JsonMetadataCache.DEFAULT_CHECK_INTERVAL);
+    JsonMetadataCache.clear();
+    file.delete();
+  }
+
+  private void write(String json) throws Exception {
+    Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testCachedContent() throws Exception {
+    assertTrue(JsonMetadataCache.exists(filename));
+    assertEquals(0L, JsonMetadataCache.getHits());
+    assertEquals(1L, JsonMetadataCache.getMisses());
+
+    byte[] content = JsonMetadataCache.getContent(filename);
+    assertArrayEquals("{\"name\":\"one\"}".getBytes(StandardCharsets.UTF_8), content);
+    assertEquals(1L, JsonMetadataCache.getHits());
+    assertEquals(1, JsonMetadataCache.size());
+    assertEquals(50.0, JsonMetadataCache.getHitRatio(), 0.001);
+  }
+
+  @Test
+  public void testChangeDetection() throws Exception {
+    JsonMetadataCache.setCheckInterval(0L);
+    assertEquals("{\"name\":\"one\"}", new String(JsonMetadataCache.getContent(filename)));
+
+    // A different size is detected even when the modification time has a low resolution
+    //
+    write("{\"name\":\"two\",\"x\":1}");
+    assertEquals("{\"name\":\"two\",\"x\":1}", new String(JsonMetadataCache.getContent(filename)));
+    assertEquals(2L, JsonMetadataCache.getMisses());
+
+    // Unchanged files are not read again
+    //
+    JsonMetadataCache.getContent(filename);
+    assertEquals(1L, JsonMetadataCache.getHits());
+
+    file.delete();
+    assertFalse(JsonMetadataCache.exists(filename));
+    assertNull(JsonMetadataCache.getContent(filename));
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    assertEquals("{\"name\":\"one\"}", new String(JsonMetadataCache.getContent(filename)));
+
+    // Within the check interval the cached content is used until the file is invalidated
+    //
+    write("{\"name\":\"three\"}");
+    JsonMetadataCache.invalidate(filename);
+    assertEquals("{\"name\":\"three\"}", new String(JsonMetadataCache.getContent(filename)));
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    JsonMetadataCache.setCheckInterval(-1L);
+    assertTrue(JsonMetadataCache.exists(filename));
+    assertEquals("{\"name\":\"one\"}", new String(JsonMetadataCache.getContent(filename)));
+    assertEquals(0, JsonMetadataCache.size());
+    assertEquals(0L, JsonMetadataCache.getMisses());
+  }
+}
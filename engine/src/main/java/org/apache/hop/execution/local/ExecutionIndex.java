@@ -0,0 +1,897 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.execution.local;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.json.HopJson;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.execution.Execution;
+import org.apache.hop.execution.ExecutionState;
+import org.apache.hop.execution.ExecutionType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * An index of the executions stored in the folder of a {@link FileExecutionInfoLocation}. Without
+ * it every listing has to read the execution and state files of all executions.
+ *
+ * <p>The index is kept on disk as an append-only log with one JSON record per line: an execution
+ * was registered, its state was updated or it was deleted. The log is read once per JVM and kept
+ * in memory in sorted sets by date, by parent and by type and name. New records which were written
+ * by another process are read before every lookup. When there is no log yet it is built from the
+ * existing execution folders.
+ *
+ * <p>Lookups don't lock anything: they are repeated under a read lock in the rare case that the
+ * in-memory index changed while they ran. Writes are serialized per index, and a lock per
+ * execution is available to keep the files of an execution consistent.
+ *
+ * <p>Several processes can share the same folder. Appending to the log and rewriting it happen
+ * under a file lock, and a rewritten log replaces the old one in a single atomic move. The first
+ * line of the log holds a random generation number which changes with every rewrite: a process
+ * only continues reading at its last position when the generation is still the same.
+ *
+ * <p>The log is compacted as soon as it holds too many records for the executions it describes.
+ * On file systems which can't append to a file, like most object stores, the log is rewritten
+ * with every change instead.
+ */
+public class ExecutionIndex {
+
+  public static final String FILENAME_INDEX = "executions-index.log";
+
+  public static final String FILENAME_LOCK = "executions-index.lock";
+
+  /** The log is rewritten when it has this many times more records than executions */
+  private static final int COMPACT_FACTOR = 4;
+
+  private static final int COMPACT_MIN_RECORDS = 10000;
+
+  private static final int NR_LOCKS = 64;
+
+  private static final String OP_REGISTER = "R";
+  private static final String OP_UPDATE = "U";
+  private static final String OP_DELETE = "D";
+  private static final String OP_GENERATION = "G";
+
+  /** Latest first, ties are broken on the ID */
+  private static final Comparator<Entry> LATEST_FIRST =
+      Comparator.comparingLong((Entry e) -> e.sortDate).reversed().thenComparing(e -> e.id);
+
+  private static final Map<String, ExecutionIndex> indexes = new ConcurrentHashMap<>();
+
+  /** File locks can't be shared by threads of the same JVM: they synchronize on these first */
+  private static final Map<String, Object> fileLockMonitors = new ConcurrentHashMap<>();
+
+  private static final ObjectMapper mapper =
+      HopJson.newMapper().setSerializationInclusion(JsonInclude.Include.NON_DEFAULT);
+
+  private final String rootFolder;
+  private final String indexFilename;
+  private final Object[] locks;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final NavigableSet<Entry> sorted = new ConcurrentSkipListSet<>(LATEST_FIRST);
+  private final Map<String, NavigableSet<Entry>> childrenByParent = new ConcurrentHashMap<>();
+  private final Map<String, NavigableSet<Entry>> byTypeAndName = new ConcurrentHashMap<>();
+
+  /** The parent of the child IDs listed in the execution states */
+  private final Map<String, String> stateParentIds = new ConcurrentHashMap<>();
+
+  /** Guards the consistency of the in-memory index for lookups */
+  private final StampedLock indexLock = new StampedLock();
+
+  /** The number of bytes of the log which were read, -1 if the index isn't loaded yet */
+  private volatile long position = -1L;
+
+  /** The last modification time of the log when it was read */
+  private volatile long lastModified;
+
+  /** The generation of the log which was read, 0 for a log without a generation */
+  private long generation;
+
+  /** The file lock held by this index while writing, guarded by this */
+  private FileLock fileLock;
+
+  private int nrRecords;
+
+  // Constructor is defined as package-protected in order to be accessible by unit tests
+  ExecutionIndex(String rootFolder) {
+    this.rootFolder = rootFolder;
+    this.indexFilename = rootFolder + "/" + FILENAME_INDEX;
+    this.locks = new Object[NR_LOCKS];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Get the index of the executions in a folder. The index is shared by all locations using the
+   * same folder in this JVM.
+   *
+   * @param rootFolder The resolved root folder of the location
+   * @return The index, up to date with the log on disk
+   * @throws HopException In case the log can't be read
+   */
+  public static ExecutionIndex getIndex(String rootFolder) throws HopException {
+    ExecutionIndex index = indexes.computeIfAbsent(rootFolder, ExecutionIndex::new);
+    index.refresh();
+    return index;
+  }
+
+  /**
+   * Get the lock to use while reading or writing the files of an execution.
+   *
+   * @param executionId The ID of the execution
+   * @return The object to synchronize on
+   */
+  public Object getLock(String executionId) {
+    return locks[Math.floorMod(Const.NVL(executionId, "").hashCode(), locks.length)];
+  }
+
+  /**
+   * Read the records which were added to the log since the last time.
+   *
+   * @throws HopException In case the log can't be read
+   */
+  public void refresh() throws HopException {
+    try {
+      FileObject indexFile = HopVfs.getFileObject(indexFilename);
+      if (position >= 0
+          && indexFile.exists()
+          && indexFile.getContent().getSize() == position
+          && indexFile.getContent().getLastModifiedTime() == lastModified) {
+        return;
+      }
+      synchronized (this) {
+        if (position < 0) {
+          load(indexFile);
+        } else {
+          catchUp(indexFile);
+        }
+      }
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopException("Error reading execution index " + indexFilename, e);
+    }
+  }
+
+  private void load(FileObject indexFile) throws Exception {
+    if (!indexFile.exists()) {
+      build();
+      return;
+    }
+    catchUp(indexFile);
+    if (needsCompaction()) {
+      compact();
+    }
+  }
+
+  private boolean needsCompaction() {
+    return nrRecords >= COMPACT_MIN_RECORDS && nrRecords > COMPACT_FACTOR * entries.size();
+  }
+
+  private void catchUp(FileObject indexFile) throws Exception {
+    if (!indexFile.exists()) {
+      // Removed by someone: start over from the execution folders
+      //
+      build();
+      return;
+    }
+    long size = indexFile.getContent().getSize();
+    long modified = indexFile.getContent().getLastModifiedTime();
+    boolean rewritten;
+    byte[] bytes;
+    try (InputStream inputStream = HopVfs.getInputStream(indexFile)) {
+      // Our position is only valid in the generation of the log we read before
+      //
+      byte[] header = readLine(inputStream);
+      rewritten = position < 0 || size < position || getGeneration(header) != generation;
+      if (rewritten) {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        all.write(header);
+        inputStream.transferTo(all);
+        bytes = all.toByteArray();
+      } else if (size == position) {
+        lastModified = modified;
+        return;
+      } else {
+        skip(inputStream, position - header.length);
+        bytes = inputStream.readAllBytes();
+      }
+    }
+
+    long stamp = indexLock.writeLock();
+    try {
+      if (rewritten) {
+        clear();
+        position = 0L;
+        generation = 0L;
+      }
+
+      // Only apply complete lines, a record can be in the middle of being written
+      //
+      int start = 0;
+      for (int i = 0; i < bytes.length; i++) {
+        if (bytes[i] == '\n') {
+          if (i > start) {
+            apply(mapper.readValue(bytes, start, i - start, Record.class));
+          }
+          start = i + 1;
+        }
+      }
+      position += start;
+    } finally {
+      indexLock.unlockWrite(stamp);
+    }
+    lastModified = modified;
+  }
+
+  /** Read the first line of the log, including the line feed if there is one */
+  private static byte[] readLine(InputStream inputStream) throws Exception {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = inputStream.read()) >= 0) {
+      line.write(b);
+      if (b == '\n') {
+        break;
+      }
+    }
+    return line.toByteArray();
+  }
+
+  /** @return The generation in the header line of a log or 0 if the line isn't a header */
+  private static long getGeneration(byte[] line) throws Exception {
+    if (line.length == 0 || line[line.length - 1] != '\n') {
+      return 0L;
+    }
+    Record record = mapper.readValue(line, 0, line.length - 1, Record.class);
+    return OP_GENERATION.equals(record.op) ? record.generation : 0L;
+  }
+
+  private void skip(InputStream inputStream, long bytes) throws Exception {
+    long skipped = 0L;
+    while (skipped < bytes) {
+      long n = inputStream.skip(bytes - skipped);
+      if (n <= 0) {
+        throw new HopException("Unable to skip to position " + position + " in " + indexFilename);
+      }
+      skipped += n;
+    }
+  }
+
+  /** Build the index from the execution folders, used when there is no log yet. */
+  private void build() throws Exception {
+    withFileLock(this::buildLocked);
+  }
+
+  private void buildLocked() throws Exception {
+    FileObject indexFile = HopVfs.getFileObject(indexFilename);
+    if (indexFile.exists()) {
+      // Built by another process in the mean time
+      //
+      catchUp(indexFile);
+      return;
+    }
+    FileObject folder = HopVfs.getFileObject(rootFolder);
+    List<Record> records = new ArrayList<>();
+    if (folder.exists()) {
+      for (FileObject child : folder.getChildren()) {
+        if (!child.isFolder()) {
+          continue;
+        }
+        FileObject executionFile =
+            child.getChild(FileExecutionInfoLocation.FILENAME_EXECUTION_JSON);
+        if (executionFile == null || !executionFile.exists()) {
+          continue;
+        }
+        Execution execution;
+        try (InputStream inputStream = HopVfs.getInputStream(executionFile)) {
+          execution = mapper.readValue(inputStream, Execution.class);
+        }
+        records.add(registerRecord(execution));
+
+        FileObject stateFile = child.getChild(FileExecutionInfoLocation.FILENAME_STATE_JSON);
+        if (stateFile != null && stateFile.exists()) {
+          try (InputStream inputStream = HopVfs.getInputStream(stateFile)) {
+            records.add(updateRecord(mapper.readValue(inputStream, ExecutionState.class), null));
+          } catch (Exception e) {
+            // Ignore, same as an execution without a state
+          }
+        }
+      }
+    }
+    long stamp = indexLock.writeLock();
+    try {
+      clear();
+      for (Record record : records) {
+        apply(record);
+      }
+    } finally {
+      indexLock.unlockWrite(stamp);
+    }
+    if (folder.exists()) {
+      writeLog(records);
+    } else {
+      position = 0L;
+      generation = 0L;
+    }
+  }
+
+  /** Rewrite the log with only the records needed to describe the current executions. */
+  // Method is defined as package-protected in order to be accessible by unit tests
+  synchronized void compact() throws Exception {
+    withFileLock(this::compactLocked);
+  }
+
+  private void compactLocked() throws Exception {
+    // Don't lose the records other processes appended since we last read the log
+    //
+    catchUp(HopVfs.getFileObject(indexFilename));
+    rewriteLog();
+  }
+
+  /** Write the log from the in-memory index, the caller holds the file lock. */
+  private void rewriteLog() throws Exception {
+    List<Record> records = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.registered) {
+        Record record = new Record();
+        record.op = OP_REGISTER;
+        record.id = entry.id;
+        record.parentId = entry.parentId;
+        record.name = entry.name;
+        record.type = entry.type;
+        record.startDate = entry.startDate;
+        records.add(record);
+      }
+      if (entry.hasState) {
+        Record record = new Record();
+        record.op = OP_UPDATE;
+        record.id = entry.id;
+        record.updateDate = entry.updateDate;
+        record.failed = entry.failed;
+        record.childIds = new ArrayList<>(entry.childIds);
+        records.add(record);
+      }
+    }
+    nrRecords = records.size();
+    writeLog(records);
+  }
+
+  /** Write a new generation of the log next to the old one and swap them. */
+  private void writeLog(List<Record> records) throws Exception {
+    FileObject indexFile = HopVfs.getFileObject(indexFilename);
+    FileObject tempFile = HopVfs.getFileObject(indexFilename + ".tmp");
+    tempFile.getParent().createFolder();
+
+    Record header = new Record();
+    header.op = OP_GENERATION;
+    long newGeneration;
+    do {
+      newGeneration = ThreadLocalRandom.current().nextLong();
+    } while (newGeneration == 0L || newGeneration == generation);
+    header.generation = newGeneration;
+
+    long size = 0L;
+    try (OutputStream outputStream = HopVfs.getOutputStream(tempFile, false)) {
+      byte[] headerLine = toLine(header);
+      outputStream.write(headerLine);
+      size += headerLine.length;
+      for (Record record : records) {
+        byte[] line = toLine(record);
+        outputStream.write(line);
+        size += line.length;
+      }
+    }
+
+    File localTempFile = getLocalFile(tempFile);
+    File localIndexFile = getLocalFile(indexFile);
+    if (localTempFile != null && localIndexFile != null) {
+      // Readers see either the old or the new log, never a missing one
+      //
+      try {
+        Files.move(
+            localTempFile.toPath(),
+            localIndexFile.toPath(),
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(
+            localTempFile.toPath(), localIndexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tempFile.refresh();
+      indexFile.refresh();
+    } else {
+      if (indexFile.exists()) {
+        indexFile.delete();
+      }
+      tempFile.moveTo(indexFile);
+    }
+    position = size;
+    generation = newGeneration;
+    lastModified = indexFile.getContent().getLastModifiedTime();
+  }
+
+  private void append(Record record) throws HopException {
+    try {
+      withFileLock(() -> appendLocked(record));
+    } catch (Exception e) {
+      throw new HopException("Error writing to execution index " + indexFilename, e);
+    }
+  }
+
+  private void appendLocked(Record record) throws Exception {
+    FileObject indexFile = HopVfs.getFileObject(indexFilename);
+    catchUp(indexFile);
+    long stamp = indexLock.writeLock();
+    try {
+      apply(record);
+    } finally {
+      indexLock.unlockWrite(stamp);
+    }
+    if (!canAppend(indexFile)) {
+      rewriteLog();
+      return;
+    }
+    byte[] line = toLine(record);
+    try (OutputStream outputStream = HopVfs.getOutputStream(indexFile, true)) {
+      outputStream.write(line);
+    }
+    // Without a file lock someone else can append in the mean time: we'll read our own record
+    // again later, which is harmless.
+    //
+    if (indexFile.getContent().getSize() == position + line.length) {
+      position += line.length;
+      lastModified = indexFile.getContent().getLastModifiedTime();
+    }
+    if (needsCompaction()) {
+      compactLocked();
+    }
+  }
+
+  // Method is defined as package-protected in order to be overridden by unit tests
+  boolean canAppend(FileObject indexFile) throws Exception {
+    return indexFile.getFileSystem().hasCapability(Capability.APPEND_CONTENT);
+  }
+
+  private interface ILockedAction {
+    void run() throws Exception;
+  }
+
+  /**
+   * Run an action which changes the log while holding a lock on the folder, for other processes.
+   * Folders which aren't on the local file system are not locked: there the generation of the log
+   * still tells a process that the log was rewritten.
+   */
+  private void withFileLock(ILockedAction action) throws Exception {
+    File folder = getLocalFile(HopVfs.getFileObject(rootFolder));
+    if (fileLock != null || folder == null || !folder.isDirectory()) {
+      action.run();
+      return;
+    }
+    File lockFile = new File(folder, FILENAME_LOCK);
+    Object monitor =
+        fileLockMonitors.computeIfAbsent(lockFile.getCanonicalPath(), k -> new Object());
+    synchronized (monitor) {
+      try (FileChannel channel =
+              FileChannel.open(
+                  lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+          FileLock lock = channel.lock()) {
+        fileLock = lock;
+        try {
+          action.run();
+        } finally {
+          fileLock = null;
+        }
+      }
+    }
+  }
+
+  /** @return The file on the local file system or null if it isn't a local file */
+  private static File getLocalFile(FileObject fileObject) {
+    if (fileObject instanceof LocalFile) {
+      return new File(HopVfs.getFilename(fileObject));
+    }
+    return null;
+  }
+
+  private static byte[] toLine(Record record) throws Exception {
+    return (mapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Add a registered execution to the index
+   *
+   * @param execution The execution
+   * @throws HopException In case the index can't be written
+   */
+  public synchronized void register(Execution execution) throws HopException {
+    append(registerRecord(execution));
+  }
+
+  /**
+   * Add the update of the state of an execution to the index
+   *
+   * @param state The new state
+   * @throws HopException In case the index can't be written
+   */
+  public synchronized void update(ExecutionState state) throws HopException {
+    Entry entry = entries.get(state.getId());
+    Record record = updateRecord(state, entry == null ? null : entry.childIds);
+    if (entry != null
+        && entry.hasState
+        && entry.failed == record.failed
+        && entry.updateDate == record.updateDate
+        && record.childIds == null) {
+      return;
+    }
+    append(record);
+  }
+
+  /**
+   * Remove an execution from the index
+   *
+   * @param executionId The ID of the execution
+   * @throws HopException In case the index can't be written
+   */
+  public synchronized void delete(String executionId) throws HopException {
+    if (!entries.containsKey(executionId)) {
+      return;
+    }
+    Record record = new Record();
+    record.op = OP_DELETE;
+    record.id = executionId;
+    append(record);
+  }
+
+  private static Record registerRecord(Execution execution) {
+    Record record = new Record();
+    record.op = OP_REGISTER;
+    record.id = execution.getId();
+    record.parentId = execution.getParentId();
+    record.name = execution.getName();
+    record.type = execution.getExecutionType() == null ? null : execution.getExecutionType().name();
+    Date startDate = execution.getExecutionStartDate();
+    if (startDate == null) {
+      startDate = execution.getRegistrationDate();
+    }
+    record.startDate = startDate == null ? 0L : startDate.getTime();
+    return record;
+  }
+
+  /**
+   * @param state The new state
+   * @param knownChildIds The child IDs we already know about, only new ones are logged
+   */
+  private static Record updateRecord(ExecutionState state, Set<String> knownChildIds) {
+    Record record = new Record();
+    record.op = OP_UPDATE;
+    record.id = state.getId();
+    record.updateDate = state.getUpdateTime() == null ? 0L : state.getUpdateTime().getTime();
+    record.failed = state.isFailed();
+    if (state.getChildIds() != null) {
+      List<String> childIds = new ArrayList<>();
+      for (String childId : state.getChildIds()) {
+        if (knownChildIds == null || !knownChildIds.contains(childId)) {
+          childIds.add(childId);
+        }
+      }
+      if (!childIds.isEmpty()) {
+        record.childIds = childIds;
+      }
+    }
+    return record;
+  }
+
+  /** Apply a record to the in-memory index, the caller holds the write lock of the index */
+  private void apply(Record record) {
+    if (OP_GENERATION.equals(record.op)) {
+      generation = record.generation;
+      return;
+    }
+    if (record.id == null) {
+      return;
+    }
+    nrRecords++;
+    Entry old = entries.get(record.id);
+    Entry entry;
+    switch (Const.NVL(record.op, "")) {
+      case OP_REGISTER:
+        entry =
+            new Entry(
+                record.id,
+                record.parentId,
+                record.name,
+                record.type,
+                record.startDate,
+                old != null && old.hasState,
+                old == null ? 0L : old.updateDate,
+                old != null && old.failed,
+                old == null ? Collections.emptySet() : old.childIds,
+                true);
+        break;
+      case OP_UPDATE:
+        Set<String> childIds = old == null ? Collections.emptySet() : old.childIds;
+        if (record.childIds != null) {
+          childIds = new HashSet<>(childIds);
+          childIds.addAll(record.childIds);
+          for (String childId : record.childIds) {
+            stateParentIds.put(childId, record.id);
+          }
+        }
+        entry =
+            new Entry(
+                record.id,
+                old == null ? null : old.parentId,
+                old == null ? null : old.name,
+                old == null ? null : old.type,
+                old == null ? 0L : old.startDate,
+                true,
+                record.updateDate,
+                record.failed,
+                childIds,
+                old != null && old.registered);
+        break;
+      case OP_DELETE:
+        entry = null;
+        break;
+      default:
+        return;
+    }
+
+    if (old != null) {
+      unlink(old);
+    }
+    if (entry == null) {
+      entries.remove(record.id);
+      if (old != null) {
+        for (String childId : old.childIds) {
+          stateParentIds.remove(childId, record.id);
+        }
+      }
+      return;
+    }
+    entries.put(entry.id, entry);
+    if (entry.registered) {
+      sorted.add(entry);
+      if (StringUtils.isNotEmpty(entry.parentId)) {
+        childrenByParent.computeIfAbsent(entry.parentId, k -> newSet()).add(entry);
+      }
+      byTypeAndName.computeIfAbsent(typeAndName(entry.type, entry.name), k -> newSet()).add(entry);
+    }
+  }
+
+  private void unlink(Entry entry) {
+    sorted.remove(entry);
+    if (StringUtils.isNotEmpty(entry.parentId)) {
+      NavigableSet<Entry> children = childrenByParent.get(entry.parentId);
+      if (children != null) {
+        children.remove(entry);
+      }
+    }
+    NavigableSet<Entry> set = byTypeAndName.get(typeAndName(entry.type, entry.name));
+    if (set != null) {
+      set.remove(entry);
+    }
+  }
+
+  private static NavigableSet<Entry> newSet() {
+    return new ConcurrentSkipListSet<>(LATEST_FIRST);
+  }
+
+  private void clear() {
+    entries.clear();
+    sorted.clear();
+    childrenByParent.clear();
+    byTypeAndName.clear();
+    stateParentIds.clear();
+    nrRecords = 0;
+  }
+
+  private static String typeAndName(String type, String name) {
+    return Const.NVL(type, "") + "/" + Const.NVL(name, "");
+  }
+
+  /**
+   * Get the IDs of the executions, the latest updated first
+   *
+   * @param includeChildren Also include the executions with a parent
+   * @param limit The maximum number of IDs to return, 0 or lower for all of them
+   * @return The execution IDs
+   */
+  public List<String> getExecutionIds(boolean includeChildren, int limit) {
+    return read(
+        () -> {
+          List<String> ids = new ArrayList<>();
+          for (Entry entry : sorted) {
+            if (limit > 0 && ids.size() >= limit) {
+              break;
+            }
+            if (includeChildren || StringUtils.isEmpty(entry.parentId)) {
+              ids.add(entry.id);
+            }
+          }
+          return ids;
+        });
+  }
+
+  /**
+   * Get the IDs of the executions with the given parent, the latest updated first
+   *
+   * @param parentId The ID of the parent execution
+   * @return The IDs of the child executions
+   */
+  public List<String> getChildIds(String parentId) {
+    return read(
+        () -> {
+          List<String> ids = new ArrayList<>();
+          NavigableSet<Entry> children = childrenByParent.get(parentId);
+          if (children != null) {
+            children.forEach(e -> ids.add(e.id));
+          }
+          return ids;
+        });
+  }
+
+  /**
+   * Find the latest execution with the given type and name
+   *
+   * @param executionType The type of execution
+   * @param name The name of the pipeline, workflow, ...
+   * @param onlySuccessful Only consider executions with a state which didn't fail
+   * @return The ID of the execution or null if none was found
+   */
+  public String findLastId(ExecutionType executionType, String name, boolean onlySuccessful) {
+    String key = typeAndName(executionType == null ? null : executionType.name(), name);
+    return read(
+        () -> {
+          NavigableSet<Entry> set = byTypeAndName.get(key);
+          if (set != null) {
+            for (Entry entry : set) {
+              if (!onlySuccessful || (entry.hasState && !entry.failed)) {
+                return entry.id;
+              }
+            }
+          }
+          return null;
+        });
+  }
+
+  /**
+   * Find the execution which has the given ID in the child IDs of its state
+   *
+   * @param childId The child ID
+   * @return The ID of the parent execution or null if it isn't known
+   */
+  public String findParentId(String childId) {
+    return read(() -> stateParentIds.get(childId));
+  }
+
+  /** @return The number of registered executions in the index */
+  public int size() {
+    return read(sorted::size);
+  }
+
+  /**
+   * Run a lookup without locking. When the index changed in the mean time, the lookup is repeated
+   * under a read lock so that it never sees an execution halfway through an update.
+   */
+  private <T> T read(Supplier<T> lookup) {
+    long stamp = indexLock.tryOptimisticRead();
+    T result = lookup.get();
+    if (!indexLock.validate(stamp)) {
+      stamp = indexLock.readLock();
+      try {
+        result = lookup.get();
+      } finally {
+        indexLock.unlockRead(stamp);
+      }
+    }
+    return result;
+  }
+
+  /** Drop the in-memory index of all folders, they are read again from disk when needed. */
+  public static void clearAll() {
+    indexes.clear();
+  }
+
+  /** A snapshot of what we know about an execution. It's replaced as a whole when it changes. */
+  private static final class Entry {
+    private final String id;
+    private final String parentId;
+    private final String name;
+    private final String type;
+    private final long startDate;
+    private final boolean hasState;
+    private final long updateDate;
+    private final boolean failed;
+    private final Set<String> childIds;
+    private final boolean registered;
+    private final long sortDate;
+
+    private Entry(
+        String id,
+        String parentId,
+        String name,
+        String type,
+        long startDate,
+        boolean hasState,
+        long updateDate,
+        boolean failed,
+        Set<String> childIds,
+        boolean registered) {
+      this.id = id;
+      this.parentId = parentId;
+      this.name = name;
+      this.type = type;
+      this.startDate = startDate;
+      this.hasState = hasState;
+      this.updateDate = updateDate;
+      this.failed = failed;
+      this.childIds = childIds;
+      this.registered = registered;
+      this.sortDate = updateDate > 0 ? updateDate : startDate;
+    }
+  }
+
+  /** One line in the log */
+  public static final class Record {
+    public String op;
+    public String id;
+    public String parentId;
+    public String name;
+    public String type;
+    public long startDate;
+    public long updateDate;
+    public boolean failed;
+    public List<String> childIds;
+    public long generation;
+  }
+}
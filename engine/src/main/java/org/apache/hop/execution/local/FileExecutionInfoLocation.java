@@ -19,7 +19,6 @@
 package org.apache.hop.execution.local;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
@@ -43,8 +42,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 
 @GuiPlugin(description = "File execution information location GUI elements")
@@ -98,30 +95,45 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized void close() throws HopException {
+  public void close() throws HopException {
     // Nothing to close
   }
 
+  /**
+   * Get the index of the executions in the root folder
+   *
+   * @return The index, up to date with what's on disk
+   * @throws HopException In case the index can't be read
+   */
+  protected ExecutionIndex getIndex() throws HopException {
+    return ExecutionIndex.getIndex(variables.resolve(rootFolder));
+  }
+
   @Override
-  public synchronized void registerExecution(Execution execution) throws HopException {
+  public void registerExecution(Execution execution) throws HopException {
     try {
-      // Register this execution with the
-      //
-      String folderName = getSubFolder(execution);
-
-      // We can write out a single simple JSON file with execution details
-      //
-      String registrationFileName = folderName + "/" + FILENAME_EXECUTION_JSON;
-
-      // Create the folder(s) of the parent:
-      //
-      HopVfs.getFileObject(registrationFileName).getParent().createFolder();
+      ExecutionIndex index = getIndex();
+      synchronized (index.getLock(execution.getId())) {
+        // Register this execution with the
+        //
+        String folderName = getSubFolder(execution);
+
+        // We can write out a single simple JSON file with execution details
+        //
+        String registrationFileName = folderName + "/" + FILENAME_EXECUTION_JSON;
+
+        // Create the folder(s) of the parent:
+        //
+        HopVfs.getFileObject(registrationFileName).getParent().createFolder();
+
+        // Write the execution information to disk...
+        //
+        try (OutputStream outputStream = HopVfs.getOutputStream(registrationFileName, false)) {
+          ObjectMapper mapper = HopJson.newMapper();
+          mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, execution);
+        }
 
-      // Write the execution information to disk...
-      //
-      try (OutputStream outputStream = HopVfs.getOutputStream(registrationFileName, false)) {
-        ObjectMapper mapper = HopJson.newMapper();
-        mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, execution);
+        index.register(execution);
       }
     } catch (Exception e) {
       throw new HopException("Error registering execution information", e);
@@ -129,23 +141,29 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized boolean deleteExecution(String executionId) throws HopException {
+  public boolean deleteExecution(String executionId) throws HopException {
     try {
+      ExecutionIndex index = getIndex();
+
       // Get the children of this execution and delete those first.
       //
-      List<Execution> childExecutions = findExecutions(executionId);
-      for (Execution childExecution : childExecutions) {
-        deleteExecution(childExecution.getId());
+      for (String childId : index.getChildIds(executionId)) {
+        deleteExecution(childId);
       }
 
-      // Delete the folder and everything in it
-      //
-      FileObject executionFolder = HopVfs.getFileObject(getSubFolder(executionId));
-      for (FileObject child : executionFolder.getChildren()) {
-        child.delete();
-      }
-      executionFolder.delete();
+      synchronized (index.getLock(executionId)) {
+        // Delete the folder and everything in it
+        //
+        FileObject executionFolder = HopVfs.getFileObject(getSubFolder(executionId));
+        if (executionFolder.exists()) {
+          for (FileObject child : executionFolder.getChildren()) {
+            child.delete();
+          }
+          executionFolder.delete();
+        }
 
+        index.delete(executionId);
+      }
       return true;
     } catch (Exception e) {
       throw new HopException("Error deleting execution with ID " + executionId, e);
@@ -153,17 +171,14 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized Execution findLastExecution(ExecutionType executionType, String name)
+  public Execution findLastExecution(ExecutionType executionType, String name)
       throws HopException {
     try {
-      List<String> ids = getExecutionIds(true, 100);
-      for (String id : ids) {
-        Execution execution = getExecution(id);
-        if (execution.getExecutionType() == executionType && name.equals(execution.getName())) {
-          return execution;
-        }
+      String id = getIndex().findLastId(executionType, name, false);
+      if (id == null) {
+        return null;
       }
-      return null;
+      return getExecution(id);
     } catch (Exception e) {
       throw new HopException(
           "Error looking up the last execution of type " + executionType + " and name " + name, e);
@@ -171,45 +186,51 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized void updateExecutionState(ExecutionState executionState) throws HopException {
+  public void updateExecutionState(ExecutionState executionState) throws HopException {
     try {
       if (executionState == null) {
         throw new HopException("Please provide a non-null ExecutionState to update");
       }
 
-      // We need to add the logging text incrementally.
-      // This means: read the previous value first and then add the new lines here...
-      //
-      ExecutionState oldState = getExecutionState(executionState.getId());
-      if (oldState != null) {
-        executionState.setLoggingText(oldState.getLoggingText() + executionState.getLoggingText());
-      }
-
-      // We'll store the execution updates for transforms and actions in the same folder as the
-      // corresponding pipeline or workflow.
-      // It will be easier and faster to get information from smaller folders.
-      //
-      // Let's store the information update in a file called Pipeline-update.json
-      // or Transform-update-<UUID>.json and similar for Workflows and actions
-      //
-      String updateFilename = getUpdateFilename(executionState);
-
-      // Create the folder(s) of the parent if needed:
-      //
-      HopVfs.getFileObject(updateFilename).getParent().createFolder();
+      ExecutionIndex index = getIndex();
+      synchronized (index.getLock(executionState.getId())) {
+        // We need to add the logging text incrementally.
+        // This means: read the previous value first and then add the new lines here...
+        //
+        ExecutionState oldState = getExecutionState(executionState.getId());
+        if (oldState != null) {
+          executionState.setLoggingText(
+              oldState.getLoggingText() + executionState.getLoggingText());
+        }
 
-      try (OutputStream outputStream = HopVfs.getOutputStream(updateFilename, false)) {
-        ObjectMapper mapper = HopJson.newMapper();
-        mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, executionState);
-      }
+        // We'll store the execution updates for transforms and actions in the same folder as the
+        // corresponding pipeline or workflow.
+        // It will be easier and faster to get information from smaller folders.
+        //
+        // Let's store the information update in a file called Pipeline-update.json
+        // or Transform-update-<UUID>.json and similar for Workflows and actions
+        //
+        String updateFilename = getUpdateFilename(executionState);
+
+        // Create the folder(s) of the parent if needed:
+        //
+        HopVfs.getFileObject(updateFilename).getParent().createFolder();
+
+        try (OutputStream outputStream = HopVfs.getOutputStream(updateFilename, false)) {
+          ObjectMapper mapper = HopJson.newMapper();
+          mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, executionState);
+        }
 
-      // Also append to a log file...
-      //
-      if (executionState.getLoggingText() != null) {
-        String logFilename = getLogFilename(executionState);
-        try (OutputStream outputStream = HopVfs.getOutputStream(logFilename, false)) {
-          outputStream.write(executionState.getLoggingText().getBytes(StandardCharsets.UTF_8));
+        // Also append to a log file...
+        //
+        if (executionState.getLoggingText() != null) {
+          String logFilename = getLogFilename(executionState);
+          try (OutputStream outputStream = HopVfs.getOutputStream(logFilename, false)) {
+            outputStream.write(executionState.getLoggingText().getBytes(StandardCharsets.UTF_8));
+          }
         }
+
+        index.update(executionState);
       }
     } catch (Exception e) {
       throw new HopException("Error updating execution information", e);
@@ -217,15 +238,17 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized ExecutionState getExecutionState(String executionId) throws HopException {
+  public ExecutionState getExecutionState(String executionId) throws HopException {
     try {
-      String updateFilename = getUpdateFilename(executionId);
-      if (!HopVfs.fileExists(updateFilename)) {
-        return null;
-      }
-      try (InputStream inputStream = HopVfs.getInputStream(updateFilename)) {
-        ObjectMapper mapper = HopJson.newMapper();
-        return mapper.readValue(inputStream, ExecutionState.class);
+      synchronized (getIndex().getLock(executionId)) {
+        String updateFilename = getUpdateFilename(executionId);
+        if (!HopVfs.fileExists(updateFilename)) {
+          return null;
+        }
+        try (InputStream inputStream = HopVfs.getInputStream(updateFilename)) {
+          ObjectMapper mapper = HopJson.newMapper();
+          return mapper.readValue(inputStream, ExecutionState.class);
+        }
       }
     } catch (Exception e) {
       throw new HopException("Unable to get the execution status for ID " + executionId, e);
@@ -238,16 +261,18 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
    * @param data
    * @throws HopException
    */
-  public synchronized void registerData(ExecutionData data) throws HopException {
+  public void registerData(ExecutionData data) throws HopException {
     try {
-      // We simply store the data in a file with the ID of the transform in the name
-      // The parent folder(s) should already exist at this time!
-      //
-      String dataFilename = getDataFilename(data);
-
-      try (OutputStream outputStream = HopVfs.getOutputStream(dataFilename, false)) {
-        ObjectMapper mapper = HopJson.newMapper();
-        mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, data);
+      synchronized (getIndex().getLock(data.getParentId())) {
+        // We simply store the data in a file with the ID of the transform in the name
+        // The parent folder(s) should already exist at this time!
+        //
+        String dataFilename = getDataFilename(data);
+
+        try (OutputStream outputStream = HopVfs.getOutputStream(dataFilename, false)) {
+          ObjectMapper mapper = HopJson.newMapper();
+          mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, data);
+        }
       }
     } catch (Exception e) {
       throw new HopException("Error storing execution data", e);
@@ -255,73 +280,18 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized List<String> getExecutionIds(boolean includeChildren, int limit)
-      throws HopException {
+  public List<String> getExecutionIds(boolean includeChildren, int limit) throws HopException {
     try {
-      // The list of IDs is simply the content of the pipelines and workflows folders
-      //
-      List<ExecutionIdAndDate> list = new ArrayList<>();
-
-      List<FileObject> subFolders = new ArrayList<>();
-
-      FileObject folder = HopVfs.getFileObject(variables.resolve(rootFolder));
-      if (!folder.exists()) {
-        return Collections.emptyList();
-      }
-      for (FileObject child : folder.getChildren()) {
-        if (child.isFolder()) {
-          subFolders.add(child);
-        }
-      }
-
-      // There should be a file called execution.json in the folder, otherwise we ignore it
-      //
-      for (FileObject subFolder : subFolders) {
-        FileObject executionFileObject = subFolder.getChild(FILENAME_EXECUTION_JSON);
-        if (executionFileObject != null && executionFileObject.exists()) {
-          ObjectMapper objectMapper = HopJson.newMapper();
-          Execution execution;
-          ExecutionState state = null;
-          try (InputStream inputStream = HopVfs.getInputStream(executionFileObject)) {
-            execution = objectMapper.readValue(inputStream, Execution.class);
-          }
-          try (InputStream inputStream =
-              HopVfs.getInputStream(subFolder.getChild(FILENAME_STATE_JSON))) {
-            state = objectMapper.readValue(inputStream, ExecutionState.class);
-          } catch (Exception e) {
-            // Ignore
-          }
-          String id = execution.getId();
-          Date startDate = execution.getExecutionStartDate();
-          Date updateDate = state == null ? null : state.getUpdateTime();
-
-          if (includeChildren || StringUtils.isEmpty(execution.getParentId())) {
-            list.add(new ExecutionIdAndDate(id, startDate, updateDate));
-          }
-        }
-      }
-
-      // Now reverse sort the list by date (latest updated first)
+      // The index keeps the IDs sorted by date (latest updated first)
       //
-      Collections.sort(list, ExecutionIdAndDate::compareTo);
-
-      // Collect the IDs
-      List<String> ids = new ArrayList<>();
-      list.forEach(
-          e -> {
-            if (limit <= 0 || ids.size() < limit) {
-              ids.add(e.id);
-            }
-          });
-
-      return ids;
+      return getIndex().getExecutionIds(includeChildren, limit);
     } catch (Exception e) {
       throw new HopException("Error listing execution IDs", e);
     }
   }
 
   @Override
-  public synchronized List<String> findChildIds(
+  public List<String> findChildIds(
       ExecutionType parentExecutionType, String parentExecutionId) throws HopException {
     try {
       List<String> ids = new ArrayList<>();
@@ -356,7 +326,7 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized Execution getExecution(String executionId) throws HopException {
+  public Execution getExecution(String executionId) throws HopException {
     try {
       // Look in the pipeline executions
       //
@@ -381,13 +351,13 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized List<Execution> findExecutions(String parentExecutionId) throws HopException {
+  public List<Execution> findExecutions(String parentExecutionId) throws HopException {
     try {
       List<Execution> executions = new ArrayList<>();
 
-      for (String id : getExecutionIds(true, 10000)) {
+      for (String id : getIndex().getChildIds(parentExecutionId)) {
         Execution execution = getExecution(id);
-        if (parentExecutionId.equals(execution.getParentId())) {
+        if (execution != null) {
           executions.add(execution);
         }
       }
@@ -399,14 +369,13 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized List<Execution> findExecutions(IExecutionMatcher matcher)
-      throws HopException {
+  public List<Execution> findExecutions(IExecutionMatcher matcher) throws HopException {
     try {
       List<Execution> executions = new ArrayList<>();
 
       for (String id : getExecutionIds(true, 0)) {
         Execution execution = getExecution(id);
-        if (matcher.matches(execution)) {
+        if (execution != null && matcher.matches(execution)) {
           executions.add(execution);
         }
       }
@@ -417,40 +386,30 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   }
 
   @Override
-  public synchronized Execution findPreviousSuccessfulExecution(
-      ExecutionType executionType, String name) throws HopException {
+  public Execution findPreviousSuccessfulExecution(ExecutionType executionType, String name)
+      throws HopException {
     try {
-      List<Execution> executions =
-          findExecutions(e -> e.getExecutionType() == executionType && name.equals(e.getName()));
-      for (Execution execution : executions) {
-        ExecutionState executionState = getExecutionState(execution.getId());
-        if (executionState != null && !executionState.isFailed()) {
-          return execution;
-        }
+      String id = getIndex().findLastId(executionType, name, true);
+      if (id == null) {
+        return null;
       }
-      return null;
+      return getExecution(id);
     } catch (Exception e) {
       throw new HopException("Error finding previous successful execution", e);
     }
   }
 
   @Override
-  public synchronized String findParentId(String childId) throws HopException {
+  public String findParentId(String childId) throws HopException {
     try {
-      for (String id : getExecutionIds(true, 100)) {
-        ExecutionState executionState = getExecutionState(id);
-        if (executionState.getChildIds().contains(childId)) {
-          return id;
-        }
-      }
-      return null;
+      return getIndex().findParentId(childId);
     } catch (Exception e) {
       throw new HopException("Error finding parent execution for child ID " + childId, e);
     }
   }
 
   @Override
-  public synchronized ExecutionData getExecutionData(String parentExecutionId, String executionId)
+  public ExecutionData getExecutionData(String parentExecutionId, String executionId)
       throws HopException {
     try {
       try (FileObject folder = HopVfs.getFileObject(getSubFolder(parentExecutionId))) {
@@ -538,23 +497,4 @@ public class FileExecutionInfoLocation implements IExecutionInfoLocation {
   public void setRootFolder(String rootFolder) {
     this.rootFolder = rootFolder;
   }
-
-  private static class ExecutionIdAndDate {
-    public String id;
-    public Date startDate;
-    public Date updateDate;
-
-    public ExecutionIdAndDate(String id, Date startDate, Date updateDate) {
-      this.id = id;
-      this.startDate = startDate;
-      this.updateDate = updateDate;
-    }
-
-    public int compareTo(ExecutionIdAndDate e) {
-      if (e.updateDate == null || updateDate == null) {
-        return -startDate.compareTo(e.startDate);
-      }
-      return -updateDate.compareTo(e.updateDate);
-    }
-  }
 }
@@ -30,6 +30,7 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
@@ -59,6 +60,7 @@ import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.util.VirtualThreadUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
 import org.apache.hop.core.vfs.HopVfs;
@@ -77,6 +79,7 @@ import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineComponentRowsReceived;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.EmptyPipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration.RowSetType;
 import org.apache.hop.pipeline.performance.PerformanceSnapShot;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
@@ -361,6 +364,18 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** The type of row set to allocate between transform copies */
+  protected RowSetType rowSetType;
+
+  /** The number of rows a batching row set hands over in one go */
+  protected int rowSetBatchSize;
+
+  /** The maximum time in ms a batching row set holds back rows */
+  protected int rowSetFlushLatency;
+
+  /** Run the transform threads as virtual threads if the Java runtime supports it */
+  protected boolean virtualThreads;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -392,6 +407,9 @@ public abstract class Pipeline
     extensionDataMap = new HashMap<>();
 
     rowSetSize = Const.ROWS_IN_ROWSET;
+    rowSetType = RowSetType.Blocking;
+    rowSetBatchSize = RingBufferRowSet.DEFAULT_BATCH_SIZE;
+    rowSetFlushLatency = RingBufferRowSet.DEFAULT_FLUSH_LATENCY_MILLIS;
 
     dataSamplers = Collections.synchronizedList(new ArrayList<>());
   }
@@ -707,7 +725,7 @@ public abstract class Pipeline
                 if (batchingRowSet != null && batchingRowSet.booleanValue()) {
                   rowSet = new BlockingBatchingRowSet(rowSetSize);
                 } else {
-                  rowSet = new BlockingRowSet(rowSetSize);
+                  rowSet = createRowSet();
                 }
                 break;
 
@@ -755,7 +773,7 @@ public abstract class Pipeline
           // distribution...
           for (int s = 0; s < thisCopies; s++) {
             for (int t = 0; t < nextCopies; t++) {
-              BlockingRowSet rowSet = new BlockingRowSet(rowSetSize);
+              IRowSet rowSet = createRowSet();
               rowSet.setThreadNameFromToCopy(
                   thisTransform.getName(), s, nextTransform.getName(), t);
               rowsets.add(rowSet);
@@ -996,9 +1014,9 @@ public abstract class Pipeline
 
       // Put it in a separate thread!
       //
-      threads[i] = new Thread(initThreads[i]);
-      threads[i].setName(
-          "init of " + sid.transformName + "." + sid.copy + " (" + threads[i].getName() + ")");
+      threads[i] =
+          VirtualThreadUtil.newThread(
+              initThreads[i], "init of " + sid.transformName + "." + sid.copy, virtualThreads);
 
       ExtensionPointHandler.callExtensionPoint(
           log, this, HopExtensionPoint.TransformBeforeInitialize.id, initThreads[i]);
@@ -1259,8 +1277,9 @@ public abstract class Pipeline
         //
         for (final TransformMetaDataCombi combi : transforms) {
           RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
+          Thread thread =
+              VirtualThreadUtil.newThread(
+                  runThread, getName() + " - " + combi.transformName, virtualThreads);
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -1970,6 +1989,19 @@ public abstract class Pipeline
     return safeModeEnabled;
   }
 
+  /**
+   * Create a row set to pass rows from one transform copy to another in a normal pipeline. The type
+   * of row set is determined by the pipeline run configuration.
+   *
+   * @return a new row set
+   */
+  protected IRowSet createRowSet() {
+    if (rowSetType == RowSetType.RingBuffer) {
+      return new RingBufferRowSet(rowSetSize, rowSetBatchSize, rowSetFlushLatency);
+    }
+    return new BlockingRowSet(rowSetSize);
+  }
+
   /**
    * This adds a row producer to the pipeline that just got set up. It is preferable to run this
    * BEFORE execute() but after prepareExecution()
@@ -3501,6 +3533,70 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public RowSetType getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(RowSetType rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets rowSetBatchSize
+   *
+   * @return value of rowSetBatchSize
+   */
+  public int getRowSetBatchSize() {
+    return rowSetBatchSize;
+  }
+
+  /**
+   * @param rowSetBatchSize The rowSetBatchSize to set
+   */
+  public void setRowSetBatchSize(int rowSetBatchSize) {
+    this.rowSetBatchSize = rowSetBatchSize;
+  }
+
+  /**
+   * Gets rowSetFlushLatency
+   *
+   * @return value of rowSetFlushLatency
+   */
+  public int getRowSetFlushLatency() {
+    return rowSetFlushLatency;
+  }
+
+  /**
+   * @param rowSetFlushLatency The rowSetFlushLatency to set
+   */
+  public void setRowSetFlushLatency(int rowSetFlushLatency) {
+    this.rowSetFlushLatency = rowSetFlushLatency;
+  }
+
+  /**
+   * Gets virtualThreads
+   *
+   * @return value of virtualThreads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param virtualThreads The virtualThreads to set
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
   /**
    * Gets feedbackShown
    *
@@ -21,6 +21,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.Result;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.map.DatabaseConnectionMap;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -28,6 +29,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.parameters.INamedParameters;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.VirtualThreadUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.execution.ExecutionBuilder;
 import org.apache.hop.execution.ExecutionDataBuilder;
@@ -128,6 +130,18 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
 
     int sizeRowsSet = Const.toInt(resolve(config.getRowSetSize()), Const.ROWS_IN_ROWSET);
     setRowSetSize(sizeRowsSet);
+    setRowSetType(LocalPipelineRunConfiguration.RowSetType.lookupName(config.getRowSetType()));
+    setRowSetBatchSize(
+        Const.toInt(resolve(config.getRowSetBatchSize()), RingBufferRowSet.DEFAULT_BATCH_SIZE));
+    setRowSetFlushLatency(
+        Const.toInt(
+            resolve(config.getRowSetFlushLatency()),
+            RingBufferRowSet.DEFAULT_FLUSH_LATENCY_MILLIS));
+    setVirtualThreads(config.isVirtualThreads());
+    if (config.isVirtualThreads() && !VirtualThreadUtil.isSupported()) {
+      log.logBasic(
+          "Virtual threads are not supported by this Java runtime, using regular threads instead");
+    }
     setSafeModeEnabled(config.isSafeModeEnabled());
     setSortingTransformsTopologically(config.isSortingTransformsTopologically());
     setGatheringMetrics(config.isGatheringMetrics());
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.engines.local;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
@@ -144,6 +145,51 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  @GuiWidgetElement(
+      id = "rowSetType",
+      order = "110",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.ToolTip",
+      comboValuesMethod = "getRowSetTypes")
+  @HopMetadataProperty(key = "rowset_type")
+  protected String rowSetType;
+
+  @GuiWidgetElement(
+      id = "rowSetBatchSize",
+      order = "120",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetBatchSize.Label")
+  @HopMetadataProperty(key = "rowset_batch_size")
+  protected String rowSetBatchSize;
+
+  @GuiWidgetElement(
+      id = "rowSetFlushLatency",
+      order = "130",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetFlushLatency.Label")
+  @HopMetadataProperty(key = "rowset_flush_latency")
+  protected String rowSetFlushLatency;
+
+  @GuiWidgetElement(
+      id = "virtualThreads",
+      order = "140",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.ToolTip")
+  @HopMetadataProperty(key = "virtual_threads")
+  protected boolean virtualThreads;
+
   public enum SampleType {
     None,
     First,
@@ -151,6 +197,29 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     Random;
   }
 
+  /** The type of row set used to pass rows between transform copies. */
+  public enum RowSetType {
+    /** A row set backed by a blocking queue: one lock per row */
+    Blocking,
+    /** A lock-free single producer/single consumer ring buffer handing over rows in batches */
+    RingBuffer;
+
+    /**
+     * Look up a row set type by name, defaulting to {@link #Blocking}
+     *
+     * @param name the name of the row set type
+     * @return the row set type
+     */
+    public static RowSetType lookupName(String name) {
+      for (RowSetType type : values()) {
+        if (type.name().equalsIgnoreCase(name)) {
+          return type;
+        }
+      }
+      return Blocking;
+    }
+  }
+
   public LocalPipelineRunConfiguration() {
     super();
     this.rowSetSize = Integer.toString(Const.ROWS_IN_ROWSET);
@@ -160,6 +229,9 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = SampleType.Last.name();
     this.sampleSize = "100";
     this.transactional = false;
+    this.rowSetType = RowSetType.Blocking.name();
+    this.rowSetBatchSize = Integer.toString(RingBufferRowSet.DEFAULT_BATCH_SIZE);
+    this.rowSetFlushLatency = Integer.toString(RingBufferRowSet.DEFAULT_FLUSH_LATENCY_MILLIS);
   }
 
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
@@ -174,6 +246,10 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
     this.transactional = config.transactional;
+    this.rowSetType = config.rowSetType;
+    this.rowSetBatchSize = config.rowSetBatchSize;
+    this.rowSetFlushLatency = config.rowSetFlushLatency;
+    this.virtualThreads = config.virtualThreads;
   }
 
   @Override
@@ -188,6 +264,15 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     }
     return list;
   }
+
+  public List<String> getRowSetTypes(ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (RowSetType type : RowSetType.values()) {
+      list.add(type.name());
+    }
+    return list;
+  }
+
   /**
    * Gets rowSetSize
    *
@@ -347,4 +432,68 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public String getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(String rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets rowSetBatchSize
+   *
+   * @return value of rowSetBatchSize
+   */
+  public String getRowSetBatchSize() {
+    return rowSetBatchSize;
+  }
+
+  /**
+   * @param rowSetBatchSize The rowSetBatchSize to set
+   */
+  public void setRowSetBatchSize(String rowSetBatchSize) {
+    this.rowSetBatchSize = rowSetBatchSize;
+  }
+
+  /**
+   * Gets rowSetFlushLatency
+   *
+   * @return value of rowSetFlushLatency
+   */
+  public String getRowSetFlushLatency() {
+    return rowSetFlushLatency;
+  }
+
+  /**
+   * @param rowSetFlushLatency The rowSetFlushLatency to set
+   */
+  public void setRowSetFlushLatency(String rowSetFlushLatency) {
+    this.rowSetFlushLatency = rowSetFlushLatency;
+  }
+
+  /**
+   * Gets virtualThreads
+   *
+   * @return value of virtualThreads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param virtualThreads The virtualThreads to set
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
 }
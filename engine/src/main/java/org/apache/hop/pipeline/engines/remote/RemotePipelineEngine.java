@@ -78,6 +78,7 @@ import org.apache.hop.www.PrepareExecutionPipelineServlet;
 import org.apache.hop.www.RegisterPackageServlet;
 import org.apache.hop.www.RegisterPipelineServlet;
 import org.apache.hop.www.SniffTransformServlet;
+import org.apache.hop.www.StatusEventStream;
 import org.apache.hop.www.StartExecutionPipelineServlet;
 import org.apache.hop.www.WebResult;
 import org.w3c.dom.Node;
@@ -168,6 +169,7 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
   protected long serverPollDelay;
   protected long serverPollInterval;
+  protected boolean streamingStatus;
 
   public RemotePipelineEngine() {
     super();
@@ -235,6 +237,7 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
           Const.toLong(resolve(remotePipelineRunConfiguration.getServerPollDelay()), 1000L);
       serverPollInterval =
           Const.toLong(resolve(remotePipelineRunConfiguration.getServerPollInterval()), 2000L);
+      streamingStatus = remotePipelineRunConfiguration.isStreamingStatus();
 
       hopServer = metadataProvider.getSerializer(HopServer.class).load(hopServerName);
       if (hopServer == null) {
@@ -464,17 +467,19 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
         // So the pipeline has been successfully started.
         // That doesn't mean that the execution itself is without error
         // To know that we need to monitor the execution remotely
-        // We monitor this every 2 seconds after a 1 second delay (configurable)
+        // The server either streams the changes to us or we poll it every 2 seconds after a 1
+        // second delay (configurable)
         //
-        TimerTask refreshTask =
-            new TimerTask() {
-              @Override
-              public void run() {
-                getPipelineStatus();
-              }
-            };
-        refreshTimer = new Timer();
-        refreshTimer.schedule(refreshTask, serverPollDelay, serverPollInterval);
+        if (streamingStatus) {
+          Thread streamThread =
+              new Thread(
+                  this::streamPipelineStatus,
+                  "Remote pipeline status stream: " + subject.getName());
+          streamThread.setDaemon(true);
+          streamThread.start();
+        } else {
+          startPollingStatus(serverPollDelay);
+        }
 
         readyToStart = false;
         running = true;
@@ -493,97 +498,170 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
     }
   }
 
+  private void startPollingStatus(long delay) {
+    TimerTask refreshTask =
+        new TimerTask() {
+          @Override
+          public void run() {
+            getPipelineStatus();
+          }
+        };
+    refreshTimer = new Timer();
+    refreshTimer.schedule(refreshTask, delay, serverPollInterval);
+  }
+
+  /**
+   * Follow the status events the server sends for this pipeline. If the stream can't be opened, for
+   * example because the server doesn't support it, or if it ends before the pipeline is done, we
+   * fall back to polling for the status.
+   */
+  private void streamPipelineStatus() {
+    try (StatusEventStream eventStream =
+        hopServer.streamPipelineStatus(
+            this, subject.getName(), containerId, lastLogLineNr, serverPollInterval)) {
+      String data;
+      while (!finished && !stopped && (data = eventStream.readEvent()) != null) {
+        updatePipelineStatus(HopServerPipelineStatus.fromXml(data), true);
+      }
+    } catch (Exception e) {
+      logChannel.logDetailed(
+          "Unable to stream the status of pipeline '"
+              + subject.getName()
+              + "' from hop server '"
+              + hopServer.getName()
+              + "', polling for the status instead: "
+              + e.getMessage());
+    }
+    if (!finished && !stopped) {
+      startPollingStatus(0L);
+    }
+  }
+
   private synchronized void getPipelineStatus() throws RuntimeException {
     try {
       HopServerPipelineStatus pipelineStatus =
           hopServer.getPipelineStatus(this, subject.getName(), containerId, lastLogLineNr);
-      synchronized (engineMetrics) {
+      updatePipelineStatus(pipelineStatus, false);
+    } catch (Exception e) {
+      throw new RuntimeException(
+          "Error getting the status of pipeline '"
+              + subject.getName()
+              + "' on hop server '"
+              + hopServer.getName()
+              + "' with object ID '"
+              + containerId
+              + "'",
+          e);
+    }
+  }
+
+  /**
+   * Apply the status of the pipeline on the server to this engine.
+   *
+   * @param pipelineStatus The status received from the server
+   * @param delta true if the status only contains the transforms which changed and the log lines
+   *     since the previous status event. False if it's the complete status.
+   */
+  private synchronized void updatePipelineStatus(
+      HopServerPipelineStatus pipelineStatus, boolean delta) throws HopException {
+    synchronized (engineMetrics) {
+      engineMetrics.setStartDate(pipelineStatus.getExecutionStartDate());
+      engineMetrics.setEndDate(pipelineStatus.getExecutionEndDate());
+      if (!delta) {
         hasHaltedComponents = false;
-        engineMetrics.setStartDate(pipelineStatus.getExecutionStartDate());
-        engineMetrics.setEndDate(pipelineStatus.getExecutionEndDate());
         engineMetrics.getComponents().clear();
         engineMetrics.getComponentRunningMap().clear();
         engineMetrics.getComponentSpeedMap().clear();
         engineMetrics.getComponentMetricsMap().clear();
+      }
 
-        for (TransformStatus transformStatus : pipelineStatus.getTransformStatusList()) {
-          EngineComponent component =
-              new EngineComponent(transformStatus.getTransformName(), transformStatus.getCopy());
-          component.setErrors(transformStatus.getErrors());
-          status =
-              ComponentExecutionStatus.getStatusFromDescription(
-                  transformStatus.getStatusDescription());
-          statusDescription = status.getDescription();
-          boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
-          component.setRunning(running);
-          boolean halted =
-              status == ComponentExecutionStatus.STATUS_HALTED
-                  || status == ComponentExecutionStatus.STATUS_HALTING;
-          if (halted) {
-            hasHaltedComponents = true;
-          }
-          engineMetrics.setComponentStatus(component, transformStatus.getStatusDescription());
-          engineMetrics.setComponentRunning(component, running);
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_READ, transformStatus.getLinesRead());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_ERROR, transformStatus.getErrors());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
-          engineMetrics.setComponentMetric(
-              component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
-          engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
-          engineMetrics.getComponents().add(component);
+      for (TransformStatus transformStatus : pipelineStatus.getTransformStatusList()) {
+        EngineComponent component =
+            new EngineComponent(transformStatus.getTransformName(), transformStatus.getCopy());
+        if (delta) {
+          // Replace the previous state of the transform copy
+          //
+          engineMetrics.getComponents().remove(component);
         }
+        component.setErrors(transformStatus.getErrors());
+        status =
+            ComponentExecutionStatus.getStatusFromDescription(
+                transformStatus.getStatusDescription());
+        statusDescription = status.getDescription();
+        boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
+        component.setRunning(running);
+        boolean halted =
+            status == ComponentExecutionStatus.STATUS_HALTED
+                || status == ComponentExecutionStatus.STATUS_HALTING;
+        if (halted) {
+          hasHaltedComponents = true;
+        }
+        engineMetrics.setComponentStatus(component, transformStatus.getStatusDescription());
+        engineMetrics.setComponentRunning(component, running);
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_READ, transformStatus.getLinesRead());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_ERROR, transformStatus.getErrors());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize());
+        engineMetrics.setComponentMetric(
+            component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize());
+        engineMetrics.setComponentSpeed(component, transformStatus.getSpeed());
+        engineMetrics.getComponents().add(component);
+      }
 
-        running = pipelineStatus.isRunning();
-        finished = pipelineStatus.isFinished();
-        stopped = pipelineStatus.isStopped();
-        paused = pipelineStatus.isPaused();
+      boolean wasFinished = finished;
+      running = pipelineStatus.isRunning();
+      finished = pipelineStatus.isFinished();
+      stopped = pipelineStatus.isStopped();
+      paused = pipelineStatus.isPaused();
+      if (delta) {
+        long nrErrors = 0L;
+        for (IEngineComponent component : engineMetrics.getComponents()) {
+          nrErrors += component.getErrors();
+        }
+        errors = (int) nrErrors;
+      } else {
         errors = (int) pipelineStatus.getNrTransformErrors();
+      }
 
-        lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+      // A status request in between events (stop, pause) can already have logged these lines
+      //
+      boolean newLogLines = !delta || pipelineStatus.getLastLoggingLineNr() > lastLogLineNr;
+      lastLogLineNr = Math.max(lastLogLineNr, pipelineStatus.getLastLoggingLineNr());
 
-        // Also pass the remote log to this log channel as BASIC logging...
-        // TODO: make this configurable and split up the log lines individually so we can do a
-        // better job of this.
-        // Now it's a bit garbled
-        //
-        if (StringUtils.isNotEmpty(pipelineStatus.getLoggingString())) {
-          logChannel.logBasic(pipelineStatus.getLoggingString());
-        }
+      // Also pass the remote log to this log channel as BASIC logging...
+      // TODO: make this configurable and split up the log lines individually so we can do a
+      // better job of this.
+      // Now it's a bit garbled
+      //
+      if (newLogLines && StringUtils.isNotEmpty(pipelineStatus.getLoggingString())) {
+        logChannel.logBasic(pipelineStatus.getLoggingString());
+      }
 
-        // If the pipeline is finished, cancel the timer task
-        //
-        if (finished) {
-          firePipelineExecutionFinishedListeners();
+      // If the pipeline is finished, cancel the timer task
+      // Only do this once: the status stream and a status request can both report it
+      //
+      if (finished && !wasFinished) {
+        firePipelineExecutionFinishedListeners();
+        if (refreshTimer != null) {
           refreshTimer.cancel();
-          logChannel.logBasic(
-              "Execution finished on a remote pipeline engine with run configuration '"
-                  + pipelineRunConfiguration.getName()
-                  + "'");
         }
+        logChannel.logBasic(
+            "Execution finished on a remote pipeline engine with run configuration '"
+                + pipelineRunConfiguration.getName()
+                + "'");
       }
-    } catch (Exception e) {
-      throw new RuntimeException(
-          "Error getting the status of pipeline '"
-              + subject.getName()
-              + "' on hop server '"
-              + hopServer.getName()
-              + "' with object ID '"
-              + containerId
-              + "'",
-          e);
     }
   }
 
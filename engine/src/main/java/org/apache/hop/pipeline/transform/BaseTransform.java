@@ -70,6 +70,7 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -152,8 +153,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private final IPipelineEngine<PipelineMeta> pipeline;
 
-  private final Object statusCountersLock = new Object();
-
   protected Date initStartDate;
   protected Date executionStartDate;
   protected Date firstRowReadDate;
@@ -161,25 +160,25 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   protected Date executionEndDate;
 
   /** Number of lines read from previous transform(s) */
-  private long linesRead;
+  private final AtomicLong linesRead;
 
   /** Number of lines written to next transform(s) */
-  private long linesWritten;
+  private final AtomicLong linesWritten;
 
   /** Number of lines read from file or database */
-  private long linesInput;
+  private final AtomicLong linesInput;
 
   /** Number of lines written to file or database */
-  private long linesOutput;
+  private final AtomicLong linesOutput;
 
   /** Number of updates in a database table or file */
-  private long linesUpdated;
+  private final AtomicLong linesUpdated;
 
   /** Number of lines skipped */
-  private long linesSkipped;
+  private final AtomicLong linesSkipped;
 
   /** Number of lines rejected to an error handling transform */
-  private long linesRejected;
+  private final AtomicLong linesRejected;
 
   private boolean distributed;
 
@@ -387,15 +386,13 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
     init = false;
 
-    synchronized (statusCountersLock) {
-      linesRead = 0L;
-      linesWritten = 0L;
-      linesUpdated = 0L;
-      linesSkipped = 0L;
-      linesRejected = 0L;
-      linesInput = 0L;
-      linesOutput = 0L;
-    }
+    linesRead = new AtomicLong(0L);
+    linesWritten = new AtomicLong(0L);
+    linesUpdated = new AtomicLong(0L);
+    linesSkipped = new AtomicLong(0L);
+    linesRejected = new AtomicLong(0L);
+    linesInput = new AtomicLong(0L);
+    linesOutput = new AtomicLong(0L);
 
     inputRowSets = new ArrayList<>();
     outputRowSets = new ArrayList<>();
@@ -643,9 +640,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRead() {
-    synchronized (statusCountersLock) {
-      return linesRead;
-    }
+    return linesRead.get();
   }
 
   /**
@@ -655,9 +650,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return ++linesRead;
-    }
+    return linesRead.incrementAndGet();
   }
 
   /**
@@ -666,9 +659,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized (statusCountersLock) {
-      return --linesRead;
-    }
+    return linesRead.decrementAndGet();
   }
 
   /**
@@ -676,9 +667,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesRead()}, {@link #incrementLinesRead()}, {@link #decrementLinesRead()}
    */
   public void setLinesRead(long newLinesReadValue) {
-    synchronized (statusCountersLock) {
-      linesRead = newLinesReadValue;
-    }
+    linesRead.set(newLinesReadValue);
   }
 
   /**
@@ -687,9 +676,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesInput() {
-    synchronized (statusCountersLock) {
-      return linesInput;
-    }
+    return linesInput.get();
   }
 
   /**
@@ -699,9 +686,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized (statusCountersLock) {
-      return ++linesInput;
-    }
+    return linesInput.incrementAndGet();
   }
 
   /**
@@ -710,9 +695,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesInput()} or {@link #incrementLinesInput()}
    */
   public void setLinesInput(long newLinesInputValue) {
-    synchronized (statusCountersLock) {
-      linesInput = newLinesInputValue;
-    }
+    linesInput.set(newLinesInputValue);
   }
 
   /**
@@ -721,9 +704,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesOutput() {
-    synchronized (statusCountersLock) {
-      return linesOutput;
-    }
+    return linesOutput.get();
   }
 
   /**
@@ -733,9 +714,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesOutput()}, {@link #setLinesOutput(long)}
    */
   public long incrementLinesOutput() {
-    synchronized (statusCountersLock) {
-      return ++linesOutput;
-    }
+    return linesOutput.incrementAndGet();
   }
 
   /**
@@ -744,9 +723,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesOutput()} or {@link #incrementLinesOutput()}
    */
   public void setLinesOutput(long newLinesOutputValue) {
-    synchronized (statusCountersLock) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutput.set(newLinesOutputValue);
   }
 
   /**
@@ -757,9 +734,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesWritten() {
-    synchronized (statusCountersLock) {
-      return linesWritten;
-    }
+    return linesWritten.get();
   }
 
   /**
@@ -769,9 +744,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return ++linesWritten;
-    }
+    return linesWritten.incrementAndGet();
   }
 
   /**
@@ -781,9 +754,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized (statusCountersLock) {
-      return --linesWritten;
-    }
+    return linesWritten.decrementAndGet();
   }
 
   /**
@@ -794,9 +765,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    *     #decrementLinesWritten()}
    */
   public void setLinesWritten(long newLinesWrittenValue) {
-    synchronized (statusCountersLock) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWritten.set(newLinesWrittenValue);
   }
 
   /**
@@ -805,9 +774,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return linesUpdated;
-    }
+    return linesUpdated.get();
   }
 
   /**
@@ -817,9 +784,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesUpdated()}, {@link #setLinesUpdated(long)}
    */
   public long incrementLinesUpdated() {
-    synchronized (statusCountersLock) {
-      return ++linesUpdated;
-    }
+    return linesUpdated.incrementAndGet();
   }
 
   /**
@@ -828,9 +793,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesUpdated()}, {@link #incrementLinesUpdated()}
    */
   public void setLinesUpdated(long newLinesUpdatedValue) {
-    synchronized (statusCountersLock) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdated.set(newLinesUpdatedValue);
   }
 
   /**
@@ -841,9 +804,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public long getLinesRejected() {
-    synchronized (statusCountersLock) {
-      return linesRejected;
-    }
+    return linesRejected.get();
   }
 
   /**
@@ -853,9 +814,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized (statusCountersLock) {
-      return ++linesRejected;
-    }
+    return linesRejected.incrementAndGet();
   }
 
   /**
@@ -864,9 +823,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void setLinesRejected(long newLinesRejectedValue) {
-    synchronized (statusCountersLock) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejected.set(newLinesRejectedValue);
   }
 
   /**
@@ -874,9 +831,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #setLinesSkipped(long)}, {@link #incrementLinesSkipped()}
    */
   public long getLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return linesSkipped;
-    }
+    return linesSkipped.get();
   }
 
   /**
@@ -886,9 +841,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesSkipped()}, {@link #setLinesSkipped(long)}
    */
   public long incrementLinesSkipped() {
-    synchronized (statusCountersLock) {
-      return ++linesSkipped;
-    }
+    return linesSkipped.incrementAndGet();
   }
 
   /**
@@ -896,9 +849,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    * @see {@link #getLinesSkipped()}, {@link #incrementLinesSkipped()}
    */
   public void setLinesSkipped(long newLinesSkippedValue) {
-    synchronized (statusCountersLock) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkipped.set(newLinesSkippedValue);
   }
 
   @Override
@@ -1670,6 +1621,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
             }
           } else {
             timeout = true;
+            // We're waiting for input: don't keep rows for the next transforms waiting as well.
+            //
+            flushOutputRowSets();
           }
           nextInputStream();
           inputRowSet = currentInputStream();
@@ -1915,6 +1869,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     //
     rowData = rowSet.getRow();
     while (rowData == null && !rowSet.isDone() && !stopped.get()) {
+      flushOutputRowSets();
       rowData = rowSet.getRow();
     }
 
@@ -2147,6 +2102,24 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return null;
   }
 
+  /**
+   * Make all rows written so far visible to the next transforms. Batching row sets can hold back a
+   * few rows, so we do this whenever this transform is about to wait for input.
+   */
+  protected void flushOutputRowSets() {
+    outputRowSetsLock.readLock().lock();
+    try {
+      for (IRowSet rs : outputRowSets) {
+        rs.flush();
+      }
+      if (errorRowSet != null) {
+        errorRowSet.flush();
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
   //
   // We have to tell the next transform we're finished with
   // writing to output rowset(s)!
@@ -2897,36 +2870,34 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   /** Log summary. */
   public void logSummary() {
-    synchronized (statusCountersLock) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
-        logBasic(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      } else {
-        logDetailed(
-            BaseMessages.getString(
-                PKG,
-                "BaseTransform.Log.SummaryInfo",
-                String.valueOf(li),
-                String.valueOf(lo),
-                String.valueOf(lr),
-                String.valueOf(lw),
-                String.valueOf(lw),
-                String.valueOf(errors + lj)));
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if (li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
+    } else {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "BaseTransform.Log.SummaryInfo",
+              String.valueOf(li),
+              String.valueOf(lo),
+              String.valueOf(lr),
+              String.valueOf(lw),
+              String.valueOf(lw),
+              String.valueOf(errors + lj)));
     }
   }
 
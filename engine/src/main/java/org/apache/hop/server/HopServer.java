@@ -36,8 +36,10 @@ import org.apache.hop.metadata.api.HopMetadataProperty;
 import org.apache.hop.metadata.api.IHopMetadata;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.www.GetPipelineStatusServlet;
+import org.apache.hop.www.GetPipelineStatusStreamServlet;
 import org.apache.hop.www.GetStatusServlet;
 import org.apache.hop.www.GetWorkflowStatusServlet;
+import org.apache.hop.www.GetWorkflowStatusStreamServlet;
 import org.apache.hop.www.HopServerPipelineStatus;
 import org.apache.hop.www.HopServerStatus;
 import org.apache.hop.www.HopServerWorkflowStatus;
@@ -48,6 +50,7 @@ import org.apache.hop.www.RemovePipelineServlet;
 import org.apache.hop.www.RemoveWorkflowServlet;
 import org.apache.hop.www.SniffTransformServlet;
 import org.apache.hop.www.SslConfiguration;
+import org.apache.hop.www.StatusEventStream;
 import org.apache.hop.www.StartPipelineServlet;
 import org.apache.hop.www.StartWorkflowServlet;
 import org.apache.hop.www.StopPipelineServlet;
@@ -908,6 +911,98 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     return HopServerWorkflowStatus.fromXml(xml);
   }
 
+  /**
+   * Open a stream of status events of a pipeline. Every event only contains the transforms which
+   * changed and the log lines since the previous event. Use {@link
+   * HopServerPipelineStatus#fromXml(String)} to parse the data of an event.
+   *
+   * @param variables The variables to resolve the server details with
+   * @param pipelineName The name of the pipeline
+   * @param serverObjectId The ID of the pipeline on the server
+   * @param startLogLineNr The first log line to send
+   * @param interval The number of milliseconds between status checks on the server
+   * @return The stream of status events. Close it when you're done reading.
+   * @throws Exception In case the stream couldn't be opened, for example on an older server
+   */
+  public StatusEventStream streamPipelineStatus(
+      IVariables variables,
+      String pipelineName,
+      String serverObjectId,
+      int startLogLineNr,
+      long interval)
+      throws Exception {
+    return openEventStream(
+        variables,
+        GetPipelineStatusStreamServlet.CONTEXT_PATH
+            + "/?name="
+            + URLEncoder.encode(pipelineName, "UTF-8")
+            + "&id="
+            + Const.NVL(serverObjectId, "")
+            + "&from="
+            + startLogLineNr
+            + "&"
+            + GetPipelineStatusStreamServlet.PARAMETER_INTERVAL
+            + "="
+            + interval);
+  }
+
+  /**
+   * Open a stream of status events of a workflow. An event is sent when the status changes or when
+   * there are new log lines. Use {@link HopServerWorkflowStatus#fromXml(String)} to parse the data
+   * of an event.
+   *
+   * @param variables The variables to resolve the server details with
+   * @param workflowName The name of the workflow
+   * @param serverObjectId The ID of the workflow on the server
+   * @param startLogLineNr The first log line to send
+   * @param interval The number of milliseconds between status checks on the server
+   * @return The stream of status events. Close it when you're done reading.
+   * @throws Exception In case the stream couldn't be opened, for example on an older server
+   */
+  public StatusEventStream streamWorkflowStatus(
+      IVariables variables,
+      String workflowName,
+      String serverObjectId,
+      int startLogLineNr,
+      long interval)
+      throws Exception {
+    return openEventStream(
+        variables,
+        GetWorkflowStatusStreamServlet.CONTEXT_PATH
+            + "/?name="
+            + URLEncoder.encode(workflowName, "UTF-8")
+            + "&id="
+            + Const.NVL(serverObjectId, "")
+            + "&from="
+            + startLogLineNr
+            + "&"
+            + GetWorkflowStatusStreamServlet.PARAMETER_INTERVAL
+            + "="
+            + interval);
+  }
+
+  private StatusEventStream openEventStream(IVariables variables, String service)
+      throws Exception {
+    HttpGet method = buildExecuteServiceMethod(variables, service, new HashMap<>());
+    method.setHeader("Accept", StatusEventStream.CONTENT_TYPE);
+    try {
+      HttpResponse httpResponse = getHttpClient().execute(method, getAuthContext(variables));
+      StatusLine statusLine = httpResponse.getStatusLine();
+      if (statusLine.getStatusCode() >= 400) {
+        throw new HopException(
+            String.format(
+                "HTTP Status %d - %s - %s",
+                statusLine.getStatusCode(),
+                method.getURI().toString(),
+                statusLine.getReasonPhrase()));
+      }
+      return new StatusEventStream(method, httpResponse.getEntity().getContent());
+    } catch (Exception e) {
+      method.releaseConnection();
+      throw e;
+    }
+  }
+
   public WebResult stopPipeline(IVariables variables, String pipelineName, String serverObjectId)
       throws Exception {
     String xml =
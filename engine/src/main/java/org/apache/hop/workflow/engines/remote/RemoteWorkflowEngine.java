@@ -63,6 +63,7 @@ import org.apache.hop.workflow.engine.WorkflowEnginePlugin;
 import org.apache.hop.www.HopServerWorkflowStatus;
 import org.apache.hop.www.RegisterPackageServlet;
 import org.apache.hop.www.RegisterWorkflowServlet;
+import org.apache.hop.www.StatusEventStream;
 import org.apache.hop.www.WebResult;
 
 import java.util.ArrayList;
@@ -102,6 +103,7 @@ public class RemoteWorkflowEngine extends Variables implements IWorkflowEngine<W
   protected LogLevel logLevel;
   protected long serverPollDelay;
   protected long serverPollInterval;
+  protected boolean streamingStatus;
   protected HopServer hopServer;
   protected String containerId;
   protected int lastLogLineNr;
@@ -248,6 +250,7 @@ public class RemoteWorkflowEngine extends Variables implements IWorkflowEngine<W
           Const.toLong(resolve(remoteWorkflowRunConfiguration.getServerPollDelay()), 1000L);
       serverPollInterval =
           Const.toLong(resolve(remoteWorkflowRunConfiguration.getServerPollInterval()), 2000L);
+      streamingStatus = remoteWorkflowRunConfiguration.isStreamingStatus();
 
       hopServer = metadataProvider.getSerializer(HopServer.class).load(hopServerName);
       if (hopServer == null) {
@@ -292,10 +295,16 @@ public class RemoteWorkflowEngine extends Variables implements IWorkflowEngine<W
 
   public void monitorRemoteWorkflowUntilFinished() {
     try {
-      // Start with a little bit of a wait
-      //
-      Thread.sleep(serverPollDelay);
+      if (streamingStatus) {
+        streamWorkflowStatus();
+      } else {
+        // Start with a little bit of a wait
+        //
+        Thread.sleep(serverPollDelay);
+      }
 
+      // Poll until the workflow is done, also when the status stream ended early
+      //
       while (!stopped && !finished) {
         getWorkflowStatus();
         Thread.sleep(serverPollInterval);
@@ -307,31 +316,67 @@ public class RemoteWorkflowEngine extends Variables implements IWorkflowEngine<W
     }
   }
 
-  public synchronized void getWorkflowStatus() throws HopException {
+  /**
+   * Follow the status events the server sends for this workflow until it's done. If the stream
+   * can't be opened, for example because the server doesn't support it, we return and the caller
+   * polls for the status instead.
+   */
+  protected void streamWorkflowStatus() {
     if (containerId == null) {
       // Nothing to look for yet...
       return;
     }
-    try {
-      workflowStatus =
-          hopServer.getWorkflowStatus(this, workflowMeta.getName(), containerId, lastLogLineNr);
-      lastLogLineNr = workflowStatus.getLastLoggingLineNr();
-      if (StringUtils.isNotEmpty(workflowStatus.getLoggingString())) {
-        // TODO implement detailed logging and add option to log at all
-        logChannel.logBasic(workflowStatus.getLoggingString());
+    try (StatusEventStream eventStream =
+        hopServer.streamWorkflowStatus(
+            this, workflowMeta.getName(), containerId, lastLogLineNr, serverPollInterval)) {
+      String data;
+      while (!stopped && !finished && (data = eventStream.readEvent()) != null) {
+        updateWorkflowStatus(HopServerWorkflowStatus.fromXml(data));
       }
-      finished = workflowStatus.isFinished();
-      stopped = workflowStatus.isStopped();
-      running = workflowStatus.isRunning();
-      active = running; // TODO: differentiate
-      statusDescription = workflowStatus.getStatusDescription();
+    } catch (Exception e) {
+      logChannel.logDetailed(
+          "Unable to stream the status of workflow '"
+              + workflowMeta.getName()
+              + "' from hop server '"
+              + hopServer.getName()
+              + "', polling for the status instead: "
+              + e.getMessage());
+    }
+  }
 
-      result = workflowStatus.getResult();
+  public synchronized void getWorkflowStatus() throws HopException {
+    if (containerId == null) {
+      // Nothing to look for yet...
+      return;
+    }
+    try {
+      updateWorkflowStatus(
+          hopServer.getWorkflowStatus(this, workflowMeta.getName(), containerId, lastLogLineNr));
     } catch (Exception e) {
       throw new HopException("Error getting workflow status", e);
     }
   }
 
+  private synchronized void updateWorkflowStatus(HopServerWorkflowStatus workflowStatus) {
+    this.workflowStatus = workflowStatus;
+
+    // A status request in between events (stop) can already have logged these lines
+    //
+    if (workflowStatus.getLastLoggingLineNr() > lastLogLineNr
+        && StringUtils.isNotEmpty(workflowStatus.getLoggingString())) {
+      // TODO implement detailed logging and add option to log at all
+      logChannel.logBasic(workflowStatus.getLoggingString());
+    }
+    lastLogLineNr = Math.max(lastLogLineNr, workflowStatus.getLastLoggingLineNr());
+    finished = workflowStatus.isFinished();
+    stopped = workflowStatus.isStopped();
+    running = workflowStatus.isRunning();
+    active = running; // TODO: differentiate
+    statusDescription = workflowStatus.getStatusDescription();
+
+    result = workflowStatus.getResult();
+  }
+
   @Override
   public void stopExecution() {
     try {
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.apache.hop.server.HttpUtil;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streams the status of a pipeline as Server-Sent Events until the pipeline is finished or stopped.
+ * Every event is a pipeline status in XML with only the transforms that changed and the new log
+ * lines since the previous event. Clients use this instead of polling {@link
+ * GetPipelineStatusServlet} for the full status over and over.
+ */
+@HopServerServlet(id = "pipelineStatusStream", name = "Stream the status changes of a pipeline")
+public class GetPipelineStatusStreamServlet extends BaseHttpServlet implements IHopServerPlugin {
+
+  private static final Class<?> PKG = GetPipelineStatusStreamServlet.class; // For Translator
+
+  private static final long serialVersionUID = -2167498102953720137L;
+
+  public static final String CONTEXT_PATH = "/hop/pipelineStatusStream";
+
+  public static final String PARAMETER_INTERVAL = "interval";
+
+  public GetPipelineStatusStreamServlet() {}
+
+  public GetPipelineStatusStreamServlet(PipelineMap pipelineMap) {
+    super(pipelineMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    if (log.isDebug()) {
+      logDebug(
+          BaseMessages.getString(PKG, "GetPipelineStatusStreamServlet.Log.StatusStreamRequested"));
+    }
+
+    String pipelineName = request.getParameter("name");
+    String id = request.getParameter("id");
+    int startLineNr = Const.toInt(request.getParameter("from"), 0);
+    long interval = Math.max(100L, Const.toLong(request.getParameter(PARAMETER_INTERVAL), 1000L));
+    boolean sendResultXmlWithStatus =
+        "Y".equalsIgnoreCase(request.getParameter(GetPipelineStatusServlet.SEND_RESULT));
+
+    // ID is optional...
+    //
+    IPipelineEngine<PipelineMeta> pipeline;
+    if (Utils.isEmpty(id)) {
+      HopServerObjectEntry entry = getPipelineMap().getFirstServerObjectEntry(pipelineName);
+      if (entry == null) {
+        pipeline = null;
+      } else {
+        id = entry.getId();
+        pipeline = getPipelineMap().getPipeline(entry);
+      }
+    } else {
+      pipeline = getPipelineMap().getPipeline(new HopServerObjectEntry(pipelineName, id));
+    }
+
+    if (pipeline == null) {
+      response.sendError(
+          HttpServletResponse.SC_NOT_FOUND,
+          BaseMessages.getString(
+              PKG, "PipelineStatusServlet.Log.CoundNotFindPipeline", pipelineName));
+      return;
+    }
+
+    if (!StatusEventStream.acquireStream()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "StatusEventStream.Log.TooManyStreams", pipelineName));
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+    try {
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType(StatusEventStream.CONTENT_TYPE);
+      response.setCharacterEncoding(Const.XML_ENCODING);
+      response.setHeader("Cache-Control", "no-cache");
+
+      streamStatus(
+          response.getOutputStream(),
+          pipeline,
+          pipelineName,
+          id,
+          startLineNr,
+          interval,
+          sendResultXmlWithStatus);
+    } catch (IOException e) {
+      // The client stopped listening, it will poll or reconnect if it still needs the status
+      //
+      if (log.isDebug()) {
+        logDebug(
+            BaseMessages.getString(PKG, "StatusEventStream.Log.ClientDisconnected", pipelineName));
+      }
+    } catch (HopException e) {
+      throw new ServletException("Unable to stream the status of pipeline " + pipelineName, e);
+    } finally {
+      StatusEventStream.releaseStream();
+    }
+  }
+
+  private void streamStatus(
+      OutputStream out,
+      IPipelineEngine<PipelineMeta> pipeline,
+      String pipelineName,
+      String id,
+      int startLineNr,
+      long interval,
+      boolean sendResultXmlWithStatus)
+      throws IOException, HopException {
+
+    // What was sent to the client so far
+    //
+    Map<String, String> sentTransformXml = new HashMap<>();
+    String sentStatusDescription = null;
+    boolean sentPaused = false;
+    int lineNr = startLineNr;
+    long lastWriteTime = 0L;
+
+    while (true) {
+      // Look at the state first: once it's done, this event carries the last metrics and logging
+      //
+      HopServerPipelineStatus pipelineStatus =
+          new HopServerPipelineStatus(pipelineName, id, pipeline.getStatusDescription());
+      boolean done = pipelineStatus.isFinished() || pipelineStatus.isStopped();
+      int lastLineNr = HopLogStore.getLastBufferLineNr();
+
+      for (IEngineComponent component : pipeline.getComponents()) {
+        if (component.isRunning()
+            || component.getStatus() != ComponentExecutionStatus.STATUS_EMPTY) {
+          TransformStatus transformStatus = new TransformStatus(component);
+          String transformXml = transformStatus.getXml();
+          String previousXml =
+              sentTransformXml.put(component.getName() + "." + component.getCopyNr(), transformXml);
+          if (!transformXml.equals(previousXml)) {
+            pipelineStatus.getTransformStatusList().add(transformStatus);
+          }
+        }
+      }
+
+      String logText = "";
+      if (lastLineNr > lineNr) {
+        logText = getLogText(pipeline, lineNr, lastLineNr);
+      }
+
+      boolean changed =
+          done
+              || lastWriteTime == 0L
+              || !Objects.equals(sentStatusDescription, pipelineStatus.getStatusDescription())
+              || sentPaused != pipeline.isPaused()
+              || !pipelineStatus.getTransformStatusList().isEmpty()
+              || !logText.isEmpty();
+
+      if (changed) {
+        pipelineStatus.setFirstLoggingLineNr(lineNr);
+        pipelineStatus.setLastLoggingLineNr(lastLineNr);
+        pipelineStatus.setLogDate(new Date());
+        pipelineStatus.setExecutionStartDate(pipeline.getExecutionStartDate());
+        pipelineStatus.setExecutionEndDate(pipeline.getExecutionEndDate());
+        pipelineStatus.setLoggingString(HttpUtil.encodeBase64ZippedString(logText));
+        pipelineStatus.setPaused(pipeline.isPaused());
+        if (done) {
+          pipelineStatus.setResult(pipeline.getResult());
+        }
+
+        StatusEventStream.writeEvent(out, pipelineStatus.getXml(sendResultXmlWithStatus));
+
+        sentStatusDescription = pipelineStatus.getStatusDescription();
+        sentPaused = pipelineStatus.isPaused();
+        lineNr = lastLineNr;
+        lastWriteTime = System.currentTimeMillis();
+      } else if (System.currentTimeMillis() - lastWriteTime
+          >= StatusEventStream.HEARTBEAT_INTERVAL) {
+        StatusEventStream.writeHeartbeat(out);
+        lastWriteTime = System.currentTimeMillis();
+      }
+
+      if (done) {
+        return;
+      }
+
+      try {
+        Thread.sleep(interval);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Pipeline Status Stream IHandler";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+  private String getLogText(IPipelineEngine<PipelineMeta> pipeline, int startLineNr, int lastLineNr)
+      throws HopException {
+    try {
+      return HopLogStore.getAppender()
+          .getBuffer(pipeline.getLogChannel().getLogChannelId(), false, startLineNr, lastLineNr)
+          .toString();
+    } catch (OutOfMemoryError error) {
+      throw new HopException("Log string is too long", error);
+    }
+  }
+}
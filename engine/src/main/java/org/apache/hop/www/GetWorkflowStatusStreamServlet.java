@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.annotations.HopServerServlet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.server.HttpUtil;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.engine.IWorkflowEngine;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Streams the status of a workflow as Server-Sent Events until the workflow is finished or
+ * stopped. An event is only sent when the status changes or when there are new log lines, and it
+ * only carries the log lines since the previous event.
+ */
+@HopServerServlet(id = "workflowStatusStream", name = "Stream the status changes of a workflow")
+public class GetWorkflowStatusStreamServlet extends BaseHttpServlet implements IHopServerPlugin {
+
+  private static final Class<?> PKG = GetWorkflowStatusStreamServlet.class; // For Translator
+
+  private static final long serialVersionUID = 5208930946735108127L;
+
+  public static final String CONTEXT_PATH = "/hop/workflowStatusStream";
+
+  public static final String PARAMETER_INTERVAL = "interval";
+
+  public GetWorkflowStatusStreamServlet() {}
+
+  public GetWorkflowStatusStreamServlet(WorkflowMap workflowMap) {
+    super(workflowMap);
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    if (isJettyMode() && !request.getContextPath().startsWith(CONTEXT_PATH)) {
+      return;
+    }
+
+    if (log.isDebug()) {
+      logDebug(
+          BaseMessages.getString(PKG, "GetWorkflowStatusStreamServlet.Log.StatusStreamRequested"));
+    }
+
+    String workflowName = request.getParameter("name");
+    String id = request.getParameter("id");
+    int startLineNr = Const.toInt(request.getParameter("from"), 0);
+    long interval = Math.max(100L, Const.toLong(request.getParameter(PARAMETER_INTERVAL), 1000L));
+
+    // ID is optional...
+    //
+    IWorkflowEngine<WorkflowMeta> workflow;
+    if (Utils.isEmpty(id)) {
+      HopServerObjectEntry entry = getWorkflowMap().getFirstHopServerObjectEntry(workflowName);
+      if (entry == null) {
+        workflow = null;
+      } else {
+        id = entry.getId();
+        workflow = getWorkflowMap().getWorkflow(entry);
+      }
+    } else if (Utils.isEmpty(workflowName)) {
+      workflow = getWorkflowMap().findWorkflow(id);
+    } else {
+      workflow = getWorkflowMap().getWorkflow(new HopServerObjectEntry(workflowName, id));
+    }
+
+    if (workflow == null) {
+      response.sendError(
+          HttpServletResponse.SC_NOT_FOUND,
+          BaseMessages.getString(
+              PKG, "StopWorkflowServlet.Log.CoundNotFindWorkflow", workflowName));
+      return;
+    }
+    workflowName = workflow.getWorkflowName();
+
+    if (!StatusEventStream.acquireStream()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "StatusEventStream.Log.TooManyStreams", workflowName));
+      response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+    try {
+      response.setStatus(HttpServletResponse.SC_OK);
+      response.setContentType(StatusEventStream.CONTENT_TYPE);
+      response.setCharacterEncoding(Const.XML_ENCODING);
+      response.setHeader("Cache-Control", "no-cache");
+
+      streamStatus(response.getOutputStream(), workflow, workflowName, id, startLineNr, interval);
+    } catch (IOException e) {
+      // The client stopped listening, it will poll or reconnect if it still needs the status
+      //
+      if (log.isDebug()) {
+        logDebug(
+            BaseMessages.getString(PKG, "StatusEventStream.Log.ClientDisconnected", workflowName));
+      }
+    } catch (HopException e) {
+      throw new ServletException("Unable to stream the status of workflow " + workflowName, e);
+    } finally {
+      StatusEventStream.releaseStream();
+    }
+  }
+
+  private void streamStatus(
+      OutputStream out,
+      IWorkflowEngine<WorkflowMeta> workflow,
+      String workflowName,
+      String id,
+      int startLineNr,
+      long interval)
+      throws IOException, HopException {
+
+    String sentStatusDescription = null;
+    int lineNr = startLineNr;
+    long lastWriteTime = 0L;
+
+    while (true) {
+      // Look at the state first: once it's done, this event carries the last logging
+      //
+      HopServerWorkflowStatus workflowStatus =
+          new HopServerWorkflowStatus(workflowName, id, workflow.getStatusDescription());
+      boolean done = workflowStatus.isFinished() || workflowStatus.isStopped();
+      int lastLineNr = HopLogStore.getLastBufferLineNr();
+
+      String logText = "";
+      if (lastLineNr > lineNr) {
+        logText = getLogText(workflow, lineNr, lastLineNr);
+      }
+
+      boolean changed =
+          done
+              || lastWriteTime == 0L
+              || !Objects.equals(sentStatusDescription, workflowStatus.getStatusDescription())
+              || !logText.isEmpty();
+
+      if (changed) {
+        workflowStatus.setFirstLoggingLineNr(lineNr);
+        workflowStatus.setLastLoggingLineNr(lastLineNr);
+        workflowStatus.setLogDate(workflow.getExecutionStartDate());
+        workflowStatus.setLoggingString(HttpUtil.encodeBase64ZippedString(logText));
+        workflowStatus.setResult(workflow.getResult()); // might be null
+
+        StatusEventStream.writeEvent(out, workflowStatus.getXml());
+
+        sentStatusDescription = workflowStatus.getStatusDescription();
+        lineNr = lastLineNr;
+        lastWriteTime = System.currentTimeMillis();
+      } else if (System.currentTimeMillis() - lastWriteTime
+          >= StatusEventStream.HEARTBEAT_INTERVAL) {
+        StatusEventStream.writeHeartbeat(out);
+        lastWriteTime = System.currentTimeMillis();
+      }
+
+      if (done) {
+        return;
+      }
+
+      try {
+        Thread.sleep(interval);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Workflow Status Stream IHandler";
+  }
+
+  @Override
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  @Override
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+  private String getLogText(IWorkflowEngine<WorkflowMeta> workflow, int startLineNr, int lastLineNr)
+      throws HopException {
+    try {
+      return HopLogStore.getAppender()
+          .getBuffer(workflow.getLogChannel().getLogChannelId(), false, startLineNr, lastLineNr)
+          .toString();
+    } catch (OutOfMemoryError error) {
+      throw new HopException("Log string is too long", error);
+    }
+  }
+}
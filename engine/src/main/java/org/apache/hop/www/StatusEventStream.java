@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.http.client.methods.HttpGet;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stream of status events sent by a Hop server in the Server-Sent Events format. The server
+ * writes a status event every time the status of a pipeline or workflow changes, with only the
+ * changed information. The client reads the events until the stream ends.
+ */
+public class StatusEventStream implements Closeable {
+
+  public static final String CONTENT_TYPE = "text/event-stream";
+
+  public static final String EVENT_STATUS = "status";
+
+  /** Send a comment once in a while so that both sides notice a broken connection */
+  public static final long HEARTBEAT_INTERVAL = 10000L;
+
+  private static final AtomicInteger openStreams = new AtomicInteger(0);
+
+  private final HttpGet method;
+  private final BufferedReader reader;
+
+  /**
+   * Read events from the response of a Hop server
+   *
+   * @param method The request to abort when the stream is closed
+   * @param inputStream The content of the response
+   */
+  public StatusEventStream(HttpGet method, InputStream inputStream) {
+    this.method = method;
+    this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Read the data of the next status event. Comments and other events are skipped.
+   *
+   * @return The data of the next status event or null if the stream ended
+   * @throws IOException In case of a connection error
+   */
+  public String readEvent() throws IOException {
+    String event = null;
+    StringBuilder data = null;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isEmpty()) {
+        // An empty line dispatches the event
+        //
+        if (data != null && (event == null || EVENT_STATUS.equals(event))) {
+          return data.toString();
+        }
+        event = null;
+        data = null;
+      } else if (line.startsWith("event:")) {
+        event = line.substring("event:".length()).trim();
+      } else if (line.startsWith("data:")) {
+        String value = line.substring("data:".length());
+        if (value.startsWith(" ")) {
+          value = value.substring(1);
+        }
+        if (data == null) {
+          data = new StringBuilder(value);
+        } else {
+          data.append('\n').append(value);
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Stop reading: the connection is aborted rather than reading the rest of the stream */
+  @Override
+  public void close() {
+    if (method != null) {
+      method.abort();
+    }
+    try {
+      reader.close();
+    } catch (IOException e) {
+      // Ignore: we're no longer interested in this stream
+    }
+  }
+
+  /**
+   * Write a status event and send it to the client right away
+   *
+   * @param out The output stream of the response
+   * @param data The data of the event, it can contain multiple lines
+   * @throws IOException In case the client is no longer listening
+   */
+  public static void writeEvent(OutputStream out, String data) throws IOException {
+    StringBuilder event = new StringBuilder("event: ").append(EVENT_STATUS).append('\n');
+    for (String line : data.split("\r?\n", -1)) {
+      event.append("data: ").append(line).append('\n');
+    }
+    event.append('\n');
+    out.write(event.toString().getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  /**
+   * Write a comment which is ignored by the client
+   *
+   * @param out The output stream of the response
+   * @throws IOException In case the client is no longer listening
+   */
+  public static void writeHeartbeat(OutputStream out) throws IOException {
+    out.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  /**
+   * Every open stream keeps a server thread busy. Reserve one of the streams allowed by variable
+   * HOP_SERVER_MAX_STATUS_STREAMS.
+   *
+   * @return true if a stream can be opened, false if the client should poll instead
+   */
+  public static boolean acquireStream() {
+    int maxStreams =
+        Const.toInt(EnvUtil.getSystemProperty(Const.HOP_SERVER_MAX_STATUS_STREAMS), 100);
+    if (openStreams.incrementAndGet() > maxStreams) {
+      openStreams.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /** Release a stream reserved with {@link #acquireStream()} */
+  public static void releaseStream() {
+    openStreams.decrementAndGet();
+  }
+
+  /**
+   * Gets the number of open streams
+   *
+   * @return The number of status streams the server is currently sending
+   */
+  public static int getOpenStreams() {
+    return openStreams.get();
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.execution.local;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.execution.Execution;
+import org.apache.hop.execution.ExecutionBuilder;
+import org.apache.hop.execution.ExecutionState;
+import org.apache.hop.execution.ExecutionStateBuilder;
+import org.apache.hop.execution.ExecutionType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileExecutionInfoLocationTest {
+
+  private File rootFolder;
+  private FileExecutionInfoLocation location;
+
+  @Before
+  public void before() throws Exception {
+    HopClientEnvironment.init();
+    rootFolder = Files.createTempDirectory("execution-info").toFile();
+    location = newLocation();
+  }
+
+  @After
+  public void after() throws Exception {
+    ExecutionIndex.clearAll();
+    FileUtils.deleteDirectory(rootFolder);
+  }
+
+  private FileExecutionInfoLocation newLocation() throws Exception {
+    FileExecutionInfoLocation fileLocation =
+        new FileExecutionInfoLocation(rootFolder.getAbsolutePath());
+    fileLocation.initialize(Variables.getADefaultVariableSpace(), null);
+    return fileLocation;
+  }
+
+  private void register(String id, String parentId, String name, ExecutionType type, long date)
+      throws Exception {
+    Execution execution =
+        ExecutionBuilder.of()
+            .withId(id)
+            .withParentId(parentId)
+            .withName(name)
+            .withExecutorType(type)
+            .withExecutionStartDate(new Date(date))
+            .build();
+    location.registerExecution(execution);
+  }
+
+  private void update(String id, long date, boolean failed, String... childIds) throws Exception {
+    ExecutionState state =
+        ExecutionStateBuilder.of()
+            .withId(id)
+            .withExecutionType(ExecutionType.Pipeline)
+            .withLoggingText("")
+            .withUpdateTime(new Date(date))
+            .withFailed(failed)
+            .withChildIds(Arrays.asList(childIds))
+            .build();
+    location.updateExecutionState(state);
+  }
+
+  private void registerExecutions() throws Exception {
+    register("wf1", null, "workflow", ExecutionType.Workflow, 1000L);
+    register("p1", "wf1", "pipeline", ExecutionType.Pipeline, 2000L);
+    register("p2", "wf1", "pipeline", ExecutionType.Pipeline, 3000L);
+    register("p3", null, "pipeline", ExecutionType.Pipeline, 4000L);
+    update("wf1", 5000L, false, "p1", "p2");
+    update("p1", 2500L, false);
+    update("p2", 3500L, true);
+  }
+
+  @Test
+  public void testListExecutions() throws Exception {
+    registerExecutions();
+    assertIndex(location);
+  }
+
+  @Test
+  public void testReadIndexFromDisk() throws Exception {
+    registerExecutions();
+
+    // Read the log again
+    //
+    ExecutionIndex.clearAll();
+    assertIndex(newLocation());
+
+    // Build the index from the execution folders
+    //
+    ExecutionIndex.clearAll();
+    assertTrue(new File(rootFolder, ExecutionIndex.FILENAME_INDEX).delete());
+    assertIndex(newLocation());
+  }
+
+  private void assertIndex(FileExecutionInfoLocation fileLocation) throws Exception {
+    // Latest updated first
+    //
+    assertEquals(Arrays.asList("wf1", "p3", "p2", "p1"), fileLocation.getExecutionIds(true, 0));
+    assertEquals(Arrays.asList("wf1", "p3"), fileLocation.getExecutionIds(false, 0));
+    assertEquals(Arrays.asList("wf1", "p3"), fileLocation.getExecutionIds(true, 2));
+
+    List<Execution> children = fileLocation.findExecutions("wf1");
+    assertEquals(2, children.size());
+    assertEquals("p2", children.get(0).getId());
+    assertEquals("p1", children.get(1).getId());
+
+    assertEquals("p3", fileLocation.findLastExecution(ExecutionType.Pipeline, "pipeline").getId());
+    assertEquals(
+        "p1",
+        fileLocation.findPreviousSuccessfulExecution(ExecutionType.Pipeline, "pipeline").getId());
+    assertNull(fileLocation.findLastExecution(ExecutionType.Workflow, "pipeline"));
+
+    assertEquals("wf1", fileLocation.findParentId("p2"));
+    assertNull(fileLocation.findParentId("wf1"));
+  }
+
+  @Test
+  public void testLogRewrittenByOtherProcess() throws Exception {
+    registerExecutions();
+
+    // Another process has read the log up to its end
+    //
+    ExecutionIndex other = new ExecutionIndex(rootFolder.getAbsolutePath());
+    other.refresh();
+    assertEquals(4, other.size());
+
+    // This process adds executions and rewrites the log, which ends up larger than before
+    //
+    for (int i = 0; i < 30; i++) {
+      register("x" + i, null, "other", ExecutionType.Pipeline, 10000L + i);
+    }
+    ExecutionIndex index = ExecutionIndex.getIndex(rootFolder.getAbsolutePath());
+    index.compact();
+
+    // The other process doesn't continue reading at its old position in the new log
+    //
+    other.refresh();
+    assertEquals(34, other.size());
+    assertEquals(index.getExecutionIds(true, 0), other.getExecutionIds(true, 0));
+    assertEquals("wf1", other.findParentId("p2"));
+  }
+
+  @Test
+  public void testCompactionKeepsRecordsOfOtherProcess() throws Exception {
+    registerExecutions();
+    ExecutionIndex index = ExecutionIndex.getIndex(rootFolder.getAbsolutePath());
+
+    // Another process registers an execution this process didn't read yet
+    //
+    ExecutionIndex other = new ExecutionIndex(rootFolder.getAbsolutePath());
+    other.refresh();
+    other.register(
+        ExecutionBuilder.of()
+            .withId("p4")
+            .withName("pipeline")
+            .withExecutorType(ExecutionType.Pipeline)
+            .withExecutionStartDate(new Date(6000L))
+            .build());
+
+    index.compact();
+    assertEquals("p4", index.getExecutionIds(true, 1).get(0));
+
+    ExecutionIndex.clearAll();
+    assertEquals(
+        Arrays.asList("p4", "wf1", "p3", "p2", "p1"), newLocation().getExecutionIds(true, 0));
+  }
+
+  @Test
+  public void testLogCompactedWhileRunning() throws Exception {
+    register("p1", null, "pipeline", ExecutionType.Pipeline, 1000L);
+    ExecutionIndex index = ExecutionIndex.getIndex(rootFolder.getAbsolutePath());
+    for (int i = 1; i <= 20000; i++) {
+      index.update(
+          ExecutionStateBuilder.of()
+              .withId("p1")
+              .withExecutionType(ExecutionType.Pipeline)
+              .withUpdateTime(new Date(1000L + i))
+              .build());
+    }
+    // Compacted twice: the log only holds the updates since the last time
+    //
+    List<String> lines = readLog();
+    assertTrue(lines.size() < 10000);
+    assertTrue(lines.get(lines.size() - 1).contains("\"updateDate\":21000"));
+  }
+
+  @Test
+  public void testLogRewrittenWithoutAppend() throws Exception {
+    ExecutionIndex index =
+        new ExecutionIndex(rootFolder.getAbsolutePath()) {
+          @Override
+          boolean canAppend(FileObject indexFile) {
+            return false;
+          }
+        };
+    index.refresh();
+    index.register(
+        ExecutionBuilder.of()
+            .withId("p1")
+            .withName("pipeline")
+            .withExecutorType(ExecutionType.Pipeline)
+            .withExecutionStartDate(new Date(1000L))
+            .build());
+    String header = readLog().get(0);
+    index.update(
+        ExecutionStateBuilder.of()
+            .withId("p1")
+            .withExecutionType(ExecutionType.Pipeline)
+            .withUpdateTime(new Date(2000L))
+            .withFailed(true)
+            .build());
+
+    // A new generation with the register and the update
+    //
+    List<String> lines = readLog();
+    assertEquals(3, lines.size());
+    assertNotEquals(header, lines.get(0));
+
+    ExecutionIndex.clearAll();
+    ExecutionIndex reread = ExecutionIndex.getIndex(rootFolder.getAbsolutePath());
+    assertEquals("p1", reread.findLastId(ExecutionType.Pipeline, "pipeline", false));
+    assertNull(reread.findLastId(ExecutionType.Pipeline, "pipeline", true));
+  }
+
+  private List<String> readLog() throws Exception {
+    return Files.readAllLines(new File(rootFolder, ExecutionIndex.FILENAME_INDEX).toPath());
+  }
+
+  @Test
+  public void testDeleteExecution() throws Exception {
+    registerExecutions();
+
+    assertTrue(location.deleteExecution("wf1"));
+    assertEquals(Arrays.asList("p3"), location.getExecutionIds(true, 0));
+    assertNull(location.getExecution("p1"));
+    assertNull(location.findParentId("p2"));
+    assertNotNull(location.getExecution("p3"));
+
+    ExecutionIndex.clearAll();
+    assertEquals(Arrays.asList("p3"), newLocation().getExecutionIds(true, 0));
+  }
+
+  @Test
+  public void testUpdateAppendsLogging() throws Exception {
+    register("p1", null, "pipeline", ExecutionType.Pipeline, 1000L);
+    location.updateExecutionState(
+        ExecutionStateBuilder.of()
+            .withId("p1")
+            .withExecutionType(ExecutionType.Pipeline)
+            .withLoggingText("one ")
+            .build());
+    location.updateExecutionState(
+        ExecutionStateBuilder.of()
+            .withId("p1")
+            .withExecutionType(ExecutionType.Pipeline)
+            .withLoggingText("two")
+            .build());
+    assertEquals("one two", location.getExecutionState("p1").getLoggingText());
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www;
+
+import org.apache.hop.core.Const;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatusEventStreamTest {
+
+  @After
+  public void tearDown() {
+    System.clearProperty(Const.HOP_SERVER_MAX_STATUS_STREAMS);
+  }
+
+  @Test
+  public void testWriteAndReadEvents() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StatusEventStream.writeEvent(out, "<status>\n  <id>1</id>\r\n</status>");
+    StatusEventStream.writeHeartbeat(out);
+    StatusEventStream.writeEvent(out, "second");
+
+    try (StatusEventStream stream =
+        new StatusEventStream(null, new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals("<status>\n  <id>1</id>\n</status>", stream.readEvent());
+      assertEquals("second", stream.readEvent());
+      assertNull(stream.readEvent());
+    }
+  }
+
+  @Test
+  public void testOtherEventsAreSkipped() throws Exception {
+    String events = "event: other\ndata: ignored\n\n: comment\ndata:plain\n\n";
+    try (StatusEventStream stream =
+        new StatusEventStream(null, new ByteArrayInputStream(events.getBytes("UTF-8")))) {
+      assertEquals("plain", stream.readEvent());
+      assertNull(stream.readEvent());
+    }
+  }
+
+  @Test
+  public void testMaximumNumberOfStreams() {
+    System.setProperty(Const.HOP_SERVER_MAX_STATUS_STREAMS, "2");
+    int openStreams = StatusEventStream.getOpenStreams();
+    assertTrue(StatusEventStream.acquireStream());
+    assertTrue(StatusEventStream.acquireStream());
+    assertFalse(StatusEventStream.acquireStream());
+    assertEquals(openStreams + 2, StatusEventStream.getOpenStreams());
+
+    StatusEventStream.releaseStream();
+    assertTrue(StatusEventStream.acquireStream());
+    StatusEventStream.releaseStream();
+    StatusEventStream.releaseStream();
+    assertEquals(openStreams, StatusEventStream.getOpenStreams());
+  }
+}
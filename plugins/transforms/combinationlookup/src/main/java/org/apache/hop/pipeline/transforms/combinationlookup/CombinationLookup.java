@@ -42,10 +42,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages or looks up information in a Type 1 or junk dimension.
@@ -72,6 +73,13 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
   private static final int CREATION_METHOD_SEQUENCE = 2;
   private static final int CREATION_METHOD_TABLEMAX = 3;
 
+  /**
+   * The maximum number of parameters of a single batched lookup query. The cache misses of a batch
+   * are looked up in chunks to stay below the limits of databases and drivers, like the 2100
+   * parameters of SQL Server.
+   */
+  public static final int MAX_LOOKUP_PARAMETERS = 1000;
+
   private int techKeyCreation;
 
   public CombinationLookup(
@@ -105,7 +113,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
-  private Long lookupInCache(IRowMeta rowMeta, Object[] row) {
+  private Long lookupInCache(Object[] hashRow) throws HopValueException {
     // Short circuit if cache is disabled.
     if (meta.getCacheSize() == -1) {
       return null;
@@ -113,8 +121,8 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
 
     // try to find the row in the cache...
     //
-    Long tk = data.cache.get(new RowMetaAndData(rowMeta, row));
-    return tk;
+    long tk = data.cache.get(hashRow);
+    return tk == CombinationLookupCache.NOT_FOUND ? null : tk;
   }
 
   /**
@@ -131,12 +139,12 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    */
   private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopValueException {
     // Short circuit if cache is disabled.
-    if (meta.getCacheSize() == -1) {
+    if (meta.getCacheSize() == -1 || tk == null) {
       return;
     }
 
     // store it in the cache if needed.
-    data.cache.put(new RowMetaAndData(rowMeta, row), tk);
+    data.cache.put(row, tk);
 
     // check if the size is not too big...
     // Allow for a buffer overrun of 20% and then remove those 20% in one go.
@@ -156,32 +164,18 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       //
       // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
       //
-      List<RowMetaAndData> keys = new ArrayList<>(data.cache.keySet());
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<>();
-
-      // Take 10 sample technical keys....
-      int transformsize = keys.size() / 5;
-      if (transformsize < 1) {
-        transformsize = 1; // make sure we have no endless loop
-      }
-      for (int i = 0; i < keys.size(); i += transformsize) {
-        RowMetaAndData key = keys.get(i);
-        Long value = data.cache.get(key);
-        if (value != null) {
-          samples.add(value);
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort(samples);
+      int sizeBefore = data.cache.size();
+
+      // Take 5 sample technical keys, sorted...
+      long[] samples = data.cache.sampleTechnicalKeys(5);
 
       // What is the smallest?
       // Take the second, not the fist in the list, otherwise we would be removing a single entry =
       // not good.
-      if (samples.size() > 1) {
-        data.smallestCacheKey = samples.get(1).longValue();
+      if (samples.length > 1) {
+        data.smallestCacheKey = samples[1];
       } else { // except when there is only one sample
-        data.smallestCacheKey = samples.get(0).longValue();
+        data.smallestCacheKey = samples[0];
       }
 
       // Remove anything in the cache <= smallest.
@@ -189,15 +183,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the
       // time.
       //
-      for (int i = 0; i < keys.size(); i++) {
-        RowMetaAndData key = keys.get(i);
-        Long value = data.cache.get(key);
-        if (value != null) {
-          if (value.longValue() <= data.smallestCacheKey) {
-            data.cache.remove(key); // this one has to go.
-          }
-        }
-      }
+      data.cache.removeUpTo(data.smallestCacheKey);
 
       int sizeAfter = data.cache.size();
       logDetailed("Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows.");
@@ -212,25 +198,22 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     return techKeyCreation == CREATION_METHOD_AUTOINC;
   }
 
-  private Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
-    Long valKey = null;
-    Long valHash = null;
-    Object[] hashRow = null;
+  private Object[] getHashRow(Object[] row) {
+    Object[] hashRow = new Object[data.hashRowMeta.size()];
+    for (int i = 0; i < meta.getKeyField().length; i++) {
+      hashRow[i] = row[data.keynrs[i]];
+    }
+    return hashRow;
+  }
 
+  private Object[] getLookupRow(IRowMeta rowMeta, Object[] row, Long valHash)
+      throws HopValueException {
     Object[] lookupRow = new Object[data.lookupRowMeta.size()];
     int lookupIndex = 0;
 
-    if (meta.useHash() || meta.getCacheSize() >= 0) {
-      hashRow = new Object[data.hashRowMeta.size()];
-      for (int i = 0; i < meta.getKeyField().length; i++) {
-        hashRow[i] = row[data.keynrs[i]];
-      }
-
-      if (meta.useHash()) {
-        valHash = Long.valueOf(data.hashRowMeta.hashCode(hashRow));
-        lookupRow[lookupIndex] = valHash;
-        lookupIndex++;
-      }
+    if (meta.useHash()) {
+      lookupRow[lookupIndex] = valHash;
+      lookupIndex++;
     }
 
     for (int i = 0; i < meta.getKeyField().length; i++) {
@@ -251,41 +234,60 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
       lookupIndex++;
     }
+    return lookupRow;
+  }
+
+  private Long getHashValue(Object[] hashRow) throws HopValueException {
+    if (meta.useHash()) {
+      return Long.valueOf(data.hashRowMeta.hashCode(hashRow));
+    }
+    return null;
+  }
+
+  /** Determine the technical key of a new dimension entry */
+  private Long getNextTechnicalKey() throws HopDatabaseException {
+    Long valKey = null;
+    // First try to use an AUTOINCREMENT field
+    switch (getTechKeyCreation()) {
+      case CREATION_METHOD_TABLEMAX:
+        // Use our own counter: what's the next value for the technical key?
+        valKey =
+            data.db.getNextValue(
+                data.realSchemaName, data.realTableName, meta.getTechnicalKeyField());
+        break;
+      case CREATION_METHOD_AUTOINC:
+        valKey = Long.valueOf(0); // value to accept new key...
+        break;
+      case CREATION_METHOD_SEQUENCE:
+        valKey =
+            data.db.getNextSequenceValue(
+                data.realSchemaName, meta.getSequenceFrom(), meta.getTechnicalKeyField());
+        if (valKey != null && isRowLevel()) {
+          logRowlevel(
+              BaseMessages.getString(PKG, "CombinationLookup.Log.FoundNextSequenceValue")
+                  + valKey.toString());
+        }
+        break;
+      default:
+        break;
+    }
+    return valKey;
+  }
+
+  private Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
+    Object[] hashRow = getHashRow(row);
+    Long valHash = getHashValue(hashRow);
 
     // Before doing the actual lookup in the database, see if it's not in the cache...
-    valKey = lookupInCache(data.hashRowMeta, hashRow);
+    Long valKey = lookupInCache(hashRow);
     if (valKey == null) {
+      Object[] lookupRow = getLookupRow(rowMeta, row, valHash);
       data.db.setValues(data.lookupRowMeta, lookupRow, data.prepStatementLookup);
       Object[] add = data.db.getLookup(data.prepStatementLookup);
       incrementLinesInput();
 
       if (add == null) { // The dimension entry was not found, we need to add it!
-        // First try to use an AUTOINCREMENT field
-        switch (getTechKeyCreation()) {
-          case CREATION_METHOD_TABLEMAX:
-            // Use our own counter: what's the next value for the technical key?
-            valKey =
-                data.db.getNextValue(
-                    data.realSchemaName, data.realTableName, meta.getTechnicalKeyField());
-            break;
-          case CREATION_METHOD_AUTOINC:
-            valKey = Long.valueOf(0); // value to accept new key...
-            break;
-          case CREATION_METHOD_SEQUENCE:
-            valKey =
-                data.db.getNextSequenceValue(
-                    data.realSchemaName, meta.getSequenceFrom(), meta.getTechnicalKeyField());
-            if (valKey != null && isRowLevel()) {
-              logRowlevel(
-                  BaseMessages.getString(PKG, "CombinationLookup.Log.FoundNextSequenceValue")
-                      + valKey.toString());
-            }
-            break;
-          default:
-            break;
-        }
-
-        valKey = combiInsert(rowMeta, row, valKey, valHash);
+        valKey = combiInsert(rowMeta, row, getNextTechnicalKey(), valHash);
         incrementLinesOutput();
 
         if (isRowLevel()) {
@@ -306,6 +308,10 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
     }
 
+    return getOutputRow(rowMeta, row, valKey);
+  }
+
+  private Object[] getOutputRow(IRowMeta rowMeta, Object[] row, Long valKey) {
     Object[] outputRow = new Object[data.outputRowMeta.size()];
     int outputIndex = 0;
 
@@ -330,11 +336,220 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     return outputRow;
   }
 
+  /**
+   * Looks up the technical keys of a batch of rows. The combinations which are not in the cache
+   * are looked up in the dimension with a single query. The combinations which are not in the
+   * dimension either are inserted with a JDBC batch.
+   *
+   * @param rowMeta The layout of the input rows
+   * @param rows The input rows
+   * @return The output rows, in the same order as the input rows
+   * @throws HopException In case something went wrong looking up or inserting the combinations
+   */
+  private List<Object[]> lookupBatch(IRowMeta rowMeta, List<Object[]> rows) throws HopException {
+    Long[] valKeys = new Long[rows.size()];
+    Object[][] hashRows = new Object[rows.size()][];
+
+    // The distinct combinations which are not in the cache, with the first row which has them
+    //
+    Map<RowMetaAndData, Object[]> misses = new LinkedHashMap<>();
+    for (int i = 0; i < rows.size(); i++) {
+      hashRows[i] = getHashRow(rows.get(i));
+      valKeys[i] = lookupInCache(hashRows[i]);
+      if (valKeys[i] == null) {
+        misses.putIfAbsent(new RowMetaAndData(data.hashRowMeta, hashRows[i]), rows.get(i));
+      }
+    }
+
+    if (!misses.isEmpty()) {
+      Map<RowMetaAndData, Long> found = lookupCombinations(rowMeta, misses);
+
+      Map<RowMetaAndData, Object[]> newCombinations = new LinkedHashMap<>();
+      for (Map.Entry<RowMetaAndData, Object[]> miss : misses.entrySet()) {
+        if (!found.containsKey(miss.getKey())) {
+          newCombinations.put(miss.getKey(), miss.getValue());
+        }
+      }
+      if (!newCombinations.isEmpty()) {
+        combiInsertBatch(rowMeta, newCombinations, found);
+        if (isAutoIncrement()) {
+          // Read the keys generated by the database back with the same batched lookup
+          //
+          found.putAll(lookupCombinations(rowMeta, newCombinations));
+        }
+      }
+
+      for (RowMetaAndData key : misses.keySet()) {
+        Long valKey = found.get(key);
+        if (valKey == null) {
+          throw new HopDatabaseException(
+              "Unable to find the technical key of combination "
+                  + data.hashRowMeta.getString(key.getData()));
+        }
+        addToCache(data.hashRowMeta, key.getData(), valKey);
+      }
+      for (int i = 0; i < rows.size(); i++) {
+        if (valKeys[i] == null) {
+          valKeys[i] = found.get(new RowMetaAndData(data.hashRowMeta, hashRows[i]));
+        }
+      }
+    }
+
+    List<Object[]> outputRows = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      outputRows.add(getOutputRow(rowMeta, rows.get(i), valKeys[i]));
+    }
+    return outputRows;
+  }
+
+  /**
+   * Looks up the technical keys of a number of combinations. This is done with one query per chunk
+   * of at most {@link #getLookupChunkSize()} combinations.
+   *
+   * @param rowMeta The layout of the input rows
+   * @param combinations The combinations to look up with an input row which contains them
+   * @return The technical keys of the combinations which were found
+   * @throws HopException In case something went wrong querying the dimension
+   */
+  // Method is defined as package-protected in order to be accessible by unit tests
+  Map<RowMetaAndData, Long> lookupCombinations(
+      IRowMeta rowMeta, Map<RowMetaAndData, Object[]> combinations) throws HopException {
+    int chunkSize = getLookupChunkSize();
+    if (combinations.size() <= chunkSize) {
+      return lookupCombinationsChunk(rowMeta, combinations);
+    }
+
+    Map<RowMetaAndData, Long> found = new HashMap<>();
+    Map<RowMetaAndData, Object[]> chunk = new LinkedHashMap<>();
+    for (Map.Entry<RowMetaAndData, Object[]> combination : combinations.entrySet()) {
+      chunk.put(combination.getKey(), combination.getValue());
+      if (chunk.size() >= chunkSize) {
+        found.putAll(lookupCombinationsChunk(rowMeta, chunk));
+        chunk = new LinkedHashMap<>();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      found.putAll(lookupCombinationsChunk(rowMeta, chunk));
+    }
+    return found;
+  }
+
+  /**
+   * @return The number of combinations looked up with a single query: as many as fit in {@link
+   *     #MAX_LOOKUP_PARAMETERS} parameters.
+   */
+  int getLookupChunkSize() {
+    return Math.max(1, MAX_LOOKUP_PARAMETERS / Math.max(1, data.lookupRowMeta.size()));
+  }
+
+  /**
+   * Looks up the technical keys of a chunk of combinations with a single query:
+   *
+   * <p>SELECT <retval>, <key1>, <key2>, ... FROM <table> WHERE ( <lookup condition> ) OR ( <lookup
+   * condition> ) ...
+   *
+   * @param rowMeta The layout of the input rows
+   * @param combinations The combinations to look up with an input row which contains them
+   * @return The technical keys of the combinations which were found
+   * @throws HopException In case something went wrong querying the dimension
+   */
+  private Map<RowMetaAndData, Long> lookupCombinationsChunk(
+      IRowMeta rowMeta, Map<RowMetaAndData, Object[]> combinations) throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    StringBuilder sql = new StringBuilder();
+    sql.append("SELECT ").append(databaseMeta.quoteField(meta.getTechnicalKeyField()));
+    for (String keyLookup : meta.getKeyLookup()) {
+      sql.append(", ").append(databaseMeta.quoteField(keyLookup));
+    }
+    sql.append(Const.CR).append("FROM ").append(data.schemaTable).append(Const.CR);
+    sql.append("WHERE ");
+
+    IRowMeta parametersRowMeta = new RowMeta();
+    List<Object> parameters = new ArrayList<>();
+    boolean or = false;
+    for (Map.Entry<RowMetaAndData, Object[]> combination : combinations.entrySet()) {
+      if (or) {
+        sql.append("OR ");
+      } else {
+        or = true;
+      }
+      sql.append("( ").append(data.lookupCondition).append(" )").append(Const.CR);
+
+      Long valHash = getHashValue(combination.getKey().getData());
+      Object[] lookupRow = getLookupRow(rowMeta, combination.getValue(), valHash);
+      for (int i = 0; i < lookupRow.length; i++) {
+        parametersRowMeta.addValueMeta(data.lookupRowMeta.getValueMeta(i).clone());
+        parameters.add(lookupRow[i]);
+      }
+    }
+
+    if (log.isDebug()) {
+      logDebug("Looking up " + combinations.size() + " combinations with:" + Const.CR + sql);
+    }
+    List<Object[]> resultRows =
+        data.db.getRows(
+            databaseMeta.stripCR(sql.toString()),
+            parametersRowMeta,
+            parameters.toArray(),
+            ResultSet.FETCH_FORWARD,
+            false,
+            0,
+            null);
+    IRowMeta resultRowMeta = data.db.getReturnRowMeta();
+
+    // Map the rows we got back to the combinations, converting the key values to the data types of
+    // the input fields.
+    //
+    Map<RowMetaAndData, Long> found = new HashMap<>();
+    int nrUnmatched = 0;
+    for (Object[] resultRow : resultRows) {
+      incrementLinesInput();
+      Object[] hashRow = new Object[data.hashRowMeta.size()];
+      for (int i = 0; i < hashRow.length; i++) {
+        hashRow[i] =
+            data.hashRowMeta
+                .getValueMeta(i)
+                .convertData(resultRowMeta.getValueMeta(i + 1), resultRow[i + 1]);
+      }
+      RowMetaAndData key = new RowMetaAndData(data.hashRowMeta, hashRow);
+      Long valKey = resultRowMeta.getInteger(resultRow, 0);
+      if (valKey != null && combinations.containsKey(key)) {
+        found.merge(key, valKey, Math::min);
+      } else {
+        nrUnmatched++;
+      }
+    }
+
+    // The database matched rows we couldn't map back to a combination, for example because of
+    // padded CHAR columns or a case insensitive collation. Look up the remaining combinations one
+    // by one so that we never insert a combination twice.
+    //
+    if (nrUnmatched > 0) {
+      for (Map.Entry<RowMetaAndData, Object[]> combination : combinations.entrySet()) {
+        if (!found.containsKey(combination.getKey())) {
+          Long valHash = getHashValue(combination.getKey().getData());
+          Object[] lookupRow = getLookupRow(rowMeta, combination.getValue(), valHash);
+          data.db.setValues(data.lookupRowMeta, lookupRow, data.prepStatementLookup);
+          Object[] add = data.db.getLookup(data.prepStatementLookup);
+          incrementLinesInput();
+          if (add != null) {
+            found.put(combination.getKey(), data.db.getReturnRowMeta().getInteger(add, 0));
+          }
+        }
+      }
+    }
+    return found;
+  }
+
   @Override
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     // if no more input to be expected set done
     if (r == null) {
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !processBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -385,8 +600,26 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
         data.hashRowMeta.addValueMeta(getInputRowMeta().getValueMeta(data.keynrs[i])); // KEYi = ?
       }
 
+      // The cache of the technical keys, it can overflow by 10% before it's reduced
+      //
+      data.cache =
+          new CombinationLookupCache(
+              data.hashRowMeta, Math.max(0, meta.getCacheSize() + meta.getCacheSize() / 10));
+
       setCombiLookup(getInputRowMeta());
       preloadCache(data.hashRowMeta);
+
+      if (data.lookupBatchSize > 0) {
+        data.batchRows = new ArrayList<>(data.lookupBatchSize);
+      }
+    }
+
+    if (data.batchRows != null) {
+      data.batchRows.add(r);
+      if (data.batchRows.size() >= data.lookupBatchSize) {
+        return processBatch();
+      }
+      return true;
     }
 
     try {
@@ -414,6 +647,41 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     return true;
   }
 
+  /**
+   * Look up the technical keys of the buffered rows and pass them on.
+   *
+   * @return false if the transform was stopped because of an error
+   */
+  private boolean processBatch() throws HopException {
+    List<Object[]> rows = data.batchRows;
+    data.batchRows = new ArrayList<>(data.lookupBatchSize);
+
+    try {
+      for (Object[] outputRow : lookupBatch(getInputRowMeta(), rows)) {
+        putRow(data.outputRowMeta, outputRow); // copy row to output rowset(s)
+      }
+
+      if (checkFeedback(getLinesRead()) && log.isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "CombinationLookup.Log.LineNumber") + getLinesRead());
+      }
+    } catch (HopException e) {
+      if (getTransformMeta().isDoingErrorHandling()) {
+        for (Object[] row : rows) {
+          putError(getInputRowMeta(), row, 1L, Const.getStackTracker(e), null, "CBL001");
+        }
+      } else {
+        logError(
+            BaseMessages.getString(PKG, "CombinationLookup.Log.ErrorInTransformRunning")
+                + e.getMessage());
+        setErrors(1);
+        stopAll();
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * CombinationLookup table: dimension table keys[]: which dim-fields do we use to look up key?
    * retval: name of the key to return
@@ -438,6 +706,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     sql += "SELECT " + databaseMeta.quoteField(meta.getTechnicalKeyField()) + Const.CR;
     sql += "FROM " + data.schemaTable + Const.CR;
     sql += "WHERE ";
+    int conditionStart = sql.length();
     comma = false;
 
     if (meta.useHash()) {
@@ -473,6 +742,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       sql += " ) )";
       sql += Const.CR;
     }
+    data.lookupCondition = sql.substring(conditionStart);
 
     try {
       if (log.isDebug()) {
@@ -496,135 +766,11 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     try {
       if (data.prepStatementInsert == null) { // first time: construct prepared statement
         debug = "First: construct prepared statement";
-
-        data.insertRowMeta = new RowMeta();
-
-        /*
-         * Construct the SQL statement...
-         *
-         * INSERT INTO d_test(keyfield, [crcfield,] keylookup[]) VALUES(val_key, [val_crc], row values with keynrs[])
-         */
-
-        String sql = "";
-        sql += "INSERT INTO " + data.schemaTable + ("( ");
-        boolean comma = false;
-
-        if (!isAutoIncrement()) {
-          // NO AUTOINCREMENT
-          sql += databaseMeta.quoteField(meta.getTechnicalKeyField());
-          data.insertRowMeta.addValueMeta(new ValueMetaInteger(meta.getTechnicalKeyField()));
-          comma = true;
-        } else if (databaseMeta.needsPlaceHolder()) {
-          sql += "0"; // placeholder on informix! Will be replaced in table by real autoinc value.
-          data.insertRowMeta.addValueMeta(new ValueMetaInteger(meta.getTechnicalKeyField()));
-          comma = true;
-        }
-
-        if (meta.useHash()) {
-          if (comma) {
-            sql += ", ";
-          }
-          sql += databaseMeta.quoteField(meta.getHashField());
-          data.insertRowMeta.addValueMeta(new ValueMetaInteger(meta.getHashField()));
-          comma = true;
-        }
-
-        if (!Utils.isEmpty(meta.getLastUpdateField())) {
-          if (comma) {
-            sql += ", ";
-          }
-          sql += databaseMeta.quoteField(meta.getLastUpdateField());
-          data.insertRowMeta.addValueMeta(new ValueMetaDate(meta.getLastUpdateField()));
-          comma = true;
-        }
-
-        for (int i = 0; i < meta.getKeyLookup().length; i++) {
-          if (comma) {
-            sql += ", ";
-          }
-          sql += databaseMeta.quoteField(meta.getKeyLookup()[i]);
-          data.insertRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]));
-          comma = true;
-        }
-
-        sql += ") VALUES (";
-
-        comma = false;
-
-        if (!isAutoIncrement()) {
-          sql += '?';
-          comma = true;
-        }
-        if (meta.useHash()) {
-          if (comma) {
-            sql += ',';
-          }
-          sql += '?';
-          comma = true;
-        }
-        if (!Utils.isEmpty(meta.getLastUpdateField())) {
-          if (comma) {
-            sql += ',';
-          }
-          sql += '?';
-          comma = true;
-        }
-
-        for (int i = 0; i < meta.getKeyLookup().length; i++) {
-          if (comma) {
-            sql += ',';
-          } else {
-            comma = true;
-          }
-          sql += '?';
-        }
-
-        sql += " )";
-
-        String sqlStatement = sql;
-        try {
-          debug = "First: prepare statement";
-          if (isAutoIncrement() && databaseMeta.supportsAutoGeneratedKeys()) {
-            logDetailed("SQL with return keys: " + sqlStatement);
-            data.prepStatementInsert =
-                data.db
-                    .getConnection()
-                    .prepareStatement(
-                        databaseMeta.stripCR(sqlStatement), Statement.RETURN_GENERATED_KEYS);
-          } else {
-            logDetailed("SQL without return keys: " + sqlStatement);
-            data.prepStatementInsert =
-                data.db.getConnection().prepareStatement(databaseMeta.stripCR(sqlStatement));
-          }
-        } catch (SQLException ex) {
-          throw new HopDatabaseException(
-              "Unable to prepare combi insert statement : " + Const.CR + sqlStatement, ex);
-        } catch (Exception ex) {
-          throw new HopDatabaseException(
-              "Unable to prepare combi insert statement : " + Const.CR + sqlStatement, ex);
-        }
+        prepareInsertStatement(rowMeta);
       }
 
       debug = "Create new insert row rins";
-      Object[] insertRow = new Object[data.insertRowMeta.size()];
-      int insertIndex = 0;
-
-      if (!isAutoIncrement()) {
-        insertRow[insertIndex] = valKey;
-        insertIndex++;
-      }
-      if (meta.useHash()) {
-        insertRow[insertIndex] = valCrc;
-        insertIndex++;
-      }
-      if (!Utils.isEmpty(meta.getLastUpdateField())) {
-        insertRow[insertIndex] = new Date();
-        insertIndex++;
-      }
-      for (int i = 0; i < data.keynrs.length; i++) {
-        insertRow[insertIndex] = row[data.keynrs[i]];
-        insertIndex++;
-      }
+      Object[] insertRow = getInsertRow(row, valKey, valCrc);
 
       if (isRowLevel()) {
         logRowlevel("rins=" + data.insertRowMeta.getString(insertRow));
@@ -677,6 +823,190 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     return valKey;
   }
 
+  /** Prepares the statement to insert new records into the junk dimension */
+  private void prepareInsertStatement(IRowMeta rowMeta) throws HopDatabaseException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    data.insertRowMeta = new RowMeta();
+
+    /*
+     * Construct the SQL statement...
+     *
+     * INSERT INTO d_test(keyfield, [crcfield,] keylookup[]) VALUES(val_key, [val_crc], row values with keynrs[])
+     */
+
+    String sql = "";
+    sql += "INSERT INTO " + data.schemaTable + ("( ");
+    boolean comma = false;
+
+    if (!isAutoIncrement()) {
+      // NO AUTOINCREMENT
+      sql += databaseMeta.quoteField(meta.getTechnicalKeyField());
+      data.insertRowMeta.addValueMeta(new ValueMetaInteger(meta.getTechnicalKeyField()));
+      comma = true;
+    } else if (databaseMeta.needsPlaceHolder()) {
+      sql += "0"; // placeholder on informix! Will be replaced in table by real autoinc value.
+      data.insertRowMeta.addValueMeta(new ValueMetaInteger(meta.getTechnicalKeyField()));
+      comma = true;
+    }
+
+    if (meta.useHash()) {
+      if (comma) {
+        sql += ", ";
+      }
+      sql += databaseMeta.quoteField(meta.getHashField());
+      data.insertRowMeta.addValueMeta(new ValueMetaInteger(meta.getHashField()));
+      comma = true;
+    }
+
+    if (!Utils.isEmpty(meta.getLastUpdateField())) {
+      if (comma) {
+        sql += ", ";
+      }
+      sql += databaseMeta.quoteField(meta.getLastUpdateField());
+      data.insertRowMeta.addValueMeta(new ValueMetaDate(meta.getLastUpdateField()));
+      comma = true;
+    }
+
+    for (int i = 0; i < meta.getKeyLookup().length; i++) {
+      if (comma) {
+        sql += ", ";
+      }
+      sql += databaseMeta.quoteField(meta.getKeyLookup()[i]);
+      data.insertRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]));
+      comma = true;
+    }
+
+    sql += ") VALUES (";
+
+    comma = false;
+
+    if (!isAutoIncrement()) {
+      sql += '?';
+      comma = true;
+    }
+    if (meta.useHash()) {
+      if (comma) {
+        sql += ',';
+      }
+      sql += '?';
+      comma = true;
+    }
+    if (!Utils.isEmpty(meta.getLastUpdateField())) {
+      if (comma) {
+        sql += ',';
+      }
+      sql += '?';
+      comma = true;
+    }
+
+    for (int i = 0; i < meta.getKeyLookup().length; i++) {
+      if (comma) {
+        sql += ',';
+      } else {
+        comma = true;
+      }
+      sql += '?';
+    }
+
+    sql += " )";
+
+    String sqlStatement = sql;
+    try {
+      if (isAutoIncrement() && databaseMeta.supportsAutoGeneratedKeys()) {
+        logDetailed("SQL with return keys: " + sqlStatement);
+        data.prepStatementInsert =
+            data.db
+                .getConnection()
+                .prepareStatement(
+                    databaseMeta.stripCR(sqlStatement), Statement.RETURN_GENERATED_KEYS);
+      } else {
+        logDetailed("SQL without return keys: " + sqlStatement);
+        data.prepStatementInsert =
+            data.db.getConnection().prepareStatement(databaseMeta.stripCR(sqlStatement));
+      }
+    } catch (SQLException ex) {
+      throw new HopDatabaseException(
+          "Unable to prepare combi insert statement : " + Const.CR + sqlStatement, ex);
+    } catch (Exception ex) {
+      throw new HopDatabaseException(
+          "Unable to prepare combi insert statement : " + Const.CR + sqlStatement, ex);
+    }
+  }
+
+  private Object[] getInsertRow(Object[] row, Long valKey, Long valCrc) {
+    Object[] insertRow = new Object[data.insertRowMeta.size()];
+    int insertIndex = 0;
+
+    if (!isAutoIncrement()) {
+      insertRow[insertIndex] = valKey;
+      insertIndex++;
+    }
+    if (meta.useHash()) {
+      insertRow[insertIndex] = valCrc;
+      insertIndex++;
+    }
+    if (!Utils.isEmpty(meta.getLastUpdateField())) {
+      insertRow[insertIndex] = new Date();
+      insertIndex++;
+    }
+    for (int i = 0; i < data.keynrs.length; i++) {
+      insertRow[insertIndex] = row[data.keynrs[i]];
+      insertIndex++;
+    }
+    return insertRow;
+  }
+
+  /**
+   * Inserts new records into the junk dimension using a JDBC batch. Unless the database generates
+   * the technical keys, the new keys are stored in the given map.
+   *
+   * @param rowMeta The layout of the input rows
+   * @param combinations The new combinations with an input row which contains them
+   * @param found The map to store the technical keys of the new combinations in
+   * @throws HopException In case something went wrong inserting the combinations
+   */
+  private void combiInsertBatch(
+      IRowMeta rowMeta,
+      Map<RowMetaAndData, Object[]> combinations,
+      Map<RowMetaAndData, Long> found)
+      throws HopException {
+    if (data.prepStatementInsert == null) {
+      prepareInsertStatement(rowMeta);
+    }
+    boolean useBatch = data.db.getUseBatchInsert(true) && !data.db.isAutoCommit();
+    boolean batchPending = false;
+
+    for (Map.Entry<RowMetaAndData, Object[]> combination : combinations.entrySet()) {
+      Long valHash = getHashValue(combination.getKey().getData());
+      Long valKey = getNextTechnicalKey();
+
+      Object[] insertRow = getInsertRow(combination.getValue(), valKey, valHash);
+      if (isRowLevel()) {
+        logRowlevel("rins=" + data.insertRowMeta.getString(insertRow));
+      }
+      data.db.setValues(data.insertRowMeta, insertRow, data.prepStatementInsert);
+
+      // The rows are safe when the batch was executed because the commit size was reached
+      //
+      batchPending = !data.db.insertRow(data.prepStatementInsert, useBatch, true);
+      incrementLinesOutput();
+
+      if (!isAutoIncrement()) {
+        found.put(combination.getKey(), valKey);
+      }
+    }
+
+    if (useBatch && batchPending) {
+      try {
+        data.prepStatementInsert.executeBatch();
+        data.prepStatementInsert.clearBatch();
+      } catch (SQLException ex) {
+        throw new HopDatabaseException("Unable to insert a batch of combinations", ex);
+      }
+    }
+  }
+
   @Override
   public boolean isRowLevel() {
     return log.isRowLevel();
@@ -687,12 +1017,8 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     if (super.init()) {
       data.realSchemaName = resolve(meta.getSchemaName());
       data.realTableName = resolve(meta.getTableName());
+      data.lookupBatchSize = meta.getLookupBatchSize();
 
-      if (meta.getCacheSize() > 0) {
-        data.cache = new HashMap<>((int) (meta.getCacheSize() * 1.5));
-      } else {
-        data.cache = new HashMap<>();
-      }
       if (meta.getDatabaseMeta() == null) {
         logError(
             BaseMessages.getString(
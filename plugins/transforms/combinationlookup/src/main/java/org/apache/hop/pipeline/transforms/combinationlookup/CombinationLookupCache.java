@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.Arrays;
+
+/**
+ * The cache of the combination lookup: maps the key values of a combination to its technical key.
+ * This is an open addressing hash table which keeps the technical keys and hash codes in primitive
+ * arrays. This avoids a wrapper object for the key, a boxed technical key and a map entry for every
+ * cached combination.
+ */
+public class CombinationLookupCache {
+
+  /** The value returned by {@link #get(Object[])} if the combination is not in the cache */
+  public static final long NOT_FOUND = Long.MIN_VALUE;
+
+  private static final int MINIMUM_CAPACITY = 16;
+
+  private final IRowMeta keyRowMeta;
+
+  private Object[][] keys;
+  private int[] hashCodes;
+  private long[] technicalKeys;
+  private int size;
+
+  /**
+   * Create a new cache
+   *
+   * @param keyRowMeta The layout of the key values
+   * @param expectedSize The number of combinations we expect to store
+   */
+  public CombinationLookupCache(IRowMeta keyRowMeta, int expectedSize) {
+    this.keyRowMeta = keyRowMeta;
+    allocate(getCapacity(expectedSize));
+  }
+
+  private static int getCapacity(int expectedSize) {
+    // Keep the table at most half full
+    //
+    int capacity = MINIMUM_CAPACITY;
+    while (capacity < 2L * expectedSize && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity][];
+    hashCodes = new int[capacity];
+    technicalKeys = new long[capacity];
+    size = 0;
+  }
+
+  private int hash(Object[] key) throws HopValueException {
+    int h = keyRowMeta.hashCode(key);
+    return h ^ (h >>> 16);
+  }
+
+  private int indexOf(Object[] key, int hashCode) throws HopValueException {
+    int mask = keys.length - 1;
+    int index = hashCode & mask;
+    while (keys[index] != null) {
+      if (hashCodes[index] == hashCode && keyRowMeta.compare(keys[index], key) == 0) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1 - index;
+  }
+
+  /**
+   * Look up the technical key of a combination
+   *
+   * @param key The key values
+   * @return The technical key or {@link #NOT_FOUND}
+   * @throws HopValueException In case the key values can't be compared
+   */
+  public long get(Object[] key) throws HopValueException {
+    int index = indexOf(key, hash(key));
+    return index < 0 ? NOT_FOUND : technicalKeys[index];
+  }
+
+  /**
+   * Store the technical key of a combination. An existing entry is replaced.
+   *
+   * @param key The key values
+   * @param technicalKey The technical key
+   * @throws HopValueException In case the key values can't be compared
+   */
+  public void put(Object[] key, long technicalKey) throws HopValueException {
+    int hashCode = hash(key);
+    int index = indexOf(key, hashCode);
+    if (index >= 0) {
+      technicalKeys[index] = technicalKey;
+      return;
+    }
+    if (2 * (size + 1) > keys.length && keys.length < (1 << 30)) {
+      rehash(keys.length << 1, NOT_FOUND);
+      index = indexOf(key, hashCode);
+    }
+    index = -1 - index;
+    keys[index] = key;
+    hashCodes[index] = hashCode;
+    technicalKeys[index] = technicalKey;
+    size++;
+  }
+
+  /**
+   * Take samples of the technical keys in the cache, spread evenly over the table.
+   *
+   * @param nrSamples The maximum number of samples to take
+   * @return The sampled technical keys, sorted
+   */
+  public long[] sampleTechnicalKeys(int nrSamples) {
+    long[] samples = new long[Math.min(nrSamples, size)];
+    int step = Math.max(1, size / Math.max(1, nrSamples));
+    int nrFound = 0;
+    int entryNr = 0;
+    for (int i = 0; i < keys.length && nrFound < samples.length; i++) {
+      if (keys[i] != null) {
+        if (entryNr % step == 0) {
+          samples[nrFound++] = technicalKeys[i];
+        }
+        entryNr++;
+      }
+    }
+    samples = Arrays.copyOf(samples, nrFound);
+    Arrays.sort(samples);
+    return samples;
+  }
+
+  /**
+   * Remove all the combinations with a technical key smaller than or equal to the given one.
+   *
+   * @param technicalKey The largest technical key to remove
+   */
+  public void removeUpTo(long technicalKey) {
+    rehash(keys.length, technicalKey);
+  }
+
+  /**
+   * Rebuild the table, keeping only the entries with a technical key larger than the given one.
+   */
+  private void rehash(int capacity, long smallestTechnicalKey) {
+    Object[][] oldKeys = keys;
+    int[] oldHashCodes = hashCodes;
+    long[] oldTechnicalKeys = technicalKeys;
+
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null
+          && (smallestTechnicalKey == NOT_FOUND || oldTechnicalKeys[i] > smallestTechnicalKey)) {
+        int index = oldHashCodes[i] & mask;
+        while (keys[index] != null) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = oldKeys[i];
+        hashCodes[index] = oldHashCodes[i];
+        technicalKeys[index] = oldTechnicalKeys[i];
+        size++;
+      }
+    }
+  }
+
+  /** Remove all the combinations from the cache */
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  /**
+   * Gets size
+   *
+   * @return The number of combinations in the cache
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -17,20 +17,19 @@
 
 package org.apache.hop.pipeline.transforms.combinationlookup;
 
-import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 import java.sql.PreparedStatement;
-import java.util.Map;
+import java.util.List;
 
 public class CombinationLookupData extends BaseTransformData implements ITransformData {
   public Database db;
   public int[] keynrs; // nrs in row of the keys
 
-  public Map<RowMetaAndData, Long> cache;
+  public CombinationLookupCache cache;
 
   public IRowMeta outputRowMeta;
   public IRowMeta lookupRowMeta;
@@ -46,6 +45,12 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
   public PreparedStatement prepStatementInsert;
   public long smallestCacheKey;
 
+  /** The WHERE clause of the lookup statement, repeated for every key in a batched lookup */
+  public String lookupCondition;
+
+  public int lookupBatchSize;
+  public List<Object[]> batchRows;
+
   /** Default Constructor */
   public CombinationLookupData() {
     super();
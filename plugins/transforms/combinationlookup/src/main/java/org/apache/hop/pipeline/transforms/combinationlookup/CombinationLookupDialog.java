@@ -82,6 +82,8 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
 
   private Text wCachesize;
 
+  private Text wLookupBatchSize;
+
   private Button wPreloadCache;
 
   private Text wTk;
@@ -285,6 +287,27 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
     wCachesize.setToolTipText(
         BaseMessages.getString(PKG, "CombinationLookupDialog.Cachesize.ToolTip"));
 
+    // Lookup batch size
+    Label wlLookupBatchSize = new Label(shell, SWT.RIGHT);
+    wlLookupBatchSize.setText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.LookupBatchSize.Label"));
+    PropsUi.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    fdlLookupBatchSize.top = new FormAttachment(wCachesize, margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.top = new FormAttachment(wCachesize, margin);
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.right = new FormAttachment(middle + (100 - middle) / 3, -margin);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+    wLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.LookupBatchSize.ToolTip"));
+
     // Preload Cache
     wPreloadCache = new Button(shell, SWT.CHECK);
     wPreloadCache.setText(
@@ -779,6 +802,7 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
 
     wCommit.setText("" + input.getCommitSize());
     wCachesize.setText("" + input.getCacheSize());
+    wLookupBatchSize.setText("" + input.getLookupBatchSize());
 
     wLastUpdateField.setText(Const.NVL(input.getLastUpdateField(), ""));
 
@@ -860,6 +884,7 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
 
     in.setCommitSize(Const.toInt(wCommit.getText(), 0));
     in.setCacheSize(Const.toInt(wCachesize.getText(), 0));
+    in.setLookupBatchSize(Const.toInt(wLookupBatchSize.getText(), 0));
 
     in.setLastUpdateField(wLastUpdateField.getText());
   }
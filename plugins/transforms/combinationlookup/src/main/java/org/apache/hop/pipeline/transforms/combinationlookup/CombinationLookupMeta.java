@@ -127,6 +127,10 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
   @Injection(name = "CACHE_SIZE")
   private int cacheSize;
 
+  /** Look up and insert the combinations which are not in the cache in batches of this size */
+  @Injection(name = "LOOKUP_BATCH_SIZE")
+  private int lookupBatchSize;
+
   /** Use the auto-increment feature of the database to generate keys. */
   @Injection(name = "AUTO_INC")
   private boolean useAutoinc;
@@ -198,6 +202,16 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
     this.cacheSize = cacheSize;
   }
 
+  /** @return Returns the lookupBatchSize, 0 or less looks up the rows one by one. */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /** @param lookupBatchSize The lookupBatchSize to set. */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /** @return Returns the hashField. */
   public String getHashField() {
     return hashField;
@@ -338,6 +352,7 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
       commitSize = Const.toInt(commit, 0);
       csize = XmlHandler.getTagValue(transformNode, "cache_size");
       cacheSize = Const.toInt(csize, 0);
+      lookupBatchSize = Const.toInt(XmlHandler.getTagValue(transformNode, "lookup_batch_size"), 0);
 
       replaceFields = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "replace"));
       preloadCache = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preloadCache"));
@@ -381,6 +396,7 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
     databaseMeta = null;
     commitSize = 100;
     cacheSize = DEFAULT_CACHE_SIZE;
+    lookupBatchSize = 0;
     replaceFields = false;
     preloadCache = false;
     useHash = false;
@@ -437,6 +453,7 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
                 "connection", databaseMeta == null ? "" : databaseMeta.getName()));
     retval.append("      ").append(XmlHandler.addTagValue("commit", commitSize));
     retval.append("      ").append(XmlHandler.addTagValue("cache_size", cacheSize));
+    retval.append("      ").append(XmlHandler.addTagValue("lookup_batch_size", lookupBatchSize));
     retval.append("      ").append(XmlHandler.addTagValue("replace", replaceFields));
     retval.append("      ").append(XmlHandler.addTagValue("preloadCache", preloadCache));
     retval.append("      ").append(XmlHandler.addTagValue("crc", useHash));
@@ -978,6 +995,9 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
     if (getCacheSize() != o.getCacheSize()) {
       return false;
     }
+    if (getLookupBatchSize() != o.getLookupBatchSize()) {
+      return false;
+    }
     if (!getTechKeyCreation().equals(o.getTechKeyCreation())) {
       return false;
     }
@@ -1043,6 +1063,7 @@ public class CombinationLookupMeta extends BaseTransformMeta<CombinationLookup,
     return Objects.hash(
         getCommitSize(),
         getCacheSize(),
+        getLookupBatchSize(),
         getTechKeyCreation(),
         replaceFields(),
         useHash(),
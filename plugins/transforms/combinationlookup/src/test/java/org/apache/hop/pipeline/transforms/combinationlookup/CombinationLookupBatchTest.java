@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CombinationLookupBatchTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private TransformMockHelper<CombinationLookupMeta, CombinationLookupData> mockHelper;
+
+  @Before
+  public void setUp() {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Combination lookup", CombinationLookupMeta.class, CombinationLookupData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  @Test
+  public void testLookupCombinationsInChunks() throws Exception {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    when(databaseMeta.quoteField(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(databaseMeta.stripCR(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    CombinationLookupMeta meta = mockHelper.iTransformMeta;
+    when(meta.getDatabaseMeta()).thenReturn(databaseMeta);
+    when(meta.getKeyField()).thenReturn(new String[] {"name"});
+    when(meta.getKeyLookup()).thenReturn(new String[] {"name"});
+    when(meta.getTechnicalKeyField()).thenReturn("tk");
+    when(meta.useHash()).thenReturn(false);
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    // name = ? AND ( name IS NULL OR ? IS NULL ): two parameters per combination
+    //
+    CombinationLookupData data = new CombinationLookupData();
+    data.keynrs = new int[] {0};
+    data.hashRowMeta = rowMeta.clone();
+    data.lookupRowMeta = new RowMeta();
+    data.lookupRowMeta.addValueMeta(new ValueMetaString("name"));
+    data.lookupRowMeta.addValueMeta(new ValueMetaString("name"));
+    data.lookupCondition = "name = ? AND ( name IS NULL OR ? IS NULL )";
+    data.schemaTable = "dim";
+
+    IRowMeta resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta(new ValueMetaInteger("tk"));
+    resultRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    // The database finds every combination: the technical key is the number in the name
+    //
+    List<Integer> parameterCounts = new ArrayList<>();
+    data.db = mock(Database.class);
+    when(data.db.getReturnRowMeta()).thenReturn(resultRowMeta);
+    when(data.db.getRows(
+            anyString(), any(IRowMeta.class), any(Object[].class), anyInt(), anyBoolean(),
+            anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              Object[] parameters = invocation.getArgument(2);
+              parameterCounts.add(parameters.length);
+              List<Object[]> rows = new ArrayList<>();
+              for (int i = 0; i < parameters.length; i += 2) {
+                String name = (String) parameters[i];
+                rows.add(new Object[] {Long.valueOf(name.substring(4)), name});
+              }
+              return rows;
+            });
+
+    CombinationLookup combinationLookup =
+        new CombinationLookup(
+            mockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+
+    int nrCombinations = 1234;
+    Map<RowMetaAndData, Object[]> combinations = new LinkedHashMap<>();
+    for (int i = 0; i < nrCombinations; i++) {
+      Object[] row = new Object[] {"name" + i};
+      combinations.put(new RowMetaAndData(data.hashRowMeta, row), row);
+    }
+
+    Map<RowMetaAndData, Long> found = combinationLookup.lookupCombinations(rowMeta, combinations);
+
+    assertEquals(nrCombinations, found.size());
+    for (int i = 0; i < nrCombinations; i++) {
+      assertEquals(
+          Long.valueOf(i),
+          found.get(new RowMetaAndData(data.hashRowMeta, new Object[] {"name" + i})));
+    }
+
+    // 500 combinations per query
+    //
+    assertEquals(500, combinationLookup.getLookupChunkSize());
+    assertEquals(3, parameterCounts.size());
+    int total = 0;
+    for (int parameterCount : parameterCounts) {
+      assertTrue(parameterCount <= CombinationLookup.MAX_LOOKUP_PARAMETERS);
+      total += parameterCount;
+    }
+    assertEquals(nrCombinations * 2, total);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CombinationLookupCacheTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static IRowMeta getKeyRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("number"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    CombinationLookupCache cache = new CombinationLookupCache(getKeyRowMeta(), 0);
+    for (long i = 0; i < 1000; i++) {
+      cache.put(new Object[] {"name" + (i % 10), i}, i + 1);
+    }
+    cache.put(new Object[] {null, null}, 5000L);
+    assertEquals(1001, cache.size());
+
+    for (long i = 0; i < 1000; i++) {
+      assertEquals(i + 1, cache.get(new Object[] {"name" + (i % 10), i}));
+    }
+    assertEquals(5000L, cache.get(new Object[] {null, null}));
+    assertEquals(CombinationLookupCache.NOT_FOUND, cache.get(new Object[] {"name1", 2L}));
+    assertEquals(CombinationLookupCache.NOT_FOUND, cache.get(new Object[] {null, 2L}));
+
+    // Replace an existing entry
+    //
+    cache.put(new Object[] {"name1", 1L}, 42L);
+    assertEquals(1001, cache.size());
+    assertEquals(42L, cache.get(new Object[] {"name1", 1L}));
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(CombinationLookupCache.NOT_FOUND, cache.get(new Object[] {"name1", 1L}));
+  }
+
+  @Test
+  public void testRemoveUpTo() throws Exception {
+    CombinationLookupCache cache = new CombinationLookupCache(getKeyRowMeta(), 100);
+    for (long i = 1; i <= 100; i++) {
+      cache.put(new Object[] {"name", i}, i);
+    }
+
+    long[] samples = cache.sampleTechnicalKeys(5);
+    assertEquals(5, samples.length);
+    for (int i = 1; i < samples.length; i++) {
+      assertTrue(samples[i - 1] <= samples[i]);
+    }
+
+    cache.removeUpTo(40L);
+    assertEquals(60, cache.size());
+    for (long i = 1; i <= 100; i++) {
+      long expected = i <= 40 ? CombinationLookupCache.NOT_FOUND : i;
+      assertEquals(expected, cache.get(new Object[] {"name", i}));
+    }
+  }
+}
@@ -46,6 +46,7 @@ public class CombinationLookupMetaInjectionTest
     check("COMMIT_SIZE", () -> meta.getCommitSize());
     check("PRELOAD_CACHE", () -> meta.getPreloadCache());
     check("CACHE_SIZE", () -> meta.getCacheSize());
+    check("LOOKUP_BATCH_SIZE", () -> meta.getLookupBatchSize());
     check("AUTO_INC", () -> meta.isUseAutoinc());
     check("TECHNICAL_KEY_CREATION", () -> meta.getTechKeyCreation());
     check("LAST_UPDATE_FIELD", () -> meta.getLastUpdateField());
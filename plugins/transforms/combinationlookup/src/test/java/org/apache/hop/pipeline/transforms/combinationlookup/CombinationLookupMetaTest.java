@@ -72,6 +72,7 @@ public class CombinationLookupMetaTest implements IInitializer<ITransformMeta> {
             "commitSize",
             "preloadCache",
             "cacheSize",
+            "lookupBatchSize",
             "useAutoinc",
             "techKeyCreation",
             "lastUpdateField");
@@ -198,8 +198,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
     // Store in cache if we need to!
     // If we already loaded all data into the cache, storing more makes no sense.
+    // The results are cached by lookup values, this works for range conditions as well.
     //
-    if (meta.isCached() && cacheNow && !meta.isLoadingAllDataInCache() && data.allEquals) {
+    if (meta.isCached() && cacheNow && !meta.isLoadingAllDataInCache()) {
       data.cache.storeRowInCache(meta, data.lookupMeta, lookupRow, add);
     }
 
@@ -416,7 +417,11 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        if (meta.isLoadingAllDataInCache()) {
+          data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        } else {
+          data.cache = DefaultCache.newLookupResultsCache(data, meta.getCacheSize());
+        }
       }
 
       determineFieldsTypesQueryingDb();
@@ -23,11 +23,8 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.List;
 
 /** Old code, copied from {@linkplain DatabaseLookup} */
 public class DefaultCache implements DatabaseLookupData.ICache {
@@ -38,22 +35,44 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     } else {
       cacheSize = 16;
     }
-    return new DefaultCache(data, cacheSize);
+    return new DefaultCache(data, cacheSize, false);
+  }
+
+  /**
+   * Create a cache for the results of the lookups in the database. The rows are stored with the
+   * values used for the lookup as key. Since the database gives the same result for the same
+   * values, a cached row can be found back with a hash lookup, whatever the conditions are. When
+   * the cache is full the least recently used row is removed.
+   *
+   * @param data The transform data
+   * @param cacheSize The maximum number of rows to cache, 0 means no limit
+   * @return The cache
+   */
+  public static DefaultCache newLookupResultsCache(DatabaseLookupData data, int cacheSize) {
+    int capacity = cacheSize > 0 ? (int) (cacheSize * 1.5) : 16;
+    return new DefaultCache(data, capacity, true);
   }
 
   private final DatabaseLookupData data;
   private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final boolean lookupResults;
 
   DefaultCache(DatabaseLookupData data, int capacity) {
+    this(data, capacity, false);
+  }
+
+  DefaultCache(DatabaseLookupData data, int capacity, boolean lookupResults) {
     this.data = data;
-    map = new LinkedHashMap<>(capacity);
+    this.lookupResults = lookupResults;
+    // The results of lookups are kept in access order to evict the least recently used row first
+    map = new LinkedHashMap<>(capacity, 0.75f, lookupResults);
   }
 
   @Override
   public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
-    if (data.allEquals) {
+    if (data.allEquals || lookupResults) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
-      // results
+      // results. Cached lookup results are stored with the exact lookup values as key.
       TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
       if (timedRow != null) {
         return timedRow.getRow();
@@ -147,42 +166,19 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     map.put(rowMetaAndData, new TimedRow(add));
 
     // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
+    // The eldest entry is the least recently used one for lookup results, the first one stored
+    // otherwise.
+    //
     // 2009-02-01: If you had previously set a cache size and then turned on load all,
     // this
     // method would throw out entries if the previous cache size wasn't big enough.
     if (!meta.isLoadingAllDataInCache()
         && meta.getCacheSize() > 0
         && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
-      }
-
-      Collections.sort(samples);
-
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
-
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
-
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
-          }
-        }
+      Iterator<RowMetaAndData> iterator = map.keySet().iterator();
+      while (map.size() > meta.getCacheSize() && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
       }
     }
   }
@@ -61,6 +61,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -346,6 +347,36 @@ public class DatabaseLookupUTest {
     assertArrayEquals(dataFromCache, add1);
   }
 
+  @Test
+  public void lookupResultsCacheUsesExactValuesAndEvictsLeastRecentlyUsed() throws HopException {
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.allEquals = false;
+    data.conditions = new int[] {DatabaseLookupMeta.CONDITION_GE};
+    data.cache = DefaultCache.newLookupResultsCache(data, 2);
+
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    meta.setCached(true);
+    meta.setCacheSize(2);
+
+    RowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger("fieldTest"));
+    data.cache.storeRowInCache(meta, lookupMeta, new Object[] {1L}, new Object[] {10L});
+    data.cache.storeRowInCache(meta, lookupMeta, new Object[] {2L}, new Object[] {20L});
+
+    // Only the exact lookup values give a hit, whatever the condition
+    assertNull(data.cache.getRowFromCache(lookupMeta, new Object[] {0L}));
+    assertArrayEquals(
+        new Object[] {10L}, data.cache.getRowFromCache(lookupMeta, new Object[] {1L}));
+
+    // 2 is now the least recently used row
+    data.cache.storeRowInCache(meta, lookupMeta, new Object[] {3L}, new Object[] {30L});
+    assertNull(data.cache.getRowFromCache(lookupMeta, new Object[] {2L}));
+    assertArrayEquals(
+        new Object[] {10L}, data.cache.getRowFromCache(lookupMeta, new Object[] {1L}));
+    assertArrayEquals(
+        new Object[] {30L}, data.cache.getRowFromCache(lookupMeta, new Object[] {3L}));
+  }
+
   @Test
   public void createsReadOnlyCache_WhenReadAll_AndNotAllEquals() throws Exception {
     DatabaseLookupData data = getCreatedData(false);
@@ -18,29 +18,39 @@
 package org.apache.hop.pipeline.transforms.dimensionlookup;
 
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class will act as a special purpose dimension Cache. The idea here is to not only cache the
  * last version of a dimension entry, but all versions. So basically, the entry key is the natural
  * key as well as the from-to date range.
  *
- * <p>The way to achieve that result is to keep a sorted list in memory. Because we want as few
- * conversion errors as possible, we'll use the same row as we get from the database.
+ * <p>The rows are hashed on their natural key. Per natural key the versions are kept sorted on the
+ * start of their date range, with the date ranges in separate arrays so that a version is found
+ * with a binary search without any value conversions. Because we want as few conversion errors as
+ * possible, we'll store the same row as we get from the database.
+ *
+ * <p>A natural key can also be added without any versions: this remembers that the key is not in
+ * the dimension so that we don't have to look for it again.
  */
-public class DimensionCache implements Comparator<Object[]> {
+public class DimensionCache {
+  private static final Versions NO_VERSIONS = new Versions();
+
   private IRowMeta rowMeta;
-  private List<Object[]> rowCache;
   private int[] keyIndexes;
   private int fromDateIndex;
   private int toDateIndex;
 
+  private final Map<NaturalKey, Versions> versionsMap;
+  private long nrRows;
+
   /**
    * Create a new dimension cache object
    *
@@ -54,181 +64,95 @@ public class DimensionCache implements Comparator<Object[]> {
     this.keyIndexes = keyIndexes;
     this.fromDateIndex = fromDateIndex;
     this.toDateIndex = toDateIndex;
+    this.versionsMap = new HashMap<>();
   }
 
   /**
-   * Add a row to the back of the list
+   * Add a version of a dimension entry to the cache
    *
    * @param row the row to add
+   * @throws HopValueException in case the natural key or the date range can't be read
    */
-  public void addRow(Object[] row) {
-    rowCache.add(row);
+  public void addRow(Object[] row) throws HopValueException {
+    NaturalKey key = new NaturalKey(row);
+    Versions versions = versionsMap.get(key);
+    if (versions == null || versions == NO_VERSIONS) {
+      versions = new Versions();
+      versionsMap.put(key, versions);
+    }
+    versions.add(getFromTime(row), getToTime(row), row);
+    nrRows++;
   }
 
   /**
-   * Get a row from the cache on a certain index
+   * Remember a natural key which has no versions in the dimension. Nothing happens if the key is
+   * already in the cache.
    *
-   * @param index the index to look for
-   * @return the row on the specified index
+   * @param keyRowData A row with the natural key on the key indexes
+   * @throws HopValueException in case the natural key can't be read
    */
-  public Object[] getRow(int index) {
-    return rowCache.get(index);
+  public void addKey(Object[] keyRowData) throws HopValueException {
+    versionsMap.putIfAbsent(new NaturalKey(keyRowData), NO_VERSIONS);
   }
 
   /**
-   * Insert a row into the list on a certain index
+   * See if the cache knows about a natural key, with or without versions.
    *
-   * @param index the index on which the row should be inserted
-   * @param row the row to add
+   * @param keyRowData A row with the natural key on the key indexes
+   * @return true if the natural key was added to the cache
+   * @throws HopValueException in case the natural key can't be read
    */
-  public void addRow(int index, Object[] row) {
-    rowCache.add(index, row);
+  public boolean containsKey(Object[] keyRowData) throws HopValueException {
+    return versionsMap.containsKey(new NaturalKey(keyRowData));
   }
 
   /**
-   * Looks up a row in the (sorted) cache.
+   * Looks up a row in the cache.
    *
    * @param lookupRowData The data of the lookup row. Make sure that on the index of the from date,
    *     you put the lookup date.
-   * @throws a HopException in case there are conversion errors during the lookup of the row
+   * @return the version of the natural key valid on the lookup date or null if there is none
+   * @throws HopException in case there are conversion errors during the lookup of the row
    */
-  public int lookupRow(Object[] lookupRowData) throws HopException {
+  public Object[] lookupRow(Object[] lookupRowData) throws HopException {
     try {
-      // First perform the lookup!
-      //
-      int index = Collections.binarySearch(rowCache, lookupRowData, this);
-      if (index < 0) {
-        // What we have now is the insertion point.
-        // Since we only compare on the start of the date range (see also: below in
-        // Compare.compare())
-        // we will usually get the insertion point of the row
-        // However, that insertion point is the actual row index IF the supplied lookup date (in the
-        // lookup row) is
-        // between
-        //
-        // This row at the insertion point where the natural keys match and the start
-        //
-        int insertionPoint = -(index + 1);
-        if (insertionPoint < rowCache.size() - 1) {
-          // Get the row in question
-          //
-          Object[] row = rowCache.get(insertionPoint);
-
-          // See if the natural key matches...
-          //
-          int cmp = rowMeta.compare(row, lookupRowData, keyIndexes);
-          if (cmp == 0) {
-            // The natural keys match, now see if the lookup date (lookupRowData[fromDateIndex]) is
-            // between
-            // row[fromDateIndex] and row[toDateIndex]
-            //
-            Date fromDate = rowMeta.getDate(row, fromDateIndex);
-            Date toDate = rowMeta.getDate(row, toDateIndex);
-            Date lookupDate = rowMeta.getDate(lookupRowData, fromDateIndex);
-
-            if (fromDate == null && toDate != null) {
-              // This is the case where the fromDate is null and the toDate is not.
-              // This is a special case where null as a start date means -Infinity
-              //
-              if (toDate.compareTo(lookupDate) > 0) {
-                return insertionPoint; // found the key!!
-              } else {
-                // This should never happen, it's a flaw in the data or the binary search
-                // algorithm...
-                // TODO: print the row perhaps?
-                //
-                throw new HopException(
-                    "Key sorting problem detected during row cache lookup: the lookup date of "
-                        + "the row retrieved is higher than or equal to the end of the date range.");
-              }
-            } else if (fromDate != null && toDate == null) {
-              // This is the case where the toDate is null and the fromDate is not.
-              // This is a special case where null as an end date means +Infinity
-              //
-              if (fromDate.compareTo(lookupDate) <= 0) {
-                return insertionPoint; // found the key!!
-              } else {
-                // This should never happen, it's a flaw in the data or the binary search
-                // algorithm...
-                // TODO: print the row perhaps?
-                //
-                throw new HopException(
-                    "Key sorting problem detected during row cache lookup: the lookup date of the row "
-                        + "retrieved is lower than or equal to the start of the date range.");
-              }
-            } else {
-              // Both dates are available: simply see if the lookup date falls in between...
-              //
-              if (fromDate.compareTo(lookupDate) <= 0 && toDate.compareTo(lookupDate) > 0) {
-                return insertionPoint;
-              }
-              // Else this is a cache miss.
-            }
-          }
-        }
+      Versions versions = versionsMap.get(new NaturalKey(lookupRowData));
+      if (versions == null) {
+        return null;
       }
-      return index;
+      Date lookupDate = rowMeta.getDate(lookupRowData, fromDateIndex);
+      return versions.find(lookupDate.getTime());
     } catch (RuntimeException e) {
       throw new HopException(e);
     }
   }
 
-  public void sortRows() {
-    Collections.sort(rowCache, this);
+  /** Remove all the rows and natural keys from the cache */
+  public void clear() {
+    versionsMap.clear();
+    nrRows = 0;
   }
 
-  /**
-   * Compare 2 rows of data using the natural keys and indexes specified.
-   *
-   * @param o1
-   * @param o2
-   * @return
-   */
-  @Override
-  public int compare(Object[] o1, Object[] o2) {
-    try {
-      // First compare on the natural keys...
-      //
-      int cmp = rowMeta.compare(o1, o2, keyIndexes);
-      if (cmp != 0) {
-        return cmp;
-      }
+  /** @return the number of natural keys in the cache */
+  public int getNrKeys() {
+    return versionsMap.size();
+  }
 
-      // Then see if the start of the date range of o2 falls between the start and end of o2
-      //
-      IValueMeta fromDateMeta = rowMeta.getValueMeta(fromDateIndex);
-      IValueMeta toDateMeta = rowMeta.getValueMeta(toDateIndex);
+  /** @return the number of rows (versions) in the cache */
+  public long getNrRows() {
+    return nrRows;
+  }
 
-      Date fromDate = fromDateMeta.getDate(o1[fromDateIndex]);
-      Date toDate = toDateMeta.getDate(o1[toDateIndex]);
-      Date lookupDate = fromDateMeta.getDate(o2[fromDateIndex]);
+  /** A null start of the date range means -Infinity */
+  private long getFromTime(Object[] row) throws HopValueException {
+    Date fromDate = rowMeta.getDate(row, fromDateIndex);
+    return fromDate == null ? Long.MIN_VALUE : fromDate.getTime();
+  }
 
-      int fromCmpLookup = 0;
-      if (fromDate == null) {
-        if (lookupDate == null) {
-          fromCmpLookup = 0;
-        } else {
-          fromCmpLookup = -1;
-        }
-      } else {
-        if (lookupDate == null) {
-          fromCmpLookup = 1;
-        } else {
-          fromCmpLookup = fromDateMeta.compare(fromDate, lookupDate);
-        }
-      }
-      if (fromCmpLookup < 0) {
-        if (toDate != null) {
-          int toCmpLookup = toDateMeta.compare(toDate, lookupDate);
-          if (toCmpLookup > 0) {
-            return 0;
-          }
-        }
-      }
-      return fromCmpLookup;
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  /** A null end of the date range means +Infinity */
+  private long getToTime(Object[] row) throws HopValueException {
+    Date toDate = rowMeta.getDate(row, toDateIndex);
+    return toDate == null ? Long.MAX_VALUE : toDate.getTime();
   }
 
   /** @return the rowMeta */
@@ -241,16 +165,6 @@ public class DimensionCache implements Comparator<Object[]> {
     this.rowMeta = rowMeta;
   }
 
-  /** @return the rowCache */
-  public List<Object[]> getRowCache() {
-    return rowCache;
-  }
-
-  /** @param rowCache the rowCache to set */
-  public void setRowCache(List<Object[]> rowCache) {
-    this.rowCache = rowCache;
-  }
-
   /** @return the keyIndexes */
   public int[] getKeyIndexes() {
     return keyIndexes;
@@ -280,4 +194,98 @@ public class DimensionCache implements Comparator<Object[]> {
   public void setToDateIndex(int toDateIndex) {
     this.toDateIndex = toDateIndex;
   }
+
+  /** The natural key of a row, compared the same way as the dimension table rows */
+  private final class NaturalKey {
+    private final Object[] row;
+    private final int hashCode;
+
+    private NaturalKey(Object[] row) throws HopValueException {
+      this.row = row;
+      int hash = 0;
+      for (int keyIndex : keyIndexes) {
+        IValueMeta valueMeta = rowMeta.getValueMeta(keyIndex);
+        Object value = row[keyIndex];
+        int valueHash;
+        if (valueMeta.isNull(value)) {
+          valueHash = 0;
+        } else if (valueMeta.isBigNumber()) {
+          // 1.0 and 1.00 are the same key
+          valueHash = valueMeta.getBigNumber(value).stripTrailingZeros().hashCode();
+        } else {
+          valueHash = valueMeta.hashCode(value);
+        }
+        hash = hash * 31 + valueHash;
+      }
+      this.hashCode = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof NaturalKey)) {
+        return false;
+      }
+      NaturalKey other = (NaturalKey) obj;
+      try {
+        return hashCode == other.hashCode && rowMeta.compare(row, other.row, keyIndexes) == 0;
+      } catch (HopValueException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  /** The versions of a natural key, sorted on the start of the date range */
+  private static final class Versions {
+    private long[] fromTimes = new long[0];
+    private long[] toTimes = new long[0];
+    private Object[][] rows = new Object[0][];
+    private int size;
+
+    private void add(long fromTime, long toTime, Object[] row) {
+      if (size == rows.length) {
+        int capacity = Math.max(2, size * 2);
+        fromTimes = Arrays.copyOf(fromTimes, capacity);
+        toTimes = Arrays.copyOf(toTimes, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+      }
+      // There are only a few versions per key: shift the later ones up
+      //
+      int index = size;
+      while (index > 0 && fromTimes[index - 1] > fromTime) {
+        fromTimes[index] = fromTimes[index - 1];
+        toTimes[index] = toTimes[index - 1];
+        rows[index] = rows[index - 1];
+        index--;
+      }
+      fromTimes[index] = fromTime;
+      toTimes[index] = toTime;
+      rows[index] = row;
+      size++;
+    }
+
+    /** Find the version with the last start of the date range on or before the given time */
+    private Object[] find(long time) {
+      int low = 0;
+      int high = size - 1;
+      int found = -1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        if (fromTimes[middle] <= time) {
+          found = middle;
+          low = middle + 1;
+        } else {
+          high = middle - 1;
+        }
+      }
+      if (found >= 0 && time < toTimes[found]) {
+        return rows[found];
+      }
+      return null;
+    }
+  }
 }
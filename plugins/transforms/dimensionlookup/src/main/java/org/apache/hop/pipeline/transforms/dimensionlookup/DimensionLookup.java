@@ -40,13 +40,17 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /** Manages a slowly changing dimension (lookup or update) */
 public class DimensionLookup extends BaseTransform<DimensionLookupMeta, DimensionLookupData> {
@@ -57,6 +61,13 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
   private static final int CREATION_METHOD_SEQUENCE = 2;
   private static final int CREATION_METHOD_TABLEMAX = 3;
 
+  /**
+   * The maximum number of parameters of a single query reading the versions of a batch of natural
+   * keys. Larger batches are read in chunks to stay below the limits of databases and drivers, like
+   * the 1000 items of an IN list in Oracle or the 2100 parameters of SQL Server.
+   */
+  public static final int MAX_LOOKUP_PARAMETERS = 1000;
+
   private int techKeyCreation;
 
   int[] columnLookupArray = null;
@@ -97,6 +108,14 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.lookupBatch != null && !data.lookupBatch.isEmpty()) {
+        try {
+          lookupBatch();
+        } catch (HopException e) {
+          stopOnError(e);
+          return false;
+        }
+      }
 
       setOutputDone(); // signal end to receiver(s)
       return false;
@@ -166,9 +185,16 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
         }
       }
 
+      // Look up the natural keys of a number of rows at once?
+      //
+      if (!meta.isUpdate() && !meta.isPreloadingCache() && meta.getLookupBatchSize() > 0) {
+        data.lookupBatchSize = meta.getLookupBatchSize();
+        data.lookupBatch = new ArrayList<>(data.lookupBatchSize);
+      }
+
       if (!meta.isUpdate() && meta.isPreloadingCache()) {
         preloadCache();
-      } else {
+      } else if (data.lookupBatchSize == 0) {
         // Caching...
         //
         if (data.cacheKeyRowMeta == null) {
@@ -215,27 +241,38 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
 
     try {
-      Object[] outputRow =
-          lookupValues(data.inputRowMeta, r); // add new values to the row in rowset[0].
-      putRow(data.outputRowMeta, outputRow); // copy row to output rowset(s)
+      if (data.lookupBatchSize > 0) {
+        data.lookupBatch.add(r);
+        if (data.lookupBatch.size() >= data.lookupBatchSize) {
+          lookupBatch();
+        }
+      } else {
+        Object[] outputRow =
+            lookupValues(data.inputRowMeta, r); // add new values to the row in rowset[0].
+        putRow(data.outputRowMeta, outputRow); // copy row to output rowset(s)
+      }
 
       if (checkFeedback(getLinesRead()) && log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "DimensionLookup.Log.LineNumber") + getLinesRead());
       }
     } catch (HopException e) {
-      logError(
-          BaseMessages.getString(
-              PKG, "DimensionLookup.Log.TransformCanNotContinueForErrors", e.getMessage()));
-      logError(Const.getStackTracker(e));
-      setErrors(1);
-      stopAll();
-      setOutputDone(); // signal end to receiver(s)
+      stopOnError(e);
       return false;
     }
 
     return true;
   }
 
+  private void stopOnError(HopException e) {
+    logError(
+        BaseMessages.getString(
+            PKG, "DimensionLookup.Log.TransformCanNotContinueForErrors", e.getMessage()));
+    logError(Const.getStackTracker(e));
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+  }
+
   private Date determineDimensionUpdatedDate(Object[] row) throws HopException {
     if (data.datefieldnr < 0) {
       return getPipeline().getExecutionStartDate(); // start of pipeline...
@@ -264,62 +301,232 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
    */
   private void preloadCache() throws HopException {
     try {
-      DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+      String sql = getVersionsSql();
+      logDetailed("Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR);
 
-      // tk, version, from, to, natural keys, retrieval fields...
+      // Stream the rows straight into the cache
       //
-      String sql = "SELECT " + databaseMeta.quoteField(meta.getKeyField());
-      for (int i = 0; i < meta.getKeyLookup().length; i++) {
-        sql += ", " + meta.getKeyLookup()[i]; // the natural key field in the table
-      }
+      ResultSet resultSet = data.db.openQuery(sql);
+      try {
+        createVersionsCache(data.db.getReturnRowMeta());
+        Object[] row;
+        while ((row = data.db.getRow(resultSet)) != null) {
+          data.preloadCache.addRow(row);
+        }
+      } finally {
+        data.db.closeQuery(resultSet);
+      }
+      logDetailed(
+          "Pre-loaded "
+              + data.preloadCache.getNrRows()
+              + " versions of "
+              + data.preloadCache.getNrKeys()
+              + " natural keys in the cache.");
+    } catch (Exception e) {
+      throw new HopException("Error encountered during cache pre-load", e);
+    }
+  }
+
+  /**
+   * The query to read all the versions of dimension entries for the cache. The layout is the same
+   * as the one of the lookup query: technical key, version and the fields to return. Then come the
+   * natural keys and the date range.
+   */
+  private String getVersionsSql() {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    String sql =
+        "SELECT "
+            + databaseMeta.quoteField(meta.getKeyField())
+            + ", "
+            + databaseMeta.quoteField(meta.getVersionField());
+    if (!Utils.isEmpty(meta.getFieldLookup())) {
       for (int i = 0; i < meta.getFieldLookup().length; i++) {
-        sql += ", " + meta.getFieldLookup()[i]; // the extra fields to retrieve...
+        if (!Utils.isEmpty(meta.getFieldLookup()[i])) {
+          sql += ", " + databaseMeta.quoteField(meta.getFieldLookup()[i]);
+
+          if (!Utils.isEmpty(meta.getFieldStream()[i])
+              && !meta.getFieldLookup()[i].equals(meta.getFieldStream()[i])) {
+            sql += " AS " + databaseMeta.quoteField(meta.getFieldStream()[i]);
+          }
+        }
       }
-      sql += ", " + databaseMeta.quoteField(meta.getDateFrom()); // extra info in cache
-      sql += ", " + databaseMeta.quoteField(meta.getDateTo()); // extra info in cache
+    }
+    for (int i = 0; i < meta.getKeyLookup().length; i++) {
+      sql += ", " + databaseMeta.quoteField(meta.getKeyLookup()[i]);
+    }
+    sql += ", " + databaseMeta.quoteField(meta.getDateFrom());
+    sql += ", " + databaseMeta.quoteField(meta.getDateTo());
+    sql += " FROM " + data.schemaTable;
+    return sql;
+  }
 
-      sql += " FROM " + data.schemaTable;
-      logDetailed("Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR);
+  /**
+   * Create the cache for the rows read with the versions query
+   *
+   * @param rowMeta the layout of the rows read with {@link #getVersionsSql()}
+   */
+  private void createVersionsCache(IRowMeta rowMeta) {
+    int nrKeys = meta.getKeyLookup().length;
+    data.preloadFromDateIndex = rowMeta.size() - 2;
+    data.preloadToDateIndex = rowMeta.size() - 1;
+    data.preloadKeyIndexes = new int[nrKeys];
+    for (int i = 0; i < nrKeys; i++) {
+      data.preloadKeyIndexes[i] = data.preloadFromDateIndex - nrKeys + i;
+    }
+    data.preloadCache =
+        new DimensionCache(
+            rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex);
+  }
+
+  /**
+   * Create a row to look up in the versions cache, with the natural key of an input row converted
+   * to the data types of the dimension table.
+   */
+  private Object[] getCacheLookupRow(IRowMeta rowMeta, Object[] row) throws HopValueException {
+    IRowMeta cacheRowMeta = data.preloadCache.getRowMeta();
+    Object[] lookupRow = new Object[cacheRowMeta.size()];
+    for (int i = 0; i < data.keynrs.length; i++) {
+      int from = data.keynrs[i]; // Input row index
+      int to = data.preloadKeyIndexes[i]; // Lookup row index
+
+      IValueMeta fromValueMeta = rowMeta.getValueMeta(from);
+      IValueMeta toValueMeta = cacheRowMeta.getValueMeta(to);
+      lookupRow[to] = toValueMeta.convertData(fromValueMeta, row[from]);
+    }
+    return lookupRow;
+  }
+
+  /**
+   * Look up the rows of a batch and pass them on. The natural keys which are not in the cache yet
+   * are read from the dimension table with as few queries as possible, with all their versions.
+   *
+   * @throws HopException in case there is a database or cache problem.
+   */
+  private void lookupBatch() throws HopException {
+    // Without a cache size we only keep the keys of a single batch
+    //
+    if (data.preloadCache != null
+        && (meta.getCacheSize() < 0
+            || (meta.getCacheSize() > 0
+                && data.preloadCache.getNrKeys() >= meta.getCacheSize()))) {
+      data.preloadCache.clear();
+    }
+
+    // The distinct natural keys we don't know about yet
+    //
+    Map<List<Object>, Object[]> missingKeys = new LinkedHashMap<>();
+    for (Object[] row : data.lookupBatch) {
+      if (data.preloadCache == null
+          || !data.preloadCache.containsKey(getCacheLookupRow(data.inputRowMeta, row))) {
+        List<Object> key = new ArrayList<>(data.keynrs.length);
+        for (int keynr : data.keynrs) {
+          key.add(row[keynr]);
+        }
+        missingKeys.putIfAbsent(key, row);
+      }
+    }
+    if (!missingKeys.isEmpty()) {
+      readVersions(missingKeys.values());
+    }
 
-      List<Object[]> rows = data.db.getRows(sql, -1);
-      IRowMeta rowMeta = data.db.getReturnRowMeta();
+    for (Object[] row : data.lookupBatch) {
+      putRow(data.outputRowMeta, lookupValues(data.inputRowMeta, row));
+    }
+    data.lookupBatch.clear();
+  }
 
-      data.preloadKeyIndexes = new int[meta.getKeyLookup().length];
-      for (int i = 0; i < data.preloadKeyIndexes.length; i++) {
-        data.preloadKeyIndexes[i] =
-            rowMeta.indexOfValue(meta.getKeyLookup()[i]); // the field in the table
+  /**
+   * Read all the versions of the natural keys of the given rows into the cache. This is done with
+   * one query per chunk of at most {@link #getLookupChunkSize()} natural keys.
+   *
+   * @param rows The rows with the natural keys to read
+   * @throws HopException in case there is a database or cache problem.
+   */
+  // Method is defined as package-protected in order to be accessible by unit tests
+  void readVersions(Collection<Object[]> rows) throws HopException {
+    int chunkSize = getLookupChunkSize();
+    List<Object[]> chunk = new ArrayList<>(Math.min(chunkSize, rows.size()));
+    for (Object[] row : rows) {
+      chunk.add(row);
+      if (chunk.size() >= chunkSize) {
+        readVersionsChunk(chunk);
+        chunk.clear();
       }
-      data.preloadFromDateIndex = rowMeta.indexOfValue(meta.getDateFrom());
-      data.preloadToDateIndex = rowMeta.indexOfValue(meta.getDateTo());
+    }
+    if (!chunk.isEmpty()) {
+      readVersionsChunk(chunk);
+    }
+  }
 
-      data.preloadCache =
-          new DimensionCache(
-              rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex);
-      data.preloadCache.setRowCache(rows);
+  /**
+   * @return The number of natural keys read with a single query: as many as fit in {@link
+   *     #MAX_LOOKUP_PARAMETERS} parameters.
+   */
+  int getLookupChunkSize() {
+    return Math.max(1, MAX_LOOKUP_PARAMETERS / Math.max(1, data.keynrs.length));
+  }
 
-      logDetailed("Sorting the cache rows...");
-      data.preloadCache.sortRows();
-      logDetailed("Sorting of cached rows finished.");
+  /**
+   * Read all the versions of the natural keys of the given rows into the cache with a single query.
+   *
+   * <p>SELECT ... FROM table WHERE key IN ( ?, ?, ... )
+   *
+   * <p>SELECT ... FROM table WHERE ( key1 = ? AND key2 = ? ) OR ( key1 = ? AND key2 = ? ) ...
+   */
+  private void readVersionsChunk(List<Object[]> rows) throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
 
-      // Also see what indexes to take to populate the lookup row...
-      // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
-      //
-      data.preloadIndexes = new ArrayList<>();
-      for (int i = 0; i < meta.getKeyStream().length; i++) {
-        int index = data.inputRowMeta.indexOfValue(meta.getKeyStream()[i]);
-        if (index < 0) {
-          // Just to be safe...
-          //
-          throw new HopTransformException(
-              BaseMessages.getString(
-                  PKG, "DimensionLookup.Exception.KeyFieldNotFound", meta.getFieldStream()[i]));
+    IRowMeta paramsMeta = new RowMeta();
+    Object[] params = new Object[rows.size() * data.keynrs.length];
+    StringBuilder sql = new StringBuilder(getVersionsSql()).append(" WHERE ");
+    if (data.keynrs.length == 1) {
+      sql.append(databaseMeta.quoteField(meta.getKeyLookup()[0])).append(" IN ( ");
+    }
+    int paramIndex = 0;
+    for (Object[] row : rows) {
+      if (data.keynrs.length == 1) {
+        sql.append(paramIndex == 0 ? "?" : ", ?");
+      } else {
+        sql.append(paramIndex == 0 ? "( " : " OR ( ");
+        for (int i = 0; i < data.keynrs.length; i++) {
+          if (i != 0) {
+            sql.append(" AND ");
+          }
+          sql.append(databaseMeta.quoteField(meta.getKeyLookup()[i])).append(" = ?");
         }
-        data.preloadIndexes.add(index);
+        sql.append(" )");
+      }
+      for (int keynr : data.keynrs) {
+        // Unique names avoid renaming in the parameter row
+        IValueMeta paramMeta = data.inputRowMeta.getValueMeta(keynr).clone();
+        paramMeta.setName(paramMeta.getName() + "_" + paramIndex);
+        paramsMeta.addValueMeta(paramMeta);
+        params[paramIndex++] = row[keynr];
       }
+    }
+    if (data.keynrs.length == 1) {
+      sql.append(" )");
+    }
 
-      // This is all for now...
-    } catch (Exception e) {
-      throw new HopException("Error encountered during cache pre-load", e);
+    if (isDebug()) {
+      logDebug("Reading the versions of " + rows.size() + " natural keys with: " + sql);
+    }
+    List<Object[]> versions =
+        data.db.getRows(
+            sql.toString(), paramsMeta, params, ResultSet.FETCH_FORWARD, false, -1, null);
+    if (data.preloadCache == null) {
+      createVersionsCache(data.db.getReturnRowMeta());
+    }
+    for (Object[] version : versions) {
+      data.preloadCache.addRow(version);
+      incrementLinesInput();
+    }
+
+    // Remember the keys which are not in the dimension at all
+    //
+    for (Object[] row : rows) {
+      data.preloadCache.addKey(getCacheLookupRow(data.inputRowMeta, row));
     }
   }
 
@@ -343,58 +550,25 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     //
     valueDate = determineDimensionUpdatedDate(row);
 
-    if (!meta.isUpdate() && meta.isPreloadingCache()) {
-      // Obtain a result row from the pre-load cache...
+    if (!meta.isUpdate() && data.preloadCache != null) {
+      // Obtain a result row from the pre-loaded or batch loaded cache...
       //
-      // Create a row to compare with
-      //
-      IRowMeta preloadRowMeta = data.preloadCache.getRowMeta();
-
       // In this case it's all the same. (simple)
       //
       data.returnRowMeta = data.preloadCache.getRowMeta();
-      lookupRowMeta = preloadRowMeta;
-      lookupRow = new Object[preloadRowMeta.size()];
+      lookupRowMeta = data.preloadCache.getRowMeta();
 
       // Assemble the lookup row, convert data if needed...
       //
-      for (int i = 0; i < data.preloadIndexes.size(); i++) {
-        int from = data.preloadIndexes.get(i); // Input row index
-        int to = data.preloadCache.getKeyIndexes()[i]; // Lookup row index
-
-        // From data type...
-        //
-        IValueMeta fromValueMeta = rowMeta.getValueMeta(from);
-
-        // to date type...
-        //
-        IValueMeta toValueMeta = data.preloadCache.getRowMeta().getValueMeta(to);
-
-        // From value:
-        //
-        Object fromData = row[from];
+      lookupRow = getCacheLookupRow(rowMeta, row);
 
-        // To value:
-        //
-        Object toData = toValueMeta.convertData(fromValueMeta, fromData);
-
-        // Set the key in the row...
-        //
-        lookupRow[to] = toData;
-      }
-
-      // Also set the lookup date on the "end of date range" (toDate) position
+      // Also set the lookup date on the "start of date range" (fromDate) position
       //
       lookupRow[data.preloadFromDateIndex] = valueDate;
 
-      // Look up the row in the pre-load cache...
+      // Look up the row in the cache, null if nothing was found
       //
-      int index = data.preloadCache.lookupRow(lookupRow);
-      if (index >= 0) {
-        returnRow = data.preloadCache.getRow(index);
-      } else {
-        returnRow = null; // Nothing found!
-      }
+      returnRow = data.preloadCache.lookupRow(lookupRow);
 
     } else {
       lookupRow = new Object[data.lookupRowMeta.size()];
@@ -78,9 +78,13 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
   public int preloadFromDateIndex;
   public int preloadToDateIndex;
 
+  /** All versions of the pre-loaded or batch loaded natural keys */
   public DimensionCache preloadCache;
 
-  public List<Integer> preloadIndexes;
+  /** The number of rows to look up at once, 0 to look up every row on its own */
+  public int lookupBatchSize;
+
+  public List<Object[]> lookupBatch;
 
   public List<Integer> lazyList;
 
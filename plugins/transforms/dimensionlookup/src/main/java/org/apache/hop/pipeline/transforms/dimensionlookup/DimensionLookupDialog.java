@@ -102,6 +102,9 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlLookupBatchSize;
+  private Text wLookupBatchSize;
+
   private CCombo wTk;
 
   private Label wlTkRename;
@@ -414,6 +417,27 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     fdCacheSize.right = new FormAttachment(100, 0);
     wCacheSize.setLayoutData(fdCacheSize);
 
+    // Lookup batch size ...
+    wlLookupBatchSize = new Label(mainComposite, SWT.RIGHT);
+    wlLookupBatchSize.setText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.LookupBatchSize.Label"));
+    wlLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.LookupBatchSize.Tooltip"));
+    PropsUi.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    fdlLookupBatchSize.top = new FormAttachment(wCacheSize, margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new Text(mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.top = new FormAttachment(wCacheSize, margin);
+    fdLookupBatchSize.right = new FormAttachment(100, 0);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+
     // THE BOTTOM BUTTONS
     wOk = new Button(mainComposite, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -441,7 +465,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     FormData fdTabFolder = new FormData();
     fdTabFolder.left = new FormAttachment(0, 0);
     fdTabFolder.right = new FormAttachment(100, 0);
-    fdTabFolder.top = new FormAttachment(wCacheSize, margin);
+    fdTabFolder.top = new FormAttachment(wLookupBatchSize, margin);
     fdTabFolder.bottom = new FormAttachment(wOk, -margin);
     wTabFolder.setLayoutData(fdTabFolder);
 
@@ -1182,6 +1206,12 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
 
     wlCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
     wCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
+
+    // Batched lookups only apply when we don't update and don't pre-load
+    //
+    boolean batchLookup = !wUpdate.getSelection() && !wPreloadCache.getSelection();
+    wlLookupBatchSize.setEnabled(batchLookup);
+    wLookupBatchSize.setEnabled(batchLookup);
   }
 
   protected void setComboBoxes() {
@@ -1348,6 +1378,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     if (input.getCacheSize() >= 0) {
       wCacheSize.setText("" + input.getCacheSize());
     }
+    wLookupBatchSize.setText("" + input.getLookupBatchSize());
 
     wMinyear.setText("" + input.getMinYear());
     wMaxyear.setText("" + input.getMaxYear());
@@ -1481,6 +1512,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     if (wPreloadCache.getSelection()) {
       in.setCacheSize(0);
     }
+    in.setLookupBatchSize(Const.toInt(wLookupBatchSize.getText(), 0));
 
     in.setMinYear(Const.toInt(wMinyear.getText(), Const.MIN_YEAR));
     in.setMaxYear(Const.toInt(wMaxyear.getText(), Const.MAX_YEAR));
@@ -246,6 +246,10 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
   @Injection(name = "PRELOAD_CACHE")
   private boolean preloadingCache;
 
+  /** The number of rows to look up with a single query when not updating: 0 means one by one */
+  @Injection(name = "LOOKUP_BATCH_SIZE")
+  private int lookupBatchSize;
+
   public DimensionLookupMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -659,6 +663,7 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
 
     cacheSize = 5000;
     preloadingCache = false;
+    lookupBatchSize = 0;
   }
 
   @Override
@@ -814,6 +819,7 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
 
     retval.append("      ").append(XmlHandler.addTagValue("cache_size", cacheSize));
     retval.append("      ").append(XmlHandler.addTagValue("preload_cache", preloadingCache));
+    retval.append("      ").append(XmlHandler.addTagValue("lookup_batch_size", lookupBatchSize));
 
     retval
         .append("      ")
@@ -904,6 +910,7 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
       cacheSize = Const.toInt(XmlHandler.getTagValue(transformNode, "cache_size"), -1);
       preloadingCache =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preload_cache"));
+      lookupBatchSize = Const.toInt(XmlHandler.getTagValue(transformNode, "lookup_batch_size"), 0);
       useBatchUpdate = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "useBatch"));
 
       usingStartDateAlternative =
@@ -1862,6 +1869,16 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
     this.preloadingCache = preloadingCache;
   }
 
+  /** @return the lookupBatchSize */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /** @param lookupBatchSize the lookupBatchSize to set */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /** @return the useBatchUpdate */
   public boolean useBatchUpdate() {
     return useBatchUpdate;
@@ -19,73 +19,112 @@ package org.apache.hop.pipeline.transforms.dimensionlookup;
 
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.row.value.ValueMetaTimestamp;
-import org.apache.hop.core.util.Assert;
 import org.junit.Test;
 
 import java.sql.Timestamp;
 import java.util.Date;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class DimensionCacheTest {
 
   @Test
-  public void testCompareDateInterval() {
+  public void testFindVersionOnBoundaries() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("TK"));
+    rowMeta.addValueMeta(new ValueMetaString("CODE"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("DATE_FROM"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("DATE_TO"));
+    DimensionCache dc = new DimensionCache(rowMeta, new int[] {1}, 2, 3);
+
+    // 25 consecutive versions of an hour each, added in reverse order, followed by a gap of an hour
+    // and a last version of an hour
+    //
+    long t0 = 1425300000000L;
+    long hour = 3600000L;
+    for (long v = 24; v >= 0; v--) {
+      dc.addRow(
+          new Object[] {v, "A", new Timestamp(t0 + v * hour), new Timestamp(t0 + (v + 1) * hour)});
+    }
+    dc.addRow(
+        new Object[] {100L, "A", new Timestamp(t0 + 26 * hour), new Timestamp(t0 + 27 * hour)});
+    assertEquals(26L, dc.getNrRows());
+
+    // Before the first version
+    //
+    assertLookup(dc, "A", new Timestamp(Long.MIN_VALUE + 1), null);
+    assertLookup(dc, "A", new Timestamp(t0 - 1), null);
+
+    // Exactly on a boundary the new version starts, just before it the previous one is valid
+    //
+    for (long v = 0; v < 25; v++) {
+      assertLookup(dc, "A", new Timestamp(t0 + v * hour), v);
+      assertLookup(dc, "A", new Timestamp(t0 + v * hour + hour / 2), v);
+      assertLookup(dc, "A", new Timestamp(t0 + (v + 1) * hour - 1), v);
+    }
+
+    // The end of the date range is exclusive: the gap and the end of the last version find nothing
+    //
+    assertLookup(dc, "A", new Timestamp(t0 + 25 * hour), null);
+    assertLookup(dc, "A", new Timestamp(t0 + 26 * hour - 1), null);
+    assertLookup(dc, "A", new Timestamp(t0 + 26 * hour), 100L);
+    assertLookup(dc, "A", new Timestamp(t0 + 27 * hour), null);
+    assertLookup(dc, "A", new Timestamp(Long.MAX_VALUE), null);
+  }
+
+  @Test
+  public void testLookupVersions() throws Exception {
     IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("TK"));
+    rowMeta.addValueMeta(new ValueMetaString("CODE"));
     rowMeta.addValueMeta(new ValueMetaTimestamp("DATE_FROM"));
     rowMeta.addValueMeta(new ValueMetaTimestamp("DATE_TO"));
-    int[] keyIndexes = new int[] {};
-    int fromDateIndex = 0;
-    int toDateIndex = 1;
-    DimensionCache dc = new DimensionCache(rowMeta, keyIndexes, fromDateIndex, toDateIndex);
+    DimensionCache dc = new DimensionCache(rowMeta, new int[] {1}, 2, 3);
 
-    long t0 = 1425300000000L; // (3/2/15 4:40 PM)
+    long t0 = 1425300000000L;
     final Date D1 = new Timestamp(t0);
     final Date D2 = new Timestamp(t0 + 3600000L);
     final Date D3 = new Timestamp(t0 + 3600000L * 2);
-    final Date D4 = new Timestamp(t0 + 3600000L * 3);
-    final Date D5 = new Timestamp(t0 + 3600000L * 4);
-
-    // NPE in DimensionCache class after update to Java 1.7u76
-    // fix prevents NullPointerException in the combinations marked "NPE"
-
-    assertCompareDateInterval(dc, null, null, null, null, 0);
-    assertCompareDateInterval(dc, null, null, D1, null, -1);
-
-    assertCompareDateInterval(dc, D2, null, null, null, 1);
-    assertCompareDateInterval(dc, D2, null, D1, null, 1);
-    assertCompareDateInterval(dc, D2, null, D2, null, 0);
-    assertCompareDateInterval(dc, D2, null, D3, null, -1);
-
-    assertCompareDateInterval(dc, D2, D4, null, null, 1); // NPE
-    assertCompareDateInterval(dc, D2, D4, D1, null, 1);
-    assertCompareDateInterval(dc, D2, D4, D2, null, 0);
-    assertCompareDateInterval(dc, D2, D4, D3, null, 0);
-    assertCompareDateInterval(dc, D2, D4, D4, null, -1);
-    assertCompareDateInterval(dc, D2, D4, D5, null, -1);
-
-    assertCompareDateInterval(dc, null, D4, null, null, 0); // NPE
-    assertCompareDateInterval(dc, null, D4, D3, null, 0);
-    assertCompareDateInterval(dc, null, D4, D4, null, -1); // NPE
-    assertCompareDateInterval(dc, null, D4, D5, null, -1); // NPE
+
+    // Versions in random order, the first one starts at -Infinity, the last one never ends
+    //
+    dc.addRow(new Object[] {3L, "A", D2, null});
+    dc.addRow(new Object[] {1L, "A", null, D1});
+    dc.addRow(new Object[] {2L, "A", D1, D2});
+    dc.addRow(new Object[] {4L, "B", D2, D3});
+    dc.addKey(new Object[] {null, "C", null, null});
+    dc.addKey(new Object[] {null, "A", null, null});
+
+    assertEquals(3, dc.getNrKeys());
+    assertEquals(4L, dc.getNrRows());
+
+    assertLookup(dc, "A", new Timestamp(t0 - 1), 1L);
+    assertLookup(dc, "A", D1, 2L);
+    assertLookup(dc, "A", new Timestamp(t0 + 1), 2L);
+    assertLookup(dc, "A", D2, 3L);
+    assertLookup(dc, "A", D3, 3L);
+    assertLookup(dc, "B", D1, null);
+    assertLookup(dc, "B", D2, 4L);
+    assertLookup(dc, "B", D3, null);
+    assertLookup(dc, "C", D2, null);
+    assertLookup(dc, "D", D2, null);
+
+    assertTrue(dc.containsKey(new Object[] {null, "C", null, null}));
+    assertFalse(dc.containsKey(new Object[] {null, "D", null, null}));
+
+    dc.clear();
+    assertEquals(0, dc.getNrKeys());
+    assertLookup(dc, "A", D2, null);
   }
 
-  private static void assertCompareDateInterval(
-      DimensionCache dc, Object from1, Object to1, Object from2, Object to2, int expectedValue) {
-
-    final int actualValue = dc.compare(new Object[] {from1, to1}, new Object[] {from2, to2});
-
-    boolean success =
-        (expectedValue == 0 && actualValue == 0) //
-            || (expectedValue < 0 && actualValue < 0) //
-            || (expectedValue > 0 && actualValue > 0);
-    Assert.assertTrue(
-        success,
-        "{0} expected, {1} actual. compare( [({2}), ({3})], [({4}), ({5})] )", //
-        expectedValue,
-        actualValue,
-        from1,
-        to1,
-        from2,
-        to2);
+  private static void assertLookup(DimensionCache dc, String code, Date date, Long expectedTk)
+      throws Exception {
+    Object[] row = dc.lookupRow(new Object[] {null, code, date, null});
+    assertEquals(code + " on " + date, expectedTk, row == null ? null : row[0]);
   }
 }
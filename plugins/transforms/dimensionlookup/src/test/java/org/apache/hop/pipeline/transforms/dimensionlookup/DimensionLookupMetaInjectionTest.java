@@ -60,6 +60,7 @@ public class DimensionLookupMetaInjectionTest
     check("USE_ALTERNATIVE_START_DATE", () -> meta.isUsingStartDateAlternative());
     check("ALTERNATIVE_START_COLUMN", () -> meta.getStartDateFieldName());
     check("PRELOAD_CACHE", () -> meta.isPreloadingCache());
+    check("LOOKUP_BATCH_SIZE", () -> meta.getLookupBatchSize());
     check("CONNECTION_NAME", () -> "My Connection", "My Connection");
 
     IValueMeta mftt = new ValueMetaString("f");
@@ -103,6 +103,7 @@ public class DimensionLookupMetaTest implements IInitializer<ITransformMeta> {
             "startDateAlternative",
             "startDateFieldName",
             "preloadingCache",
+            "lookupBatchSize",
             "keyStream",
             "keyLookup",
             "fieldStream",
@@ -20,6 +20,10 @@ package org.apache.hop.pipeline.transforms.dimensionlookup;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.TransformMeta;
@@ -28,9 +32,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -38,6 +50,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DimensionLookupTest {
   private DatabaseMeta databaseMeta;
@@ -106,4 +119,72 @@ public class DimensionLookupTest {
     dimensionLookupSpy.dimInsert(iRowMeta, objects, null, true, null, date, date);
     verify(databaseMeta, times(2)).supportsAutoGeneratedKeys();
   }
+
+  @Test
+  public void testReadVersionsInChunks() throws Exception {
+    doReturn(new String[] {"code"}).when(dimensionLookupMeta).getKeyLookup();
+    doReturn("tk").when(dimensionLookupMeta).getKeyField();
+    doReturn("version").when(dimensionLookupMeta).getVersionField();
+    doReturn("date_from").when(dimensionLookupMeta).getDateFrom();
+    doReturn("date_to").when(dimensionLookupMeta).getDateTo();
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("code"));
+    dimensionLookupData.inputRowMeta = inputRowMeta;
+    dimensionLookupData.keynrs = new int[] {0};
+    dimensionLookupData.schemaTable = "dim";
+
+    IRowMeta versionsRowMeta = new RowMeta();
+    versionsRowMeta.addValueMeta(new ValueMetaInteger("tk"));
+    versionsRowMeta.addValueMeta(new ValueMetaInteger("version"));
+    versionsRowMeta.addValueMeta(new ValueMetaString("code"));
+    versionsRowMeta.addValueMeta(new ValueMetaTimestamp("date_from"));
+    versionsRowMeta.addValueMeta(new ValueMetaTimestamp("date_to"));
+
+    // Every even natural key has a single version, the technical key is the number in the code
+    //
+    List<Integer> parameterCounts = new ArrayList<>();
+    Database db = dimensionLookupData.db;
+    doReturn(versionsRowMeta).when(db).getReturnRowMeta();
+    when(
+            db.getRows(
+                anyString(), any(IRowMeta.class), any(Object[].class), anyInt(), anyBoolean(),
+                anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              Object[] parameters = invocation.getArgument(2);
+              parameterCounts.add(parameters.length);
+              List<Object[]> versions = new ArrayList<>();
+              for (Object parameter : parameters) {
+                long number = Long.parseLong(((String) parameter).substring(4));
+                if (number % 2 == 0) {
+                  versions.add(new Object[] {number, 1L, parameter, null, null});
+                }
+              }
+              return versions;
+            });
+
+    int nrKeys = 2345;
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < nrKeys; i++) {
+      rows.add(new Object[] {"code" + i});
+    }
+    dimensionLookupSpy.readVersions(rows);
+
+    assertEquals(1000, dimensionLookupSpy.getLookupChunkSize());
+    assertEquals(3, parameterCounts.size());
+    int total = 0;
+    for (int parameterCount : parameterCounts) {
+      assertTrue(parameterCount <= DimensionLookup.MAX_LOOKUP_PARAMETERS);
+      total += parameterCount;
+    }
+    assertEquals(nrKeys, total);
+
+    DimensionCache cache = dimensionLookupData.preloadCache;
+    assertNotNull(cache);
+    assertEquals(nrKeys, cache.getNrKeys());
+    assertEquals((nrKeys + 1) / 2, cache.getNrRows());
+    Object[] lookupRow = new Object[] {null, null, "code2000", new Timestamp(0L), null};
+    assertEquals(2000L, cache.lookupRow(lookupRow)[0]);
+  }
 }
@@ -30,7 +30,7 @@ import org.apache.hop.pipeline.transforms.formula.util.FormulaParser;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -41,14 +41,14 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
 
   private XSSFWorkbook workBook;
   private XSSFSheet workSheet;
-  private Row sheetRow;
+  private FormulaEvaluator evaluator;
 
   @Override
   public boolean init() {
 
     workBook = new XSSFWorkbook();
     workSheet = workBook.createSheet();
-    sheetRow = workSheet.createRow(0);
+    evaluator = workBook.getCreationHelper().createFormulaEvaluator();
 
     data.returnType = new int[meta.getFormulas().size()];
     for (int i = 0; i < meta.getFormulas().size(); i++) {
@@ -102,25 +102,32 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
           data.replaceIndex[i] = -1;
         }
       }
+
+      // Parse the formulas once, each formula gets its own row in the sheet
+      //
+      data.formulaParsers = new FormulaParser[meta.getFormulas().size()];
+      for (int i = 0; i < meta.getFormulas().size(); i++) {
+        data.formulaParsers[i] =
+            new FormulaParser(
+                meta.getFormulas().get(i),
+                getInputRowMeta(),
+                workSheet.createRow(i),
+                evaluator,
+                this);
+      }
     }
 
     if (log.isRowLevel()) {
       logRowlevel("Read row #" + getLinesRead() + " : " + Arrays.toString(r));
     }
 
-    if (sheetRow != null) {
-      workSheet.removeRow(sheetRow);
-    }
-    sheetRow = workSheet.createRow(0);
-
     Object outputValue = null;
     Object[] outputRowData = RowDataUtil.resizeArray(r, data.outputRowMeta.size());
 
     for (int i = 0; i < meta.getFormulas().size(); i++) {
 
       FormulaMetaFunction formula = meta.getFormulas().get(i);
-      FormulaParser parser = new FormulaParser(formula, getInputRowMeta(), r, sheetRow, variables);
-      CellValue cellValue = parser.getFormulaValue();
+      CellValue cellValue = data.formulaParsers[i].getFormulaValue(r);
 
       CellType cellType = cellValue.getCellType();
 
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * A formula which only does arithmetic (+, -, *, /, ^, %) on numeric fields and number literals.
+ * These formulas are compiled once into a tree of operations which is evaluated directly on the
+ * input row, without going through the spreadsheet engine. The results are the same as the ones
+ * calculated by POI: nulls count as 0 and -0 results are reported as 0 (except for subtraction).
+ *
+ * <p>Results which are not finite (division by zero, overflow) are errors in a spreadsheet. The
+ * caller is expected to evaluate those formulas with POI to get the same error value.
+ */
+public class ArithmeticFormula {
+
+  private interface INode {
+    double evaluate(Object[] row) throws HopValueException;
+  }
+
+  private final INode root;
+
+  private ArithmeticFormula(INode root) {
+    this.root = root;
+  }
+
+  /**
+   * Compile a formula.
+   *
+   * @param formula The formula with the fields between square brackets, e.g. [price]*[quantity]
+   * @param rowMeta The layout of the input rows
+   * @return The compiled formula or null if the formula does more than arithmetic on numbers
+   */
+  public static ArithmeticFormula compile(String formula, IRowMeta rowMeta) {
+    Compiler compiler = new Compiler(formula, rowMeta);
+    INode root = compiler.parseExpression();
+    compiler.skipSpaces();
+    if (root == null || compiler.position < formula.length() || !compiler.hasOperator) {
+      // Leave single references and literals to POI, it knows how to handle blank results
+      return null;
+    }
+    return new ArithmeticFormula(root);
+  }
+
+  /**
+   * Evaluate the formula on a row
+   *
+   * @param row The input row
+   * @return The result, infinite or NaN in case of a spreadsheet error
+   * @throws HopValueException In case a field value can't be converted to a number
+   */
+  public double evaluate(Object[] row) throws HopValueException {
+    return root.evaluate(row);
+  }
+
+  private static double zero(double value) {
+    // Excel converts -0.0 to 0.0
+    return value == 0.0 ? 0.0 : value;
+  }
+
+  /**
+   * A recursive descent parser following the grammar of the POI formula parser: % ^ * / + - with a
+   * unary minus applying to the whole power that follows it, so -2^2 is -4 like in POI.
+   */
+  private static final class Compiler {
+    private final String formula;
+    private final IRowMeta rowMeta;
+    private int position;
+    private boolean hasOperator;
+
+    private Compiler(String formula, IRowMeta rowMeta) {
+      this.formula = formula;
+      this.rowMeta = rowMeta;
+    }
+
+    private void skipSpaces() {
+      while (position < formula.length() && formula.charAt(position) == ' ') {
+        position++;
+      }
+    }
+
+    private boolean accept(char c) {
+      skipSpaces();
+      if (position < formula.length() && formula.charAt(position) == c) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private INode parseExpression() {
+      INode left = parseTerm();
+      while (left != null) {
+        if (accept('+')) {
+          INode a = left;
+          INode b = parseTerm();
+          if (b == null) {
+            return null;
+          }
+          left = row -> zero(a.evaluate(row) + b.evaluate(row));
+        } else if (accept('-')) {
+          INode a = left;
+          INode b = parseTerm();
+          if (b == null) {
+            return null;
+          }
+          left = row -> a.evaluate(row) - b.evaluate(row);
+        } else {
+          break;
+        }
+        hasOperator = true;
+      }
+      return left;
+    }
+
+    private INode parseTerm() {
+      INode left = parsePower();
+      while (left != null) {
+        if (accept('*')) {
+          INode a = left;
+          INode b = parsePower();
+          if (b == null) {
+            return null;
+          }
+          left = row -> zero(a.evaluate(row) * b.evaluate(row));
+        } else if (accept('/')) {
+          INode a = left;
+          INode b = parsePower();
+          if (b == null) {
+            return null;
+          }
+          left = row -> zero(a.evaluate(row) / b.evaluate(row));
+        } else {
+          break;
+        }
+        hasOperator = true;
+      }
+      return left;
+    }
+
+    private INode parsePower() {
+      INode left = parsePercent();
+      while (left != null && accept('^')) {
+        INode a = left;
+        INode b = parsePercent();
+        if (b == null) {
+          return null;
+        }
+        left = row -> zero(Math.pow(a.evaluate(row), b.evaluate(row)));
+        hasOperator = true;
+      }
+      return left;
+    }
+
+    private INode parsePercent() {
+      INode node = parseUnary();
+      while (node != null && accept('%')) {
+        INode a = node;
+        node = row -> zero(a.evaluate(row) / 100);
+        hasOperator = true;
+      }
+      return node;
+    }
+
+    private INode parseUnary() {
+      if (accept('-')) {
+        INode a = parsePower();
+        if (a == null) {
+          return null;
+        }
+        hasOperator = true;
+        return row -> zero(-a.evaluate(row));
+      }
+      if (accept('+')) {
+        return parsePower();
+      }
+      return parsePrimary();
+    }
+
+    private INode parsePrimary() {
+      skipSpaces();
+      if (position >= formula.length()) {
+        return null;
+      }
+      char c = formula.charAt(position);
+      if (c == '(') {
+        position++;
+        INode node = parseExpression();
+        return node != null && accept(')') ? node : null;
+      }
+      if (c == '[') {
+        return parseField();
+      }
+      if (c >= '0' && c <= '9') {
+        return parseNumber();
+      }
+      return null;
+    }
+
+    private INode parseField() {
+      int end = formula.indexOf(']', position);
+      if (end < 0) {
+        return null;
+      }
+      int index = rowMeta.indexOfValue(formula.substring(position + 1, end));
+      if (index < 0) {
+        return null;
+      }
+      IValueMeta valueMeta = rowMeta.getValueMeta(index);
+      if (!valueMeta.isNumeric()) {
+        // Strings, dates and booleans have their own conversion rules in a spreadsheet
+        return null;
+      }
+      position = end + 1;
+      return row -> {
+        Double value = valueMeta.getNumber(row[index]);
+        return value == null ? 0.0 : value;
+      };
+    }
+
+    private INode parseNumber() {
+      int start = position;
+      skipDigits();
+      if (position < formula.length() && formula.charAt(position) == '.') {
+        position++;
+        skipDigits();
+      }
+      if (position < formula.length() && Character.toUpperCase(formula.charAt(position)) == 'E') {
+        position++;
+        if (position < formula.length()
+            && (formula.charAt(position) == '+' || formula.charAt(position) == '-')) {
+          position++;
+        }
+        int exponentStart = position;
+        skipDigits();
+        if (position == exponentStart) {
+          return null;
+        }
+      }
+      double value = Double.parseDouble(formula.substring(start, position));
+      return row -> value;
+    }
+
+    private void skipDigits() {
+      while (position < formula.length()
+          && formula.charAt(position) >= '0'
+          && formula.charAt(position) <= '9') {
+        position++;
+      }
+    }
+  }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.hop.pipeline.transforms.formula.util;
 
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
@@ -24,84 +26,158 @@ import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
-import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellReference;
 
-import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Prepares a formula once so that it can be evaluated on many rows. The field references are
+ * resolved to cells of a row in the temporary sheet and the formula is set on its own cell. For
+ * every input row only the values of the referenced fields are copied into their cells.
+ *
+ * <p>Formulas which only do arithmetic on numeric fields are compiled and evaluated without POI,
+ * see {@link ArithmeticFormula}.
+ */
 public class FormulaParser {
 
-  private FormulaMetaFunction formulaMetaFunction;
-  private IRowMeta rowMeta;
-  private String[] fieldNames;
-  private String formula;
-  private List<String> formulaFieldList;
-  private Object[] dataRow;
-  private Row sheetRow;
-  private FormulaEvaluator evaluator;
+  private static final Pattern FIELD_PATTERN = Pattern.compile("\\[(.*?)\\]");
+
+  private final FormulaEvaluator evaluator;
+  private final IValueMeta[] fieldMetas;
+  private final int[] fieldIndexes;
+  private final Cell[] fieldCells;
+  private final Cell formulaCell;
+  private final ArithmeticFormula arithmeticFormula;
 
+  /**
+   * Prepare a formula for evaluation.
+   *
+   * @param formulaMetaFunction The formula to prepare
+   * @param rowMeta The layout of the input rows
+   * @param sheetRow The sheet row to use for the cells of this formula, one per formula
+   * @param evaluator The evaluator of the workbook of the sheet
+   * @param variables The variables to resolve in the formula
+   * @throws HopException In case a field is unknown or the formula can't be parsed
+   */
   public FormulaParser(
-      FormulaMetaFunction formulaMetaFunction, IRowMeta rowMeta, Object[] dataRow, Row sheetRow, IVariables variables) {
-    this.formulaMetaFunction = formulaMetaFunction;
-    this.rowMeta = rowMeta;
-    this.dataRow = dataRow;
-    this.sheetRow = sheetRow;
-    fieldNames = rowMeta.getFieldNames();
-    formula = variables.resolve(formulaMetaFunction.getFormula());
-    evaluator = sheetRow.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
+      FormulaMetaFunction formulaMetaFunction,
+      IRowMeta rowMeta,
+      Row sheetRow,
+      FormulaEvaluator evaluator,
+      IVariables variables)
+      throws HopException {
+    this.evaluator = evaluator;
+    String formula = variables.resolve(formulaMetaFunction.getFormula());
 
-    formulaFieldList = new ArrayList<>();
-    Pattern regex = Pattern.compile("\\[(.*?)\\]");
-    Matcher regexMatcher = regex.matcher(formula);
+    // Give every referenced field a cell: A<row>, B<row>, ...
+    //
+    Map<String, String> cellReferences = new HashMap<>();
+    List<Integer> indexes = new ArrayList<>();
+    StringBuffer parsedFormula = new StringBuffer();
+    Matcher matcher = FIELD_PATTERN.matcher(formula);
+    while (matcher.find()) {
+      String fieldName = matcher.group(1);
+      String cellReference = cellReferences.get(fieldName);
+      if (cellReference == null) {
+        int index = rowMeta.indexOfValue(fieldName);
+        if (index < 0) {
+          throw new HopException(
+              "Unknown field ["
+                  + fieldName
+                  + "] used in formula ["
+                  + formula
+                  + "] of field ["
+                  + formulaMetaFunction.getFieldName()
+                  + "]");
+        }
+        cellReference =
+            CellReference.convertNumToColString(indexes.size()) + (sheetRow.getRowNum() + 1);
+        cellReferences.put(fieldName, cellReference);
+        indexes.add(index);
+      }
+      matcher.appendReplacement(parsedFormula, Matcher.quoteReplacement(cellReference));
+    }
+    matcher.appendTail(parsedFormula);
 
-    while (regexMatcher.find()) {
-      formulaFieldList.add(regexMatcher.group(1));
+    fieldMetas = new IValueMeta[indexes.size()];
+    fieldIndexes = new int[indexes.size()];
+    fieldCells = new Cell[indexes.size()];
+    for (int i = 0; i < indexes.size(); i++) {
+      fieldIndexes[i] = indexes.get(i);
+      fieldMetas[i] = rowMeta.getValueMeta(fieldIndexes[i]);
+      fieldCells[i] = sheetRow.createCell(i);
     }
-  }
 
-  public CellValue getFormulaValue() {
-    String parsedFormula = formula;
-    int fieldIndex = 65;
-    int colIndex = 0;
-    for (String formulaField : formulaFieldList) {
-      char s = (char) fieldIndex;
-      Cell cell = sheetRow.createCell(colIndex);
-      int fieldPosition = rowMeta.indexOfValue(formulaField);
+    formulaCell = sheetRow.createCell(indexes.size());
+    try {
+      formulaCell.setCellFormula(parsedFormula.toString());
+    } catch (RuntimeException e) {
+      throw new HopException(
+          "Unable to parse formula ["
+              + formula
+              + "] of field ["
+              + formulaMetaFunction.getFieldName()
+              + "]",
+          e);
+    }
 
-      IValueMeta fieldMeta = rowMeta.getValueMeta(fieldPosition);
-      if (dataRow[fieldPosition] != null) {
-        if (fieldMeta.isBoolean()) {
-          cell.setCellValue((Boolean) dataRow[fieldPosition]);
-        } else if (fieldMeta.isBigNumber()) {
-          cell.setCellValue((RichTextString) dataRow[fieldPosition]);
-        } else if (fieldMeta.isDate()) {
-          cell.setCellValue((Date) dataRow[fieldPosition]);
-        } else if (fieldMeta.isInteger()) {
-          cell.setCellValue((Long) dataRow[fieldPosition]);
-        } else if (fieldMeta.isNumber()) {
-          cell.setCellValue((Double) dataRow[fieldPosition]);
-        } else if (fieldMeta.isString()) {
-          cell.setCellValue((String) dataRow[fieldPosition]);
-        } else if (fieldMeta.getType() == IValueMeta.TYPE_TIMESTAMP) {
-          cell.setCellValue((Timestamp) dataRow[fieldPosition]);
-        } else {
-          cell.setCellValue((String) dataRow[fieldPosition]);
-        }
+    arithmeticFormula = ArithmeticFormula.compile(formula, rowMeta);
+  }
+
+  /**
+   * Evaluate the formula on a row.
+   *
+   * @param dataRow The input row
+   * @return The value of the formula
+   * @throws HopValueException In case a field value can't be converted
+   */
+  public CellValue getFormulaValue(Object[] dataRow) throws HopValueException {
+    if (arithmeticFormula != null) {
+      double value = arithmeticFormula.evaluate(dataRow);
+      if (Double.isFinite(value)) {
+        return new CellValue(value);
       }
+      // A spreadsheet error like #DIV/0!: let POI calculate it
+    }
+    return evaluateWithPoi(dataRow);
+  }
 
-      parsedFormula = parsedFormula.replaceAll("\\[" + formulaField + "\\]", s + "1");
-      fieldIndex++;
-      colIndex++;
+  // Method is defined as package-protected in order to be accessible by unit tests
+  CellValue evaluateWithPoi(Object[] dataRow) throws HopValueException {
+    for (int i = 0; i < fieldCells.length; i++) {
+      setCellValue(fieldCells[i], fieldMetas[i], dataRow[fieldIndexes[i]]);
     }
+    evaluator.clearAllCachedResultValues();
+    return evaluator.evaluate(formulaCell);
+  }
 
-    Cell formulaCell = sheetRow.createCell(colIndex);
-    formulaCell.setCellFormula(parsedFormula);
+  // Method is defined as package-protected in order to be accessible by unit tests
+  boolean isCompiled() {
+    return arithmeticFormula != null;
+  }
 
-    return evaluator.evaluate(formulaCell);
+  private static void setCellValue(Cell cell, IValueMeta fieldMeta, Object value)
+      throws HopValueException {
+    if (value == null) {
+      cell.setBlank();
+    } else if (fieldMeta.isBoolean()) {
+      cell.setCellValue(fieldMeta.getBoolean(value));
+    } else if (fieldMeta.isDate()) {
+      // Dates and timestamps
+      cell.setCellValue(fieldMeta.getDate(value));
+    } else if (fieldMeta.isInteger()) {
+      cell.setCellValue(fieldMeta.getInteger(value));
+    } else if (fieldMeta.isNumeric()) {
+      // Numbers and big numbers
+      cell.setCellValue(fieldMeta.getNumber(value));
+    } else {
+      cell.setCellValue(fieldMeta.getString(value));
+    }
   }
 }
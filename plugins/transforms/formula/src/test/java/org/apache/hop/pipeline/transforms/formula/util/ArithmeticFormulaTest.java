@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies that formulas compiled into an {@link ArithmeticFormula} give exactly the same values
+ * and types as the evaluation of the same formulas by POI.
+ */
+public class ArithmeticFormulaTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private XSSFWorkbook workbook;
+  private XSSFSheet sheet;
+  private FormulaEvaluator evaluator;
+  private IRowMeta rowMeta;
+  private Object[] row;
+
+  @Before
+  public void setUp() {
+    workbook = new XSSFWorkbook();
+    sheet = workbook.createSheet();
+    evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaNumber("a"));
+    rowMeta.addValueMeta(new ValueMetaNumber("b"));
+    rowMeta.addValueMeta(new ValueMetaNumber("c"));
+    rowMeta.addValueMeta(new ValueMetaInteger("i"));
+    rowMeta.addValueMeta(new ValueMetaInteger("j"));
+    rowMeta.addValueMeta(new ValueMetaInteger("zero"));
+    rowMeta.addValueMeta(new ValueMetaNumber("empty"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("big"));
+    rowMeta.addValueMeta(new ValueMetaString("s"));
+    rowMeta.addValueMeta(new ValueMetaString("t"));
+
+    row =
+        new Object[] {
+          2.5, 4.0, -3.0, 7L, 2L, 0L, null, new BigDecimal("1.5"), "3", "abc",
+        };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    workbook.close();
+  }
+
+  @Test
+  public void testOperatorPrecedence() throws Exception {
+    assertNumber(14.5, "[a]+[b]*[c]*-1", true);
+    assertNumber(-19.5, "([a]+[b])*[c]", true);
+    assertNumber(1.5, "[a]-[b]-[c]", true);
+    assertNumber(64.0, "2^3^2", true);
+    assertNumber(1.875, "[a]/[b]*3", true);
+    assertNumber(2.6, "[a]+[b]%*2.5", true);
+    assertNumber(19.0, "1+2*3^2", true);
+    assertNumber(-1.0, "[i] - [j] * 4", true);
+  }
+
+  @Test
+  public void testUnaryMinus() throws Exception {
+    assertNumber(-2.5, "-[a]", true);
+    assertNumber(-10.0, "-[a]*[b]", true);
+    assertNumber(6.5, "[a]--[b]", true);
+    assertNumber(2.5, "-(-[a])", true);
+    assertNumber(0.0, "[zero]*-1", true);
+    // The unary minus applies to the whole power
+    //
+    assertNumber(-6.25, "-[a]^2", true);
+    assertNumber(-4.0, "-2^2", true);
+    assertNumber(0.5, "2^-1", true);
+    assertNumber(0.0625, "2^-[j]^2", true);
+    assertNumber(-0.025, "-[a]%", true);
+    assertNumber(-7.5, "+[a]*-[c]*-1", true);
+  }
+
+  @Test
+  public void testDivisionByZero() throws Exception {
+    assertError(FormulaError.DIV0, "[a]/[zero]", true);
+    assertError(FormulaError.DIV0, "[a]/0", true);
+    assertError(FormulaError.DIV0, "[zero]/[zero]", true);
+    assertError(FormulaError.DIV0, "[a]/[empty]", true);
+    assertError(FormulaError.DIV0, "1+[a]/([b]-4)", true);
+  }
+
+  @Test
+  public void testNullOperands() throws Exception {
+    assertNumber(1.0, "[empty]+1", true);
+    assertNumber(0.0, "[empty]*[a]", true);
+    assertNumber(-2.5, "[empty]-[a]", true);
+    assertNumber(0.0, "[empty]-[empty]", true);
+    assertNumber(0.0, "-[empty]", true);
+    assertNumber(0.0, "[empty]/[a]", true);
+  }
+
+  @Test
+  public void testStringToNumberCoercion() throws Exception {
+    // Strings are left to POI which converts numeric text
+    //
+    assertNumber(6.0, "[s]*2", false);
+    assertNumber(5.5, "[s]+[a]", false);
+    assertError(FormulaError.VALUE, "[t]*2", false);
+  }
+
+  @Test
+  public void testIntegerAndDoubleResults() throws Exception {
+    assertNumber(3.5, "[i]/[j]", true);
+    assertNumber(14.0, "[i]*[j]", true);
+    assertNumber(9.0, "[i]+[j]", true);
+    assertNumber(49.0, "[i]^[j]", true);
+    assertNumber(4.0, "[i]*[big]/[a]-0.2", true);
+    assertNumber(0.07, "[i]%", true);
+    assertNumber(10.5, "[i]*[big]", true);
+  }
+
+  private CellValue assertSameAsPoi(String formula, boolean compiled) throws Exception {
+    FormulaParser parser =
+        new FormulaParser(
+            new FormulaMetaFunction("result", formula, IValueMeta.TYPE_NUMBER, -1, -1, null),
+            rowMeta,
+            sheet.createRow(sheet.getPhysicalNumberOfRows()),
+            evaluator,
+            new Variables());
+    assertEquals("Compiled formula " + formula, compiled, parser.isCompiled());
+
+    CellValue expected = parser.evaluateWithPoi(row);
+    CellValue actual = parser.getFormulaValue(row);
+
+    assertEquals("Type of " + formula, expected.getCellType(), actual.getCellType());
+    assertEquals(
+        "Value of " + formula,
+        Double.valueOf(expected.getNumberValue()),
+        Double.valueOf(actual.getNumberValue()));
+    assertEquals("Error of " + formula, expected.getErrorValue(), actual.getErrorValue());
+    assertEquals("Text of " + formula, expected.getStringValue(), actual.getStringValue());
+    return actual;
+  }
+
+  private void assertNumber(double value, String formula, boolean compiled) throws Exception {
+    CellValue cellValue = assertSameAsPoi(formula, compiled);
+    assertEquals(CellType.NUMERIC, cellValue.getCellType());
+    assertEquals(formula, value, cellValue.getNumberValue(), 1e-12);
+  }
+
+  private void assertError(FormulaError error, String formula, boolean compiled)
+      throws Exception {
+    CellValue cellValue = assertSameAsPoi(formula, compiled);
+    assertEquals(CellType.ERROR, cellValue.getCellType());
+    assertEquals(formula, error.getCode(), cellValue.getErrorValue());
+  }
+}
@@ -0,0 +1,487 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.hash.PackedByteArrayHashIndex;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+
+import java.util.List;
+
+/**
+ * Join 2 unsorted streams on a key. All rows of the second stream are read first and put in a hash
+ * table on the join key. Then the rows of the first stream are read and joined with the matching
+ * rows in the hash table.
+ *
+ * <p>The rows of the second stream are spread over a number of partitions by the hash code of
+ * their key. When there are too many rows to keep in memory, the largest partition is written to
+ * disk. The rows of the first stream for that partition are then written to disk as well. Once the
+ * first stream is read completely, the partitions on disk are joined one by one, splitting them
+ * again if they still don't fit in memory (hybrid hash join).
+ *
+ * <p>Both streams often come from the same transform. While one stream is read, that transform
+ * blocks as soon as the row set of the other stream is full and the rows we wait for never arrive.
+ * That's why the rows of the other stream are moved to a buffer file whenever its row set is full.
+ */
+public class HashJoin extends BaseTransform<HashJoinMeta, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  static final int NR_PARTITIONS = 16;
+
+  /** Partitions are split at most this many times: the rows could all have the same key */
+  static final int MAX_SPILL_LEVEL = 8;
+
+  public HashJoin(
+      TransformMeta transformMeta,
+      HashJoinMeta meta,
+      HashJoinData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  @Override
+  public boolean processRow() throws HopException {
+    if (first) {
+      first = false;
+
+      // Find the RowSet to read from
+      //
+      List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+
+      data.oneRowSet = findInputRowSet(infoStreams.get(0).getTransformName());
+      if (data.oneRowSet == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG,
+                "HashJoin.Exception.UnableToFindSpecifiedTransform",
+                infoStreams.get(0).getTransformName()));
+      }
+
+      data.twoRowSet = findInputRowSet(infoStreams.get(1).getTransformName());
+      if (data.twoRowSet == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG,
+                "HashJoin.Exception.UnableToFindSpecifiedTransform",
+                infoStreams.get(1).getTransformName()));
+      }
+
+      data.one = getRowBuffering(data.oneRowSet, data.twoRowSet);
+      if (data.one != null) {
+        data.oneMeta = data.oneRowSet.getRowMeta();
+      } else {
+        data.oneMeta =
+            getPipelineMeta().getTransformFields(this, infoStreams.get(0).getTransformName());
+      }
+
+      Object[] two = getBuildRow();
+      if (two != null) {
+        data.twoMeta = data.twoRowSet.getRowMeta();
+      } else {
+        data.twoMeta =
+            getPipelineMeta().getTransformFields(this, infoStreams.get(1).getTransformName());
+      }
+
+      // just for speed: oneMeta+twoMeta
+      //
+      data.outputRowMeta = new RowMeta();
+      data.outputRowMeta.mergeRowMeta(data.oneMeta.clone());
+      data.outputRowMeta.mergeRowMeta(data.twoMeta.clone());
+
+      data.one_dummy = RowDataUtil.allocateRowData(data.oneMeta.size() + data.twoMeta.size());
+      data.two_dummy = new Object[data.twoMeta.size()];
+
+      // The keys of both streams are converted to the data types of the first stream.
+      // Without rows in the first stream, the types of the second stream are used.
+      //
+      data.keyNrs1 = findKeyNrs(data.oneMeta, meta.getKeyFields1(), data.one != null);
+      data.keyNrs2 = findKeyNrs(data.twoMeta, meta.getKeyFields2(), two != null);
+      if (data.one != null) {
+        data.oneKeyEncoder =
+            JoinKeyEncoder.create(data.oneMeta, data.keyNrs1, data.oneMeta, data.keyNrs1);
+        if (two != null) {
+          data.twoKeyEncoder =
+              JoinKeyEncoder.create(data.oneMeta, data.keyNrs1, data.twoMeta, data.keyNrs2);
+        }
+      } else if (two != null) {
+        data.twoKeyEncoder =
+            JoinKeyEncoder.create(data.twoMeta, data.keyNrs2, data.twoMeta, data.keyNrs2);
+      }
+
+      // Build the hash table with all the rows of the second stream
+      //
+      data.partitions = createPartitions(0);
+      data.nrRowsInMemory = 0;
+      while (two != null && !isStopped()) {
+        addBuildRow(data.partitions, two);
+        two = getBuildRow();
+      }
+      if (isStopped()) {
+        return false;
+      }
+      if (log.isDetailed()) {
+        logDetailed(BaseMessages.getString(PKG, "HashJoin.Log.HashTableBuilt", getLinesRead()));
+      }
+    } else {
+      data.one = getProbeRow();
+    }
+
+    if (data.one != null) {
+      probe(data.partitions, data.one);
+
+      if (checkFeedback(getLinesRead())) {
+        logBasic(BaseMessages.getString(PKG, "HashJoin.LineNumber") + getLinesRead());
+      }
+      return true;
+    }
+
+    // All the rows of the first stream are read: output the unmatched rows of the second stream
+    // and join the partitions which were written to disk.
+    //
+    finishPartitions(data.partitions);
+    data.partitions = null;
+    while (!data.pendingPartitions.isEmpty() && !isStopped()) {
+      joinSpilledPartition(data.pendingPartitions.pop());
+    }
+
+    setOutputDone();
+    return false;
+  }
+
+  /** Read the next row of the second stream, the buffered rows first */
+  private Object[] getBuildRow() throws HopException {
+    if (data.twoBuffer != null) {
+      Object[] row = data.twoBuffer.readRow();
+      if (row != null) {
+        return row;
+      }
+      data.twoBuffer.delete();
+      data.twoBuffer = null;
+    }
+    return getRowBuffering(data.twoRowSet, data.oneRowSet);
+  }
+
+  /** Read the next row of the first stream, the buffered rows first */
+  private Object[] getProbeRow() throws HopException {
+    if (data.oneBuffer != null) {
+      Object[] row = data.oneBuffer.readRow();
+      if (row != null) {
+        return row;
+      }
+      data.oneBuffer.delete();
+      data.oneBuffer = null;
+    }
+    return getRowFrom(data.oneRowSet);
+  }
+
+  /**
+   * Read a row from one stream without blocking the transform writing to the other stream. While
+   * there is no row available, the rows of the other stream are moved to its buffer file as soon
+   * as its row set is full.
+   *
+   * @param rowSet The row set to read from
+   * @param otherRowSet The row set of the other stream
+   * @return The row or null if the stream is done or the transform was stopped
+   */
+  private Object[] getRowBuffering(IRowSet rowSet, IRowSet otherRowSet) throws HopException {
+    while (rowSet.size() == 0 && !rowSet.isDone() && !isStopped()) {
+      if (otherRowSet.size() > 0 && otherRowSet.size() >= data.rowSetSize) {
+        while (otherRowSet.size() > 0 && !isStopped()) {
+          bufferRow(otherRowSet, getRowFrom(otherRowSet));
+        }
+      } else {
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          throw new HopException(e);
+        }
+      }
+    }
+    if (isStopped()) {
+      return null;
+    }
+    return getRowFrom(rowSet);
+  }
+
+  private void bufferRow(IRowSet rowSet, Object[] row) throws HopException {
+    if (row == null) {
+      return;
+    }
+    boolean first = rowSet == data.oneRowSet;
+    SpillFile buffer = first ? data.oneBuffer : data.twoBuffer;
+    if (buffer == null) {
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "HashJoin.Log.BufferingRows", rowSet.getOriginTransformName()));
+      }
+      buffer = new SpillFile(data.spillDirectory, rowSet.getRowMeta());
+      if (first) {
+        data.oneBuffer = buffer;
+      } else {
+        data.twoBuffer = buffer;
+      }
+    }
+    buffer.writeRow(row);
+  }
+
+  private int[] findKeyNrs(IRowMeta rowMeta, List<String> keyFields, boolean hasRows)
+      throws HopTransformException {
+    int[] keyNrs = new int[keyFields.size()];
+    for (int i = 0; i < keyNrs.length; i++) {
+      keyNrs[i] = rowMeta.indexOfValue(keyFields.get(i));
+      if (keyNrs[i] < 0 && hasRows) {
+        String message =
+            BaseMessages.getString(
+                PKG, "HashJoin.Exception.UnableToFindFieldInReferenceStream", keyFields.get(i));
+        logError(message);
+        throw new HopTransformException(message);
+      }
+    }
+    return keyNrs;
+  }
+
+  private HashJoinPartition[] createPartitions(int level) {
+    HashJoinPartition[] partitions = new HashJoinPartition[NR_PARTITIONS];
+    for (int i = 0; i < partitions.length; i++) {
+      partitions[i] =
+          new HashJoinPartition(level, data.spillDirectory, data.twoMeta, data.oneMeta);
+    }
+    return partitions;
+  }
+
+  /**
+   * Add a row of the second stream to its partition. When there are too many rows in memory the
+   * largest partition is written to disk.
+   */
+  private void addBuildRow(HashJoinPartition[] partitions, Object[] row) throws HopException {
+    byte[] key = data.twoKeyEncoder.encode(row);
+    int level = partitions[0].getLevel();
+    HashJoinPartition partition =
+        partitions[getPartitionNr(PackedByteArrayHashIndex.generateHashCode(key), level)];
+    partition.addBuildRow(key, row);
+    if (partition.isSpilled()) {
+      return;
+    }
+    data.nrRowsInMemory++;
+
+    if (data.maxRowsInMemory > 0
+        && data.nrRowsInMemory > data.maxRowsInMemory
+        && level < MAX_SPILL_LEVEL) {
+      HashJoinPartition largest = null;
+      for (HashJoinPartition candidate : partitions) {
+        if (largest == null || candidate.getNrRowsInMemory() > largest.getNrRowsInMemory()) {
+          largest = candidate;
+        }
+      }
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "HashJoin.Log.SpillingPartition", largest.getNrRowsInMemory(), level));
+      }
+      data.nrRowsInMemory -= largest.getNrRowsInMemory();
+      largest.spill();
+    }
+  }
+
+  /** Join a row of the first stream with the matching rows of the second stream */
+  private void probe(HashJoinPartition[] partitions, Object[] row) throws HopException {
+    byte[] key = data.oneKeyEncoder.encode(row);
+    int level = partitions[0].getLevel();
+    HashJoinPartition partition =
+        partitions[getPartitionNr(PackedByteArrayHashIndex.generateHashCode(key), level)];
+    if (partition.isSpilled()) {
+      partition.addProbeRow(row);
+      return;
+    }
+
+    int rowNr = partition.findFirstRow(key);
+    if (rowNr < 0) {
+      if (data.two_optional) {
+        // Left or full outer join: output the row with empty values for the second stream
+        //
+        Object[] outputRowData = RowDataUtil.createResizedCopy(row, data.outputRowMeta.size());
+        outputRowData = RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two_dummy);
+        putRow(data.outputRowMeta, outputRowData);
+      }
+      return;
+    }
+    while (rowNr >= 0) {
+      Object[] outputRowData = RowDataUtil.createResizedCopy(row, data.outputRowMeta.size());
+      outputRowData =
+          RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), partition.getRow(rowNr));
+      putRow(data.outputRowMeta, outputRowData);
+      partition.setMatched(rowNr);
+      rowNr = partition.getNextRow(rowNr);
+    }
+  }
+
+  /**
+   * For a right or full outer join, output the rows of the second stream without a match. The
+   * partitions on disk are queued to be joined later.
+   */
+  private void finishPartitions(HashJoinPartition[] partitions) throws HopException {
+    if (partitions == null) {
+      return;
+    }
+    for (HashJoinPartition partition : partitions) {
+      if (partition.isSpilled()) {
+        data.pendingPartitions.push(partition);
+        continue;
+      }
+      if (data.one_optional) {
+        for (int rowNr = 0; rowNr < partition.getNrRowsInMemory() && !isStopped(); rowNr++) {
+          if (!partition.isMatched(rowNr)) {
+            Object[] outputRowData =
+                RowDataUtil.createResizedCopy(data.one_dummy, data.outputRowMeta.size());
+            outputRowData =
+                RowDataUtil.addRowData(
+                    outputRowData, data.oneMeta.size(), partition.getRow(rowNr));
+            putRow(data.outputRowMeta, outputRowData);
+          }
+        }
+      }
+    }
+  }
+
+  /** Join the rows of both streams of a partition which was written to disk */
+  private void joinSpilledPartition(HashJoinPartition partition) throws HopException {
+    try {
+      SpillFile probeFile = partition.getProbeFile();
+      if (probeFile == null && !data.one_optional) {
+        // Nothing to join with and no unmatched rows to output
+        return;
+      }
+      int level = partition.getLevel() + 1;
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "HashJoin.Log.JoiningSpilledPartition",
+                partition.getBuildFile().getNrRows(),
+                probeFile == null ? 0 : probeFile.getNrRows(),
+                level));
+      }
+
+      HashJoinPartition[] partitions = createPartitions(level);
+      data.partitions = partitions;
+      data.nrRowsInMemory = 0;
+      Object[] row;
+      while (!isStopped() && (row = partition.getBuildFile().readRow()) != null) {
+        addBuildRow(partitions, row);
+      }
+      while (!isStopped() && probeFile != null && (row = probeFile.readRow()) != null) {
+        probe(partitions, row);
+      }
+      finishPartitions(partitions);
+      data.partitions = null;
+    } finally {
+      partition.delete();
+    }
+  }
+
+  /**
+   * Calculate the partition of a key. Every spill level mixes the hash code differently so that
+   * the rows of a partition are spread again over the partitions of the next level.
+   *
+   * @param hashCode The hash code of the key
+   * @param level The spill level
+   * @return The partition number
+   */
+  static int getPartitionNr(int hashCode, int level) {
+    int h = hashCode + level * 0x9E3779B9;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h & (NR_PARTITIONS - 1);
+  }
+
+  @Override
+  public boolean init() {
+    if (super.init()) {
+      List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+      if (infoStreams.get(0).getTransformMeta() == null
+          || infoStreams.get(1).getTransformMeta() == null) {
+        logError(BaseMessages.getString(PKG, "HashJoin.Log.TwoInfoStreamsNeeded"));
+        return false;
+      }
+      if (meta.getKeyFields1().size() != meta.getKeyFields2().size()) {
+        logError(BaseMessages.getString(PKG, "HashJoin.Log.KeysDontMatch"));
+        return false;
+      }
+      data.maxRowsInMemory = Const.toInt(resolve(meta.getMaxRowsInMemory()), 0);
+      data.rowSetSize =
+          getPipeline() instanceof Pipeline
+              ? ((Pipeline) getPipeline()).getRowSetSize()
+              : Const.ROWS_IN_ROWSET;
+      data.spillDirectory =
+          Const.NVL(resolve(meta.getSpillDirectory()), System.getProperty("java.io.tmpdir"));
+
+      String joinType = meta.getJoinType();
+      for (int i = 0; i < HashJoinMeta.joinTypes.length; ++i) {
+        if (HashJoinMeta.joinTypes[i].equalsIgnoreCase(joinType)) {
+          data.one_optional = HashJoinMeta.one_optionals[i];
+          data.two_optional = HashJoinMeta.two_optionals[i];
+          return true;
+        }
+      }
+      logError(BaseMessages.getString(PKG, "HashJoin.Log.InvalidJoinType", meta.getJoinType()));
+      return false;
+    }
+    return false;
+  }
+
+  @Override
+  public void dispose() {
+    // Remove the temporary files in case the pipeline was stopped
+    //
+    if (data.partitions != null) {
+      for (HashJoinPartition partition : data.partitions) {
+        partition.delete();
+      }
+      data.partitions = null;
+    }
+    while (!data.pendingPartitions.isEmpty()) {
+      data.pendingPartitions.pop().delete();
+    }
+    if (data.oneBuffer != null) {
+      data.oneBuffer.delete();
+      data.oneBuffer = null;
+    }
+    if (data.twoBuffer != null) {
+      data.twoBuffer.delete();
+      data.twoBuffer = null;
+    }
+    super.dispose();
+  }
+}
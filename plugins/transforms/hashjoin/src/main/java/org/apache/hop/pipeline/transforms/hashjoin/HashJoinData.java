@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transform.BaseTransformData;
+import org.apache.hop.pipeline.transform.ITransformData;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class HashJoinData extends BaseTransformData implements ITransformData {
+  public IRowSet oneRowSet;
+  public IRowSet twoRowSet;
+  public IRowMeta oneMeta;
+  public IRowMeta twoMeta;
+  public IRowMeta outputRowMeta; // just for speed: oneMeta+twoMeta
+  public Object[] one_dummy;
+  public Object[] two_dummy;
+  public boolean one_optional;
+  public boolean two_optional;
+  public int[] keyNrs1;
+  public int[] keyNrs2;
+
+  /** The current row of the first (probe) stream */
+  public Object[] one;
+
+  public JoinKeyEncoder oneKeyEncoder;
+  public JoinKeyEncoder twoKeyEncoder;
+
+  public int maxRowsInMemory;
+  public String spillDirectory;
+
+  /** The capacity of the input row sets: a full row set is moved to its buffer file */
+  public int rowSetSize;
+
+  /** Rows of the first stream which were read while reading the second one */
+  public SpillFile oneBuffer;
+
+  /** Rows of the second stream which were read while waiting for the first row of the first one */
+  public SpillFile twoBuffer;
+
+  /** The number of rows of the second stream in memory during the current pass */
+  public long nrRowsInMemory;
+
+  /** The partitions of the current pass */
+  public HashJoinPartition[] partitions;
+
+  /** Spilled partitions which still need to be joined */
+  public Deque<HashJoinPartition> pendingPartitions;
+
+  /** Default initializer */
+  public HashJoinData() {
+    super();
+    one_dummy = null;
+    two_dummy = null;
+    one_optional = false;
+    two_optional = false;
+    keyNrs1 = null;
+    keyNrs2 = null;
+    pendingPartitions = new ArrayDeque<>();
+  }
+}
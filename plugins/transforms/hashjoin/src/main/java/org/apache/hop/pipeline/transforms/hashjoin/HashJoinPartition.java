@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.hash.PackedByteArrayHashIndex;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * One partition of the build (second) stream rows. As long as the partition fits in memory its
+ * rows are kept in a hash table on the join key. Once it is spilled, the build rows as well as the
+ * probe (first stream) rows of the partition are written to temporary files. These files are
+ * joined later on, on their own.
+ */
+public class HashJoinPartition {
+  private static final int NO_ROW = -1;
+
+  private final int level;
+  private final String directory;
+  private final IRowMeta buildRowMeta;
+  private final IRowMeta probeRowMeta;
+
+  /** The build rows in memory, in the order in which they were added */
+  private List<Object[]> rows;
+
+  /** For every key: the first and last row number with this key */
+  private PackedByteArrayHashIndex index;
+
+  /** For every row: the next row number with the same key */
+  private int[] nextRows;
+
+  /** The rows which were joined with at least one probe row */
+  private BitSet matched;
+
+  private SpillFile buildFile;
+  private SpillFile probeFile;
+
+  /**
+   * Create a new, empty partition
+   *
+   * @param level The number of times the rows of this partition were spilled to disk
+   * @param directory The directory for the temporary files
+   * @param buildRowMeta The layout of the build rows
+   * @param probeRowMeta The layout of the probe rows
+   */
+  public HashJoinPartition(
+      int level, String directory, IRowMeta buildRowMeta, IRowMeta probeRowMeta) {
+    this.level = level;
+    this.directory = directory;
+    this.buildRowMeta = buildRowMeta;
+    this.probeRowMeta = probeRowMeta;
+    this.rows = new ArrayList<>();
+    this.index = new PackedByteArrayHashIndex();
+    this.nextRows = new int[16];
+    this.matched = new BitSet();
+  }
+
+  /**
+   * Add a row of the build stream
+   *
+   * @param key The encoded join key of the row
+   * @param row The row
+   * @throws HopException In case the row can't be written to disk
+   */
+  public void addBuildRow(byte[] key, Object[] row) throws HopException {
+    if (buildFile != null) {
+      buildFile.writeRow(row);
+      return;
+    }
+    int rowNr = rows.size();
+    rows.add(row);
+    if (rowNr == nextRows.length) {
+      nextRows = Arrays.copyOf(nextRows, rowNr * 2);
+    }
+    nextRows[rowNr] = NO_ROW;
+
+    byte[] firstLast = index.get(key);
+    if (firstLast == null) {
+      index.put(key, toBytes(rowNr, rowNr));
+    } else {
+      nextRows[getInt(firstLast, 4)] = rowNr;
+      index.put(key, toBytes(getInt(firstLast, 0), rowNr));
+    }
+  }
+
+  /**
+   * Write the rows in memory to disk. All rows added later on go to disk as well.
+   *
+   * @throws HopException In case the temporary file can't be written
+   */
+  public void spill() throws HopException {
+    if (buildFile != null) {
+      return;
+    }
+    buildFile = new SpillFile(directory, buildRowMeta);
+    for (Object[] row : rows) {
+      buildFile.writeRow(row);
+    }
+    rows = null;
+    index = null;
+    nextRows = null;
+    matched = null;
+  }
+
+  /**
+   * Find the first build row with the given key
+   *
+   * @param key The encoded join key
+   * @return The row number or -1 if no row has this key
+   */
+  public int findFirstRow(byte[] key) {
+    byte[] firstLast = index.get(key);
+    return firstLast == null ? NO_ROW : getInt(firstLast, 0);
+  }
+
+  /**
+   * Gets the next build row number with the same key
+   *
+   * @param rowNr The current row number
+   * @return The next row number or -1 if there are no more rows with this key
+   */
+  public int getNextRow(int rowNr) {
+    return nextRows[rowNr];
+  }
+
+  public Object[] getRow(int rowNr) {
+    return rows.get(rowNr);
+  }
+
+  public void setMatched(int rowNr) {
+    matched.set(rowNr);
+  }
+
+  public boolean isMatched(int rowNr) {
+    return matched.get(rowNr);
+  }
+
+  /**
+   * Write a row of the probe stream to disk, to join it later with the spilled build rows
+   *
+   * @param row The probe row
+   * @throws HopException In case the row can't be written
+   */
+  public void addProbeRow(Object[] row) throws HopException {
+    if (probeFile == null) {
+      probeFile = new SpillFile(directory, probeRowMeta);
+    }
+    probeFile.writeRow(row);
+  }
+
+  /** Remove the temporary files */
+  public void delete() {
+    if (buildFile != null) {
+      buildFile.delete();
+    }
+    if (probeFile != null) {
+      probeFile.delete();
+    }
+  }
+
+  private static byte[] toBytes(int first, int last) {
+    byte[] bytes = new byte[8];
+    for (int i = 0; i < 4; i++) {
+      bytes[i] = (byte) (first >>> (24 - 8 * i));
+      bytes[i + 4] = (byte) (last >>> (24 - 8 * i));
+    }
+    return bytes;
+  }
+
+  private static int getInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 24)
+        | ((bytes[offset + 1] & 0xFF) << 16)
+        | ((bytes[offset + 2] & 0xFF) << 8)
+        | (bytes[offset + 3] & 0xFF);
+  }
+
+  /**
+   * See if the rows of this partition were written to disk
+   *
+   * @return true if the partition is spilled
+   */
+  public boolean isSpilled() {
+    return buildFile != null;
+  }
+
+  /**
+   * Gets the number of build rows in memory
+   *
+   * @return the number of rows in memory, 0 if the partition is spilled
+   */
+  public int getNrRowsInMemory() {
+    return rows == null ? 0 : rows.size();
+  }
+
+  /**
+   * Gets level
+   *
+   * @return value of level
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Gets buildFile
+   *
+   * @return value of buildFile
+   */
+  public SpillFile getBuildFile() {
+    return buildFile;
+  }
+
+  /**
+   * Gets probeFile
+   *
+   * @return value of probeFile, null if no probe rows were spilled
+   */
+  public SpillFile getProbeFile() {
+    return probeFile;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.SortKeyEncoder;
+
+import java.math.BigDecimal;
+
+/**
+ * Turns the join key of a row into a byte array. Two rows, from either stream, have equal keys if
+ * their key values compare as equal, like in the Merge Join transform. The key values of both
+ * streams are first converted to the data types of the key fields of the first stream.
+ *
+ * <p>Keys with only the standard String, Integer, Number, Date and Boolean types are encoded with a
+ * {@link SortKeyEncoder}. Other keys are serialized, after making equal values like 1.0 and 1.00
+ * or "a" and "A" (case-insensitive) the same.
+ */
+public class JoinKeyEncoder {
+  private static final byte SERIALIZED_KEY = 0x02;
+
+  private final IValueMeta[] valueMetas;
+  private final int[] keyNrs;
+  private final IRowMeta keyRowMeta;
+  private final SortKeyEncoder sortKeyEncoder;
+
+  private JoinKeyEncoder(IValueMeta[] valueMetas, int[] keyNrs, IRowMeta keyRowMeta) {
+    this.valueMetas = valueMetas;
+    this.keyNrs = keyNrs;
+    this.keyRowMeta = keyRowMeta;
+
+    int[] fieldNrs = new int[keyNrs.length];
+    for (int i = 0; i < fieldNrs.length; i++) {
+      fieldNrs[i] = i;
+    }
+    this.sortKeyEncoder = SortKeyEncoder.create(keyRowMeta, fieldNrs);
+  }
+
+  /**
+   * Create an encoder for the key of the rows of a stream
+   *
+   * @param typeRowMeta The layout of the stream which determines the data types of the keys
+   * @param typeKeyNrs The indexes of the key fields in the rows of that stream
+   * @param rowMeta The layout of the rows to encode
+   * @param keyNrs The indexes of the key fields in the rows to encode
+   * @return The key encoder
+   */
+  public static JoinKeyEncoder create(
+      IRowMeta typeRowMeta, int[] typeKeyNrs, IRowMeta rowMeta, int[] keyNrs) {
+    IValueMeta[] valueMetas = new IValueMeta[keyNrs.length];
+    IRowMeta keyRowMeta = new RowMeta();
+    for (int i = 0; i < keyNrs.length; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(keyNrs[i]);
+
+      // The keys are only compared for equality, in normal storage
+      //
+      IValueMeta keyMeta = typeRowMeta.getValueMeta(typeKeyNrs[i]).clone();
+      keyMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      keyMeta.setStorageMetadata(null);
+      keyMeta.setSortedDescending(false);
+      keyRowMeta.addValueMeta(keyMeta);
+    }
+    return new JoinKeyEncoder(valueMetas, keyNrs, keyRowMeta);
+  }
+
+  /**
+   * Encode the key of a row
+   *
+   * @param row The row
+   * @return The key
+   * @throws HopValueException In case a key value can't be converted to the type of the key
+   */
+  public byte[] encode(Object[] row) throws HopValueException {
+    Object[] keyRow = new Object[keyNrs.length];
+    for (int i = 0; i < keyNrs.length; i++) {
+      IValueMeta valueMeta = valueMetas[i];
+      IValueMeta keyMeta = keyRowMeta.getValueMeta(i);
+      Object data = row[keyNrs[i]];
+      if (valueMeta.getStorageType() == IValueMeta.STORAGE_TYPE_NORMAL
+          && valueMeta.getType() == keyMeta.getType()) {
+        keyRow[i] = data;
+      } else {
+        keyRow[i] = keyMeta.convertData(valueMeta, data);
+      }
+    }
+
+    if (sortKeyEncoder != null) {
+      byte[] key = sortKeyEncoder.encode(keyRow);
+      if (key != null) {
+        return key;
+      }
+    }
+
+    // Serialize the values which compare as equal in the same way: 1.0 and 1.00, "a" and "A" for a
+    // case-insensitive key, and so on.
+    //
+    for (int i = 0; i < keyRow.length; i++) {
+      keyRow[i] = normalize(keyRowMeta.getValueMeta(i), keyRow[i]);
+    }
+    byte[] data = RowMeta.extractData(keyRowMeta, keyRow);
+    byte[] key = new byte[data.length + 1];
+    key[0] = SERIALIZED_KEY;
+    System.arraycopy(data, 0, key, 1, data.length);
+    return key;
+  }
+
+  private static Object normalize(IValueMeta keyMeta, Object data) {
+    if (data instanceof BigDecimal) {
+      return ((BigDecimal) data).stripTrailingZeros();
+    }
+    if (data instanceof String) {
+      String string = (String) data;
+      if (keyMeta.isIgnoreWhitespace()) {
+        string = string.trim();
+      }
+      if (keyMeta.isCaseInsensitive()) {
+        // The same folding as String.compareToIgnoreCase()
+        char[] chars = string.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+          chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        string = new String(chars);
+      }
+      return string;
+    }
+    return data;
+  }
+}
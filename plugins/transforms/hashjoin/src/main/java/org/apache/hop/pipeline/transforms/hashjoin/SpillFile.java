@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * A temporary file with the rows of one stream of a partition which didn't fit in memory. The rows
+ * are written once and read back once, in the same order.
+ */
+public class SpillFile {
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final FileObject fileObject;
+  private final IRowMeta rowMeta;
+  private long nrRows;
+
+  private DataOutputStream outputStream;
+  private DataInputStream inputStream;
+  private long rowsLeft;
+
+  /**
+   * Create a new temporary file
+   *
+   * @param directory The directory to create the file in
+   * @param rowMeta The layout of the rows in the file
+   * @throws HopException In case the file can't be created
+   */
+  public SpillFile(String directory, IRowMeta rowMeta) throws HopException {
+    this.rowMeta = rowMeta;
+    this.fileObject = HopVfs.createTempFile("hashjoin", ".tmp", directory);
+    try {
+      this.outputStream =
+          new DataOutputStream(
+              new BufferedOutputStream(HopVfs.getOutputStream(fileObject, false), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopFileException("Unable to create temporary file " + fileObject, e);
+    }
+  }
+
+  /**
+   * Add a row to the file
+   *
+   * @param row The row data
+   * @throws HopException In case the row can't be written
+   */
+  public void writeRow(Object[] row) throws HopException {
+    rowMeta.writeData(outputStream, row);
+    nrRows++;
+  }
+
+  /**
+   * Read the next row. The output is closed when this is called the first time.
+   *
+   * @return The next row or null if all rows were read
+   * @throws HopException In case the row can't be read
+   */
+  public Object[] readRow() throws HopException {
+    if (inputStream == null) {
+      try {
+        if (outputStream != null) {
+          outputStream.close();
+          outputStream = null;
+        }
+        inputStream =
+            new DataInputStream(
+                new BufferedInputStream(HopVfs.getInputStream(fileObject), BUFFER_SIZE));
+      } catch (IOException e) {
+        throw new HopFileException("Unable to open temporary file " + fileObject, e);
+      }
+      rowsLeft = nrRows;
+    }
+    if (rowsLeft <= 0) {
+      return null;
+    }
+    rowsLeft--;
+    try {
+      return rowMeta.readData(inputStream);
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException(e); // should never happen on local files
+    }
+  }
+
+  /** Close the file and remove it. Errors are ignored, this is only a temporary file. */
+  public void delete() {
+    BaseTransform.closeQuietly(outputStream);
+    BaseTransform.closeQuietly(inputStream);
+    outputStream = null;
+    inputStream = null;
+    try {
+      fileObject.delete();
+    } catch (IOException e) {
+      // Ignore: temporary file
+    }
+  }
+
+  /**
+   * Gets nrRows
+   *
+   * @return value of nrRows
+   */
+  public long getNrRows() {
+    return nrRows;
+  }
+
+  /**
+   * Gets fileObject
+   *
+   * @return value of fileObject
+   */
+  public FileObject getFileObject() {
+    return fileObject;
+  }
+}
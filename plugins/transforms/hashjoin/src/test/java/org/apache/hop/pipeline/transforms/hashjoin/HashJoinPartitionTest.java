@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HashJoinPartitionTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testDuplicateKeysInOrder() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    int[] keyNrs = {0};
+    JoinKeyEncoder encoder = JoinKeyEncoder.create(rowMeta, keyNrs, rowMeta, keyNrs);
+
+    HashJoinPartition partition =
+        new HashJoinPartition(0, System.getProperty("java.io.tmpdir"), rowMeta, rowMeta);
+    for (long i = 0; i < 1000; i++) {
+      Object[] row = {i % 10, "name" + i};
+      partition.addBuildRow(encoder.encode(row), row);
+    }
+    assertEquals(1000, partition.getNrRowsInMemory());
+
+    List<String> names = new ArrayList<>();
+    int rowNr = partition.findFirstRow(encoder.encode(new Object[] {3L, null}));
+    while (rowNr >= 0) {
+      names.add((String) partition.getRow(rowNr)[1]);
+      rowNr = partition.getNextRow(rowNr);
+    }
+    assertEquals(100, names.size());
+    for (int i = 0; i < names.size(); i++) {
+      assertEquals("name" + (3 + i * 10), names.get(i));
+    }
+    assertTrue(partition.findFirstRow(encoder.encode(new Object[] {10L, null})) < 0);
+  }
+
+  @Test
+  public void testSpill() throws Exception {
+    IRowMeta buildMeta = new RowMeta();
+    buildMeta.addValueMeta(new ValueMetaString("key"));
+    IRowMeta probeMeta = new RowMeta();
+    probeMeta.addValueMeta(new ValueMetaInteger("value"));
+    int[] keyNrs = {0};
+    JoinKeyEncoder encoder = JoinKeyEncoder.create(buildMeta, keyNrs, buildMeta, keyNrs);
+
+    HashJoinPartition partition =
+        new HashJoinPartition(0, System.getProperty("java.io.tmpdir"), buildMeta, probeMeta);
+    try {
+      Object[] row = {"a"};
+      partition.addBuildRow(encoder.encode(row), row);
+      partition.spill();
+      assertTrue(partition.isSpilled());
+      assertEquals(0, partition.getNrRowsInMemory());
+      row = new Object[] {"b"};
+      partition.addBuildRow(encoder.encode(row), row);
+      partition.addProbeRow(new Object[] {1L});
+
+      assertArrayEquals(new Object[] {"a"}, partition.getBuildFile().readRow());
+      assertArrayEquals(new Object[] {"b"}, partition.getBuildFile().readRow());
+      assertNull(partition.getBuildFile().readRow());
+      assertArrayEquals(new Object[] {1L}, partition.getProbeFile().readRow());
+      assertNull(partition.getProbeFile().readRow());
+    } finally {
+      partition.delete();
+    }
+    assertFalse(partition.getBuildFile().getFileObject().exists());
+    assertFalse(partition.getProbeFile().getFileObject().exists());
+  }
+
+  @Test
+  public void testKeysOfBothStreams() throws Exception {
+    IRowMeta oneMeta = new RowMeta();
+    ValueMetaString code = new ValueMetaString("code");
+    code.setCaseInsensitive(true);
+    oneMeta.addValueMeta(code);
+    oneMeta.addValueMeta(new ValueMetaInteger("id"));
+    oneMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    IRowMeta twoMeta = new RowMeta();
+    twoMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    twoMeta.addValueMeta(new ValueMetaString("id"));
+    twoMeta.addValueMeta(new ValueMetaString("code"));
+    int[] keyNrs1 = {0, 1, 2};
+    int[] keyNrs2 = {2, 1, 0};
+
+    JoinKeyEncoder oneEncoder = JoinKeyEncoder.create(oneMeta, keyNrs1, oneMeta, keyNrs1);
+    JoinKeyEncoder twoEncoder = JoinKeyEncoder.create(oneMeta, keyNrs1, twoMeta, keyNrs2);
+
+    // Case insensitive, converted to Integer and the same BigNumber value
+    //
+    assertArrayEquals(
+        oneEncoder.encode(new Object[] {"abc", 1L, new BigDecimal("1.50")}),
+        twoEncoder.encode(new Object[] {new BigDecimal("1.5"), "1", "ABC"}));
+    assertArrayEquals(
+        oneEncoder.encode(new Object[] {null, null, null}),
+        twoEncoder.encode(new Object[] {null, null, null}));
+
+    Set<String> keys = new HashSet<>();
+    keys.add(Arrays.toString(oneEncoder.encode(new Object[] {"abc", 1L, BigDecimal.ONE})));
+    keys.add(Arrays.toString(oneEncoder.encode(new Object[] {"abc", 2L, BigDecimal.ONE})));
+    keys.add(Arrays.toString(oneEncoder.encode(new Object[] {"abd", 1L, BigDecimal.ONE})));
+    keys.add(Arrays.toString(oneEncoder.encode(new Object[] {"abc", 1L, BigDecimal.TEN})));
+    keys.add(Arrays.toString(oneEncoder.encode(new Object[] {"abc", null, BigDecimal.ONE})));
+    assertEquals(5, keys.size());
+  }
+
+  @Test
+  public void testPartitionNumbers() {
+    Set<Integer> level0 = new HashSet<>();
+    Set<Integer> level1 = new HashSet<>();
+    for (int hashCode = 0; hashCode < 1000; hashCode++) {
+      int partitionNr = HashJoin.getPartitionNr(hashCode, 0);
+      assertTrue(partitionNr >= 0 && partitionNr < HashJoin.NR_PARTITIONS);
+      level0.add(partitionNr);
+      if (partitionNr == 0) {
+        level1.add(HashJoin.getPartitionNr(hashCode, 1));
+      }
+    }
+    assertEquals(HashJoin.NR_PARTITIONS, level0.size());
+    assertTrue(level1.size() > 1);
+  }
+}
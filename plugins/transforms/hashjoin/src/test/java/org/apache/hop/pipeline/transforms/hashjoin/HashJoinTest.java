@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mergejoin.MergeJoin;
+import org.apache.hop.pipeline.transforms.mergejoin.MergeJoinData;
+import org.apache.hop.pipeline.transforms.mergejoin.MergeJoinMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.nullable;
+import static org.mockito.Mockito.when;
+
+/**
+ * Joins the same rows with the Hash join and the Merge join transforms and compares the results.
+ * Only a few rows are kept in memory so that the partitions are spilled to disk and split again.
+ */
+public class HashJoinTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder spillFolder = new TemporaryFolder();
+
+  private static final String MAX_ROWS_IN_MEMORY = "10";
+
+  private static final int ROW_SET_SIZE = 50;
+
+  private IRowMeta oneMeta;
+  private IRowMeta twoMeta;
+  private List<Object[]> oneRows;
+  private List<Object[]> twoRows;
+
+  /** The highest spill level of the partitions which produced output rows */
+  private int maxLevel;
+
+  @Before
+  public void setUp() {
+    oneMeta = new RowMeta();
+    oneMeta.addValueMeta(new ValueMetaInteger("id"));
+    oneMeta.addValueMeta(new ValueMetaString("name"));
+    twoMeta = new RowMeta();
+    twoMeta.addValueMeta(new ValueMetaInteger("key"));
+    twoMeta.addValueMeta(new ValueMetaString("value"));
+
+    // Ids -100 to -1 and 600 to 699 don't have a match, every fourth id is there twice
+    //
+    oneRows = new ArrayList<>();
+    for (long id = -100; id < 700; id++) {
+      oneRows.add(new Object[] {id, "name" + id});
+      if (id % 4 == 0) {
+        oneRows.add(new Object[] {id, "other" + id});
+      }
+    }
+    for (int i = 0; i < 15; i++) {
+      oneRows.add(new Object[] {null, "null" + i});
+    }
+
+    // Keys 0 to 599 are there five times, key 7 a lot more: too many rows to fit in memory on any
+    // level. Keys 5000 to 5099 don't have a match.
+    //
+    twoRows = new ArrayList<>();
+    for (long i = 0; i < 3000; i++) {
+      twoRows.add(new Object[] {i % 600, "value" + i});
+    }
+    for (int i = 0; i < 60; i++) {
+      twoRows.add(new Object[] {7L, "seven" + i});
+    }
+    for (long key = 5000; key < 5100; key++) {
+      twoRows.add(new Object[] {key, "value" + key});
+    }
+    for (int i = 0; i < 20; i++) {
+      twoRows.add(new Object[] {null, "null" + i});
+    }
+
+    Random random = new Random(42);
+    Collections.shuffle(oneRows, random);
+    Collections.shuffle(twoRows, random);
+  }
+
+  @Test
+  public void testInnerJoin() throws Exception {
+    testJoin("INNER");
+  }
+
+  @Test
+  public void testLeftOuterJoin() throws Exception {
+    testJoin("LEFT OUTER");
+  }
+
+  @Test
+  public void testRightOuterJoin() throws Exception {
+    testJoin("RIGHT OUTER");
+  }
+
+  @Test
+  public void testFullOuterJoin() throws Exception {
+    testJoin("FULL OUTER");
+  }
+
+  @Test
+  public void testAllRowsInMemory() throws Exception {
+    List<String> expected = mergeJoin("FULL OUTER");
+    List<String> actual = hashJoin("FULL OUTER", "0", false);
+    assertEquals(expected, actual);
+    assertEquals(0, maxLevel);
+  }
+
+  @Test(timeout = 60000)
+  public void testBothStreamsFromSameTransform() throws Exception {
+    // One transform sends its rows to both inputs. It blocks as soon as the row set of the first
+    // stream is full while the second stream is still being read.
+    //
+    List<String> expected = mergeJoin("FULL OUTER");
+    List<String> actual = hashJoin("FULL OUTER", MAX_ROWS_IN_MEMORY, true);
+    assertEquals(expected, actual);
+    assertEquals(0, spillFolder.getRoot().list().length);
+  }
+
+  private void testJoin(String joinType) throws Exception {
+    List<String> expected = mergeJoin(joinType);
+    List<String> actual = hashJoin(joinType, MAX_ROWS_IN_MEMORY, false);
+
+    assertFalse(actual.isEmpty());
+    assertEquals(expected, actual);
+
+    // The rows with key 7 are only joined after splitting their partition on every level
+    //
+    assertEquals(HashJoin.MAX_SPILL_LEVEL, maxLevel);
+    assertEquals(0, spillFolder.getRoot().list().length);
+  }
+
+  private List<String> hashJoin(
+      String joinType, String maxRowsInMemory, boolean fromSameTransform) throws Exception {
+    TransformMockHelper<HashJoinMeta, HashJoinData> helper =
+        createHelper("Hash join", HashJoinMeta.class, HashJoinData.class);
+    when(helper.pipeline.getRowSetSize()).thenReturn(ROW_SET_SIZE);
+    try {
+      HashJoinMeta meta = new HashJoinMeta();
+      meta.setJoinType(joinType);
+      meta.setLeftTransformName("one");
+      meta.setRightTransformName("two");
+      meta.getKeyFields1().add("id");
+      meta.getKeyFields2().add("key");
+      meta.setMaxRowsInMemory(maxRowsInMemory);
+      meta.setSpillDirectory(spillFolder.getRoot().getAbsolutePath());
+      meta.searchInfoAndTargetTransforms(mockInfoTransforms(helper.pipelineMeta));
+
+      HashJoinData data = new HashJoinData();
+      HashJoin transform =
+          new HashJoin(helper.transformMeta, meta, data, 0, helper.pipelineMeta, helper.pipeline);
+      maxLevel = 0;
+      Runnable onRow =
+          () -> {
+            if (data.partitions != null) {
+              maxLevel = Math.max(maxLevel, data.partitions[0].getLevel());
+            }
+          };
+      if (!fromSameTransform) {
+        return execute(transform, oneRows, twoRows, onRow);
+      }
+
+      IRowSet one = new BlockingRowSet(ROW_SET_SIZE);
+      one.setThreadNameFromToCopy("one", 0, transform.getTransformName(), 0);
+      IRowSet two = new BlockingRowSet(ROW_SET_SIZE);
+      two.setThreadNameFromToCopy("two", 0, transform.getTransformName(), 0);
+      Thread source =
+          new Thread(
+              () -> {
+                for (int i = 0; i < Math.max(oneRows.size(), twoRows.size()); i++) {
+                  if (i < oneRows.size()) {
+                    putRow(one, oneMeta, oneRows.get(i).clone());
+                  }
+                  if (i < twoRows.size()) {
+                    putRow(two, twoMeta, twoRows.get(i).clone());
+                  }
+                }
+                one.setDone();
+                two.setDone();
+              });
+      source.setDaemon(true);
+      source.start();
+      List<String> rows = execute(transform, one, two, onRow);
+      source.join();
+      return rows;
+    } finally {
+      helper.cleanUp();
+    }
+  }
+
+  private List<String> mergeJoin(String joinType) throws HopException {
+    TransformMockHelper<MergeJoinMeta, MergeJoinData> helper =
+        createHelper("Merge join", MergeJoinMeta.class, MergeJoinData.class);
+    try {
+      MergeJoinMeta meta = new MergeJoinMeta();
+      meta.setJoinType(joinType);
+      meta.setLeftTransformName("one");
+      meta.setRightTransformName("two");
+      meta.getKeyFields1().add("id");
+      meta.getKeyFields2().add("key");
+      meta.setSpillDirectory(spillFolder.getRoot().getAbsolutePath());
+      meta.searchInfoAndTargetTransforms(mockInfoTransforms(helper.pipelineMeta));
+
+      MergeJoin transform =
+          new MergeJoin(
+              helper.transformMeta,
+              meta,
+              new MergeJoinData(),
+              0,
+              helper.pipelineMeta,
+              helper.pipeline);
+      return execute(transform, sortOnKey(oneRows), sortOnKey(twoRows), () -> {});
+    } finally {
+      helper.cleanUp();
+    }
+  }
+
+  /** Put a row in a row set, waiting while it's full like a transform does */
+  private static void putRow(IRowSet rowSet, IRowMeta rowMeta, Object[] row) {
+    while (!rowSet.putRow(rowMeta, row)) {
+      // Wait for room
+    }
+  }
+
+  private static <Meta extends ITransformMeta, Data extends ITransformData>
+      TransformMockHelper<Meta, Data> createHelper(
+          String name, Class<Meta> metaClass, Class<Data> dataClass) {
+    TransformMockHelper<Meta, Data> helper = new TransformMockHelper<>(name, metaClass, dataClass);
+    when(helper.logChannelFactory.create(any(), nullable(ILoggingObject.class)))
+        .thenReturn(helper.iLogChannel);
+    when(helper.pipeline.isRunning()).thenReturn(true);
+    return helper;
+  }
+
+  private List<TransformMeta> mockInfoTransforms(PipelineMeta pipelineMeta) {
+    List<TransformMeta> transforms = new ArrayList<>();
+    for (String name : new String[] {"one", "two"}) {
+      TransformMeta transformMeta = mock(TransformMeta.class);
+      when(transformMeta.getName()).thenReturn(name);
+      when(pipelineMeta.findTransform(name)).thenReturn(transformMeta);
+      transforms.add(transformMeta);
+    }
+    return transforms;
+  }
+
+  /**
+   * Run the transform on the rows of both streams
+   *
+   * @return The output rows, sorted
+   */
+  private List<String> execute(
+      BaseTransform<?, ?> transform,
+      List<Object[]> one,
+      List<Object[]> two,
+      Runnable onRow)
+      throws HopException {
+    String name = transform.getTransformName();
+    return execute(
+        transform,
+        createRowSet("one", name, oneMeta, one),
+        createRowSet("two", name, twoMeta, two),
+        onRow);
+  }
+
+  private List<String> execute(
+      BaseTransform<?, ?> transform, IRowSet one, IRowSet two, Runnable onRow)
+      throws HopException {
+    assertTrue(transform.init());
+    transform.addRowSetToInputRowSets(one);
+    transform.addRowSetToInputRowSets(two);
+
+    List<String> rows = new ArrayList<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            rows.add(Arrays.toString(Arrays.copyOf(row, rowMeta.size())));
+            onRow.run();
+          }
+        });
+    while (transform.processRow()) {
+      // Keep on joining
+    }
+    transform.dispose();
+    assertEquals(0, transform.getErrors());
+
+    Collections.sort(rows);
+    return rows;
+  }
+
+  private static IRowSet createRowSet(
+      String from, String to, IRowMeta rowMeta, List<Object[]> rows) {
+    IRowSet rowSet = new QueueRowSet();
+    rowSet.setThreadNameFromToCopy(from, 0, to, 0);
+    for (Object[] row : rows) {
+      rowSet.putRow(rowMeta, row.clone());
+    }
+    rowSet.setDone();
+    return rowSet;
+  }
+
+  private static List<Object[]> sortOnKey(List<Object[]> rows) {
+    List<Object[]> sorted = new ArrayList<>(rows);
+    sorted.sort(
+        Comparator.comparing(
+            row -> (Long) row[0], Comparator.nullsFirst(Comparator.<Long>naturalOrder())));
+    return sorted;
+  }
+}
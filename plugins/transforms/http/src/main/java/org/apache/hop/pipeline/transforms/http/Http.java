@@ -25,7 +25,9 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.AsyncCallExecutor;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.HttpClientUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -70,52 +72,21 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private Object[] execHttp(IRowMeta rowMeta, Object[] row) throws HopException {
-    if (first) {
-      first = false;
-      data.argnrs = new int[meta.getArgumentField().length];
-
-      for (int i = 0; i < meta.getArgumentField().length; i++) {
-        data.argnrs[i] = rowMeta.indexOfValue(meta.getArgumentField()[i]);
-        if (data.argnrs[i] < 0) {
-          logError(
-              BaseMessages.getString(PKG, "HTTP.Log.ErrorFindingField")
-                  + meta.getArgumentField()[i]
-                  + "]");
-          throw new HopTransformException(
-              BaseMessages.getString(
-                  PKG, "HTTP.Exception.CouldnotFindField", meta.getArgumentField()[i]));
-        }
-      }
-    }
-
-    return callHttpService(rowMeta, row);
-  }
-
   @VisibleForTesting
   Object[] callHttpService(IRowMeta rowMeta, Object[] rowData) throws HopException {
-    HttpClientManager.HttpClientBuilderFacade clientBuilder =
-        HttpClientManager.getInstance().createBuilder();
-
-    if (data.realConnectionTimeout > -1) {
-      clientBuilder.setConnectionTimeout(data.realConnectionTimeout);
-    }
-    if (data.realSocketTimeout > -1) {
-      clientBuilder.setSocketTimeout(data.realSocketTimeout);
-    }
-    if (StringUtils.isNotBlank(data.realHttpLogin)) {
-      clientBuilder.setCredentials(data.realHttpLogin, data.realHttpPassword);
-    }
-    if (StringUtils.isNotBlank(data.realProxyHost)) {
-      clientBuilder.setProxy(data.realProxyHost, data.realProxyPort);
-    }
-    if (meta.isIgnoreSsl()) {
-      clientBuilder.ignoreSsl(true);
-    }
-
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return callHttpService(rowMeta, rowData, createRequest(rowMeta, rowData));
+  }
 
-    // Prepare Http get
+  /**
+   * Build the request for a row. This is done on the transform thread so that the request itself
+   * can be executed in the background.
+   *
+   * @param rowMeta The layout of the input row
+   * @param rowData The input row
+   * @return The request
+   * @throws HopException In case the URL or a header can't be determined
+   */
+  HttpGet createRequest(IRowMeta rowMeta, Object[] rowData) throws HopException {
     URI uri = null;
     try {
       URIBuilder uriBuilder = constructUrlBuilder(rowMeta, rowData);
@@ -139,7 +110,27 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
           }
         }
       }
+      return method;
+    } catch (Exception e) {
+      throw new HopException(BaseMessages.getString(PKG, "HTTP.Log.UnableGetResult", uri), e);
+    }
+  }
 
+  /**
+   * Execute a request with the shared client. This can be called from multiple threads at once.
+   * The request can be executed again afterwards, for example to retry it.
+   *
+   * @param rowMeta The layout of the input row
+   * @param rowData The input row
+   * @param method The request to execute
+   * @return The output row
+   * @throws HopException In case the request failed
+   */
+  Object[] callHttpService(IRowMeta rowMeta, Object[] rowData, HttpGet method)
+      throws HopException {
+    CloseableHttpClient httpClient = getClient();
+    URI uri = method.getURI();
+    try {
       Object[] newRow = null;
       if (rowData != null) {
         newRow = rowData.clone();
@@ -254,6 +245,35 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
     }
   }
 
+  /**
+   * The client is thread-safe: it's created once and shared by all the requests of this transform
+   * copy. The connections are pooled by the {@link HttpClientManager}.
+   */
+  private synchronized CloseableHttpClient getClient() {
+    if (data.httpClient == null) {
+      HttpClientManager.HttpClientBuilderFacade clientBuilder =
+          HttpClientManager.getInstance().createBuilder();
+
+      if (data.realConnectionTimeout > -1) {
+        clientBuilder.setConnectionTimeout(data.realConnectionTimeout);
+      }
+      if (data.realSocketTimeout > -1) {
+        clientBuilder.setSocketTimeout(data.realSocketTimeout);
+      }
+      if (StringUtils.isNotBlank(data.realHttpLogin)) {
+        clientBuilder.setCredentials(data.realHttpLogin, data.realHttpPassword);
+      }
+      if (StringUtils.isNotBlank(data.realProxyHost)) {
+        clientBuilder.setProxy(data.realProxyHost, data.realProxyPort);
+      }
+      if (meta.isIgnoreSsl()) {
+        clientBuilder.ignoreSsl(true);
+      }
+      data.httpClient = clientBuilder.build();
+    }
+    return data.httpClient;
+  }
+
   private URIBuilder constructUrlBuilder(IRowMeta outputRowMeta, Object[] row)
       throws HopValueException, HopException {
     URIBuilder uriBuilder;
@@ -297,11 +317,21 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      // wait for the requests in flight
+      if (data.executor != null) {
+        AsyncCallExecutor.Result<Object[]> result;
+        while ((result = takeResult()) != null) {
+          if (!putResult(result)) {
+            return false;
+          }
+        }
+      }
       setOutputDone();
       return false;
     }
 
     if (first) {
+      first = false;
       data.outputRowMeta = getInputRowMeta().clone();
       data.inputRowMeta = getInputRowMeta();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
@@ -355,10 +385,29 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
                 resolve(meta.getHeaderParameter()[i]),
                 data.outputRowMeta.getString(r, data.header_parameters_nrs[i]));
       }
+
+      // get the arguments
+      data.argnrs = new int[meta.getArgumentField().length];
+      for (int i = 0; i < meta.getArgumentField().length; i++) {
+        data.argnrs[i] = data.inputRowMeta.indexOfValue(meta.getArgumentField()[i]);
+        if (data.argnrs[i] < 0) {
+          logError(
+              BaseMessages.getString(PKG, "HTTP.Log.ErrorFindingField")
+                  + meta.getArgumentField()[i]
+                  + "]");
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG, "HTTP.Exception.CouldnotFindField", meta.getArgumentField()[i]));
+        }
+      }
     } // end if first
 
+    if (data.executor != null) {
+      return submitRequest(r);
+    }
+
     try {
-      Object[] outputRowData = execHttp(getInputRowMeta(), r); // add new values to the row
+      Object[] outputRowData = callHttpService(getInputRowMeta(), r); // add new values to the row
       putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
 
       if (checkFeedback(getLinesRead())) {
@@ -367,25 +416,86 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
         }
       }
     } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleError(r, e);
+    }
 
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "HTTP.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
+    return true;
+  }
+
+  /**
+   * Execute the request for a row in the background. The results which are available are passed
+   * on right away, we only wait for a result when the maximum number of requests are in flight.
+   */
+  private boolean submitRequest(Object[] r) throws HopException {
+    IRowMeta rowMeta = getInputRowMeta();
+    HttpGet method;
+    try {
+      method = createRequest(rowMeta, r);
+    } catch (HopException e) {
+      return handleError(r, e);
+    }
+
+    while (data.executor.isFull()) {
+      if (!putResult(takeResult())) {
         return false;
       }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(getInputRowMeta(), r, 1, errorMessage, null, "HTTP001");
+    }
+    data.executor.submit(
+        HttpClientUtil.getHost(method.getURI().toString()),
+        r,
+        () -> callHttpService(rowMeta, r, method));
+
+    AsyncCallExecutor.Result<Object[]> result;
+    while ((result = data.executor.poll()) != null) {
+      if (!putResult(result)) {
+        return false;
       }
     }
+    return true;
+  }
+
+  private AsyncCallExecutor.Result<Object[]> takeResult() throws HopException {
+    try {
+      return data.executor.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(BaseMessages.getString(PKG, "HTTP.Error.Interrupted"), e);
+    }
+  }
+
+  private boolean putResult(AsyncCallExecutor.Result<Object[]> result) throws HopException {
+    Exception exception = result.getException();
+    if (exception != null) {
+      if (exception instanceof HopException) {
+        return handleError(result.getRow(), (HopException) exception);
+      }
+      return handleError(result.getRow(), new HopException(exception));
+    }
+    putRow(data.outputRowMeta, result.getValue()); // copy row to output rowset(s)
+    if (checkFeedback(getLinesRead()) && isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "HTTP.LineNumber") + getLinesRead());
+    }
+    return true;
+  }
 
+  private boolean handleError(Object[] r, HopException e) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
+    if (getTransformMeta().isDoingErrorHandling()) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError(BaseMessages.getString(PKG, "HTTP.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if (sendToErrorRow) {
+      // Simply add this row to the error row
+      putError(getInputRowMeta(), r, 1, errorMessage, null, "HTTP001");
+    }
     return true;
   }
 
@@ -402,8 +512,34 @@ public class Http extends BaseTransform<HttpMeta, HttpData> {
       data.realSocketTimeout = Const.toInt(resolve(meta.getSocketTimeout()), -1);
       data.realConnectionTimeout = Const.toInt(resolve(meta.getSocketTimeout()), -1);
 
+      // Execute the requests in the background if we need more than one in flight or retries
+      //
+      int concurrentRequests = Const.toInt(resolve(meta.getConcurrentRequests()), 1);
+      int maxRetries = Const.toInt(resolve(meta.getMaxRetries()), 0);
+      if (concurrentRequests > 1 || maxRetries > 0) {
+        data.executor =
+            new AsyncCallExecutor<>(
+                getTransformName() + "." + getCopy(),
+                concurrentRequests,
+                Const.toInt(resolve(meta.getMaxRequestsPerHost()), 0),
+                meta.isPreserveOrder(),
+                maxRetries,
+                Const.toLong(resolve(meta.getRetryDelay()), 1000L));
+      }
+
       return true;
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if (data.executor != null) {
+      data.executor.shutdown();
+      data.executor = null;
+    }
+    // The client isn't closed: that would shut down the connection pool it shares
+    data.httpClient = null;
+    super.dispose();
+  }
 }
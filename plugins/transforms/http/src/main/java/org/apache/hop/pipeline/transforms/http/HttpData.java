@@ -18,9 +18,11 @@
 package org.apache.hop.pipeline.transforms.http;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.AsyncCallExecutor;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 public class HttpData extends BaseTransformData implements ITransformData {
   public int[] argnrs;
@@ -40,6 +42,12 @@ public class HttpData extends BaseTransformData implements ITransformData {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  /** The client, shared by all the requests of this transform copy */
+  public CloseableHttpClient httpClient;
+
+  /** Executes the requests in the background, null to call the service row by row */
+  public AsyncCallExecutor<Object[]> executor;
+
   /** Default constructor. */
   public HttpData() {
     super();
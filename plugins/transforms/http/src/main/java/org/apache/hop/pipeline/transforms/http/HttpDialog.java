@@ -116,6 +116,16 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
 
   private TextVar wCloseIdleConnectionsTime;
 
+  private TextVar wConcurrentRequests;
+
+  private TextVar wMaxRequestsPerHost;
+
+  private Button wPreserveOrder;
+
+  private TextVar wMaxRetries;
+
+  private TextVar wRetryDelay;
+
   public HttpDialog(
       Shell parent, IVariables variables, Object in, PipelineMeta pipelineMeta, String sname) {
     super(parent, variables, (BaseTransformMeta) in, pipelineMeta, sname);
@@ -237,6 +247,21 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     // ////////////////////////
     lastControl = gProxy;
 
+    // ////////////////////////
+    // START CONCURRENCY GROUP
+
+    Group gConcurrency = setupConcurrencyGroup(lsMod, wGeneralComp);
+
+    FormData fdConcurrency = new FormData();
+    fdConcurrency.left = new FormAttachment(0, 0);
+    fdConcurrency.right = new FormAttachment(100, 0);
+    fdConcurrency.top = new FormAttachment(lastControl, margin);
+    gConcurrency.setLayoutData(fdConcurrency);
+
+    // END CONCURRENCY GROUP
+    // ////////////////////////
+    lastControl = gConcurrency;
+
     FormData fdGeneralComp = new FormData();
     fdGeneralComp.left = new FormAttachment(0, 0);
     fdGeneralComp.top = new FormAttachment(wTransformName, margin);
@@ -481,6 +506,78 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wProxyHost.setLayoutData(fdProxyHost);
   }
 
+  private Group setupConcurrencyGroup(ModifyListener lsMod, Composite wGeneralComp) {
+    int margin = props.getMargin();
+    int middle = props.getMiddlePct();
+    Group gConcurrency = new Group(wGeneralComp, SWT.SHADOW_ETCHED_IN);
+    gConcurrency.setText(BaseMessages.getString(PKG, "HTTPDialog.ConcurrencyGroup.Label"));
+    FormLayout concurrencyLayout = new FormLayout();
+    concurrencyLayout.marginWidth = 3;
+    concurrencyLayout.marginHeight = 3;
+    gConcurrency.setLayout(concurrencyLayout);
+    PropsUi.setLook(gConcurrency);
+
+    wConcurrentRequests = setupConcurrencyLine(lsMod, null, gConcurrency, "ConcurrentRequests");
+    wMaxRequestsPerHost =
+        setupConcurrencyLine(lsMod, wConcurrentRequests, gConcurrency, "MaxRequestsPerHost");
+
+    // Preserve order
+    Label wlPreserveOrder = new Label(gConcurrency, SWT.RIGHT);
+    wlPreserveOrder.setText(BaseMessages.getString(PKG, "HTTPDialog.PreserveOrder.Label"));
+    PropsUi.setLook(wlPreserveOrder);
+    FormData fdlPreserveOrder = new FormData();
+    fdlPreserveOrder.left = new FormAttachment(0, 0);
+    fdlPreserveOrder.top = new FormAttachment(wMaxRequestsPerHost, margin);
+    fdlPreserveOrder.right = new FormAttachment(middle, -margin);
+    wlPreserveOrder.setLayoutData(fdlPreserveOrder);
+    wPreserveOrder = new Button(gConcurrency, SWT.CHECK);
+    wPreserveOrder.setToolTipText(BaseMessages.getString(PKG, "HTTPDialog.PreserveOrder.Tooltip"));
+    PropsUi.setLook(wPreserveOrder);
+    FormData fdPreserveOrder = new FormData();
+    fdPreserveOrder.left = new FormAttachment(middle, 0);
+    fdPreserveOrder.top = new FormAttachment(wlPreserveOrder, 0, SWT.CENTER);
+    fdPreserveOrder.right = new FormAttachment(100, 0);
+    wPreserveOrder.setLayoutData(fdPreserveOrder);
+    wPreserveOrder.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
+    wMaxRetries = setupConcurrencyLine(lsMod, wlPreserveOrder, gConcurrency, "MaxRetries");
+    wRetryDelay = setupConcurrencyLine(lsMod, wMaxRetries, gConcurrency, "RetryDelay");
+    return gConcurrency;
+  }
+
+  private TextVar setupConcurrencyLine(
+      ModifyListener lsMod, Control lastControl, Group gConcurrency, String name) {
+    int margin = props.getMargin();
+    int middle = props.getMiddlePct();
+    Label wlLine = new Label(gConcurrency, SWT.RIGHT);
+    wlLine.setText(BaseMessages.getString(PKG, "HTTPDialog." + name + ".Label"));
+    PropsUi.setLook(wlLine);
+    FormData fdlLine = new FormData();
+    fdlLine.top =
+        lastControl == null
+            ? new FormAttachment(0, margin)
+            : new FormAttachment(lastControl, margin);
+    fdlLine.left = new FormAttachment(0, 0);
+    fdlLine.right = new FormAttachment(middle, -margin);
+    wlLine.setLayoutData(fdlLine);
+    TextVar wLine = new TextVar(variables, gConcurrency, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wLine.addModifyListener(lsMod);
+    wLine.setToolTipText(BaseMessages.getString(PKG, "HTTPDialog." + name + ".Tooltip"));
+    PropsUi.setLook(wLine);
+    FormData fdLine = new FormData();
+    fdLine.top = fdlLine.top;
+    fdLine.left = new FormAttachment(middle, 0);
+    fdLine.right = new FormAttachment(100, 0);
+    wLine.setLayoutData(fdLine);
+    return wLine;
+  }
+
   private Group setupProxyGroup(Composite wGeneralComp) {
     Group gProxy = new Group(wGeneralComp, SWT.SHADOW_ETCHED_IN);
     gProxy.setText(BaseMessages.getString(PKG, "HTTPDialog.ProxyGroup.Label"));
@@ -1011,6 +1108,11 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wSocketTimeOut.setText(Const.NVL(input.getSocketTimeout(), ""));
     wConnectionTimeOut.setText(Const.NVL(input.getConnectionTimeout(), ""));
     wCloseIdleConnectionsTime.setText(Const.NVL(input.getCloseIdleConnectionsTime(), ""));
+    wConcurrentRequests.setText(Const.NVL(input.getConcurrentRequests(), ""));
+    wMaxRequestsPerHost.setText(Const.NVL(input.getMaxRequestsPerHost(), ""));
+    wPreserveOrder.setSelection(input.isPreserveOrder());
+    wMaxRetries.setText(Const.NVL(input.getMaxRetries(), ""));
+    wRetryDelay.setText(Const.NVL(input.getRetryDelay(), ""));
 
     wUrl.setText(Const.NVL(input.getUrl(), ""));
     wUrlInField.setSelection(input.isUrlInField());
@@ -1104,6 +1206,11 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     input.setSocketTimeout(wSocketTimeOut.getText());
     input.setConnectionTimeout(wConnectionTimeOut.getText());
     input.setCloseIdleConnectionsTime(wCloseIdleConnectionsTime.getText());
+    input.setConcurrentRequests(wConcurrentRequests.getText());
+    input.setMaxRequestsPerHost(wMaxRequestsPerHost.getText());
+    input.setPreserveOrder(wPreserveOrder.getSelection());
+    input.setMaxRetries(wMaxRetries.getText());
+    input.setRetryDelay(wRetryDelay.getText());
 
     transformName = wTransformName.getText(); // return value
 
@@ -100,6 +100,21 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
   private String[] headerParameter;
   private String[] headerField;
 
+  /** The number of requests in flight at the same time, 1 to call the service row by row */
+  private String concurrentRequests;
+
+  /** The maximum number of requests in flight to the same host, 0 or empty for no limit */
+  private String maxRequestsPerHost;
+
+  /** Keep the order of the input rows when requests are executed concurrently */
+  private boolean preserveOrder;
+
+  /** The number of times a failed request is retried */
+  private String maxRetries;
+
+  /** The delay in ms before the first retry, doubled on every next retry */
+  private String retryDelay;
+
   public HttpMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -273,6 +288,11 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     responseTimeFieldName = "";
     responseHeaderFieldName = "";
     encoding = "UTF-8";
+    concurrentRequests = "1";
+    maxRequestsPerHost = "";
+    preserveOrder = true;
+    maxRetries = "0";
+    retryDelay = "1000";
   }
 
   @Override
@@ -327,6 +347,11 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
     retval.append("    " + XmlHandler.addTagValue("connectionTimeout", connectionTimeout));
     retval.append(
         "    " + XmlHandler.addTagValue("closeIdleConnectionsTime", closeIdleConnectionsTime));
+    retval.append("    " + XmlHandler.addTagValue("concurrentRequests", concurrentRequests));
+    retval.append("    " + XmlHandler.addTagValue("maxRequestsPerHost", maxRequestsPerHost));
+    retval.append("    " + XmlHandler.addTagValue("preserveOrder", preserveOrder));
+    retval.append("    " + XmlHandler.addTagValue("maxRetries", maxRetries));
+    retval.append("    " + XmlHandler.addTagValue("retryDelay", retryDelay));
 
     retval.append("    <lookup>").append(Const.CR);
 
@@ -377,6 +402,12 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
       socketTimeout = XmlHandler.getTagValue(transformNode, "socketTimeout");
       connectionTimeout = XmlHandler.getTagValue(transformNode, "connectionTimeout");
       closeIdleConnectionsTime = XmlHandler.getTagValue(transformNode, "closeIdleConnectionsTime");
+      concurrentRequests = XmlHandler.getTagValue(transformNode, "concurrentRequests");
+      maxRequestsPerHost = XmlHandler.getTagValue(transformNode, "maxRequestsPerHost");
+      // Keep the order of the rows unless it was switched off explicitly
+      preserveOrder = !"N".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preserveOrder"));
+      maxRetries = XmlHandler.getTagValue(transformNode, "maxRetries");
+      retryDelay = XmlHandler.getTagValue(transformNode, "retryDelay");
 
       Node lookup = XmlHandler.getSubNode(transformNode, "lookup");
       nrargs = XmlHandler.countNodes(lookup, "arg");
@@ -586,4 +617,54 @@ public class HttpMeta extends BaseTransformMeta<Http, HttpData> {
   public void setIgnoreSsl(boolean ignoreSsl) {
     this.ignoreSsl = ignoreSsl;
   }
+
+  /** @return Returns the number of concurrent requests. */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /** @param concurrentRequests The number of concurrent requests to set. */
+  public void setConcurrentRequests(String concurrentRequests) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /** @return Returns the maximum number of concurrent requests per host. */
+  public String getMaxRequestsPerHost() {
+    return maxRequestsPerHost;
+  }
+
+  /** @param maxRequestsPerHost The maximum number of concurrent requests per host to set. */
+  public void setMaxRequestsPerHost(String maxRequestsPerHost) {
+    this.maxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  /** @return Returns true if the order of the input rows is kept. */
+  public boolean isPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /** @param preserveOrder Set to true to keep the order of the input rows. */
+  public void setPreserveOrder(boolean preserveOrder) {
+    this.preserveOrder = preserveOrder;
+  }
+
+  /** @return Returns the maximum number of retries. */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /** @param maxRetries The maximum number of retries to set. */
+  public void setMaxRetries(String maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /** @return Returns the retry delay in ms. */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /** @param retryDelay The retry delay in ms to set. */
+  public void setRetryDelay(String retryDelay) {
+    this.retryDelay = retryDelay;
+  }
 }
@@ -56,6 +56,11 @@ public class HttpMetaLoadSaveTest {
             "socketTimeout",
             "connectionTimeout",
             "closeIdleConnectionsTime",
+            "concurrentRequests",
+            "maxRequestsPerHost",
+            "preserveOrder",
+            "maxRetries",
+            "retryDelay",
             "argumentField",
             "argumentParameter",
             "headerField",
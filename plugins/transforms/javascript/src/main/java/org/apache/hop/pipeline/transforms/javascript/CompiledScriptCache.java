@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.javascript;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the compiled scripts around so that they're only compiled once per JVM. With an
+ * optimization level of 0 or higher Rhino generates and loads a class for every compilation which
+ * is expensive when there are many copies of a transform or when a pipeline is executed over and
+ * over again. A compiled script doesn't hold on to a scope so it can be executed by several
+ * transforms at the same time, every transform has its own scope.
+ */
+public class CompiledScriptCache {
+
+  /** The maximum number of compiled scripts to keep, the least recently used ones are dropped */
+  public static final int MAX_SIZE = 500;
+
+  private static final Map<Key, Script> cache =
+      new LinkedHashMap<Key, Script>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Script> eldest) {
+          return size() > MAX_SIZE;
+        }
+      };
+
+  private CompiledScriptCache() {
+    // Static methods only
+  }
+
+  /**
+   * Get the compiled version of a script, compile it in the given context if we didn't see it
+   * before. The optimization level of the context is part of the lookup key.
+   *
+   * @param cx The context to compile the script in
+   * @param source The source of the script
+   * @param sourceName The name of the script, used in error messages
+   * @return The compiled script
+   */
+  public static Script getScript(Context cx, String source, String sourceName) {
+    Key key = new Key(source, sourceName, cx.getOptimizationLevel());
+    synchronized (cache) {
+      Script script = cache.get(key);
+      if (script != null) {
+        return script;
+      }
+    }
+    // Compile outside of the lock: compiling the same script twice at the same time does no harm
+    //
+    Script script = cx.compileString(source, sourceName, 1, null);
+    synchronized (cache) {
+      cache.put(key, script);
+    }
+    return script;
+  }
+
+  /** Remove all the compiled scripts */
+  public static void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /** @return the number of compiled scripts in the cache */
+  public static int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  private static final class Key {
+    private final String source;
+    private final String sourceName;
+    private final int optimizationLevel;
+
+    private Key(String source, String sourceName, int optimizationLevel) {
+      this.source = source;
+      this.sourceName = sourceName;
+      this.optimizationLevel = optimizationLevel;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return optimizationLevel == key.optimizationLevel
+          && source.equals(key.source)
+          && sourceName.equals(key.sourceName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(source, sourceName, optimizationLevel);
+    }
+  }
+}
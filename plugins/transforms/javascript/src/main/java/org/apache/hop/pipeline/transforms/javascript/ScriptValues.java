@@ -122,6 +122,61 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
               "ScriptValuesMod.Log.UsingValuesFromInputStream",
               String.valueOf(data.fieldsUsed.length)));
     }
+
+    // Look up the metadata of the used fields once, only the values change from row to row
+    //
+    data.usedValueMetas = new IValueMeta[data.fieldsUsed.length];
+    data.nativeValues = new boolean[data.fieldsUsed.length];
+    for (int i = 0; i < data.fieldsUsed.length; i++) {
+      IValueMeta valueMeta = row.getValueMeta(data.fieldsUsed[i]);
+      data.usedValueMetas[i] = valueMeta;
+      data.nativeValues[i] = meta.isNativeValues() && isNativeType(valueMeta.getType());
+    }
+  }
+
+  /** Strings, numbers and booleans have a JavaScript counterpart which doesn't need a wrapper */
+  private static boolean isNativeType(int type) {
+    switch (type) {
+      case IValueMeta.TYPE_STRING:
+      case IValueMeta.TYPE_INTEGER:
+      case IValueMeta.TYPE_NUMBER:
+      case IValueMeta.TYPE_BOOLEAN:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Put the row, its metadata and the values of the used fields in the scope of the script.
+   *
+   * @param row The row to expose to the script
+   * @throws HopValueException In case a value can't be converted to normal storage
+   */
+  private void bindRow(Object[] row) throws HopValueException {
+    // Add the old style row object for compatibility reasons...
+    //
+    Scriptable jsrow = Context.toObject(row, data.scope);
+    data.scope.put("row", data.scope, jsrow);
+
+    for (int i = 0; i < data.fieldsUsed.length; i++) {
+      IValueMeta valueMeta = data.usedValueMetas[i];
+      Object normalStorageValueData = valueMeta.convertToNormalStorageType(row[data.fieldsUsed[i]]);
+      Object jsarg;
+      if (normalStorageValueData == null) {
+        jsarg = null;
+      } else if (data.nativeValues[i]) {
+        // Rhino uses Java strings, numbers and booleans as JavaScript primitives
+        jsarg = normalStorageValueData;
+      } else {
+        jsarg = Context.toObject(normalStorageValueData, data.scope);
+      }
+      data.scope.put(valueMeta.getName(), data.scope, jsarg);
+    }
+
+    // also add the meta information for the whole row, it's the same for every row
+    //
+    data.scope.put("rowMeta", data.scope, data.jsRowMeta);
   }
 
   private boolean addValues(IRowMeta rowMeta, Object[] row) throws HopException {
@@ -213,32 +268,8 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
       try {
         // add these now (they will be re-added later) to make compilation succeed
         //
-
-        // Add the old style row object for compatibility reasons...
-        //
-        Scriptable jsrow = Context.toObject(row, data.scope);
-        data.scope.put("row", data.scope, jsrow);
-
-        // Add the used fields...
-        //
-        for (int i = 0; i < data.fieldsUsed.length; i++) {
-          IValueMeta valueMeta = rowMeta.getValueMeta(data.fieldsUsed[i]);
-          Object valueData = row[data.fieldsUsed[i]];
-
-          Object normalStorageValueData = valueMeta.convertToNormalStorageType(valueData);
-          Scriptable jsarg;
-          if (normalStorageValueData != null) {
-            jsarg = Context.toObject(normalStorageValueData, data.scope);
-          } else {
-            jsarg = null;
-          }
-          data.scope.put(valueMeta.getName(), data.scope, jsarg);
-        }
-
-        // also add the meta information for the whole row
-        //
-        Scriptable jsrowMeta = Context.toObject(rowMeta, data.scope);
-        data.scope.put("rowMeta", data.scope, jsrowMeta);
+        data.jsRowMeta = Context.toObject(rowMeta, data.scope);
+        bindRow(row);
 
         // Modification for Additional Script parsing
         //
@@ -284,7 +315,8 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
         try {
           // Checking for StartScript
           if (strStartScript != null && strStartScript.length() > 0) {
-            Script startScript = data.cx.compileString(strStartScript, "pipeline_Start", 1, null);
+            Script startScript =
+                CompiledScriptCache.getScript(data.cx, strStartScript, "pipeline_Start");
             startScript.exec(data.cx, data.scope);
             if (log.isDetailed()) {
               logDetailed(("Start Script found!"));
@@ -298,8 +330,8 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
           throw new HopValueException(
               BaseMessages.getString(PKG, "ScriptValuesMod.Log.ErrorProcessingStartScript"), es);
         }
-        // Now Compile our Script
-        data.script = data.cx.compileString(strTransformScript, "script", 1, null);
+        // Now Compile our Script, or re-use the compiled version of an earlier run or copy
+        data.script = CompiledScriptCache.getScript(data.cx, strTransformScript, "script");
       } catch (Exception e) {
         throw new HopValueException(
             BaseMessages.getString(PKG, "ScriptValuesMod.Log.CouldNotCompileJavascript"), e);
@@ -315,26 +347,7 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
 
     try {
       try {
-        Scriptable jsrow = Context.toObject(row, data.scope);
-        data.scope.put("row", data.scope, jsrow);
-
-        for (int i = 0; i < data.fieldsUsed.length; i++) {
-          IValueMeta valueMeta = rowMeta.getValueMeta(data.fieldsUsed[i]);
-          Object valueData = row[data.fieldsUsed[i]];
-
-          Object normalStorageValueData = valueMeta.convertToNormalStorageType(valueData);
-          Scriptable jsarg;
-          if (normalStorageValueData != null) {
-            jsarg = Context.toObject(normalStorageValueData, data.scope);
-          } else {
-            jsarg = null;
-          }
-          data.scope.put(valueMeta.getName(), data.scope, jsarg);
-        }
-
-        // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject(rowMeta, data.scope);
-        data.scope.put("rowMeta", data.scope, jsrowMeta);
+        bindRow(row);
       } catch (Exception e) {
         throw new HopValueException(
             BaseMessages.getString(PKG, "ScriptValuesMod.Log.UnexpectedeError"), e);
@@ -449,7 +462,7 @@ public class ScriptValues extends BaseTransform<ScriptValuesMeta, ScriptValuesDa
         if (data.cx != null) {
           // Checking for EndScript
           if (strEndScript != null && strEndScript.length() > 0) {
-            Script endScript = data.cx.compileString(strEndScript, "pipeline_End", 1, null);
+            Script endScript = CompiledScriptCache.getScript(data.cx, strEndScript, "pipeline_End");
             endScript.exec(data.cx, data.scope);
             if (log.isDetailed()) {
               logDetailed(("End Script found!"));
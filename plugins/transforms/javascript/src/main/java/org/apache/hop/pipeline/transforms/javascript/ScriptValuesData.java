@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.javascript;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.mozilla.javascript.Context;
@@ -31,6 +32,15 @@ public class ScriptValuesData extends BaseTransformData implements ITransformDat
 
   public int[] fieldsUsed;
 
+  /** The metadata of the used fields */
+  public IValueMeta[] usedValueMetas;
+
+  /** For every used field: pass the value to the script without a wrapper object */
+  public boolean[] nativeValues;
+
+  /** The wrapped input row metadata, exposed to the script as "rowMeta" */
+  public Scriptable jsRowMeta;
+
   public IRowMeta outputRowMeta;
   public int[] replaceIndex;
 
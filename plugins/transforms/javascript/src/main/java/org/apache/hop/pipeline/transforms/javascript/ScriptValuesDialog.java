@@ -161,6 +161,8 @@ public class ScriptValuesDialog extends BaseTransformDialog implements ITransfor
   private ScriptValuesHelp scVHelp;
   private TextVar wOptimizationLevel;
 
+  private Button wNativeValues;
+
   private TreeItem iteminput;
 
   private TreeItem itemoutput;
@@ -313,6 +315,19 @@ public class ScriptValuesDialog extends BaseTransformDialog implements ITransfor
     fdlOptimizationLevel.bottom = new FormAttachment(100, -margin);
     wlOptimizationLevel.setLayoutData(fdlOptimizationLevel);
 
+    // Pass strings, numbers and booleans as JavaScript primitives?
+    //
+    wNativeValues = new Button(wTop, SWT.CHECK);
+    wNativeValues.setText(BaseMessages.getString(PKG, "ScriptValuesDialogMod.NativeValues.Label"));
+    wNativeValues.setToolTipText(
+        BaseMessages.getString(PKG, "ScriptValuesDialogMod.NativeValues.Tooltip"));
+    PropsUi.setLook(wNativeValues);
+    FormData fdNativeValues = new FormData();
+    fdNativeValues.right = new FormAttachment(100, 0);
+    fdNativeValues.top = new FormAttachment(wlOptimizationLevel, 0, SWT.CENTER);
+    wNativeValues.setLayoutData(fdNativeValues);
+    wNativeValues.addListener(SWT.Selection, e -> input.setChanged());
+
     wOptimizationLevel = new TextVar(variables, wTop, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
     wOptimizationLevel.setToolTipText(
         BaseMessages.getString(PKG, "ScriptValuesDialogMod.OptimizationLevel.Tooltip"));
@@ -320,7 +335,7 @@ public class ScriptValuesDialog extends BaseTransformDialog implements ITransfor
     FormData fdOptimizationLevel = new FormData();
     fdOptimizationLevel.left = new FormAttachment(wlOptimizationLevel, margin);
     fdOptimizationLevel.top = new FormAttachment(wlOptimizationLevel, 0, SWT.CENTER);
-    fdOptimizationLevel.right = new FormAttachment(100, margin);
+    fdOptimizationLevel.right = new FormAttachment(wNativeValues, -2 * margin);
     wOptimizationLevel.setLayoutData(fdOptimizationLevel);
     wOptimizationLevel.addModifyListener(lsMod);
 
@@ -772,6 +787,7 @@ public class ScriptValuesDialog extends BaseTransformDialog implements ITransfor
     } else {
       wOptimizationLevel.setText(ScriptValuesMeta.OPTIMIZATION_LEVEL_DEFAULT);
     }
+    wNativeValues.setSelection(input.isNativeValues());
 
     for (int i = 0; i < input.getFieldname().length; i++) {
       if (input.getFieldname()[i] != null && input.getFieldname()[i].length() > 0) {
@@ -864,6 +880,7 @@ public class ScriptValuesDialog extends BaseTransformDialog implements ITransfor
 
   private void getInfo(ScriptValuesMeta meta) {
     meta.setOptimizationLevel(wOptimizationLevel.getText());
+    meta.setNativeValues(wNativeValues.getSelection());
     int nrFields = wFields.nrNonEmpty();
     meta.allocate(nrFields);
     // CHECKSTYLE:Indentation:OFF
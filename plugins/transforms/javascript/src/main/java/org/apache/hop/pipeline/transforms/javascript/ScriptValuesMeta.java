@@ -116,6 +116,10 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
   @Injection(name = "OPTIMIZATION_LEVEL")
   private String optimizationLevel;
 
+  /** Pass strings, numbers and booleans to the script as JavaScript primitives */
+  @Injection(name = "NATIVE_VALUES")
+  private boolean nativeValues;
+
   public ScriptValuesMeta() {
     super(); // allocate BaseTransformMeta
     try {
@@ -316,6 +320,7 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
     try {
       String script = XmlHandler.getTagValue(transformNode, "script");
       optimizationLevel = XmlHandler.getTagValue(transformNode, "optimizationLevel");
+      nativeValues = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "nativeValues"));
 
       // When in compatibility mode, we load the script, not the other tabs...
       //
@@ -386,6 +391,7 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
     }
 
     optimizationLevel = OPTIMIZATION_LEVEL_DEFAULT;
+    nativeValues = false;
   }
 
   @Override
@@ -456,6 +462,7 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
     StringBuilder retval = new StringBuilder(300);
 
     retval.append("    ").append(XmlHandler.addTagValue("optimizationLevel", optimizationLevel));
+    retval.append("    ").append(XmlHandler.addTagValue("nativeValues", nativeValues));
 
     retval.append("    <jsScripts>");
     for (int i = 0; i < jsScripts.length; i++) {
@@ -881,4 +888,18 @@ public class ScriptValuesMeta extends BaseTransformMeta<ScriptValues, ScriptValu
   public String getOptimizationLevel() {
     return this.optimizationLevel;
   }
+
+  /**
+   * @return true if strings, numbers and booleans are passed to the script as JavaScript primitives
+   */
+  public boolean isNativeValues() {
+    return nativeValues;
+  }
+
+  /**
+   * @param nativeValues true to pass strings, numbers and booleans as JavaScript primitives
+   */
+  public void setNativeValues(boolean nativeValues) {
+    this.nativeValues = nativeValues;
+  }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.javascript;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CompiledScriptCacheTest {
+  private Context cx;
+
+  @Before
+  public void setUp() {
+    CompiledScriptCache.clear();
+    cx = ContextFactory.getGlobal().enterContext();
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+    CompiledScriptCache.clear();
+  }
+
+  @Test
+  public void testScriptIsCompiledOnce() {
+    cx.setOptimizationLevel(9);
+    Script script = CompiledScriptCache.getScript(cx, "result = a * 2;", "script");
+    assertSame(script, CompiledScriptCache.getScript(cx, "result = a * 2;", "script"));
+    assertEquals(1, CompiledScriptCache.size());
+
+    // A different optimization level gives a different compilation
+    //
+    cx.setOptimizationLevel(-1);
+    assertNotSame(script, CompiledScriptCache.getScript(cx, "result = a * 2;", "script"));
+    assertEquals(2, CompiledScriptCache.size());
+  }
+
+  @Test
+  public void testCompiledScriptIsSharedBetweenScopes() {
+    cx.setOptimizationLevel(9);
+    Script script = CompiledScriptCache.getScript(cx, "result = a * 2;", "script");
+
+    Scriptable scope1 = cx.initStandardObjects();
+    Scriptable scope2 = cx.initStandardObjects();
+    scope1.put("a", scope1, 2);
+    scope2.put("a", scope2, 5);
+    script.exec(cx, scope1);
+    script.exec(cx, scope2);
+
+    assertEquals(4.0, Context.toNumber(scope1.get("result", scope1)), 0.0);
+    assertEquals(10.0, Context.toNumber(scope2.get("result", scope2)), 0.0);
+  }
+}
@@ -49,6 +49,7 @@ public class ScriptValuesMetaInjectionTest extends BaseMetadataInjectionTest<Scr
         } );
     */
     check("OPTIMIZATION_LEVEL", () -> meta.getOptimizationLevel());
+    check("NATIVE_VALUES", () -> meta.isNativeValues());
     check("FIELD_NAME", () -> meta.getFieldname()[0]);
     check("FIELD_RENAME_TO", () -> meta.getRename()[0]);
     check("FIELD_REPLACE", () -> meta.getReplace()[0]);
@@ -62,7 +62,8 @@ public class ScriptValuesMetaTest implements IInitializer<ITransformMeta> {
             "precision",
             "replace",
             "jsScripts",
-            "optimizationLevel");
+            "optimizationLevel",
+            "nativeValues");
 
     Map<String, String> getterMap =
         new HashMap<String, String>() {
@@ -75,6 +76,7 @@ public class ScriptValuesMetaTest implements IInitializer<ITransformMeta> {
             put("replace", "getReplace");
             //        put( "compatible", "isCompatible" );
             put("optimizationLevel", "getOptimizationLevel");
+            put("nativeValues", "isNativeValues");
             put("jsScripts", "getJSScripts");
           }
         };
@@ -89,6 +91,7 @@ public class ScriptValuesMetaTest implements IInitializer<ITransformMeta> {
             put("replace", "setReplace");
             //        put( "compatible", "setCompatible" );
             put("optimizationLevel", "setOptimizationLevel");
+            put("nativeValues", "setNativeValues");
             put("jsScripts", "setJSScripts");
           }
         };
@@ -40,9 +40,10 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.io.Closeable;
 import java.io.InputStream;
 import java.util.BitSet;
 
@@ -256,16 +257,31 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean streaming = data.reader instanceof StreamingJsonReader;
     try {
       data.readerRowSet = data.reader.parse(input);
     } catch (HopException ke) {
+      streaming = false;
       logInputError(ke);
       throw new JsonInputException(ke);
     } catch (Exception e) {
+      streaming = false;
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      // A streaming row set keeps reading from the input and closes it when it's done
+      if (!streaming) {
+        closeQuietly(input);
+      }
+    }
+  }
+
+  private Object[] getReaderRow() throws HopException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      logInputError(e.getCause());
+      throw new JsonInputException(e.getCause());
     }
   }
 
@@ -329,19 +345,13 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       return null;
     }
     Object[] rawReaderRow = null;
-    while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+    while ((rawReaderRow = getReaderRow()) == null) {
       if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-        try (InputStream nextIn = data.inputs.next()) {
-
-          if (nextIn != null) {
-            parseNextInputToRowSet(nextIn);
-          } else {
-            parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
-          }
-
-        } catch (IOException e) {
-          logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-          incrementErrors();
+        InputStream nextIn = data.inputs.next();
+        if (nextIn != null) {
+          parseNextInputToRowSet(nextIn);
+        } else {
+          parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
         }
       } else {
         if (isDetailed()) {
@@ -455,12 +465,29 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    // The streaming reader always returns null for a missing leaf, like "Default path leaf to null"
+    //
+    if (meta.isStreaming()
+        && meta.isDefaultPathLeafToNull()
+        && StreamingJsonReader.isSupported(inputFields)) {
+      data.reader = new StreamingJsonReader(inputFields, log);
+    } else {
+      if (meta.isStreaming() && !meta.isDefaultPathLeafToNull()) {
+        logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingNeedsDefaultPathLeafToNull"));
+      } else if (meta.isStreaming()) {
+        logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingNotSupported"));
+      }
+      data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
   @Override
   public void dispose() {
+    if (data.readerRowSet instanceof Closeable) {
+      // Stop a streaming read which didn't reach the end of the input
+      closeQuietly((Closeable) data.readerRowSet);
+    }
     if (data.file != null) {
       closeQuietly(data.file);
     }
@@ -138,6 +138,8 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
 
   private Button wDefaultPathLeafToNull;
 
+  private Button wStreaming;
+
   private Button wDoNotFailIfNoFile;
 
   private TextVar wShortFileFieldName;
@@ -627,12 +629,37 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wDefaultPathLeafToNull.setLayoutData(fdDefaultPathLeafToNull);
     // default path leaf to null - end
 
+    // streaming
+    //
+    Label wlStreaming = new Label(wConf, SWT.RIGHT);
+    wlStreaming.setText(BaseMessages.getString(PKG, "JsonInputDialog.Streaming.Label"));
+    PropsUi.setLook(wlStreaming);
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment(0, 0);
+    fdlStreaming.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlStreaming.right = new FormAttachment(middle, -margin);
+    wlStreaming.setLayoutData(fdlStreaming);
+    wStreaming = new Button(wConf, SWT.CHECK);
+    PropsUi.setLook(wStreaming);
+    wStreaming.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+    wStreaming.setToolTipText(BaseMessages.getString(PKG, "JsonInputDialog.Streaming.Tooltip"));
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment(middle, 0);
+    fdStreaming.top = new FormAttachment(wlStreaming, 0, SWT.CENTER);
+    wStreaming.setLayoutData(fdStreaming);
+
     wlLimit = new Label(wConf, SWT.RIGHT);
     wlLimit.setText(BaseMessages.getString(PKG, "JsonInputDialog.Limit.Label"));
     PropsUi.setLook(wlLimit);
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment(0, 0);
-    fdlLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlLimit.top = new FormAttachment(wlStreaming, margin);
     fdlLimit.right = new FormAttachment(middle, -margin);
     wlLimit.setLayoutData(fdlLimit);
     wLimit = new Text(wConf, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
@@ -640,7 +667,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wLimit.addModifyListener(lsMod);
     FormData fdLimit = new FormData();
     fdLimit.left = new FormAttachment(middle, 0);
-    fdLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdLimit.top = new FormAttachment(wlStreaming, margin);
     fdLimit.right = new FormAttachment(100, 0);
     wLimit.setLayoutData(fdLimit);
 
@@ -1265,6 +1292,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     wDoNotFailIfNoFile.setSelection(in.isDoNotFailIfNoFile());
     wIgnoreMissingPath.setSelection(in.isIgnoreMissingPath());
     wDefaultPathLeafToNull.setSelection(in.isDefaultPathLeafToNull());
+    wStreaming.setSelection(in.isStreaming());
     wRemoveSourceField.setSelection(in.isRemoveSourceField());
     wSourceStreamField.setSelection(in.isInFields());
     wSourceIsAFile.setSelection(in.getIsAFile());
@@ -1408,6 +1436,7 @@ public class JsonInputDialog extends BaseTransformDialog implements ITransformDi
     in.setDoNotFailIfNoFile(wDoNotFailIfNoFile.getSelection());
     in.setIgnoreMissingPath(wIgnoreMissingPath.getSelection());
     in.setDefaultPathLeafToNull(wDefaultPathLeafToNull.getSelection());
+    in.setStreaming(wStreaming.getSelection());
     in.setRemoveSourceField(wRemoveSourceField.getSelection());
     in.setInFields(wSourceStreamField.getSelection());
     in.setIsAFile(wSourceIsAFile.getSelection());
@@ -252,6 +252,10 @@ public class JsonInputMeta
 
   private boolean defaultPathLeafToNull;
 
+  /** Flag : parse the documents with a streaming parser instead of reading them in memory */
+  @Injection(name = "STREAMING")
+  private boolean streaming;
+
   public JsonInputMeta() {
     additionalOutputFields = new AdditionalFileOutputFields();
     inputFiles = new InputFiles();
@@ -276,6 +280,24 @@ public class JsonInputMeta
     this.defaultPathLeafToNull = defaultPathLeafToNull;
   }
 
+  /**
+   * Returns the streaming flag.
+   *
+   * @return streaming
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * Set the streaming flag
+   *
+   * @param streaming the streaming flag to set.
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   /**
    * @return Returns the shortFileFieldName.
    */
@@ -615,6 +637,7 @@ public class JsonInputMeta
     retval.append("    " + XmlHandler.addTagValue("doNotFailIfNoFile", doNotFailIfNoFile));
     retval.append("    " + XmlHandler.addTagValue("ignoreMissingPath", ignoreMissingPath));
     retval.append("    " + XmlHandler.addTagValue("defaultPathLeafToNull", defaultPathLeafToNull));
+    retval.append("    ").append(XmlHandler.addTagValue("streaming", streaming));
     retval.append("    ").append(XmlHandler.addTagValue("rownum_field", rowNumberField));
 
     retval.append("    <file>").append(Const.CR);
@@ -686,6 +709,7 @@ public class JsonInputMeta
       ignoreMissingPath =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ignoreMissingPath"));
       defaultPathLeafToNull = getDefaultPathLeafToNull(transformNode);
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
       doNotFailIfNoFile =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "doNotFailIfNoFile"));
       includeRowNumber = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "rownum"));
@@ -773,6 +797,7 @@ public class JsonInputMeta
     isIgnoreEmptyFile = false;
     ignoreMissingPath = true;
     defaultPathLeafToNull = true;
+    streaming = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
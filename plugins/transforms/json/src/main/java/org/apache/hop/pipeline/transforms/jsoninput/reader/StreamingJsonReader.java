@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.minidev.json.JSONArray;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads JSON documents with a streaming parser instead of loading them in memory. Only paths which
+ * share a single repeated part, like <code>$.data[*].name</code> and <code>$.data[*].address.city
+ * </code>, are supported: every element of the repeated array becomes a row as soon as it is
+ * parsed. Use {@link #compile(JsonInputField[])} to find out if the fields can be read this way.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class; // For Translator
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /** Thrown while reading the rows of a document, the cause is the actual error */
+  public static class StreamingReadException extends RuntimeException {
+    public StreamingReadException(HopException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized HopException getCause() {
+      return (HopException) super.getCause();
+    }
+  }
+
+  /** The steps of the paths: a String is an object key, an Integer an array index */
+  private static final class CompiledPaths {
+    private final List<Object> repeatedPath;
+    private final PathNode relativePaths;
+
+    private CompiledPaths(List<Object> repeatedPath, PathNode relativePaths) {
+      this.repeatedPath = repeatedPath;
+      this.relativePaths = relativePaths;
+    }
+  }
+
+  /** A step in the relative paths of the fields */
+  private static final class PathNode {
+    private final List<Integer> fieldIndexes = new ArrayList<>();
+    private final Map<Object, PathNode> children = new HashMap<>();
+  }
+
+  private static final Object WILDCARD = new Object();
+
+  private final ILogChannel log;
+  private JsonInputField[] fields;
+  private CompiledPaths paths;
+  private boolean ignoreMissingPath;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.log = log;
+    setFields(fields);
+  }
+
+  /**
+   * See if the paths of the given fields can be evaluated while streaming
+   *
+   * @param fields The fields with their (resolved) paths
+   * @return true if the fields can be read with this reader
+   */
+  public static boolean isSupported(JsonInputField[] fields) {
+    return compile(fields) != null;
+  }
+
+  private static CompiledPaths compile(JsonInputField[] fields) {
+    if (fields == null || fields.length == 0) {
+      return null;
+    }
+    List<Object> repeatedPath = null;
+    PathNode root = new PathNode();
+    for (int i = 0; i < fields.length; i++) {
+      List<Object> steps = parsePath(fields[i].getPath());
+      if (steps == null) {
+        return null;
+      }
+      int wildcard = steps.indexOf(WILDCARD);
+      if (wildcard < 0 || steps.lastIndexOf(WILDCARD) != wildcard) {
+        return null;
+      }
+      List<Object> prefix = steps.subList(0, wildcard);
+      if (repeatedPath == null) {
+        repeatedPath = new ArrayList<>(prefix);
+      } else if (!repeatedPath.equals(prefix)) {
+        return null;
+      }
+      PathNode node = root;
+      for (Object step : steps.subList(wildcard + 1, steps.size())) {
+        node = node.children.computeIfAbsent(step, s -> new PathNode());
+      }
+      node.fieldIndexes.add(i);
+    }
+    return new CompiledPaths(repeatedPath, root);
+  }
+
+  /**
+   * Split a simple JSONPath expression in its steps. Deep scans, filters, slices and unions are not
+   * supported.
+   *
+   * @return The steps or null if the path is not supported
+   */
+  static List<Object> parsePath(String path) {
+    if (path == null || !path.startsWith("$")) {
+      return null;
+    }
+    List<Object> steps = new ArrayList<>();
+    int pos = 1;
+    while (pos < path.length()) {
+      char c = path.charAt(pos);
+      if (c == '.') {
+        int end = pos + 1;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          end++;
+        }
+        String name = path.substring(pos + 1, end);
+        if (name.isEmpty()) {
+          return null; // deep scan
+        }
+        steps.add("*".equals(name) ? WILDCARD : name);
+        pos = end;
+      } else if (c == '[') {
+        int end = path.indexOf(']', pos);
+        if (end < 0) {
+          return null;
+        }
+        String content = path.substring(pos + 1, end).trim();
+        if ("*".equals(content)) {
+          steps.add(WILDCARD);
+        } else if (content.length() >= 2
+            && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+            && content.charAt(content.length() - 1) == content.charAt(0)) {
+          String name = content.substring(1, content.length() - 1);
+          if (name.indexOf('\'') >= 0 || name.indexOf('"') >= 0) {
+            return null; // unions
+          }
+          steps.add(name);
+        } else if (!content.isEmpty() && content.chars().allMatch(ch -> ch >= '0' && ch <= '9')) {
+          steps.add(Integer.valueOf(content));
+        } else {
+          return null;
+        }
+        pos = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return steps;
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    CompiledPaths compiled = compile(fields);
+    if (compiled == null) {
+      throw new HopException(BaseMessages.getString(PKG, "JsonReader.Error.StreamingNotSupported"));
+    }
+    this.fields = fields;
+    this.paths = compiled;
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  @Override
+  public IRowSet parse(InputStream in) throws HopException {
+    try {
+      JsonParser parser = JSON_FACTORY.createParser(in);
+      return new StreamingRowSet(parser, moveToRepeatedPath(parser));
+    } catch (IOException e) {
+      throw new JsonInputException(e);
+    }
+  }
+
+  /**
+   * Skip everything until the container with the repeated elements.
+   *
+   * @return true if the container was found
+   */
+  private boolean moveToRepeatedPath(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    for (Object step : paths.repeatedPath) {
+      boolean found = false;
+      if (step instanceof String && token == JsonToken.START_OBJECT) {
+        while (!found && parser.nextToken() == JsonToken.FIELD_NAME) {
+          found = step.equals(parser.getCurrentName());
+          token = parser.nextToken();
+          if (!found) {
+            parser.skipChildren();
+          }
+        }
+      } else if (step instanceof Integer && token == JsonToken.START_ARRAY) {
+        int index = 0;
+        while (!found && (token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+          found = index++ == (Integer) step;
+          if (!found) {
+            parser.skipChildren();
+          }
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT;
+  }
+
+  /** Put the values of the fields below the current token in the row. */
+  private static void extract(JsonParser parser, PathNode node, Object[] row) throws IOException {
+    if (!node.fieldIndexes.isEmpty()) {
+      Object value = readValue(parser);
+      for (int index : node.fieldIndexes) {
+        row[index] = value;
+      }
+      for (Map.Entry<Object, PathNode> child : node.children.entrySet()) {
+        extract(getChildValue(value, child.getKey()), child.getValue(), row);
+      }
+      return;
+    }
+
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        PathNode child = node.children.get(parser.getCurrentName());
+        parser.nextToken();
+        if (child != null) {
+          extract(parser, child, row);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY) {
+      int index = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        PathNode child = node.children.get(index++);
+        if (child != null) {
+          extract(parser, child, row);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  /** The same, for a value which was already read completely */
+  private static void extract(Object value, PathNode node, Object[] row) {
+    for (int index : node.fieldIndexes) {
+      row[index] = value;
+    }
+    for (Map.Entry<Object, PathNode> child : node.children.entrySet()) {
+      extract(getChildValue(value, child.getKey()), child.getValue(), row);
+    }
+  }
+
+  private static Object getChildValue(Object value, Object step) {
+    if (step instanceof String && value instanceof Map) {
+      return ((Map<?, ?>) value).get(step);
+    }
+    if (step instanceof Integer && value instanceof List) {
+      List<?> list = (List<?>) value;
+      int index = (Integer) step;
+      return index < list.size() ? list.get(index) : null;
+    }
+    return null;
+  }
+
+  /**
+   * Read the value at the current token, the same types as the JsonPath reader returns: maps for
+   * objects and JSON arrays for arrays.
+   */
+  private static Object readValue(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case START_OBJECT:
+        Map<String, Object> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          map.put(name, readValue(parser));
+        }
+        return map;
+      case START_ARRAY:
+        JSONArray array = new JSONArray();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          array.add(readValue(parser));
+        }
+        return array;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        // Keep the precision of long decimals
+        return parser.getTextLength() > 18 ? parser.getDecimalValue() : parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      default:
+        return null;
+    }
+  }
+
+  /** Returns a row for every element of the repeated array while it is being parsed */
+  private class StreamingRowSet extends SingleRowRowSet implements Closeable {
+    private final JsonParser parser;
+    private final boolean found;
+    private final boolean repeatedObject;
+    private final boolean[] foundFields;
+
+    private boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+    private boolean finished;
+    private long nrRecords;
+    private Object[] firstNullRow;
+
+    StreamingRowSet(JsonParser parser, boolean found) {
+      this.parser = parser;
+      this.found = found;
+      this.repeatedObject = found && parser.currentToken() == JsonToken.START_OBJECT;
+      this.foundFields = new boolean[fields.length];
+    }
+
+    @Override
+    public Object[] getRow() {
+      try {
+        while (!finished) {
+          Object[] row = readNextRecord();
+          if (row == null) {
+            return finish();
+          }
+          if (!isAllNull(row)) {
+            firstNullRow = null;
+            return row;
+          }
+          // Like the JsonPath reader: rows with only nulls are skipped unless there's only one
+          //
+          if (nrRecords == 1) {
+            firstNullRow = row;
+          } else {
+            firstNullRow = null;
+          }
+        }
+        return null;
+      } catch (IOException e) {
+        close();
+        throw new StreamingReadException(new JsonInputException(e));
+      } catch (JsonInputException e) {
+        close();
+        throw new StreamingReadException(e);
+      }
+    }
+
+    private Object[] readNextRecord() throws IOException {
+      if (!found) {
+        return null;
+      }
+      JsonToken token = parser.nextToken();
+      if (repeatedObject && token == JsonToken.FIELD_NAME) {
+        token = parser.nextToken();
+      }
+      if (token == null || token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+        return null;
+      }
+      nrRecords++;
+      Object[] row = new Object[fields.length];
+      extract(parser, paths.relativePaths, row);
+      for (int i = 0; i < row.length; i++) {
+        foundFields[i] |= row[i] != null;
+      }
+      return row;
+    }
+
+    private boolean isAllNull(Object[] row) {
+      if (includeNulls) {
+        return false;
+      }
+      for (Object value : row) {
+        if (value != null) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Object[] finish() throws JsonInputException {
+      close();
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", nrRecords));
+      }
+      if (!ignoreMissingPath) {
+        for (int i = 0; i < foundFields.length; i++) {
+          if (!foundFields[i]) {
+            throw new JsonInputException(
+                BaseMessages.getString(
+                    PKG, "JsonReader.Error.CanNotFindPath", fields[i].getPath()));
+          }
+        }
+      }
+      // An empty result gives a single row with nulls
+      //
+      if (nrRecords == 0) {
+        return new Object[fields.length];
+      }
+      return firstNullRow;
+    }
+
+    @Override
+    public int size() {
+      return finished ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      close();
+    }
+
+    @Override
+    public void close() {
+      finished = true;
+      try {
+        parser.close();
+      } catch (IOException e) {
+        // Ignore: we're done reading
+      }
+    }
+  }
+}
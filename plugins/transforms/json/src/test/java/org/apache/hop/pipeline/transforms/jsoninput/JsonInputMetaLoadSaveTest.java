@@ -52,6 +52,7 @@ public class JsonInputMetaLoadSaveTest implements IInitializer<ITransformMeta> {
             "doNotFailIfNoFile",
             "ignoreMissingPath",
             "defaultPathLeafToNull",
+            "streaming",
             "rowNumberField",
             "FileName",
             "FileMask",
@@ -46,6 +46,7 @@ import org.apache.hop.i18n.LanguageChoice;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformErrorMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.After;
 import org.junit.Assert;
@@ -629,6 +630,138 @@ public class JsonInputTest {
     Assert.assertEquals(1, transform.getLinesWritten());
   }
 
+  @Test
+  public void testStreaming() throws Exception {
+    final String input =
+        "{ \"header\": { \"skip\": [1, 2] },\n"
+            + "  \"data\": [\n"
+            + "    { \"name\": \"a\", \"address\": { \"city\": \"Ghent\" }, \"score\": 1.5 },\n"
+            + "    { \"name\": \"b\" },\n"
+            + "    { \"score\": 3, \"name\": \"c\", \"address\": { \"city\": \"Paris\" } }\n"
+            + "  ] }";
+    final String inCol = "input";
+
+    JsonInputField nameField = new JsonInputField("name");
+    nameField.setPath("$.data[*].name");
+    nameField.setType(IValueMeta.TYPE_STRING);
+    JsonInputField cityField = new JsonInputField("city");
+    cityField.setPath("$.data[*].address.city");
+    cityField.setType(IValueMeta.TYPE_STRING);
+    JsonInputField scoreField = new JsonInputField("score");
+    scoreField.setPath("$.data[*]['score']");
+    scoreField.setType(IValueMeta.TYPE_NUMBER);
+
+    JsonInputMeta meta = createSimpleMeta(inCol, nameField, cityField, scoreField);
+    meta.setStreaming(true);
+    JsonInput transform = createJsonInput(inCol, meta, new Object[] {input});
+    assertTrue(transform.getData().reader instanceof StreamingJsonReader);
+
+    transform.addRowListener(
+        new RowComparatorListener(
+            new Object[] {input, "a", "Ghent", 1.5},
+            new Object[] {input, "b", null, null},
+            new Object[] {input, "c", "Paris", 3.0}));
+    processRows(transform, 4);
+    Assert.assertEquals(3, transform.getLinesWritten());
+    Assert.assertEquals(0, transform.getErrors());
+  }
+
+  @Test
+  public void testStreamingMissingPath() throws Exception {
+    final String input = "{ \"data\": [ { \"a\": 1 }, { \"a\": 2 } ] }";
+    final String inCol = "input";
+
+    // Not $[*].a: the transform resolves $[...] as hex characters
+    //
+    JsonInputField aField = new JsonInputField("a");
+    aField.setPath("$.data[*].a");
+    aField.setType(IValueMeta.TYPE_INTEGER);
+    JsonInputField bField = new JsonInputField("b");
+    bField.setPath("$.data[*].b");
+    bField.setType(IValueMeta.TYPE_INTEGER);
+
+    JsonInputMeta meta = createSimpleMeta(inCol, aField, bField);
+    meta.setStreaming(true);
+    meta.setIgnoreMissingPath(false);
+    JsonInput transform = createJsonInput(inCol, meta, new Object[] {input});
+    assertTrue(transform.getData().reader instanceof StreamingJsonReader);
+    processRows(transform, 3);
+    // The missing path is only detected at the end of the document
+    Assert.assertEquals(2, transform.getLinesWritten());
+    Assert.assertEquals(1, transform.getErrors());
+  }
+
+  @Test
+  public void testStreamingMissingLeaf() throws Exception {
+    final String input = "{ \"data\": [ { \"a\": 1, \"b\": 2 }, { \"a\": 3 }, { \"b\": 6 } ] }";
+
+    // Missing leaves are null with both readers
+    //
+    List<String> expected = Arrays.asList("[1, 2]", "[3, null]", "[null, 6]");
+    assertEquals(expected, readMissingLeaf(input, false, true));
+    assertEquals(expected, readMissingLeaf(input, true, true));
+
+    // Without "Default path leaf to null" the values of the paths aren't aligned: the documents
+    // are read in memory, the same way as without streaming.
+    //
+    expected = Arrays.asList("[1, 2]", "[3, 6]");
+    assertEquals(expected, readMissingLeaf(input, false, false));
+    assertEquals(expected, readMissingLeaf(input, true, false));
+  }
+
+  private List<String> readMissingLeaf(
+      String input, boolean streaming, boolean defaultPathLeafToNull) throws Exception {
+    final String inCol = "input";
+    JsonInputField aField = new JsonInputField("a");
+    aField.setPath("$.data[*].a");
+    aField.setType(IValueMeta.TYPE_INTEGER);
+    JsonInputField bField = new JsonInputField("b");
+    bField.setPath("$.data[*].b");
+    bField.setType(IValueMeta.TYPE_INTEGER);
+
+    JsonInputMeta meta = createSimpleMeta(inCol, aField, bField);
+    meta.setStreaming(streaming);
+    meta.setDefaultPathLeafToNull(defaultPathLeafToNull);
+    meta.setRemoveSourceField(true);
+    JsonInput transform = createJsonInput(inCol, meta, new Object[] {input});
+    assertEquals(
+        streaming && defaultPathLeafToNull,
+        transform.getData().reader instanceof StreamingJsonReader);
+
+    List<String> rows = new ArrayList<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            rows.add(Arrays.toString(Arrays.copyOf(row, rowMeta.size())));
+          }
+        });
+    processRows(transform, 5);
+    Assert.assertEquals(0, transform.getErrors());
+    return rows;
+  }
+
+  @Test
+  public void testStreamingSupportedPaths() {
+    assertTrue(StreamingJsonReader.isSupported(fields("$.a.b[*].c", "$['a'].b[*]['d'][0]")));
+    assertTrue(StreamingJsonReader.isSupported(fields("$[*]", "$[*].x")));
+    // No repeated part, more than one, different ones, deep scans and filters
+    Assert.assertFalse(StreamingJsonReader.isSupported(fields("$.a.b")));
+    Assert.assertFalse(StreamingJsonReader.isSupported(fields("$.a[*].b[*]")));
+    Assert.assertFalse(StreamingJsonReader.isSupported(fields("$.a[*].b", "$.c[*].d")));
+    Assert.assertFalse(StreamingJsonReader.isSupported(fields("$..a[*].b")));
+    Assert.assertFalse(StreamingJsonReader.isSupported(fields("$.a[?(@.b)].c")));
+  }
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
   /** Huge numbers causing exception in JSON input transform<br> */
   @Test
   public void testLargeDoubles() throws Exception {
@@ -38,6 +38,7 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -50,6 +51,9 @@ import java.util.TreeSet;
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class; // For Translator
 
+  /** The number of partitions the groups which don't fit in memory are spread over */
+  static final int NR_SPILL_PARTITIONS = 16;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -183,29 +187,20 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   }
 
   private void handleLastOfGroup() throws HopException {
+    boolean noGroups = data.map.isEmpty() && !data.hasSpilledRows();
+
     // Dump the content of the map...
     //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
+    writeGroups();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
-      }
-      putRow(data.outputRowMeta, outputRowData);
-    }
+    // Then aggregate the groups which didn't fit in memory, one partition at a time
+    //
+    aggregateSpilledPartitions();
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (noGroups && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -224,6 +219,293 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private void writeGroups() throws HopException {
+    for (HashEntry entry : data.map.keySet()) {
+      Aggregate aggregate = data.map.get(entry);
+      Object[] aggregateResult = getAggregateResult(aggregate);
+
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] =
+            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        outputRowData[index++] =
+            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+  }
+
+  /**
+   * Aggregate the rows which were written to disk because their groups didn't fit in memory. Every
+   * partition is aggregated on its own. If the groups of a partition don't fit in memory either,
+   * its rows are spread over new partitions using different hash bits. When that doesn't make the
+   * partition any smaller, the groups share their hash code and the rows are sorted instead.
+   */
+  private void aggregateSpilledPartitions() throws HopException {
+    queueSpillPartitions(null);
+
+    while (data.pendingPartitions != null && !data.pendingPartitions.isEmpty() && !isStopped()) {
+      SpillPartition partition = data.pendingPartitions.pop();
+      data.map.clear();
+      data.spillLevel = partition.getLevel() + 1;
+
+      if (partition.isSortNeeded()) {
+        if (log.isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG,
+                  "MemoryGroupBy.Log.SortingSpilledRows",
+                  partition.getNrRows(),
+                  partition.getLevel()));
+        }
+        aggregateSorted(partition);
+        continue;
+      }
+
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "MemoryGroupBy.Log.AggregatingSpilledRows",
+                partition.getNrRows(),
+                partition.getLevel()));
+      }
+      try {
+        Object[] row = partition.readRow(data.inputRowMeta);
+        while (row != null && !isStopped()) {
+          addToAggregate(row);
+          row = partition.readRow(data.inputRowMeta);
+        }
+      } finally {
+        partition.delete();
+      }
+      queueSpillPartitions(partition);
+
+      writeGroups();
+    }
+    data.spillLevel = 0;
+  }
+
+  /**
+   * Close the partitions we've been writing to and put them in line for aggregation.
+   *
+   * @param parent The partition which was split or null for the input rows
+   * @throws HopException In case a partition can't be closed
+   */
+  private void queueSpillPartitions(SpillPartition parent) throws HopException {
+    if (data.spillPartitions == null) {
+      return;
+    }
+    if (data.pendingPartitions == null) {
+      data.pendingPartitions = new ArrayDeque<>();
+    }
+    for (SpillPartition partition : data.spillPartitions) {
+      if (partition != null) {
+        partition.closeOutput();
+        // A proper split leaves about 1/16th of the rows in every partition
+        //
+        if (parent != null && partition.getNrRows() > parent.getNrRows() / 2) {
+          partition.setSortNeeded(true);
+        }
+        data.pendingPartitions.push(partition);
+      }
+    }
+    data.spillPartitions = null;
+  }
+
+  /**
+   * Write a row of a group which doesn't fit in memory to the spill partition of the group.
+   *
+   * @param entry The group of the row
+   * @param r The input row
+   * @throws HopException In case the row can't be written
+   */
+  private void spillRow(HashEntry entry, Object[] r) throws HopException {
+    if (data.spillPartitions == null) {
+      if (log.isBasic()) {
+        logBasic(
+            BaseMessages.getString(
+                PKG, "MemoryGroupBy.Log.SpillingToDisk", data.maxGroupsInMemory, data.spillLevel));
+      }
+      data.spillPartitions = new SpillPartition[NR_SPILL_PARTITIONS];
+    }
+    int partitionNr = getSpillPartitionNr(entry.hashCode(), data.spillLevel);
+    SpillPartition partition = data.spillPartitions[partitionNr];
+    if (partition == null) {
+      partition = new SpillPartition(data.spillDirectory, data.spillFilePrefix, data.spillLevel);
+      data.spillPartitions[partitionNr] = partition;
+    }
+    partition.writeRow(data.inputRowMeta, r);
+  }
+
+  /**
+   * Aggregate the rows of a partition one group at a time after sorting them on the group fields.
+   *
+   * @param partition The partition to aggregate, removed afterwards
+   * @throws HopException In case the temporary files can't be read or written
+   */
+  private void aggregateSorted(SpillPartition partition) throws HopException {
+    SpillPartition sorted = sortPartition(partition);
+    try {
+      Object[] previous = null;
+      Object[] row = sorted.readRow(data.inputRowMeta);
+      while (row != null && !isStopped()) {
+        if (previous != null && compareGroups(previous, row) != 0) {
+          writeGroups();
+          data.map.clear();
+        }
+        addToAggregate(row);
+        previous = row;
+        row = sorted.readRow(data.inputRowMeta);
+      }
+      writeGroups();
+      data.map.clear();
+    } finally {
+      sorted.delete();
+    }
+  }
+
+  /**
+   * Sort the rows of a partition on the group fields. Runs of at most the maximum number of groups
+   * in memory are sorted and merged, keeping the order of the rows within a group.
+   *
+   * @param partition The partition to sort, removed afterwards
+   * @return A new partition with the sorted rows
+   * @throws HopException In case the temporary files can't be read or written
+   */
+  private SpillPartition sortPartition(SpillPartition partition) throws HopException {
+    List<SpillPartition> runs = new ArrayList<>();
+    List<SpillPartition> mergedRuns = new ArrayList<>();
+    try {
+      List<Object[]> rows = new ArrayList<>();
+      Object[] row = partition.readRow(data.inputRowMeta);
+      while (row != null && !isStopped()) {
+        rows.add(row);
+        if (rows.size() >= data.maxGroupsInMemory) {
+          runs.add(writeSortedRun(rows, partition.getLevel()));
+          rows.clear();
+        }
+        row = partition.readRow(data.inputRowMeta);
+      }
+      if (!rows.isEmpty() || runs.isEmpty()) {
+        runs.add(writeSortedRun(rows, partition.getLevel()));
+      }
+      partition.delete();
+
+      // Merge neighbouring runs so that the earlier rows of a group stay in front
+      //
+      while (runs.size() > 1 && !isStopped()) {
+        for (int i = 0; i < runs.size(); i += NR_SPILL_PARTITIONS) {
+          mergedRuns.add(
+              mergeRuns(runs.subList(i, Math.min(runs.size(), i + NR_SPILL_PARTITIONS))));
+        }
+        runs.clear();
+        runs.addAll(mergedRuns);
+        mergedRuns.clear();
+      }
+      SpillPartition sorted = runs.remove(0);
+      runs.forEach(SpillPartition::delete);
+      return sorted;
+    } catch (HopException | RuntimeException e) {
+      partition.delete();
+      runs.forEach(SpillPartition::delete);
+      mergedRuns.forEach(SpillPartition::delete);
+      throw e;
+    }
+  }
+
+  private SpillPartition writeSortedRun(List<Object[]> rows, int level) throws HopException {
+    try {
+      rows.sort(
+          (row1, row2) -> {
+            try {
+              return compareGroups(row1, row2);
+            } catch (HopValueException e) {
+              throw new RuntimeException(e);
+            }
+          });
+    } catch (RuntimeException e) {
+      if (e.getCause() instanceof HopValueException) {
+        throw (HopValueException) e.getCause();
+      }
+      throw e;
+    }
+    SpillPartition run = new SpillPartition(data.spillDirectory, data.spillFilePrefix, level);
+    try {
+      for (Object[] row : rows) {
+        run.writeRow(data.inputRowMeta, row);
+      }
+      run.closeOutput();
+    } catch (HopException e) {
+      run.delete();
+      throw e;
+    }
+    return run;
+  }
+
+  /**
+   * Merge sorted runs into a single one. Of equal groups, the row of the first run goes first.
+   *
+   * @param runs The sorted runs, removed afterwards
+   * @return The merged run
+   * @throws HopException In case the temporary files can't be read or written
+   */
+  private SpillPartition mergeRuns(List<SpillPartition> runs) throws HopException {
+    SpillPartition merged = new SpillPartition(data.spillDirectory, data.spillFilePrefix, 0);
+    try {
+      Object[][] heads = new Object[runs.size()][];
+      for (int i = 0; i < heads.length; i++) {
+        heads[i] = runs.get(i).readRow(data.inputRowMeta);
+      }
+      while (true) {
+        int smallest = -1;
+        for (int i = 0; i < heads.length; i++) {
+          if (heads[i] != null
+              && (smallest < 0 || compareGroups(heads[i], heads[smallest]) < 0)) {
+            smallest = i;
+          }
+        }
+        if (smallest < 0) {
+          break;
+        }
+        merged.writeRow(data.inputRowMeta, heads[smallest]);
+        heads[smallest] = runs.get(smallest).readRow(data.inputRowMeta);
+      }
+      merged.closeOutput();
+      return merged;
+    } catch (HopException | RuntimeException e) {
+      merged.delete();
+      throw e;
+    } finally {
+      runs.forEach(SpillPartition::delete);
+    }
+  }
+
+  private int compareGroups(Object[] row1, Object[] row2) throws HopValueException {
+    return data.inputRowMeta.compare(row1, row2, data.groupnrs);
+  }
+
+  /**
+   * Calculate the partition of a group. Every spill level mixes the hash code differently so that
+   * the groups of a partition are spread over the partitions of the next level.
+   *
+   * @param hashCode The hash code of the group
+   * @param level The spill level
+   * @return The partition number
+   */
+  static int getSpillPartitionNr(int hashCode, int level) {
+    int h = hashCode + level * 0x9E3779B9;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h & (NR_SPILL_PARTITIONS - 1);
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -241,6 +523,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     Aggregate aggregate = data.map.get(entry);
     if (aggregate == null) {
+      if (data.maxGroupsInMemory > 0 && data.map.size() >= data.maxGroupsInMemory) {
+        // No room for another group: aggregate the rows of this group later on
+        //
+        spillRow(entry, r);
+        return;
+      }
+
       // Create a new value...
       //
       aggregate = new Aggregate();
@@ -575,6 +864,11 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     if (super.init()) {
       data.map = new HashMap<>(5000);
+      data.maxGroupsInMemory = Const.toInt(resolve(meta.getMaxGroupsInMemory()), 0);
+      data.spillDirectory =
+          Const.NVL(resolve(meta.getSpillDirectory()), System.getProperty("java.io.tmpdir"));
+      data.spillFilePrefix = Const.NVL(resolve(meta.getSpillFilePrefix()), "grp");
+      data.pendingPartitions = new ArrayDeque<>();
       return true;
     }
     return false;
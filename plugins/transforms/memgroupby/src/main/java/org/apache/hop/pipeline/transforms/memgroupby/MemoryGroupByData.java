@@ -23,6 +23,7 @@ import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import java.util.Deque;
 import java.util.HashMap;
 
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
@@ -89,6 +90,21 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** The maximum number of groups to keep in memory, 0 or less means no limit */
+  public int maxGroupsInMemory;
+
+  public String spillDirectory;
+  public String spillFilePrefix;
+
+  /** How many times the rows being aggregated right now were spilled to disk */
+  public int spillLevel;
+
+  /** The partitions receiving the rows of the groups which don't fit in memory */
+  public SpillPartition[] spillPartitions;
+
+  /** The partitions waiting to be aggregated */
+  public Deque<SpillPartition> pendingPartitions;
+
   public MemoryGroupByData() {
     super();
   }
@@ -97,8 +113,30 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
     return new HashEntry(groupData);
   }
 
+  /** @return true if rows of groups which didn't fit in memory were written to disk */
+  public boolean hasSpilledRows() {
+    return spillPartitions != null || (pendingPartitions != null && !pendingPartitions.isEmpty());
+  }
+
   /** Method responsible for clearing out memory hogs */
   public void clear() {
     map = new HashMap<>();
+
+    // Remove any temporary files left behind
+    //
+    if (spillPartitions != null) {
+      for (SpillPartition partition : spillPartitions) {
+        if (partition != null) {
+          partition.delete();
+        }
+      }
+      spillPartitions = null;
+    }
+    if (pendingPartitions != null) {
+      for (SpillPartition partition : pendingPartitions) {
+        partition.delete();
+      }
+      pendingPartitions.clear();
+    }
   }
 }
@@ -32,6 +32,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -62,6 +63,12 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
 
   private Button wAlwaysAddResult;
 
+  private TextVar wMaxGroups;
+
+  private TextVar wSpillDirectory;
+
+  private TextVar wSpillPrefix;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -147,12 +154,79 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // The maximum number of groups to keep in memory
+    //
+    Label wlMaxGroups = new Label(shell, SWT.RIGHT);
+    wlMaxGroups.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroups.Label"));
+    wlMaxGroups.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroups.ToolTip"));
+    PropsUi.setLook(wlMaxGroups);
+    FormData fdlMaxGroups = new FormData();
+    fdlMaxGroups.left = new FormAttachment(0, 0);
+    fdlMaxGroups.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdlMaxGroups.right = new FormAttachment(middle, -margin);
+    wlMaxGroups.setLayoutData(fdlMaxGroups);
+    wMaxGroups = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMaxGroups.setToolTipText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MaxGroups.ToolTip"));
+    PropsUi.setLook(wMaxGroups);
+    wMaxGroups.addModifyListener(lsMod);
+    FormData fdMaxGroups = new FormData();
+    fdMaxGroups.left = new FormAttachment(middle, 0);
+    fdMaxGroups.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdMaxGroups.right = new FormAttachment(100, 0);
+    wMaxGroups.setLayoutData(fdMaxGroups);
+
+    // Where to put the rows which don't fit in memory?
+    //
+    Label wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.Label"));
+    wlSpillDirectory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.ToolTip"));
+    PropsUi.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.top = new FormAttachment(wMaxGroups, margin);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSpillDirectory.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.ToolTip"));
+    PropsUi.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.top = new FormAttachment(wMaxGroups, margin);
+    fdSpillDirectory.right = new FormAttachment(100, 0);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+
+    Label wlSpillPrefix = new Label(shell, SWT.RIGHT);
+    wlSpillPrefix.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillPrefix.Label"));
+    wlSpillPrefix.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillPrefix.ToolTip"));
+    PropsUi.setLook(wlSpillPrefix);
+    FormData fdlSpillPrefix = new FormData();
+    fdlSpillPrefix.left = new FormAttachment(0, 0);
+    fdlSpillPrefix.top = new FormAttachment(wSpillDirectory, margin);
+    fdlSpillPrefix.right = new FormAttachment(middle, -margin);
+    wlSpillPrefix.setLayoutData(fdlSpillPrefix);
+    wSpillPrefix = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSpillPrefix.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillPrefix.ToolTip"));
+    PropsUi.setLook(wSpillPrefix);
+    wSpillPrefix.addModifyListener(lsMod);
+    FormData fdSpillPrefix = new FormData();
+    fdSpillPrefix.left = new FormAttachment(middle, 0);
+    fdSpillPrefix.top = new FormAttachment(wSpillDirectory, margin);
+    fdSpillPrefix.right = new FormAttachment(100, 0);
+    wSpillPrefix.setLayoutData(fdSpillPrefix);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wSpillPrefix, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int nrKeyCols = 1;
@@ -319,6 +393,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wMaxGroups.setText(Const.NVL(input.getMaxGroupsInMemory(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getSpillDirectory(), ""));
+    wSpillPrefix.setText(Const.NVL(input.getSpillFilePrefix(), ""));
 
     if (input.getGroupField() != null) {
       for (int i = 0; i < input.getGroupField().length; i++) {
@@ -370,6 +447,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     int nrFields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setMaxGroupsInMemory(wMaxGroups.getText());
+    input.setSpillDirectory(wSpillDirectory.getText());
+    input.setSpillFilePrefix(wSpillPrefix.getText());
 
     input.allocate(sizegroup, nrFields);
 
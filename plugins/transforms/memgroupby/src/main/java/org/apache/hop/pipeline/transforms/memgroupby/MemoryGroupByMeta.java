@@ -161,6 +161,18 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
   /** Flag to indicate that we always give back one row. Defaults to true for existing pipelines. */
   private boolean alwaysGivingBackOneRow;
 
+  /** The maximum number of groups kept in memory before rows are spilled to disk */
+  @Injection(name = "MAX_GROUPS_IN_MEMORY")
+  private String maxGroupsInMemory;
+
+  /** Directory to store the temporary files with the spilled rows */
+  @Injection(name = "SPILL_DIRECTORY")
+  private String spillDirectory;
+
+  /** Prefix of the temporary files with the spilled rows */
+  @Injection(name = "SPILL_FILE_PREFIX")
+  private String spillFilePrefix;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -295,6 +307,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
         valueField[i] = XmlHandler.getTagValue(fnode, "valuefield");
       }
 
+      maxGroupsInMemory = XmlHandler.getTagValue(transformNode, "max_groups_in_memory");
+      spillDirectory = XmlHandler.getTagValue(transformNode, "spill_directory");
+      spillFilePrefix = XmlHandler.getTagValue(transformNode, "spill_prefix");
+
       String giveBackRow = XmlHandler.getTagValue(transformNode, "give_back_row");
       if (Utils.isEmpty(giveBackRow)) {
         alwaysGivingBackOneRow = hasNumberOfValues;
@@ -343,6 +359,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     int nrFields = 0;
 
     allocate(sizegroup, nrFields);
+
+    maxGroupsInMemory = null;
+    spillDirectory = "${java.io.tmpdir}";
+    spillFilePrefix = "grp";
   }
 
   @Override
@@ -460,6 +480,11 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     StringBuilder retval = new StringBuilder(500);
 
     retval.append("      ").append(XmlHandler.addTagValue("give_back_row", alwaysGivingBackOneRow));
+    retval
+        .append("      ")
+        .append(XmlHandler.addTagValue("max_groups_in_memory", maxGroupsInMemory));
+    retval.append("      ").append(XmlHandler.addTagValue("spill_directory", spillDirectory));
+    retval.append("      ").append(XmlHandler.addTagValue("spill_prefix", spillFilePrefix));
 
     retval.append("      <group>").append(Const.CR);
     for (int i = 0; i < groupField.length; i++) {
@@ -529,6 +554,48 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return the maximum number of groups kept in memory
+   */
+  public String getMaxGroupsInMemory() {
+    return maxGroupsInMemory;
+  }
+
+  /**
+   * @param maxGroupsInMemory the maximum number of groups kept in memory to set
+   */
+  public void setMaxGroupsInMemory(String maxGroupsInMemory) {
+    this.maxGroupsInMemory = maxGroupsInMemory;
+  }
+
+  /**
+   * @return the directory of the temporary files with the spilled rows
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * @param spillDirectory the directory of the temporary files with the spilled rows to set
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * @return the prefix of the temporary files with the spilled rows
+   */
+  public String getSpillFilePrefix() {
+    return spillFilePrefix;
+  }
+
+  /**
+   * @param spillFilePrefix the prefix of the temporary files with the spilled rows to set
+   */
+  public void setSpillFilePrefix(String spillFilePrefix) {
+    this.spillFilePrefix = spillFilePrefix;
+  }
+
   /**
    * If we use injection we can have different arrays lengths. We need synchronize them for
    * consistency behavior with UI
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * A temporary file with the input rows of the groups which didn't fit in memory. All rows of a
+ * group end up in the same partition, in the order in which they were received. The partition is
+ * aggregated on its own once all the input was read.
+ */
+public class SpillPartition {
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final FileObject fileObject;
+  private final int level;
+  private long nrRows;
+
+  /** Splitting this partition doesn't spread its groups: aggregate it by sorting the rows */
+  private boolean sortNeeded;
+
+  private DataOutputStream outputStream;
+  private DataInputStream inputStream;
+  private long rowsLeft;
+
+  /**
+   * Create a new partition file
+   *
+   * @param directory The directory to create the temporary file in
+   * @param prefix The prefix of the temporary file name
+   * @param level The number of times the rows in this partition were spilled to disk
+   * @throws HopException In case the file can't be created
+   */
+  public SpillPartition(String directory, String prefix, int level) throws HopException {
+    this.level = level;
+    this.fileObject = HopVfs.createTempFile(prefix, ".tmp", directory);
+    try {
+      this.outputStream =
+          new DataOutputStream(
+              new BufferedOutputStream(HopVfs.getOutputStream(fileObject, false), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopFileException("Unable to create temporary file " + fileObject, e);
+    }
+  }
+
+  /**
+   * Add a row to the partition
+   *
+   * @param rowMeta The layout of the row
+   * @param row The row data
+   * @throws HopException In case the row can't be written
+   */
+  public void writeRow(IRowMeta rowMeta, Object[] row) throws HopException {
+    rowMeta.writeData(outputStream, row);
+    nrRows++;
+  }
+
+  /**
+   * We're done writing: close the file
+   *
+   * @throws HopException In case the file can't be closed
+   */
+  public void closeOutput() throws HopException {
+    if (outputStream != null) {
+      try {
+        outputStream.close();
+      } catch (IOException e) {
+        throw new HopFileException("Unable to close temporary file " + fileObject, e);
+      } finally {
+        outputStream = null;
+      }
+    }
+  }
+
+  /**
+   * Read the next row from the partition. The output is closed when this is called the first time.
+   *
+   * @param rowMeta The layout of the rows
+   * @return The next row or null if all rows were read
+   * @throws HopException In case the row can't be read
+   */
+  public Object[] readRow(IRowMeta rowMeta) throws HopException {
+    if (inputStream == null) {
+      closeOutput();
+      try {
+        inputStream =
+            new DataInputStream(
+                new BufferedInputStream(HopVfs.getInputStream(fileObject), BUFFER_SIZE));
+      } catch (IOException e) {
+        throw new HopFileException("Unable to open temporary file " + fileObject, e);
+      }
+      rowsLeft = nrRows;
+    }
+    if (rowsLeft <= 0) {
+      return null;
+    }
+    rowsLeft--;
+    try {
+      return rowMeta.readData(inputStream);
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException(e); // should never happen on local files
+    }
+  }
+
+  /** Close the file and remove it. Errors are ignored, this is only a temporary file. */
+  public void delete() {
+    BaseTransform.closeQuietly(outputStream);
+    BaseTransform.closeQuietly(inputStream);
+    outputStream = null;
+    inputStream = null;
+    try {
+      fileObject.delete();
+    } catch (IOException e) {
+      // Ignore: temporary file
+    }
+  }
+
+  /**
+   * Gets level
+   *
+   * @return value of level
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Gets nrRows
+   *
+   * @return value of nrRows
+   */
+  public long getNrRows() {
+    return nrRows;
+  }
+
+  /**
+   * Gets sortNeeded
+   *
+   * @return value of sortNeeded
+   */
+  public boolean isSortNeeded() {
+    return sortNeeded;
+  }
+
+  /** @param sortNeeded The sortNeeded to set */
+  public void setSortNeeded(boolean sortNeeded) {
+    this.sortNeeded = sortNeeded;
+  }
+
+  /**
+   * Gets fileObject
+   *
+   * @return value of fileObject
+   */
+  public FileObject getFileObject() {
+    return fileObject;
+  }
+}
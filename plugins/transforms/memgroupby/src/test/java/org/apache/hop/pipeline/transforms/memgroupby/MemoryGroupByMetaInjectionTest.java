@@ -38,5 +38,8 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
     check("AGGREGATETYPE", () -> meta.getAggregateType()[0]);
     check("VALUEFIELD", () -> meta.getValueField()[0]);
     check("ALWAYSGIVINGBACKONEROW", () -> meta.isAlwaysGivingBackOneRow());
+    check("MAX_GROUPS_IN_MEMORY", () -> meta.getMaxGroupsInMemory());
+    check("SPILL_DIRECTORY", () -> meta.getSpillDirectory());
+    check("SPILL_FILE_PREFIX", () -> meta.getSpillFilePrefix());
   }
 }
@@ -66,6 +66,9 @@ public class MemoryGroupByMetaTest implements IInitializer<MemoryGroupByMeta> {
     List<String> attributes =
         Arrays.asList(
             "alwaysGivingBackOneRow",
+            "maxGroupsInMemory",
+            "spillDirectory",
+            "spillFilePrefix",
             "groupField",
             "aggregateField",
             "subjectField",
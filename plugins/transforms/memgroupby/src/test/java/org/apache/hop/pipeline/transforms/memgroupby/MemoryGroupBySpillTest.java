@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.nullable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder spillFolder = new TemporaryFolder();
+
+  private TransformMockHelper<MemoryGroupByMeta, MemoryGroupByData> helper;
+  private IRowMeta inputRowMeta;
+
+  @Before
+  public void setUp() {
+    helper =
+        new TransformMockHelper<>("Group by", MemoryGroupByMeta.class, MemoryGroupByData.class);
+    when(helper.logChannelFactory.create(any(), nullable(ILoggingObject.class)))
+        .thenReturn(helper.iLogChannel);
+    when(helper.iLogChannel.isDetailed()).thenReturn(true);
+    when(helper.pipeline.isRunning()).thenReturn(true);
+
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("group"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("value"));
+  }
+
+  @After
+  public void tearDown() {
+    helper.cleanUp();
+  }
+
+  @Test
+  public void testSpilledGroups() throws Exception {
+    List<String> groups = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      groups.add("group" + i);
+    }
+
+    assertEquals(expectedOutput(groups), groupBy(groups));
+    verify(helper.iLogChannel, never()).logDetailed(contains("sorting them instead"));
+  }
+
+  @Test
+  public void testGroupsWithTheSameHashCode() throws Exception {
+    // "Aa" and "BB" have the same hash code: so do all 256 strings of 8 of them
+    //
+    List<String> groups = new ArrayList<>();
+    for (int i = 0; i < 256; i++) {
+      StringBuilder group = new StringBuilder();
+      for (int bit = 0; bit < 8; bit++) {
+        group.append((i & (1 << bit)) == 0 ? "Aa" : "BB");
+      }
+      groups.add(group.toString());
+      assertEquals(groups.get(0).hashCode(), group.toString().hashCode());
+    }
+    for (int i = 0; i < 100; i++) {
+      groups.add("group" + i);
+    }
+
+    assertEquals(expectedOutput(groups), groupBy(groups));
+    verify(helper.iLogChannel, atLeastOnce()).logDetailed(contains("sorting them instead"));
+  }
+
+  /**
+   * Every group gets as many rows as its position in the list, shuffled. The values of a group
+   * count up so that the first value is the lowest one.
+   */
+  private List<Object[]> createRows(List<String> groups) {
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < groups.size(); i++) {
+      for (long value = 0; value <= i % 7; value++) {
+        rows.add(new Object[] {groups.get(i), value});
+      }
+    }
+    Collections.shuffle(rows, new Random(42));
+
+    // Put the values of every group back in order after shuffling
+    //
+    TreeMap<String, Long> next = new TreeMap<>();
+    for (Object[] row : rows) {
+      long value = next.getOrDefault((String) row[0], 0L);
+      row[1] = value;
+      next.put((String) row[0], value + 1);
+    }
+    return rows;
+  }
+
+  private List<String> expectedOutput(List<String> groups) {
+    List<String> output = new ArrayList<>();
+    for (int i = 0; i < groups.size(); i++) {
+      long last = i % 7;
+      output.add(
+          Arrays.toString(
+              new Object[] {groups.get(i), last * (last + 1) / 2, last + 1, 0L, last}));
+    }
+    Collections.sort(output);
+    return output;
+  }
+
+  private List<String> groupBy(List<String> groups) throws Exception {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setDefault();
+    meta.allocate(1, 4);
+    meta.setGroupField(new String[] {"group"});
+    meta.setSubjectField(new String[] {"value", "value", "value", "value"});
+    meta.setAggregateField(new String[] {"sum", "count", "first", "last"});
+    meta.setAggregateType(
+        new int[] {
+          MemoryGroupByMeta.TYPE_GROUP_SUM,
+          MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY,
+          MemoryGroupByMeta.TYPE_GROUP_FIRST,
+          MemoryGroupByMeta.TYPE_GROUP_LAST
+        });
+    meta.setValueField(new String[4]);
+    meta.setMaxGroupsInMemory("10");
+    meta.setSpillDirectory(spillFolder.getRoot().getAbsolutePath());
+
+    MemoryGroupBy transform =
+        new MemoryGroupBy(
+            helper.transformMeta,
+            meta,
+            new MemoryGroupByData(),
+            0,
+            helper.pipelineMeta,
+            helper.pipeline);
+    assertTrue(transform.init());
+
+    IRowSet input = new QueueRowSet();
+    input.setThreadNameFromToCopy("input", 0, transform.getTransformName(), 0);
+    for (Object[] row : createRows(groups)) {
+      input.putRow(inputRowMeta, row);
+    }
+    input.setDone();
+    transform.addRowSetToInputRowSets(input);
+
+    List<String> output = new ArrayList<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            output.add(Arrays.toString(Arrays.copyOf(row, rowMeta.size())));
+          }
+        });
+    while (transform.processRow()) {
+      // Keep on aggregating
+    }
+    transform.dispose();
+
+    assertEquals(0, transform.getErrors());
+    assertEquals(0, spillFolder.getRoot().list().length);
+    Collections.sort(output);
+    return output;
+  }
+}
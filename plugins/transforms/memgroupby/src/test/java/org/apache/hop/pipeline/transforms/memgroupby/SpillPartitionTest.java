@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpillPartitionTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testWriteAndReadBack() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("group"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    SpillPartition partition =
+        new SpillPartition(System.getProperty("java.io.tmpdir"), "grp-test", 1);
+    try {
+      for (long i = 0; i < 1000; i++) {
+        partition.writeRow(rowMeta, new Object[] {"group" + (i % 10), i});
+      }
+      assertEquals(1000L, partition.getNrRows());
+      assertEquals(1, partition.getLevel());
+
+      for (long i = 0; i < 1000; i++) {
+        assertArrayEquals(new Object[] {"group" + (i % 10), i}, partition.readRow(rowMeta));
+      }
+      assertNull(partition.readRow(rowMeta));
+    } finally {
+      partition.delete();
+    }
+    assertFalse(partition.getFileObject().exists());
+  }
+
+  @Test
+  public void testPartitionNumbers() {
+    Set<Integer> level0 = new HashSet<>();
+    Set<Integer> level1 = new HashSet<>();
+    for (int hashCode = 0; hashCode < 1000; hashCode++) {
+      int partitionNr = MemoryGroupBy.getSpillPartitionNr(hashCode, 0);
+      assertTrue(partitionNr >= 0 && partitionNr < MemoryGroupBy.NR_SPILL_PARTITIONS);
+      level0.add(partitionNr);
+
+      // The groups of a single partition are spread again on the next level
+      //
+      if (partitionNr == 0) {
+        level1.add(MemoryGroupBy.getSpillPartitionNr(hashCode, 1));
+      }
+    }
+    assertEquals(MemoryGroupBy.NR_SPILL_PARTITIONS, level0.size());
+    assertTrue(level1.size() > 1);
+  }
+}
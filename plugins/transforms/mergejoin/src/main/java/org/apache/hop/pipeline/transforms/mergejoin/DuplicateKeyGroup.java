@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.mergejoin;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rows of the second stream which share the same join key. The first rows are kept in memory,
+ * the rest of a (very) large group is written to a temporary file. The group can be read any
+ * number of times, once for every matching row of the first stream.
+ */
+public class DuplicateKeyGroup {
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final IRowMeta rowMeta;
+  private final int maxRowsInMemory;
+  private final String spillDirectory;
+
+  private final List<Object[]> rows;
+  private FileObject fileObject;
+  private DataOutputStream outputStream;
+  private long nrSpilledRows;
+
+  private DataInputStream inputStream;
+  private int rowIndex;
+  private long spilledRowsLeft;
+
+  /**
+   * Create a new group buffer
+   *
+   * @param rowMeta The layout of the rows in the group
+   * @param maxRowsInMemory The maximum number of rows kept in memory, 0 means no maximum
+   * @param spillDirectory The directory to write the rows to which don't fit in memory
+   */
+  public DuplicateKeyGroup(IRowMeta rowMeta, int maxRowsInMemory, String spillDirectory) {
+    this.rowMeta = rowMeta;
+    this.maxRowsInMemory = maxRowsInMemory;
+    this.spillDirectory = spillDirectory;
+    this.rows = new ArrayList<>();
+  }
+
+  /**
+   * Add a row to the group
+   *
+   * @param row The row to add
+   * @throws HopException In case the row can't be written to the temporary file
+   */
+  public void add(Object[] row) throws HopException {
+    if (maxRowsInMemory <= 0 || rows.size() < maxRowsInMemory) {
+      rows.add(row);
+      return;
+    }
+    if (fileObject == null) {
+      fileObject = HopVfs.createTempFile("mergejoin", ".tmp", spillDirectory);
+      try {
+        outputStream =
+            new DataOutputStream(
+                new BufferedOutputStream(HopVfs.getOutputStream(fileObject, false), BUFFER_SIZE));
+      } catch (IOException e) {
+        throw new HopFileException("Unable to create temporary file " + fileObject, e);
+      }
+    }
+    rowMeta.writeData(outputStream, row);
+    nrSpilledRows++;
+  }
+
+  /**
+   * Start reading the group (again) from the first row
+   *
+   * @throws HopException In case the temporary file can't be opened
+   */
+  public void rewind() throws HopException {
+    rowIndex = 0;
+    spilledRowsLeft = 0;
+    BaseTransform.closeQuietly(inputStream);
+    inputStream = null;
+    if (fileObject == null) {
+      return;
+    }
+    try {
+      if (outputStream != null) {
+        outputStream.close();
+        outputStream = null;
+      }
+      inputStream =
+          new DataInputStream(
+              new BufferedInputStream(HopVfs.getInputStream(fileObject), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopFileException("Unable to open temporary file " + fileObject, e);
+    }
+    spilledRowsLeft = nrSpilledRows;
+  }
+
+  /**
+   * Read the next row of the group
+   *
+   * @return The next row or null if all rows were read
+   * @throws HopException In case the row can't be read from the temporary file
+   */
+  public Object[] next() throws HopException {
+    if (rowIndex < rows.size()) {
+      return rows.get(rowIndex++);
+    }
+    if (spilledRowsLeft <= 0) {
+      return null;
+    }
+    spilledRowsLeft--;
+    try {
+      return rowMeta.readData(inputStream);
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException(e); // should never happen on local files
+    }
+  }
+
+  /** Remove all the rows from the group and delete the temporary file, if any. */
+  public void clear() {
+    rows.clear();
+    BaseTransform.closeQuietly(outputStream);
+    BaseTransform.closeQuietly(inputStream);
+    outputStream = null;
+    inputStream = null;
+    if (fileObject != null) {
+      try {
+        fileObject.delete();
+      } catch (IOException e) {
+        // Ignore: temporary file
+      }
+      fileObject = null;
+    }
+    nrSpilledRows = 0;
+    rowIndex = 0;
+    spilledRowsLeft = 0;
+  }
+
+  /**
+   * Gets the number of rows in the group
+   *
+   * @return the number of rows in memory and on disk
+   */
+  public long size() {
+    return rows.size() + nrSpilledRows;
+  }
+
+  /**
+   * See if rows of this group were written to disk
+   *
+   * @return true if the group uses a temporary file
+   */
+  public boolean isSpilled() {
+    return fileObject != null;
+  }
+}
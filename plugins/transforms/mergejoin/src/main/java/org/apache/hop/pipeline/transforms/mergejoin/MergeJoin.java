@@ -17,12 +17,14 @@
 
 package org.apache.hop.pipeline.transforms.mergejoin;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.SortKeyEncoder;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -30,8 +32,6 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.stream.IStream;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -62,8 +62,6 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
 
   @Override
   public boolean processRow() throws HopException {
-    int compare;
-
     if (first) {
       first = false;
 
@@ -153,6 +151,27 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
       // Calculate two_dummy... defaults to null
       //
       data.two_dummy = new Object[data.twoMeta.size()];
+
+      // Encode the join keys once per row so that comparing rows is a cheap byte comparison.
+      // Both streams need to use the same key types, otherwise we compare the values themselves.
+      //
+      if (data.one != null && data.two != null) {
+        data.oneEncoder = SortKeyEncoder.create(data.oneMeta, data.keyNrs1);
+        if (data.oneEncoder != null) {
+          data.twoEncoder = data.oneEncoder.forRowMeta(data.twoMeta, data.keyNrs2);
+        }
+        if (data.twoEncoder == null) {
+          data.oneEncoder = null;
+        }
+        data.oneKey = encodeOne(data.one);
+        data.twoKey = encodeTwo(data.two);
+      }
+
+      data.twos =
+          new DuplicateKeyGroup(
+              data.twoMeta,
+              Const.toInt(resolve(meta.getMaxGroupRowsInMemory()), 0),
+              resolve(meta.getSpillDirectory()));
     }
 
     if (log.isRowLevel()) {
@@ -173,137 +192,50 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
       // depleted!
       // If we don't do this, the pipeline can stall.
       //
-      while (data.one != null && !isStopped()) {
-        data.one = getRowFrom(data.oneRowSet);
-      }
-      while (data.two != null && !isStopped()) {
-        data.two = getRowFrom(data.twoRowSet);
-      }
+      drainInputs();
 
       setOutputDone();
       return false;
     }
 
-    if (data.one == null) {
-      compare = -1;
-    } else {
-      if (data.two == null) {
-        compare = 1;
-      } else {
-        int cmp =
-            data.oneMeta.compare(data.one, data.twoMeta, data.two, data.keyNrs1, data.keyNrs2);
-        compare = cmp > 0 ? 1 : cmp < 0 ? -1 : 0;
-      }
-    }
-
-    switch (compare) {
+    switch (compareOneTwo()) {
       case 0:
         /*
-         * We've got a match. This is what we do next (to handle duplicate keys correctly): Read the next record from
-         * both streams If any of the keys match, this means we have duplicates. We therefore Create an array of all
-         * rows that have the same keys Push a Cartesian product of the two arrays to output Else Just push the combined
-         * rowset to output
+         * We've got a match. To handle duplicate keys correctly we first collect all the rows of
+         * the second stream with this key. Then we join every row of the first stream with the
+         * same key with this group. Only the rows of the second stream are kept around, a very
+         * large group is written to disk.
          */
-        data.one_next = getRowFrom(data.oneRowSet);
-        data.two_next = getRowFrom(data.twoRowSet);
-
-        int compare1 =
-            (data.one_next == null)
-                ? -1
-                : data.oneMeta.compare(data.one, data.one_next, data.keyNrs1, data.keyNrs1);
-        int compare2 =
-            (data.two_next == null)
-                ? -1
-                : data.twoMeta.compare(data.two, data.two_next, data.keyNrs2, data.keyNrs2);
-        if (compare1 == 0 || compare2 == 0) { // Duplicate keys
-
-          if (data.ones == null) {
-            data.ones = new ArrayList<>();
-          } else {
-            data.ones.clear();
-          }
-          if (data.twos == null) {
-            data.twos = new ArrayList<>();
-          } else {
-            data.twos.clear();
-          }
-          data.ones.add(data.one);
-          if (compare1 == 0) {
-            // First stream has duplicates
-
-            data.ones.add(data.one_next);
-            for (; !isStopped(); ) {
-              data.one_next = getRowFrom(data.oneRowSet);
-              if (0
-                  != ((data.one_next == null)
-                      ? -1
-                      : data.oneMeta.compare(
-                          data.one, data.one_next, data.keyNrs1, data.keyNrs1))) {
-                break;
-              }
-              data.ones.add(data.one_next);
-            }
-            if (isStopped()) {
-              return false;
-            }
-          }
+        data.twos.clear();
+        Object[] two = data.two;
+        byte[] twoKey = data.twoKey;
+        do {
           data.twos.add(data.two);
-          if (compare2 == 0) { // Second stream has duplicates
-
-            data.twos.add(data.two_next);
-            for (; !isStopped(); ) {
-              data.two_next = getRowFrom(data.twoRowSet);
-              if (0
-                  != ((data.two_next == null)
-                      ? -1
-                      : data.twoMeta.compare(
-                          data.two, data.two_next, data.keyNrs2, data.keyNrs2))) {
-                break;
-              }
-              data.twos.add(data.two_next);
-            }
-            if (isStopped()) {
-              return false;
-            }
-          }
-          for (Iterator<Object[]> oneIter = data.ones.iterator();
-              oneIter.hasNext() && !isStopped(); ) {
-            Object[] one = oneIter.next();
-            for (Iterator<Object[]> twoIter = data.twos.iterator();
-                twoIter.hasNext() && !isStopped(); ) {
-              Object[] two = twoIter.next();
-              Object[] oneBig =
-                  RowDataUtil.createResizedCopy(one, data.oneMeta.size() + data.twoMeta.size());
-              Object[] combi = RowDataUtil.addRowData(oneBig, data.oneMeta.size(), two);
-              putRow(data.outputRowMeta, combi);
-            }
-            // Remove the rows as we merge them to keep the overall memory footprint minimal
-            oneIter.remove();
-          }
-          data.twos.clear();
-        } else {
-          // No duplicates
-
-          Object[] outputRowData = RowDataUtil.addRowData(data.one, data.oneMeta.size(), data.two);
-          putRow(data.outputRowMeta, outputRowData);
-        }
-        data.one = data.one_next;
-        data.two = data.two_next;
+          readTwo();
+        } while (data.two != null && !isStopped() && compareTwos(two, twoKey) == 0);
+
+        Object[] one = data.one;
+        byte[] oneKey = data.oneKey;
+        do {
+          joinWithGroup(data.one);
+          readOne();
+        } while (data.one != null && !isStopped() && compareOnes(one, oneKey) == 0);
+        data.twos.clear();
         break;
       case 1:
         /*
          * First stream is greater than the second stream. This means: a) This key is missing in the first stream b)
          * Second stream may have finished So, if full/right outer join is set and 2nd stream is not null, we push a
          * record to output with only the values for the second row populated. Next, if 2nd stream is not finished, we
-         * get a row from it; otherwise signal that we are done
+         * get a row from it; otherwise signal that we are done.
+         * The whole run of rows sorting before the current row of the other stream is done at once.
          */
         if (data.one_optional == true) {
           if (data.two != null) {
-            Object[] outputRowData =
-                RowDataUtil.createResizedCopy(data.one_dummy, data.outputRowMeta.size());
-            outputRowData = RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two);
-            putRow(data.outputRowMeta, outputRowData);
-            data.two = getRowFrom(data.twoRowSet);
+            do {
+              putTwoOnly();
+              readTwo();
+            } while (data.two != null && !isStopped() && compareOneTwo() > 0);
           } else if (data.two_optional == false) {
             /*
              * If we are doing right outer join then we are done since there are no more rows in the second set
@@ -312,12 +244,7 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
             // are depleted!
             // If we don't do this, the pipeline can stall.
             //
-            while (data.one != null && !isStopped()) {
-              data.one = getRowFrom(data.oneRowSet);
-            }
-            while (data.two != null && !isStopped()) {
-              data.two = getRowFrom(data.twoRowSet);
-            }
+            drainInputs();
 
             setOutputDone();
             return false;
@@ -325,12 +252,10 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
             /*
              * We are doing full outer join so print the 1st stream and get the next row from 1st stream
              */
-            Object[] outputRowData =
-                RowDataUtil.createResizedCopy(data.one, data.outputRowMeta.size());
-            outputRowData =
-                RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two_dummy);
-            putRow(data.outputRowMeta, outputRowData);
-            data.one = getRowFrom(data.oneRowSet);
+            do {
+              putOneOnly();
+              readOne();
+            } while (data.one != null && !isStopped());
           }
         } else if (data.two == null && data.two_optional == true) {
           /**
@@ -338,17 +263,17 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
            * Also, join is left or full outer. So, create a row with just the values in the first
            * stream and push it forward
            */
-          Object[] outputRowData =
-              RowDataUtil.createResizedCopy(data.one, data.outputRowMeta.size());
-          outputRowData =
-              RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two_dummy);
-          putRow(data.outputRowMeta, outputRowData);
-          data.one = getRowFrom(data.oneRowSet);
+          do {
+            putOneOnly();
+            readOne();
+          } while (data.one != null && !isStopped());
         } else if (data.two != null) {
           /*
-           * We are doing an inner or left outer join, so throw this row away from the 2nd stream
+           * We are doing an inner or left outer join, so throw the rows away from the 2nd stream
            */
-          data.two = getRowFrom(data.twoRowSet);
+          do {
+            readTwo();
+          } while (data.two != null && !isStopped() && compareOneTwo() > 0);
         }
         break;
       case -1:
@@ -356,16 +281,15 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
          * Second stream is greater than the first stream. This means: a) This key is missing in the second stream b)
          * First stream may have finished So, if full/left outer join is set and 1st stream is not null, we push a
          * record to output with only the values for the first row populated. Next, if 1st stream is not finished, we
-         * get a row from it; otherwise signal that we are done
+         * get a row from it; otherwise signal that we are done.
+         * The whole run of rows sorting before the current row of the other stream is done at once.
          */
         if (data.two_optional == true) {
           if (data.one != null) {
-            Object[] outputRowData =
-                RowDataUtil.createResizedCopy(data.one, data.outputRowMeta.size());
-            outputRowData =
-                RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two_dummy);
-            putRow(data.outputRowMeta, outputRowData);
-            data.one = getRowFrom(data.oneRowSet);
+            do {
+              putOneOnly();
+              readOne();
+            } while (data.one != null && !isStopped() && compareOneTwo() < 0);
           } else if (data.one_optional == false) {
             /*
              * We are doing a left outer join and there are no more rows in the first stream; so we are done
@@ -374,12 +298,7 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
             // are depleted!
             // If we don't do this, the pipeline can stall.
             //
-            while (data.one != null && !isStopped()) {
-              data.one = getRowFrom(data.oneRowSet);
-            }
-            while (data.two != null && !isStopped()) {
-              data.two = getRowFrom(data.twoRowSet);
-            }
+            drainInputs();
 
             setOutputDone();
             return false;
@@ -387,41 +306,141 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
             /*
              * We are doing a full outer join so print the 2nd stream and get the next row from the 2nd stream
              */
-            Object[] outputRowData =
-                RowDataUtil.createResizedCopy(data.one_dummy, data.outputRowMeta.size());
-            outputRowData = RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two);
-            putRow(data.outputRowMeta, outputRowData);
-            data.two = getRowFrom(data.twoRowSet);
+            do {
+              putTwoOnly();
+              readTwo();
+            } while (data.two != null && !isStopped());
           }
         } else if (data.one == null && data.one_optional == true) {
           /*
            * We have reached the end of stream 1 and there are records present in the second stream. Also, join is right
            * or full outer. So, create a row with just the values in the 2nd stream and push it forward
            */
-          Object[] outputRowData =
-              RowDataUtil.createResizedCopy(data.one_dummy, data.outputRowMeta.size());
-          outputRowData = RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two);
-          putRow(data.outputRowMeta, outputRowData);
-          data.two = getRowFrom(data.twoRowSet);
+          do {
+            putTwoOnly();
+            readTwo();
+          } while (data.two != null && !isStopped());
         } else if (data.one != null) {
           /*
            * We are doing an inner or right outer join so a non-matching row in the first stream is of no use to us -
-           * throw it away and get the next row
+           * throw the rows away until we find one which isn't smaller than the second stream row
            */
-          data.one = getRowFrom(data.oneRowSet);
+          do {
+            readOne();
+          } while (data.one != null && !isStopped() && compareOneTwo() < 0);
         }
         break;
       default:
         logDebug("We shouldn't be here!!");
         // Make sure we do not go into an infinite loop by continuing to read data
-        data.one = getRowFrom(data.oneRowSet);
-        data.two = getRowFrom(data.twoRowSet);
+        readOne();
+        readTwo();
         break;
     }
+    return true;
+  }
+
+  /**
+   * Compare the current rows of both streams
+   *
+   * @return -1, 0 or 1 if the first row sorts before, the same as or after the second row. A
+   *     missing row sorts after all others.
+   */
+  private int compareOneTwo() throws HopException {
+    if (data.one == null) {
+      return -1;
+    }
+    if (data.two == null) {
+      return 1;
+    }
+    int cmp;
+    if (data.oneKey != null && data.twoKey != null) {
+      cmp = SortKeyEncoder.compare(data.oneKey, data.twoKey);
+    } else {
+      cmp = data.oneMeta.compare(data.one, data.twoMeta, data.two, data.keyNrs1, data.keyNrs2);
+    }
+    return cmp > 0 ? 1 : cmp < 0 ? -1 : 0;
+  }
+
+  /** Compare a previous row of the first stream with the current one */
+  private int compareOnes(Object[] one, byte[] oneKey) throws HopException {
+    if (oneKey != null && data.oneKey != null) {
+      return SortKeyEncoder.compare(oneKey, data.oneKey);
+    }
+    return data.oneMeta.compare(one, data.one, data.keyNrs1, data.keyNrs1);
+  }
+
+  /** Compare a previous row of the second stream with the current one */
+  private int compareTwos(Object[] two, byte[] twoKey) throws HopException {
+    if (twoKey != null && data.twoKey != null) {
+      return SortKeyEncoder.compare(twoKey, data.twoKey);
+    }
+    return data.twoMeta.compare(two, data.two, data.keyNrs2, data.keyNrs2);
+  }
+
+  private byte[] encodeOne(Object[] row) throws HopException {
+    return row == null || data.oneEncoder == null ? null : data.oneEncoder.encode(row);
+  }
+
+  private byte[] encodeTwo(Object[] row) throws HopException {
+    return row == null || data.twoEncoder == null ? null : data.twoEncoder.encode(row);
+  }
+
+  private void readOne() throws HopException {
+    data.one = getRowFrom(data.oneRowSet);
+    data.oneKey = encodeOne(data.one);
     if (checkFeedback(getLinesRead())) {
       logBasic(BaseMessages.getString(PKG, "MergeJoin.LineNumber") + getLinesRead());
     }
-    return true;
+  }
+
+  private void readTwo() throws HopException {
+    data.two = getRowFrom(data.twoRowSet);
+    data.twoKey = encodeTwo(data.two);
+    if (checkFeedback(getLinesRead())) {
+      logBasic(BaseMessages.getString(PKG, "MergeJoin.LineNumber") + getLinesRead());
+    }
+  }
+
+  /** Read all remaining rows from both streams */
+  private void drainInputs() throws HopException {
+    while (data.one != null && !isStopped()) {
+      data.one = getRowFrom(data.oneRowSet);
+    }
+    while (data.two != null && !isStopped()) {
+      data.two = getRowFrom(data.twoRowSet);
+    }
+  }
+
+  /** Join a row of the first stream with all the rows of the second stream in the group */
+  private void joinWithGroup(Object[] one) throws HopException {
+    if (data.twos.size() == 1 && !data.twos.isSpilled()) {
+      data.twos.rewind();
+      Object[] two = data.twos.next();
+      putRow(data.outputRowMeta, RowDataUtil.addRowData(one, data.oneMeta.size(), two));
+      return;
+    }
+    data.twos.rewind();
+    Object[] two;
+    while ((two = data.twos.next()) != null && !isStopped()) {
+      Object[] oneBig = RowDataUtil.createResizedCopy(one, data.outputRowMeta.size());
+      putRow(data.outputRowMeta, RowDataUtil.addRowData(oneBig, data.oneMeta.size(), two));
+    }
+  }
+
+  /** Output the current row of the first stream with empty values for the second stream */
+  private void putOneOnly() throws HopException {
+    Object[] outputRowData = RowDataUtil.createResizedCopy(data.one, data.outputRowMeta.size());
+    outputRowData = RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two_dummy);
+    putRow(data.outputRowMeta, outputRowData);
+  }
+
+  /** Output the current row of the second stream with empty values for the first stream */
+  private void putTwoOnly() throws HopException {
+    Object[] outputRowData =
+        RowDataUtil.createResizedCopy(data.one_dummy, data.outputRowMeta.size());
+    outputRowData = RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), data.two);
+    putRow(data.outputRowMeta, outputRowData);
   }
 
   @Override
@@ -448,6 +467,14 @@ public class MergeJoin extends BaseTransform<MergeJoinMeta, MergeJoinData> {
     return true;
   }
 
+  @Override
+  public void dispose() {
+    if (data.twos != null) {
+      data.twos.clear();
+    }
+    super.dispose();
+  }
+
   /**
    * Checks whether incoming rows are join compatible. This essentially means that the keys being
    * compared should be of the same datatype and both rows should have the same number of keys
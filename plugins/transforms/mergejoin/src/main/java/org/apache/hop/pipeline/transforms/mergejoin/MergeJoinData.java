@@ -19,11 +19,10 @@ package org.apache.hop.pipeline.transforms.mergejoin;
 
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.SortKeyEncoder;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.util.List;
-
 public class MergeJoinData extends BaseTransformData implements ITransformData {
   public Object[] one;
   public Object[] two;
@@ -32,25 +31,26 @@ public class MergeJoinData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta; // just for speed: oneMeta+twoMeta
   public Object[] one_dummy;
   public Object[] two_dummy;
-  public List<Object[]> ones;
-  public List<Object[]> twos;
-  public Object[] one_next;
-  public Object[] two_next;
+  public DuplicateKeyGroup twos;
   public boolean one_optional;
   public boolean two_optional;
   public int[] keyNrs1;
   public int[] keyNrs2;
 
+  /** The encoded join keys of the current rows, null if the keys can't be encoded */
+  public SortKeyEncoder oneEncoder;
+
+  public SortKeyEncoder twoEncoder;
+  public byte[] oneKey;
+  public byte[] twoKey;
+
   public IRowSet oneRowSet;
   public IRowSet twoRowSet;
 
   /** Default initializer */
   public MergeJoinData() {
     super();
-    ones = null;
     twos = null;
-    one_next = null;
-    two_next = null;
     one_dummy = null;
     two_dummy = null;
     one_optional = false;
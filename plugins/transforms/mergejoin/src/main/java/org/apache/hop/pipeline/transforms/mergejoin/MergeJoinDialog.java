@@ -34,6 +34,7 @@ import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.dialog.MessageDialogWithToggle;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CCombo;
@@ -64,6 +65,10 @@ public class MergeJoinDialog extends BaseTransformDialog implements ITransformDi
 
   private TableView wKeys2;
 
+  private TextVar wMaxGroupRows;
+
+  private TextVar wSpillDirectory;
+
   private final MergeJoinMeta input;
 
   public MergeJoinDialog(
@@ -182,6 +187,47 @@ public class MergeJoinDialog extends BaseTransformDialog implements ITransformDi
     fdType.right = new FormAttachment(100, 0);
     wType.setLayoutData(fdType);
 
+    // Max. rows of a key in memory
+    Label wlMaxGroupRows = new Label(shell, SWT.RIGHT);
+    wlMaxGroupRows.setText(
+        BaseMessages.getString(PKG, "MergeJoinDialog.MaxGroupRowsInMemory.Label"));
+    wlMaxGroupRows.setToolTipText(
+        BaseMessages.getString(PKG, "MergeJoinDialog.MaxGroupRowsInMemory.Tooltip"));
+    PropsUi.setLook(wlMaxGroupRows);
+    FormData fdlMaxGroupRows = new FormData();
+    fdlMaxGroupRows.left = new FormAttachment(0, 0);
+    fdlMaxGroupRows.right = new FormAttachment(middle, -margin);
+    fdlMaxGroupRows.top = new FormAttachment(wType, margin);
+    wlMaxGroupRows.setLayoutData(fdlMaxGroupRows);
+    wMaxGroupRows = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMaxGroupRows.setToolTipText(
+        BaseMessages.getString(PKG, "MergeJoinDialog.MaxGroupRowsInMemory.Tooltip"));
+    PropsUi.setLook(wMaxGroupRows);
+    wMaxGroupRows.addModifyListener(lsMod);
+    FormData fdMaxGroupRows = new FormData();
+    fdMaxGroupRows.top = new FormAttachment(wType, margin);
+    fdMaxGroupRows.left = new FormAttachment(middle, 0);
+    fdMaxGroupRows.right = new FormAttachment(100, 0);
+    wMaxGroupRows.setLayoutData(fdMaxGroupRows);
+
+    // Directory of the temporary files
+    Label wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(BaseMessages.getString(PKG, "MergeJoinDialog.SpillDirectory.Label"));
+    PropsUi.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    fdlSpillDirectory.top = new FormAttachment(wMaxGroupRows, margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.top = new FormAttachment(wMaxGroupRows, margin);
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.right = new FormAttachment(100, 0);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+
     // Some buttons at the bottom
     //
     wOk = new Button(shell, SWT.PUSH);
@@ -219,7 +265,7 @@ public class MergeJoinDialog extends BaseTransformDialog implements ITransformDi
     PropsUi.setLook(wlKeys1);
     FormData fdlKeys1 = new FormData();
     fdlKeys1.left = new FormAttachment(0, 0);
-    fdlKeys1.top = new FormAttachment(wType, margin);
+    fdlKeys1.top = new FormAttachment(wSpillDirectory, margin);
     wlKeys1.setLayoutData(fdlKeys1);
 
     int nrKeyRows1 = input.getKeyFields1().size();
@@ -254,7 +300,7 @@ public class MergeJoinDialog extends BaseTransformDialog implements ITransformDi
     PropsUi.setLook(wlKeys2);
     FormData fdlKeys2 = new FormData();
     fdlKeys2.left = new FormAttachment(50, 0);
-    fdlKeys2.top = new FormAttachment(wType, margin);
+    fdlKeys2.top = new FormAttachment(wSpillDirectory, margin);
     wlKeys2.setLayoutData(fdlKeys2);
 
     int nrKeyRows2 = input.getKeyFields2().size();
@@ -303,6 +349,8 @@ public class MergeJoinDialog extends BaseTransformDialog implements ITransformDi
     } else {
       wType.setText(MergeJoinMeta.joinTypes[0]);
     }
+    wMaxGroupRows.setText(Const.NVL(input.getMaxGroupRowsInMemory(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getSpillDirectory(), ""));
 
     for (int i = 0; i < input.getKeyFields1().size(); i++) {
       TableItem item = wKeys1.table.getItem(i);
@@ -327,6 +375,8 @@ public class MergeJoinDialog extends BaseTransformDialog implements ITransformDi
     meta.setLeftTransformName(wTransform1.getText());
     meta.setRightTransformName(wTransform2.getText());
     meta.setJoinType(wType.getText());
+    meta.setMaxGroupRowsInMemory(wMaxGroupRows.getText());
+    meta.setSpillDirectory(wSpillDirectory.getText());
 
     meta.getKeyFields1().clear();
     for (TableItem item : wKeys1.getNonEmptyItems()) {
@@ -95,6 +95,18 @@ public class MergeJoinMeta extends BaseTransformMeta<MergeJoin, MergeJoinData> {
       injectionKeyDescription = "MergeJoin.Injection.KEY_FIELD2")
   private List<String> keyFields2;
 
+  @HopMetadataProperty(
+      key = "max_group_rows_in_memory",
+      injectionKey = "MAX_GROUP_ROWS_IN_MEMORY",
+      injectionKeyDescription = "MergeJoin.Injection.MAX_GROUP_ROWS_IN_MEMORY")
+  private String maxGroupRowsInMemory;
+
+  @HopMetadataProperty(
+      key = "spill_directory",
+      injectionKey = "SPILL_DIRECTORY",
+      injectionKeyDescription = "MergeJoin.Injection.SPILL_DIRECTORY")
+  private String spillDirectory;
+
   @Override
   public boolean excludeFromRowLayoutVerification() {
     return true;
@@ -103,6 +115,7 @@ public class MergeJoinMeta extends BaseTransformMeta<MergeJoin, MergeJoinData> {
   public MergeJoinMeta() {
     keyFields1 = new ArrayList<>();
     keyFields2 = new ArrayList<>();
+    spillDirectory = "${java.io.tmpdir}";
   }
 
   @Override
@@ -112,6 +125,8 @@ public class MergeJoinMeta extends BaseTransformMeta<MergeJoin, MergeJoinData> {
     meta.leftTransformName = this.leftTransformName;
     meta.rightTransformName = this.rightTransformName;
     meta.joinType = this.joinType;
+    meta.maxGroupRowsInMemory = this.maxGroupRowsInMemory;
+    meta.spillDirectory = this.spillDirectory;
     meta.keyFields1.addAll(this.keyFields1);
     meta.keyFields2.addAll(this.keyFields2);
 
@@ -299,4 +314,32 @@ public class MergeJoinMeta extends BaseTransformMeta<MergeJoin, MergeJoinData> {
   public void setKeyFields2(List<String> keyFields2) {
     this.keyFields2 = keyFields2;
   }
+
+  /**
+   * Gets maxGroupRowsInMemory
+   *
+   * @return value of maxGroupRowsInMemory
+   */
+  public String getMaxGroupRowsInMemory() {
+    return maxGroupRowsInMemory;
+  }
+
+  /** @param maxGroupRowsInMemory The maxGroupRowsInMemory to set */
+  public void setMaxGroupRowsInMemory(String maxGroupRowsInMemory) {
+    this.maxGroupRowsInMemory = maxGroupRowsInMemory;
+  }
+
+  /**
+   * Gets spillDirectory
+   *
+   * @return value of spillDirectory
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /** @param spillDirectory The spillDirectory to set */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
 }
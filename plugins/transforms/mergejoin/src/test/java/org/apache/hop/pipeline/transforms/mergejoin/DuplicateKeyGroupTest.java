@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.mergejoin;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DuplicateKeyGroupTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testReadGroupTwice() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    DuplicateKeyGroup group =
+        new DuplicateKeyGroup(rowMeta, 10, System.getProperty("java.io.tmpdir"));
+    try {
+      for (long i = 0; i < 100; i++) {
+        group.add(new Object[] {"key", i});
+      }
+      assertEquals(100L, group.size());
+      assertTrue(group.isSpilled());
+
+      for (int pass = 0; pass < 2; pass++) {
+        group.rewind();
+        for (long i = 0; i < 100; i++) {
+          assertArrayEquals(new Object[] {"key", i}, group.next());
+        }
+        assertNull(group.next());
+      }
+    } finally {
+      group.clear();
+    }
+    assertEquals(0L, group.size());
+    assertFalse(group.isSpilled());
+  }
+
+  @Test
+  public void testAllRowsInMemory() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+
+    DuplicateKeyGroup group = new DuplicateKeyGroup(rowMeta, 0, null);
+    for (long i = 0; i < 100; i++) {
+      group.add(new Object[] {i});
+    }
+    assertFalse(group.isSpilled());
+    group.rewind();
+    for (long i = 0; i < 100; i++) {
+      assertArrayEquals(new Object[] {i}, group.next());
+    }
+    assertNull(group.next());
+  }
+}
@@ -57,7 +57,13 @@ public class MergeJoinMetaTest {
     // SwitchCaseMeta bean-like attributes
     List<String> attributes =
         Arrays.asList(
-            "joinType", "keyFields1", "keyFields2", "leftTransformName", "rightTransformName");
+            "joinType",
+            "keyFields1",
+            "keyFields2",
+            "leftTransformName",
+            "rightTransformName",
+            "maxGroupRowsInMemory",
+            "spillDirectory");
 
     Map<String, IFieldLoadSaveValidator<?>> attrValidatorMap = new HashMap<>();
     attrValidatorMap.put(
@@ -182,11 +188,14 @@ public class MergeJoinMetaTest {
     meta.setKeyFields2(Arrays.asList("kf2-1", "kf2-2", "kf2-3"));
     // scalars should be cloned using super.clone() - makes sure they're calling super.clone()
     meta.setJoinType("INNER");
+    meta.setMaxGroupRowsInMemory("1000");
     MergeJoinMeta aClone = (MergeJoinMeta) meta.clone();
     assertNotSame(aClone, meta); // Not same object returned by clone
     assertEquals(meta.getKeyFields1(), aClone.getKeyFields1());
     assertEquals(meta.getKeyFields2(), aClone.getKeyFields2());
     assertEquals(meta.getJoinType(), aClone.getJoinType());
+    assertEquals(meta.getMaxGroupRowsInMemory(), aClone.getMaxGroupRowsInMemory());
+    assertEquals(meta.getSpillDirectory(), aClone.getSpillDirectory());
 
     assertNotNull(aClone.getTransformIOMeta());
     assertNotSame(meta.getTransformIOMeta(), aClone.getTransformIOMeta());
@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+
+/**
+ * Serializes rows in the PostgreSQL binary COPY format. The encoder of every column is chosen once,
+ * based on the type of the target column, so no formatting or escaping is needed per value.
+ */
+public class PGBinaryCopyEncoder {
+
+  private static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+
+  /** The number of seconds between 1970-01-01 and the PostgreSQL epoch 2000-01-01 */
+  private static final long PG_EPOCH_SECONDS = 946684800L;
+
+  private static final int SECONDS_PER_DAY = 86400;
+
+  private static final short NUMERIC_POSITIVE = 0x0000;
+  private static final short NUMERIC_NEGATIVE = 0x4000;
+  private static final short NUMERIC_NAN = (short) 0xC000;
+
+  private static final BigInteger NBASE = BigInteger.valueOf(10000);
+
+  @FunctionalInterface
+  interface IColumnEncoder {
+    void encode(PGCopyWriter out, IValueMeta valueMeta, Object valueData)
+        throws IOException, HopValueException;
+  }
+
+  private final int[] fieldNrs;
+  private final IValueMeta[] valueMetas;
+  private final IColumnEncoder[] encoders;
+  private final Charset charset;
+  private final ZoneRules zoneRules;
+
+  /**
+   * Create an encoder for the given input fields and target columns
+   *
+   * @param rowMeta The layout of the input rows
+   * @param fieldNrs The indexes of the fields to load
+   * @param columnNames The names of the target columns, used in error messages
+   * @param columnTypes The PostgreSQL type names of the target columns
+   * @param dateFormatChoices The date mask of every field
+   * @param charset The client encoding to use for text values
+   * @throws HopException In case a target column type can't be written in binary format
+   */
+  public PGBinaryCopyEncoder(
+      IRowMeta rowMeta,
+      int[] fieldNrs,
+      String[] columnNames,
+      String[] columnTypes,
+      int[] dateFormatChoices,
+      Charset charset)
+      throws HopException {
+    this.fieldNrs = fieldNrs;
+    this.charset = charset;
+    this.zoneRules = ZoneId.systemDefault().getRules();
+    this.valueMetas = new IValueMeta[fieldNrs.length];
+    this.encoders = new IColumnEncoder[fieldNrs.length];
+    for (int i = 0; i < fieldNrs.length; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(fieldNrs[i]);
+      encoders[i] = getEncoder(columnNames[i], columnTypes[i], dateFormatChoices[i]);
+    }
+  }
+
+  private IColumnEncoder getEncoder(String columnName, String columnType, int dateFormatChoice)
+      throws HopException {
+    boolean truncateToDate = dateFormatChoice == PGBulkLoaderMeta.NR_DATE_MASK_DATE;
+    switch (columnType.toLowerCase()) {
+      case "int2":
+      case "smallserial":
+        return (out, valueMeta, valueData) -> {
+          long value = valueMeta.getInteger(valueData);
+          checkRange(valueMeta, value, Short.MIN_VALUE, Short.MAX_VALUE);
+          out.writeInt(2);
+          out.writeShort((int) value);
+        };
+      case "int4":
+      case "serial":
+        return (out, valueMeta, valueData) -> {
+          long value = valueMeta.getInteger(valueData);
+          checkRange(valueMeta, value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+          out.writeInt(4);
+          out.writeInt((int) value);
+        };
+      case "int8":
+      case "bigserial":
+        return (out, valueMeta, valueData) -> {
+          out.writeInt(8);
+          out.writeLong(valueMeta.getInteger(valueData));
+        };
+      case "float4":
+        return (out, valueMeta, valueData) -> {
+          out.writeInt(4);
+          out.writeInt(Float.floatToIntBits(valueMeta.getNumber(valueData).floatValue()));
+        };
+      case "float8":
+        return (out, valueMeta, valueData) -> {
+          out.writeInt(8);
+          out.writeLong(Double.doubleToLongBits(valueMeta.getNumber(valueData)));
+        };
+      case "numeric":
+        return this::encodeNumeric;
+      case "bool":
+        return (out, valueMeta, valueData) -> {
+          out.writeInt(1);
+          out.write(valueMeta.getBoolean(valueData) ? 1 : 0);
+        };
+      case "text":
+      case "varchar":
+      case "bpchar":
+      case "name":
+      case "json":
+        return (out, valueMeta, valueData) -> {
+          byte[] bytes = valueMeta.getString(valueData).getBytes(charset);
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        };
+      case "bytea":
+        return (out, valueMeta, valueData) -> {
+          byte[] bytes = valueMeta.getBinary(valueData);
+          out.writeInt(bytes.length);
+          out.write(bytes);
+        };
+      case "date":
+        return (out, valueMeta, valueData) -> {
+          long seconds = localSeconds(valueMeta.getDate(valueData));
+          out.writeInt(4);
+          out.writeInt((int) Math.floorDiv(seconds, SECONDS_PER_DAY));
+        };
+      case "timestamp":
+        return (out, valueMeta, valueData) -> {
+          Date date = valueMeta.getDate(valueData);
+          long seconds = localSeconds(date);
+          long micros;
+          if (truncateToDate) {
+            seconds = Math.floorDiv(seconds, SECONDS_PER_DAY) * SECONDS_PER_DAY;
+            micros = 0;
+          } else {
+            micros = getMicros(date);
+          }
+          out.writeInt(8);
+          out.writeLong(seconds * 1000000L + micros);
+        };
+      case "timestamptz":
+        return (out, valueMeta, valueData) -> {
+          Date date = valueMeta.getDate(valueData);
+          long seconds = Math.floorDiv(date.getTime(), 1000L) - PG_EPOCH_SECONDS;
+          out.writeInt(8);
+          out.writeLong(seconds * 1000000L + getMicros(date));
+        };
+      default:
+        throw new HopException(
+            "Column "
+                + columnName
+                + " has data type "
+                + columnType
+                + " which can't be loaded with the binary COPY format, please use the text format");
+    }
+  }
+
+  private static void checkRange(IValueMeta valueMeta, long value, long min, long max)
+      throws HopValueException {
+    if (value < min || value > max) {
+      throw new HopValueException(
+          "Value " + value + " of field " + valueMeta.getName() + " is out of range");
+    }
+  }
+
+  /** The number of seconds since the PostgreSQL epoch in the local time zone */
+  private long localSeconds(Date date) {
+    long epochSeconds = Math.floorDiv(date.getTime(), 1000L);
+    int offset = zoneRules.getOffset(Instant.ofEpochSecond(epochSeconds)).getTotalSeconds();
+    return epochSeconds + offset - PG_EPOCH_SECONDS;
+  }
+
+  /** The fraction of the second in microseconds, PostgreSQL doesn't keep nanoseconds */
+  private static long getMicros(Date date) {
+    if (date instanceof Timestamp) {
+      return ((Timestamp) date).getNanos() / 1000;
+    }
+    return Math.floorMod(date.getTime(), 1000L) * 1000L;
+  }
+
+  private void encodeNumeric(PGCopyWriter out, IValueMeta valueMeta, Object valueData)
+      throws IOException, HopValueException {
+    BigDecimal value;
+    if (valueMeta.getType() == IValueMeta.TYPE_NUMBER) {
+      double number = valueMeta.getNumber(valueData);
+      if (Double.isNaN(number)) {
+        out.writeInt(8);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(NUMERIC_NAN);
+        out.writeShort(0);
+        return;
+      }
+      if (Double.isInfinite(number)) {
+        throw new HopValueException(
+            "Infinite value of field " + valueMeta.getName() + " can't be loaded as a numeric");
+      }
+      // The same digits as the text format
+      value = BigDecimal.valueOf(number);
+    } else {
+      value = valueMeta.getBigNumber(valueData);
+    }
+    writeNumeric(out, value);
+  }
+
+  /**
+   * Write a numeric value: the number of base 10000 digits, the weight of the first digit, the
+   * sign, the display scale and the digits themselves.
+   */
+  static void writeNumeric(PGCopyWriter out, BigDecimal value) throws IOException {
+    int displayScale = Math.max(value.scale(), 0);
+    BigInteger unscaled = value.unscaledValue().abs();
+    if (value.scale() < 0) {
+      unscaled = unscaled.multiply(BigInteger.TEN.pow(-value.scale()));
+    }
+
+    // Align the decimal point on a digit boundary
+    //
+    int fractionDigits = (displayScale + 3) / 4;
+    unscaled = unscaled.multiply(BigInteger.TEN.pow(fractionDigits * 4 - displayScale));
+
+    short[] digits = new short[unscaled.bitLength() / 13 + 1];
+    int nrDigits = 0;
+    if (unscaled.bitLength() < 63) {
+      long rest = unscaled.longValue();
+      while (rest != 0) {
+        digits[nrDigits++] = (short) (rest % 10000);
+        rest /= 10000;
+      }
+    } else {
+      while (unscaled.signum() != 0) {
+        BigInteger[] divRem = unscaled.divideAndRemainder(NBASE);
+        digits[nrDigits++] = divRem[1].shortValue();
+        unscaled = divRem[0];
+      }
+    }
+
+    // Trailing zero digits are not stored
+    //
+    int first = 0;
+    while (first < nrDigits && digits[first] == 0) {
+      first++;
+    }
+    int weight = nrDigits == 0 ? 0 : nrDigits - fractionDigits - 1;
+
+    out.writeInt(8 + 2 * (nrDigits - first));
+    out.writeShort(nrDigits - first);
+    out.writeShort(weight);
+    out.writeShort(value.signum() < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE);
+    out.writeShort(displayScale);
+    for (int i = nrDigits - 1; i >= first; i--) {
+      out.writeShort(digits[i]);
+    }
+  }
+
+  /** Write the signature, flags and (empty) header extension */
+  public void writeHeader(PGCopyWriter out) throws IOException {
+    out.write(SIGNATURE);
+    out.writeInt(0);
+    out.writeInt(0);
+  }
+
+  /**
+   * Write the fields of a row as one tuple
+   *
+   * @param out The stream to write to
+   * @param row The input row
+   * @throws IOException In case the data can't be written
+   * @throws HopValueException In case a value can't be converted to the column type
+   */
+  public void writeRow(PGCopyWriter out, Object[] row) throws IOException, HopValueException {
+    out.writeShort(fieldNrs.length);
+    for (int i = 0; i < fieldNrs.length; i++) {
+      IValueMeta valueMeta = valueMetas[i];
+      Object valueData = row[fieldNrs[i]];
+      // Same as the text format: only a missing value is loaded as NULL
+      //
+      if (valueData == null) {
+        out.writeInt(-1);
+      } else {
+        encoders[i].encode(out, valueMeta, valueData);
+      }
+    }
+  }
+
+  /** Write the end of data marker */
+  public void writeTrailer(PGCopyWriter out) throws IOException {
+    out.writeShort(-1);
+  }
+}
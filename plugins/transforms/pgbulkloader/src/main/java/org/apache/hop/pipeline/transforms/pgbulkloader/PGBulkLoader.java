@@ -40,7 +40,6 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.postgresql.PGConnection;
-import org.postgresql.copy.PGCopyOutputStream;
 
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
@@ -56,7 +55,7 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
   private static final Class<?> PKG = PGBulkLoaderMeta.class; // For Translator
 
   private Charset clientEncoding = Charset.defaultCharset();
-  private PGCopyOutputStream pgCopyOut;
+  private PGCopyWriter pgCopyOut;
 
   public PGBulkLoader(
       TransformMeta transformMeta,
@@ -110,12 +109,16 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     contents.append(" FROM STDIN"); // FIFO file
 
     // The "FORMAT" clause
-    contents
-        .append(" WITH CSV DELIMITER AS '")
-        .append(resolve(meta.getDelimiter()))
-        .append("' QUOTE AS '")
-        .append(resolve(meta.getEnclosure()))
-        .append("'");
+    if (meta.isBinaryFormat()) {
+      contents.append(" WITH ( FORMAT binary )");
+    } else {
+      contents
+          .append(" WITH CSV DELIMITER AS '")
+          .append(resolve(meta.getDelimiter()))
+          .append("' QUOTE AS '")
+          .append(resolve(meta.getEnclosure()))
+          .append("'");
+    }
     contents.append(";").append(Const.CR);
 
     return contents.toString();
@@ -154,14 +157,78 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
 
       processTruncate();
 
-      logBasic("Launching command: " + copyCmd);
-      pgCopyOut = new PGCopyOutputStream((PGConnection) data.db.getConnection(), copyCmd);
+      if (meta.isBinaryFormat()) {
+        data.binaryEncoder =
+            new PGBinaryCopyEncoder(
+                getInputRowMeta(),
+                data.keynrs,
+                getColumnNames(),
+                getColumnTypes(),
+                data.dateFormatChoices,
+                clientEncoding);
+      }
+
+      int flushSize = Const.toInt(resolve(meta.getFlushSize()), PGCopyWriter.DEFAULT_FLUSH_SIZE);
+      if (flushSize <= 0) {
+        flushSize = PGCopyWriter.DEFAULT_FLUSH_SIZE;
+      }
 
+      logBasic("Launching command: " + copyCmd);
+      pgCopyOut =
+          new PGCopyWriter(
+              ((PGConnection) data.db.getConnection()).getCopyAPI().copyIn(copyCmd),
+              flushSize,
+              getTransformName() + " - COPY writer");
+
+      if (data.binaryEncoder != null) {
+        data.binaryEncoder.writeHeader(pgCopyOut);
+      }
     } catch (Exception ex) {
       throw new HopException("Error while preparing the COPY " + copyCmd, ex);
     }
   }
 
+  private String[] getColumnNames() {
+    List<PGBulkLoaderMappingMeta> mappings = meta.getMappings();
+    String[] columnNames = new String[mappings.size()];
+    for (int i = 0; i < columnNames.length; i++) {
+      columnNames[i] = mappings.get(i).getFieldTable();
+    }
+    return columnNames;
+  }
+
+  /**
+   * The binary format has to match the column types exactly, so we ask the database for the type
+   * of every target column.
+   *
+   * @return The PostgreSQL type names of the target columns, in the order of the mapping
+   */
+  String[] getColumnTypes() throws Exception {
+    DatabaseMeta dm = meta.getDatabaseMeta();
+    String[] columnNames = getColumnNames();
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < columnNames.length; i++) {
+      if (i != 0) {
+        sql.append(", ");
+      }
+      sql.append(dm.quoteField(columnNames[i]));
+    }
+    sql.append(" FROM ")
+        .append(
+            dm.getQuotedSchemaTableCombination(this, meta.getSchemaName(), meta.getTableName()))
+        .append(" WHERE 1=0");
+
+    try (Statement statement = data.db.getConnection().createStatement();
+        ResultSet rs = statement.executeQuery(sql.toString())) {
+      String[] columnTypes = new String[columnNames.length];
+      for (int i = 0; i < columnTypes.length; i++) {
+        columnTypes[i] = rs.getMetaData().getColumnTypeName(i + 1);
+      }
+      return columnTypes;
+    }
+  }
+
   @VisibleForTesting
   Database getDatabase(ILoggingObject parentObject, PGBulkLoaderMeta pgBulkLoaderMeta) {
     DatabaseMeta dbMeta = pgBulkLoaderMeta.getDatabaseMeta();
@@ -215,9 +282,13 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         // Close the output stream...
         // will be null if no records (empty stream)
         if (data != null && pgCopyOut != null) {
-          pgCopyOut.flush();
-          pgCopyOut.endCopy();
+          if (data.binaryEncoder != null) {
+            data.binaryEncoder.writeTrailer(pgCopyOut);
+          }
+          long nrRows = pgCopyOut.endCopy();
           pgCopyOut.close();
+          pgCopyOut = null;
+          logDetailed("Number of rows loaded by the COPY command: " + nrRows);
           data.db.getConnection().close();
         }
 
@@ -243,7 +314,11 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
         //
       }
 
-      writeRowToPostgres(getInputRowMeta(), r);
+      if (data.binaryEncoder != null) {
+        data.binaryEncoder.writeRow(pgCopyOut, r);
+      } else {
+        writeRowToPostgres(getInputRowMeta(), r);
+      }
 
       putRow(getInputRowMeta(), r);
       incrementLinesOutput();
@@ -481,4 +556,15 @@ public class PGBulkLoader extends BaseTransform<PGBulkLoaderMeta, PGBulkLoaderDa
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    // Cancel the COPY command if the transform stopped before all rows were sent
+    //
+    if (pgCopyOut != null) {
+      closeQuietly(pgCopyOut);
+      pgCopyOut = null;
+    }
+    super.dispose();
+  }
 }
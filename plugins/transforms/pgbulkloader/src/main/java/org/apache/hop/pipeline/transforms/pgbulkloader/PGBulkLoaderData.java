@@ -52,6 +52,8 @@ public class PGBulkLoaderData extends BaseTransformData implements ITransformDat
   public IValueMeta dateMeta;
   public IValueMeta dateTimeMeta;
 
+  public PGBinaryCopyEncoder binaryEncoder;
+
   /** Default constructor. */
   public PGBulkLoaderData() {
     super();
@@ -92,6 +92,10 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
 
   private Button wStopOnError;
 
+  private Button wBinaryFormat;
+
+  private TextVar wFlushSize;
+
   private final PGBulkLoaderMeta input;
 
   private ColumnInfo[] ciReturn;
@@ -320,6 +324,53 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
           }
         });
 
+    // Binary format line
+    Label wlBinaryFormat = new Label(shell, SWT.RIGHT);
+    wlBinaryFormat.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.BinaryFormat.Label"));
+    wlBinaryFormat.setToolTipText(
+        BaseMessages.getString(PKG, "PGBulkLoaderDialog.BinaryFormat.Tooltip"));
+    PropsUi.setLook(wlBinaryFormat);
+    FormData fdlBinaryFormat = new FormData();
+    fdlBinaryFormat.left = new FormAttachment(0, 0);
+    fdlBinaryFormat.top = new FormAttachment(wStopOnError, margin);
+    fdlBinaryFormat.right = new FormAttachment(middle, -margin);
+    wlBinaryFormat.setLayoutData(fdlBinaryFormat);
+    wBinaryFormat = new Button(shell, SWT.CHECK);
+    PropsUi.setLook(wBinaryFormat);
+    FormData fdBinaryFormat = new FormData();
+    fdBinaryFormat.left = new FormAttachment(middle, 0);
+    fdBinaryFormat.top = new FormAttachment(wlBinaryFormat, 0, SWT.CENTER);
+    fdBinaryFormat.right = new FormAttachment(100, 0);
+    wBinaryFormat.setLayoutData(fdBinaryFormat);
+
+    wBinaryFormat.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            enableFields();
+          }
+        });
+
+    // Flush size line
+    Label wlFlushSize = new Label(shell, SWT.RIGHT);
+    wlFlushSize.setText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.FlushSize.Label"));
+    wlFlushSize.setToolTipText(BaseMessages.getString(PKG, "PGBulkLoaderDialog.FlushSize.Tooltip"));
+    PropsUi.setLook(wlFlushSize);
+    FormData fdlFlushSize = new FormData();
+    fdlFlushSize.left = new FormAttachment(0, 0);
+    fdlFlushSize.top = new FormAttachment(wBinaryFormat, margin);
+    fdlFlushSize.right = new FormAttachment(middle, -margin);
+    wlFlushSize.setLayoutData(fdlFlushSize);
+    wFlushSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wFlushSize);
+    wFlushSize.addModifyListener(lsMod);
+    FormData fdFlushSize = new FormData();
+    fdFlushSize.left = new FormAttachment(middle, 0);
+    fdFlushSize.top = new FormAttachment(wBinaryFormat, margin);
+    fdFlushSize.right = new FormAttachment(100, 0);
+    wFlushSize.setLayoutData(fdFlushSize);
+
     // THE BUTTONS
     wOk = new Button(shell, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -335,7 +386,7 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     PropsUi.setLook(wlReturn);
     FormData fdlReturn = new FormData();
     fdlReturn.left = new FormAttachment(0, 0);
-    fdlReturn.top = new FormAttachment(wStopOnError, margin);
+    fdlReturn.top = new FormAttachment(wFlushSize, margin);
     wlReturn.setLayoutData(fdlReturn);
 
     int upInsCols = 3;
@@ -493,6 +544,10 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
       wEnclosure.setText(input.getEnclosure());
     }
     wStopOnError.setSelection(input.isStopOnError());
+    wBinaryFormat.setSelection(input.isBinaryFormat());
+    if (input.getFlushSize() != null) {
+      wFlushSize.setText(input.getFlushSize());
+    }
     if (input.getDbNameOverride() != null) {
       wDbNameOverride.setText(input.getDbNameOverride());
     }
@@ -510,6 +565,8 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     wReturn.setRowNums();
     wReturn.optWidth(true);
 
+    enableFields();
+
     wTransformName.selectAll();
     wTransformName.setFocus();
   }
@@ -679,6 +736,13 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     }
   }
 
+  /** The enclosure and delimiter are only used by the text format */
+  private void enableFields() {
+    boolean textFormat = !wBinaryFormat.getSelection();
+    wEnclosure.setEnabled(textFormat);
+    wDelimiter.setEnabled(textFormat);
+  }
+
   private void cancel() {
     transformName = null;
     input.setChanged(changed);
@@ -717,6 +781,8 @@ public class PGBulkLoaderDialog extends BaseTransformDialog implements ITransfor
     inf.setDelimiter(wDelimiter.getText());
     inf.setEnclosure(wEnclosure.getText());
     inf.setStopOnError(wStopOnError.getSelection());
+    inf.setBinaryFormat(wBinaryFormat.getSelection());
+    inf.setFlushSize(wFlushSize.getText());
 
     /*
      * /* Set the loadaction
@@ -112,6 +112,18 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
       injectionKeyDescription = "PGBulkLoader.Injection.StopOnError.Label")
   private boolean stopOnError;
 
+  /** Use the binary COPY format instead of the text format */
+  @HopMetadataProperty(
+      key = "binary_format",
+      injectionKeyDescription = "PGBulkLoader.Injection.BinaryFormat.Label")
+  private boolean binaryFormat;
+
+  /** The number of bytes to send to the database at once */
+  @HopMetadataProperty(
+      key = "flush_size",
+      injectionKeyDescription = "PGBulkLoader.Injection.FlushSize.Label")
+  private String flushSize;
+
   /*
    * Do not translate following values!!! They are will end up in the workflow export.
    */
@@ -142,6 +154,8 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
     delimiter = ";";
     enclosure = "\"";
     stopOnError = false;
+    binaryFormat = false;
+    flushSize = Integer.toString(PGCopyWriter.DEFAULT_FLUSH_SIZE);
     mappings = new ArrayList<>();
   }
 
@@ -520,6 +534,26 @@ public class PGBulkLoaderMeta extends BaseTransformMeta<PGBulkLoader, PGBulkLoad
     this.stopOnError = value;
   }
 
+  /** @return the binaryFormat */
+  public boolean isBinaryFormat() {
+    return binaryFormat;
+  }
+
+  /** @param binaryFormat the binaryFormat to set */
+  public void setBinaryFormat(boolean binaryFormat) {
+    this.binaryFormat = binaryFormat;
+  }
+
+  /** @return the flushSize */
+  public String getFlushSize() {
+    return flushSize;
+  }
+
+  /** @param flushSize the flushSize to set */
+  public void setFlushSize(String flushSize) {
+    this.flushSize = flushSize;
+  }
+
   /** @return Returns the database. */
   @Override
   public DatabaseMeta getDatabaseMeta() {
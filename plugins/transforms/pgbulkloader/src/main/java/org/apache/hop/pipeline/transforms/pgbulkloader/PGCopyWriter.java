@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams the COPY data to the database. The rows are serialized in a buffer by the transform
+ * thread. Full buffers are handed over to a separate thread which sends them to the server. This
+ * way serialization and network writes happen at the same time.
+ */
+public class PGCopyWriter extends OutputStream {
+
+  /** The default number of bytes which are sent to the server at once */
+  public static final int DEFAULT_FLUSH_SIZE = 65536;
+
+  /** The number of buffers in flight: one being filled, the others being sent or waiting */
+  private static final int NR_BUFFERS = 4;
+
+  private static final ByteBuffer END_OF_DATA = ByteBuffer.allocate(0);
+
+  private final CopyIn copyIn;
+  private final BlockingQueue<ByteBuffer> freeBuffers;
+  private final BlockingQueue<ByteBuffer> fullBuffers;
+  private final Thread writerThread;
+
+  private volatile Exception error;
+  private volatile boolean cancelled;
+  private ByteBuffer buffer;
+  private boolean finished;
+
+  /**
+   * Start streaming data to a COPY ... FROM STDIN command
+   *
+   * @param copyIn The copy operation started on the connection
+   * @param flushSize The size of the buffers which are sent to the server
+   * @param threadName The name of the thread sending the data
+   */
+  public PGCopyWriter(CopyIn copyIn, int flushSize, String threadName) {
+    this.copyIn = copyIn;
+    this.freeBuffers = new ArrayBlockingQueue<>(NR_BUFFERS);
+    this.fullBuffers = new ArrayBlockingQueue<>(NR_BUFFERS + 1);
+    for (int i = 1; i < NR_BUFFERS; i++) {
+      freeBuffers.add(ByteBuffer.allocate(flushSize));
+    }
+    this.buffer = ByteBuffer.allocate(flushSize);
+
+    this.writerThread = new Thread(this::sendBuffers, threadName);
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  private void sendBuffers() {
+    try {
+      while (true) {
+        ByteBuffer full = fullBuffers.take();
+        if (full == END_OF_DATA) {
+          return;
+        }
+        // After an error we keep recycling the buffers so the transform thread never blocks
+        //
+        if (error == null && !cancelled) {
+          try {
+            copyIn.writeToCopy(full.array(), 0, full.position());
+          } catch (SQLException | RuntimeException e) {
+            error = e;
+          }
+        }
+        full.clear();
+        freeBuffers.put(full);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Make sure there are at least the given number of bytes available in the current buffer.
+   *
+   * @param size The number of bytes to reserve, never more than the flush size
+   */
+  private void ensureRemaining(int size) throws IOException {
+    if (buffer.remaining() < size) {
+      handOver();
+    }
+  }
+
+  private void handOver() throws IOException {
+    checkError();
+    if (buffer.position() == 0) {
+      return;
+    }
+    try {
+      fullBuffers.put(buffer);
+      buffer = freeBuffers.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while sending COPY data", e);
+    }
+  }
+
+  private void checkError() throws IOException {
+    if (error != null) {
+      throw new IOException("Error sending COPY data to the database", error);
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureRemaining(1);
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    while (length > 0) {
+      if (!buffer.hasRemaining()) {
+        handOver();
+      }
+      int chunk = Math.min(length, buffer.remaining());
+      buffer.put(bytes, offset, chunk);
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  /** Write a 16-bit integer in network byte order */
+  public void writeShort(int value) throws IOException {
+    ensureRemaining(2);
+    buffer.putShort((short) value);
+  }
+
+  /** Write a 32-bit integer in network byte order */
+  public void writeInt(int value) throws IOException {
+    ensureRemaining(4);
+    buffer.putInt(value);
+  }
+
+  /** Write a 64-bit integer in network byte order */
+  public void writeLong(long value) throws IOException {
+    ensureRemaining(8);
+    buffer.putLong(value);
+  }
+
+  /** Hand the data written so far over to the sending thread */
+  @Override
+  public void flush() throws IOException {
+    handOver();
+  }
+
+  /**
+   * Send the remaining data, wait until everything is sent and end the COPY command.
+   *
+   * @return The number of rows loaded by the server
+   * @throws IOException In case the data couldn't be sent or the server refused it
+   */
+  public long endCopy() throws IOException {
+    handOver();
+    finishWriterThread();
+    checkError();
+    try {
+      return copyIn.endCopy();
+    } catch (SQLException e) {
+      throw new IOException("Error ending the COPY command", e);
+    }
+  }
+
+  private void finishWriterThread() throws IOException {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    try {
+      fullBuffers.put(END_OF_DATA);
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while sending COPY data", e);
+    }
+  }
+
+  /** Stop sending data and cancel the COPY command if it is still active. */
+  @Override
+  public void close() throws IOException {
+    cancelled = true;
+    finishWriterThread();
+    try {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    } catch (SQLException e) {
+      throw new IOException("Error cancelling the COPY command", e);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pgbulkloader;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class PGBinaryCopyEncoderTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Test
+  public void testWriteRows() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+
+    PGBinaryCopyEncoder encoder =
+        new PGBinaryCopyEncoder(
+            rowMeta,
+            new int[] {1, 0, 2},
+            new String[] {"id", "name", "amount"},
+            new String[] {"int4", "varchar", "numeric"},
+            new int[3],
+            StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    // A tiny flush size to make sure values are split over buffers
+    PGCopyWriter writer = new PGCopyWriter(mockCopyIn(sent), 16, "test");
+    encoder.writeHeader(writer);
+    encoder.writeRow(writer, new Object[] {"héllo", 42L, new BigDecimal("-12345.678")});
+    encoder.writeRow(writer, new Object[] {null, 7L, null});
+    encoder.writeTrailer(writer);
+    writer.endCopy();
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(sent.toByteArray()));
+    byte[] signature = new byte[11];
+    in.readFully(signature);
+    assertEquals("PGCOPY\n", new String(signature, 0, 7, StandardCharsets.ISO_8859_1));
+    assertEquals(0, in.readInt()); // flags
+    assertEquals(0, in.readInt()); // header extension
+
+    // First row
+    assertEquals(3, in.readShort());
+    assertEquals(4, in.readInt());
+    assertEquals(42, in.readInt());
+    byte[] name = "héllo".getBytes(StandardCharsets.UTF_8);
+    assertEquals(name.length, in.readInt());
+    byte[] nameRead = new byte[name.length];
+    in.readFully(nameRead);
+    assertEquals("héllo", new String(nameRead, StandardCharsets.UTF_8));
+    // -12345.678 = -(1 * 10000 + 2345 + 6780 / 10000)
+    assertEquals(14, in.readInt());
+    assertEquals(3, in.readShort()); // digits
+    assertEquals(1, in.readShort()); // weight
+    assertEquals(0x4000, in.readShort()); // negative
+    assertEquals(3, in.readShort()); // display scale
+    assertEquals(1, in.readShort());
+    assertEquals(2345, in.readShort());
+    assertEquals(6780, in.readShort());
+
+    // Second row: nulls
+    assertEquals(3, in.readShort());
+    assertEquals(4, in.readInt());
+    assertEquals(7, in.readInt());
+    assertEquals(-1, in.readInt());
+    assertEquals(-1, in.readInt());
+
+    assertEquals(-1, in.readShort());
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testNumericWithoutFraction() throws Exception {
+    ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    PGCopyWriter writer = new PGCopyWriter(mockCopyIn(sent), 1024, "test");
+    PGBinaryCopyEncoder.writeNumeric(writer, new BigDecimal("1E+5"));
+    PGBinaryCopyEncoder.writeNumeric(writer, BigDecimal.ZERO);
+    writer.endCopy();
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(sent.toByteArray()));
+    // 100000 = 10 * 10000, the trailing zero digit isn't stored
+    assertEquals(10, in.readInt());
+    assertEquals(1, in.readShort());
+    assertEquals(1, in.readShort());
+    assertEquals(0, in.readShort());
+    assertEquals(0, in.readShort());
+    assertEquals(10, in.readShort());
+    // 0 has no digits at all
+    assertEquals(8, in.readInt());
+    assertEquals(0, in.readShort());
+    assertEquals(0, in.readShort());
+    assertEquals(0, in.readShort());
+    assertEquals(0, in.readShort());
+  }
+
+  @Test(expected = HopException.class)
+  public void testUnsupportedColumnType() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("id"));
+    new PGBinaryCopyEncoder(
+        rowMeta,
+        new int[] {0},
+        new String[] {"id"},
+        new String[] {"uuid"},
+        new int[1],
+        StandardCharsets.UTF_8);
+  }
+
+  private static CopyIn mockCopyIn(ByteArrayOutputStream sent) throws Exception {
+    CopyIn copyIn = mock(CopyIn.class);
+    doAnswer(
+            invocation -> {
+              Object[] args = invocation.getArguments();
+              sent.write((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+              return null;
+            })
+        .when(copyIn)
+        .writeToCopy(any(byte[].class), anyInt(), anyInt());
+    return copyIn;
+  }
+}
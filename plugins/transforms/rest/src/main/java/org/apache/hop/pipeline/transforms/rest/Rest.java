@@ -21,13 +21,23 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.AsyncCallExecutor;
 import org.apache.hop.core.util.HttpClientManager;
+import org.apache.hop.core.util.HttpClientUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
@@ -77,41 +87,79 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
   }
 
   protected Object[] callRest(Object[] rowData) throws HopException {
+    return callRest(rowData, getRequest(rowData));
+  }
+
+  /**
+   * Read everything the request needs from the input row. This is done on the transform thread so
+   * that the request itself can be executed in the background.
+   *
+   * @param rowData The input row
+   * @return The request
+   * @throws HopException In case a value can't be read
+   */
+  Request getRequest(Object[] rowData) throws HopException {
+    Request request = new Request();
+    request.url = data.realUrl;
+    request.method = data.method;
+
     // get dynamic url ?
     if (meta.isUrlInField()) {
-      data.realUrl = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
+      request.url = data.inputRowMeta.getString(rowData, data.indexOfUrlField);
     }
     // get dynamic method?
     if (meta.isDynamicMethod()) {
-      data.method = data.inputRowMeta.getString(rowData, data.indexOfMethod);
-      if (Utils.isEmpty(data.method)) {
+      request.method = data.inputRowMeta.getString(rowData, data.indexOfMethod);
+      if (Utils.isEmpty(request.method)) {
         throw new HopException(BaseMessages.getString(PKG, "Rest.Error.MethodMissing"));
       }
     }
+    if (data.useMatrixParams) {
+      request.matrixParamValues = new String[data.nrMatrixParams];
+      for (int i = 0; i < data.nrMatrixParams; i++) {
+        request.matrixParamValues[i] =
+            data.inputRowMeta.getString(rowData, data.indexOfMatrixParamFields[i]);
+      }
+    }
+    if (data.useParams) {
+      request.paramValues = new String[data.nrParams];
+      for (int i = 0; i < data.nrParams; i++) {
+        request.paramValues[i] = data.inputRowMeta.getString(rowData, data.indexOfParamFields[i]);
+      }
+    }
+    if (data.useHeaders) {
+      request.headerValues = new String[data.nrheader];
+      for (int i = 0; i < data.nrheader; i++) {
+        request.headerValues[i] = data.inputRowMeta.getString(rowData, data.indexOfHeaderFields[i]);
+      }
+    }
+    if (data.useBody) {
+      request.body = Const.NVL(data.inputRowMeta.getString(rowData, data.indexOfBodyField), null);
+    }
+    return request;
+  }
+
+  /**
+   * Execute a request with the shared client. This can be called from multiple threads at once.
+   *
+   * @param rowData The input row
+   * @param request The request to execute
+   * @return The output row
+   * @throws HopException In case the request failed
+   */
+  Object[] callRest(Object[] rowData, Request request) throws HopException {
     WebTarget webResource = null;
-    Client client = null;
     Object[] newRow = null;
     if (rowData != null) {
       newRow = rowData.clone();
     }
     try {
       if (isDetailed()) {
-        logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", data.realUrl));
-      }
-      ClientBuilder clientBuilder = ClientBuilder.newBuilder();
-      clientBuilder
-          .withConfig(data.config)
-          .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true);
-      if (meta.isIgnoreSsl() || !Utils.isEmpty(data.trustStoreFile)) {
-        clientBuilder.sslContext(data.sslContext);
-        clientBuilder.hostnameVerifier((s1, s2) -> true);
-      }
-      client = clientBuilder.build();
-      if (data.basicAuthentication != null) {
-        client.register(data.basicAuthentication);
+        logDetailed(BaseMessages.getString(PKG, "Rest.Log.ConnectingToURL", request.url));
       }
+      Client client = getClient();
       // create a WebResource object, which encapsulates a web resource for the client
-      webResource = client.target(data.realUrl);
+      webResource = client.target(request.url);
 
       // used for calculating the responseTime
       long startTime = System.currentTimeMillis();
@@ -120,7 +168,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
         // Add matrix parameters
         UriBuilder builder = webResource.getUriBuilder();
         for (int i = 0; i < data.nrMatrixParams; i++) {
-          String value = data.inputRowMeta.getString(rowData, data.indexOfMatrixParamFields[i]);
+          String value = request.matrixParamValues[i];
           if (isDebug()) {
             logDebug(
                 BaseMessages.getString(
@@ -137,7 +185,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (data.useParams) {
         // Add query parameters
         for (int i = 0; i < data.nrParams; i++) {
-          String value = data.inputRowMeta.getString(rowData, data.indexOfParamFields[i]);
+          String value = request.paramValues[i];
           if (isDebug()) {
             logDebug(
                 BaseMessages.getString(
@@ -154,7 +202,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (data.useHeaders) {
         // Add headers
         for (int i = 0; i < data.nrheader; i++) {
-          String value = data.inputRowMeta.getString(rowData, data.indexOfHeaderFields[i]);
+          String value = request.headerValues[i];
 
           // unsure if an already set header will be returned to builder
           invocationBuilder.header(data.headerNames[i], value);
@@ -172,33 +220,33 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       String entityString = null;
       if (data.useBody) {
         // Set Http request entity
-        entityString = Const.NVL(data.inputRowMeta.getString(rowData, data.indexOfBodyField), null);
+        entityString = request.body;
         if (isDebug()) {
           logDebug(BaseMessages.getString(PKG, "Rest.Log.BodyValue", entityString));
         }
       }
       try {
-        if (data.method.equals(RestMeta.HTTP_METHOD_GET)) {
+        if (request.method.equals(RestMeta.HTTP_METHOD_GET)) {
           response = invocationBuilder.get(Response.class);
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_POST)) {
+        } else if (request.method.equals(RestMeta.HTTP_METHOD_POST)) {
           if (null != contentType) {
             response = invocationBuilder.post(Entity.entity(entityString, contentType));
           } else {
             response = invocationBuilder.post(Entity.entity(entityString, data.mediaType));
           }
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_PUT)) {
+        } else if (request.method.equals(RestMeta.HTTP_METHOD_PUT)) {
           if (null != contentType) {
             response = invocationBuilder.put(Entity.entity(entityString, contentType));
           } else {
             response = invocationBuilder.put(Entity.entity(entityString, data.mediaType));
           }
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_DELETE)) {
+        } else if (request.method.equals(RestMeta.HTTP_METHOD_DELETE)) {
           response = invocationBuilder.delete();
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_HEAD)) {
+        } else if (request.method.equals(RestMeta.HTTP_METHOD_HEAD)) {
           response = invocationBuilder.head();
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_OPTIONS)) {
+        } else if (request.method.equals(RestMeta.HTTP_METHOD_OPTIONS)) {
           response = invocationBuilder.options();
-        } else if (data.method.equals(RestMeta.HTTP_METHOD_PATCH)) {
+        } else if (request.method.equals(RestMeta.HTTP_METHOD_PATCH)) {
           if (null != contentType) {
             response =
                 invocationBuilder.method(
@@ -210,7 +258,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
           }
         } else {
           throw new HopException(
-              BaseMessages.getString(PKG, "Rest.Error.UnknownMethod", data.method));
+              BaseMessages.getString(PKG, "Rest.Error.UnknownMethod", request.method));
         }
       } catch (Exception e) {
         throw new HopException("Request could not be processed", e);
@@ -220,7 +268,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (isDetailed()) {
         logDetailed(
             BaseMessages.getString(
-                PKG, "Rest.Log.ResponseTime", String.valueOf(responseTime), data.realUrl));
+                PKG, "Rest.Log.ResponseTime", String.valueOf(responseTime), request.url));
       }
 
       // Get status
@@ -276,18 +324,47 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       }
     } catch (Exception e) {
       throw new HopException(
-          BaseMessages.getString(PKG, "Rest.Error.CanNotReadURL", data.realUrl), e);
+          BaseMessages.getString(PKG, "Rest.Error.CanNotReadURL", request.url), e);
     } finally {
       if (webResource != null) {
         webResource = null;
       }
-      if (client != null) {
-        client.close();
-      }
     }
     return newRow;
   }
 
+  /**
+   * The client is thread-safe: it's created once and shared by all the requests of this transform
+   * copy so that connections are kept alive and reused.
+   */
+  private synchronized Client getClient() {
+    if (data.client == null) {
+      ClientBuilder clientBuilder = ClientBuilder.newBuilder();
+      clientBuilder
+          .withConfig(data.config)
+          .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true);
+      if (meta.isIgnoreSsl() || !Utils.isEmpty(data.trustStoreFile)) {
+        clientBuilder.sslContext(data.sslContext);
+        clientBuilder.hostnameVerifier((s1, s2) -> true);
+      }
+      data.client = clientBuilder.build();
+      if (data.basicAuthentication != null) {
+        data.client.register(data.basicAuthentication);
+      }
+    }
+    return data.client;
+  }
+
+  /** The values of a single request, read from the input row. */
+  static class Request {
+    String url;
+    String method;
+    String[] matrixParamValues;
+    String[] paramValues;
+    String[] headerValues;
+    String body;
+  }
+
   private void setConfig() throws HopException {
     if (data.config == null) {
       // Use ApacheHttpClient for supporting proxy authentication.
@@ -316,9 +393,36 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       if (meta.isIgnoreSsl()) {
         setTrustAll();
       }
+      if (data.concurrentRequests > 1) {
+        setConnectionManager();
+      }
     }
   }
 
+  /**
+   * The default connection pool of the Apache connector only allows 2 connections per host. Size
+   * the pool to the number of concurrent requests instead.
+   */
+  private void setConnectionManager() {
+    SSLConnectionSocketFactory sslSocketFactory;
+    if (data.sslContext != null) {
+      sslSocketFactory =
+          new SSLConnectionSocketFactory(data.sslContext, NoopHostnameVerifier.INSTANCE);
+    } else {
+      sslSocketFactory = SSLConnectionSocketFactory.getSystemSocketFactory();
+    }
+    Registry<ConnectionSocketFactory> registry =
+        RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", sslSocketFactory)
+            .build();
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager(registry);
+    connectionManager.setMaxTotal(data.concurrentRequests);
+    connectionManager.setDefaultMaxPerRoute(data.concurrentRequests);
+    data.config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager);
+  }
+
   private void setTrustAll() throws HopException {
     try {
       SSLContext ctx = HttpClientManager.getTrustAllSslContext();
@@ -365,7 +469,15 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
 
     if (r == null) {
-      // no more input to be expected...
+      // no more input to be expected, wait for the requests in flight
+      if (data.executor != null) {
+        AsyncCallExecutor.Result<Object[]> result;
+        while ((result = takeResult()) != null) {
+          if (!putResult(result)) {
+            return false;
+          }
+        }
+      }
       setOutputDone();
       return false;
     }
@@ -486,6 +598,11 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
         }
       }
     } // end if first
+
+    if (data.executor != null) {
+      return submitRequest(r);
+    }
+
     try {
       Object[] outputRowData = callRest(r);
       putRow(data.outputRowMeta, outputRowData); // copy row to output rowset(s)
@@ -493,23 +610,80 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
         logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
       }
     } catch (HopException e) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError(BaseMessages.getString(PKG, "Rest.ErrorInTransformRunning") + e.getMessage());
-        setErrors(1);
-        logError(Const.getStackTracker(e));
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
+      return handleError(r, e);
+    }
+    return true;
+  }
+
+  /**
+   * Execute the request for a row in the background. The results which are available are passed
+   * on right away, we only wait for a result when the maximum number of requests are in flight.
+   */
+  private boolean submitRequest(Object[] r) throws HopException {
+    Request request;
+    try {
+      request = getRequest(r);
+    } catch (HopException e) {
+      return handleError(r, e);
+    }
+
+    while (data.executor.isFull()) {
+      if (!putResult(takeResult())) {
+        return false;
+      }
+    }
+    data.executor.submit(HttpClientUtil.getHost(request.url), r, () -> callRest(r, request));
+
+    AsyncCallExecutor.Result<Object[]> result;
+    while ((result = data.executor.poll()) != null) {
+      if (!putResult(result)) {
         return false;
       }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(getInputRowMeta(), r, 1, errorMessage, null, "Rest001");
+    }
+    return true;
+  }
+
+  private AsyncCallExecutor.Result<Object[]> takeResult() throws HopException {
+    try {
+      return data.executor.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(BaseMessages.getString(PKG, "Rest.Error.Interrupted"), e);
+    }
+  }
+
+  private boolean putResult(AsyncCallExecutor.Result<Object[]> result) throws HopException {
+    Exception exception = result.getException();
+    if (exception != null) {
+      if (exception instanceof HopException) {
+        return handleError(result.getRow(), (HopException) exception);
       }
+      return handleError(result.getRow(), new HopException(exception));
+    }
+    putRow(data.outputRowMeta, result.getValue()); // copy row to output rowset(s)
+    if (checkFeedback(getLinesRead()) && isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "Rest.LineNumber") + getLinesRead());
+    }
+    return true;
+  }
+
+  private boolean handleError(Object[] r, HopException e) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+    if (getTransformMeta().isDoingErrorHandling()) {
+      sendToErrorRow = true;
+      errorMessage = e.toString();
+    } else {
+      logError(BaseMessages.getString(PKG, "Rest.ErrorInTransformRunning") + e.getMessage());
+      setErrors(1);
+      logError(Const.getStackTracker(e));
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    if (sendToErrorRow) {
+      // Simply add this row to the error row
+      putError(getInputRowMeta(), r, 1, errorMessage, null, "Rest001");
     }
     return true;
   }
@@ -561,12 +735,28 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
       } else {
         data.mediaType = MediaType.TEXT_PLAIN_TYPE;
       }
+      data.concurrentRequests = Math.max(1, Const.toInt(resolve(meta.getConcurrentRequests()), 1));
+      int maxRetries = Math.max(0, Const.toInt(resolve(meta.getMaxRetries()), 0));
+
       try {
         setConfig();
       } catch (Exception e) {
         logError(BaseMessages.getString(PKG, "Rest.Error.Config"), e);
         return false;
       }
+
+      // Execute the requests in the background if we need more than one in flight or retries
+      //
+      if (data.concurrentRequests > 1 || maxRetries > 0) {
+        data.executor =
+            new AsyncCallExecutor<>(
+                getTransformName() + "." + getCopy(),
+                data.concurrentRequests,
+                Const.toInt(resolve(meta.getMaxRequestsPerHost()), 0),
+                meta.isPreserveOrder(),
+                maxRetries,
+                Const.toLong(resolve(meta.getRetryDelay()), 1000L));
+      }
       return true;
     }
     return false;
@@ -575,6 +765,14 @@ public class Rest extends BaseTransform<RestMeta, RestData> {
   @Override
   public void dispose() {
 
+    if (data.executor != null) {
+      data.executor.shutdown();
+      data.executor = null;
+    }
+    if (data.client != null) {
+      data.client.close();
+      data.client = null;
+    }
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
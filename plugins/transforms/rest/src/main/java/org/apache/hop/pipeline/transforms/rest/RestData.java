@@ -18,12 +18,14 @@
 package org.apache.hop.pipeline.transforms.rest;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.AsyncCallExecutor;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
 
 import javax.net.ssl.SSLContext;
+import javax.ws.rs.client.Client;
 import javax.ws.rs.core.MediaType;
 
 public class RestData extends BaseTransformData implements ITransformData {
@@ -99,6 +101,15 @@ public class RestData extends BaseTransformData implements ITransformData {
 
   public SSLContext sslContext;
 
+  /** The client, shared by all the requests of this transform copy */
+  public Client client;
+
+  /** The number of requests in flight at the same time */
+  public int concurrentRequests;
+
+  /** Executes the requests in the background, null to call the service row by row */
+  public AsyncCallExecutor<Object[]> executor;
+
   public RestData() {
     super();
     this.indexOfUrlField = -1;
@@ -121,5 +132,8 @@ public class RestData extends BaseTransformData implements ITransformData {
     this.trustStorePassword = null;
     this.basicAuthentication = null;
     this.sslContext = null;
+    this.client = null;
+    this.concurrentRequests = 1;
+    this.executor = null;
   }
 }
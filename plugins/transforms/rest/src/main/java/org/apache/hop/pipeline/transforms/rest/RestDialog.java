@@ -52,6 +52,7 @@ import org.eclipse.swt.layout.FormData;
 import org.eclipse.swt.layout.FormLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
@@ -129,6 +130,16 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
 
   private Button wIgnoreSsl;
 
+  private TextVar wConcurrentRequests;
+
+  private TextVar wMaxRequestsPerHost;
+
+  private Button wPreserveOrder;
+
+  private TextVar wMaxRetries;
+
+  private TextVar wRetryDelay;
+
   private boolean gotPreviousFields = false;
 
   private Button wMatrixGet;
@@ -220,6 +231,8 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     // END Output Fields GROUP
     // ////////////////////////
 
+    setupConcurrencyGroup(lsMod, middle, margin, wGeneralComp, gOutputFields);
+
     FormData fdGeneralComp = new FormData();
     fdGeneralComp.left = new FormAttachment(0, 0);
     fdGeneralComp.top = new FormAttachment(wTransformName, margin);
@@ -958,6 +971,87 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     wResult.setLayoutData(fdResult);
   }
 
+  private void setupConcurrencyGroup(
+      ModifyListener lsMod, int middle, int margin, Composite wGeneralComp, Group gOutputFields) {
+    Group gConcurrency = new Group(wGeneralComp, SWT.SHADOW_ETCHED_IN);
+    gConcurrency.setText(BaseMessages.getString(PKG, "RestDialog.ConcurrencyGroup.Label"));
+    FormLayout concurrencyLayout = new FormLayout();
+    concurrencyLayout.marginWidth = 3;
+    concurrencyLayout.marginHeight = 3;
+    gConcurrency.setLayout(concurrencyLayout);
+    PropsUi.setLook(gConcurrency);
+
+    wConcurrentRequests =
+        setupConcurrencyLine(lsMod, middle, margin, gConcurrency, null, "ConcurrentRequests");
+    wMaxRequestsPerHost =
+        setupConcurrencyLine(
+            lsMod, middle, margin, gConcurrency, wConcurrentRequests, "MaxRequestsPerHost");
+
+    // Preserve order line
+    Label wlPreserveOrder = new Label(gConcurrency, SWT.RIGHT);
+    wlPreserveOrder.setText(BaseMessages.getString(PKG, "RestDialog.PreserveOrder.Label"));
+    PropsUi.setLook(wlPreserveOrder);
+    FormData fdlPreserveOrder = new FormData();
+    fdlPreserveOrder.left = new FormAttachment(0, 0);
+    fdlPreserveOrder.top = new FormAttachment(wMaxRequestsPerHost, margin);
+    fdlPreserveOrder.right = new FormAttachment(middle, -margin);
+    wlPreserveOrder.setLayoutData(fdlPreserveOrder);
+    wPreserveOrder = new Button(gConcurrency, SWT.CHECK);
+    wPreserveOrder.setToolTipText(BaseMessages.getString(PKG, "RestDialog.PreserveOrder.Tooltip"));
+    PropsUi.setLook(wPreserveOrder);
+    FormData fdPreserveOrder = new FormData();
+    fdPreserveOrder.left = new FormAttachment(middle, 0);
+    fdPreserveOrder.top = new FormAttachment(wlPreserveOrder, 0, SWT.CENTER);
+    fdPreserveOrder.right = new FormAttachment(100, 0);
+    wPreserveOrder.setLayoutData(fdPreserveOrder);
+    wPreserveOrder.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
+    wMaxRetries =
+        setupConcurrencyLine(lsMod, middle, margin, gConcurrency, wlPreserveOrder, "MaxRetries");
+    wRetryDelay =
+        setupConcurrencyLine(lsMod, middle, margin, gConcurrency, wMaxRetries, "RetryDelay");
+
+    FormData fdConcurrency = new FormData();
+    fdConcurrency.left = new FormAttachment(0, 0);
+    fdConcurrency.right = new FormAttachment(100, 0);
+    fdConcurrency.top = new FormAttachment(gOutputFields, margin);
+    gConcurrency.setLayoutData(fdConcurrency);
+  }
+
+  private TextVar setupConcurrencyLine(
+      ModifyListener lsMod,
+      int middle,
+      int margin,
+      Group gConcurrency,
+      Control previous,
+      String name) {
+    Label wlLine = new Label(gConcurrency, SWT.RIGHT);
+    wlLine.setText(BaseMessages.getString(PKG, "RestDialog." + name + ".Label"));
+    PropsUi.setLook(wlLine);
+    FormData fdlLine = new FormData();
+    fdlLine.left = new FormAttachment(0, 0);
+    fdlLine.right = new FormAttachment(middle, -margin);
+    fdlLine.top =
+        previous == null ? new FormAttachment(0, margin) : new FormAttachment(previous, margin);
+    wlLine.setLayoutData(fdlLine);
+    TextVar wLine = new TextVar(variables, gConcurrency, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wLine.setToolTipText(BaseMessages.getString(PKG, "RestDialog." + name + ".Tooltip"));
+    PropsUi.setLook(wLine);
+    wLine.addModifyListener(lsMod);
+    FormData fdLine = new FormData();
+    fdLine.left = new FormAttachment(middle, 0);
+    fdLine.top = fdlLine.top;
+    fdLine.right = new FormAttachment(100, 0);
+    wLine.setLayoutData(fdLine);
+    return wLine;
+  }
+
   private Group setupOutputFieldGroup(Composite wGeneralComp) {
     Group gOutputFields = new Group(wGeneralComp, SWT.SHADOW_ETCHED_IN);
     gOutputFields.setText(BaseMessages.getString(PKG, "RestDialog.OutputFieldsGroup.Label"));
@@ -1416,6 +1510,11 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
       wTrustStorePassword.setText(input.getTrustStorePassword());
     }
     wIgnoreSsl.setSelection(input.isIgnoreSsl());
+    wConcurrentRequests.setText(Const.NVL(input.getConcurrentRequests(), ""));
+    wMaxRequestsPerHost.setText(Const.NVL(input.getMaxRequestsPerHost(), ""));
+    wPreserveOrder.setSelection(input.isPreserveOrder());
+    wMaxRetries.setText(Const.NVL(input.getMaxRetries(), ""));
+    wRetryDelay.setText(Const.NVL(input.getRetryDelay(), ""));
     if (input.getResponseHeaderFieldName() != null) {
       wResponseHeader.setText(input.getResponseHeaderFieldName());
     }
@@ -1487,6 +1586,11 @@ public class RestDialog extends BaseTransformDialog implements ITransformDialog
     input.setTrustStoreFile(wTrustStoreFile.getText());
     input.setTrustStorePassword(wTrustStorePassword.getText());
     input.setIgnoreSsl(wIgnoreSsl.getSelection());
+    input.setConcurrentRequests(wConcurrentRequests.getText());
+    input.setMaxRequestsPerHost(wMaxRequestsPerHost.getText());
+    input.setPreserveOrder(wPreserveOrder.getSelection());
+    input.setMaxRetries(wMaxRetries.getText());
+    input.setRetryDelay(wRetryDelay.getText());
     input.setApplicationType(wApplicationType.getText());
     transformName = wTransformName.getText(); // return value
 
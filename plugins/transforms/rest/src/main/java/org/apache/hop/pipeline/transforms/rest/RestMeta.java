@@ -138,6 +138,21 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
 
   private boolean ignoreSsl;
 
+  /** The number of requests in flight at the same time, 1 to call the service row by row */
+  private String concurrentRequests;
+
+  /** The maximum number of requests in flight to the same host, 0 or empty for no limit */
+  private String maxRequestsPerHost;
+
+  /** Keep the order of the input rows when requests are executed concurrently */
+  private boolean preserveOrder;
+
+  /** The number of times a failed request is retried */
+  private String maxRetries;
+
+  /** The delay in ms before the first retry, doubled on every next retry */
+  private String retryDelay;
+
   public RestMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -300,6 +315,56 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
     this.ignoreSsl = ignoreSsl;
   }
 
+  /** @return Returns the number of concurrent requests. */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /** @param concurrentRequests The number of concurrent requests to set. */
+  public void setConcurrentRequests(String concurrentRequests) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /** @return Returns the maximum number of concurrent requests per host. */
+  public String getMaxRequestsPerHost() {
+    return maxRequestsPerHost;
+  }
+
+  /** @param maxRequestsPerHost The maximum number of concurrent requests per host to set. */
+  public void setMaxRequestsPerHost(String maxRequestsPerHost) {
+    this.maxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  /** @return Returns true if the order of the input rows is kept. */
+  public boolean isPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /** @param preserveOrder Set to true to keep the order of the input rows. */
+  public void setPreserveOrder(boolean preserveOrder) {
+    this.preserveOrder = preserveOrder;
+  }
+
+  /** @return Returns the maximum number of retries. */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /** @param maxRetries The maximum number of retries to set. */
+  public void setMaxRetries(String maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /** @return Returns the retry delay in ms. */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /** @param retryDelay The retry delay in ms to set. */
+  public void setRetryDelay(String retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -349,6 +414,11 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
+    this.concurrentRequests = "1";
+    this.maxRequestsPerHost = "";
+    this.preserveOrder = true;
+    this.maxRetries = "0";
+    this.retryDelay = "1000";
   }
 
   @Override
@@ -415,6 +485,12 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
                 "trustStorePassword", Encr.encryptPasswordIfNotUsingVariables(trustStorePassword)));
     retval.append("    ").append(XmlHandler.addTagValue("ignoreSsl", ignoreSsl));
 
+    retval.append("    ").append(XmlHandler.addTagValue("concurrentRequests", concurrentRequests));
+    retval.append("    ").append(XmlHandler.addTagValue("maxRequestsPerHost", maxRequestsPerHost));
+    retval.append("    ").append(XmlHandler.addTagValue("preserveOrder", preserveOrder));
+    retval.append("    ").append(XmlHandler.addTagValue("maxRetries", maxRetries));
+    retval.append("    ").append(XmlHandler.addTagValue("retryDelay", retryDelay));
+
     retval.append("    <headers>").append(Const.CR);
     for (int i = 0, len = (headerName != null ? headerName.length : 0); i < len; i++) {
       retval.append("      <header>").append(Const.CR);
@@ -483,6 +559,13 @@ public class RestMeta extends BaseTransformMeta<Rest, RestData> {
               XmlHandler.getTagValue(transformNode, "trustStorePassword"));
       ignoreSsl = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ignoreSsl"));
 
+      concurrentRequests = XmlHandler.getTagValue(transformNode, "concurrentRequests");
+      maxRequestsPerHost = XmlHandler.getTagValue(transformNode, "maxRequestsPerHost");
+      // Keep the order of the rows unless it was switched off explicitly
+      preserveOrder = !"N".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preserveOrder"));
+      maxRetries = XmlHandler.getTagValue(transformNode, "maxRetries");
+      retryDelay = XmlHandler.getTagValue(transformNode, "retryDelay");
+
       Node headernode = XmlHandler.getSubNode(transformNode, "headers");
       int nrheaders = XmlHandler.countNodes(headernode, "header");
       Node paramnode = XmlHandler.getSubNode(transformNode, "parameters");
@@ -82,6 +82,11 @@ public class RestMetaTest {
             "preemptive",
             "trustStoreFile",
             "trustStorePassword",
+            "concurrentRequests",
+            "maxRequestsPerHost",
+            "preserveOrder",
+            "maxRetries",
+            "retryDelay",
             "headerField",
             "headerName",
             "parameterField",
@@ -22,10 +22,10 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
-import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.SortKeyEncoder;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -33,19 +33,17 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPOutputStream;
 
 /** Sort the rows in the input-streams based on certain criteria */
@@ -168,7 +166,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       }
 
       // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
+      data.bufferSizes.add((long) (data.buffer.size() - duplicates.size()));
 
       int duplicatesIndex = 0;
       for (p = 0; p < data.buffer.size(); p++) {
@@ -219,61 +217,35 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
-  }
-
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
+  Object[] getBuffer() throws HopException {
     Object[] retval;
 
     // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
-      if (log.isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
-      }
-
+    if (CollectionUtils.isNotEmpty(data.files) && data.mergeQueue == null) {
       try {
-        for (int f = 0; f < data.files.size() && !isStopped(); f++) {
-          FileObject fileObject = data.files.get(f);
-          String filename = HopVfs.getFilename(fileObject);
-          if (log.isDetailed()) {
-            logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
-          }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
-          data.dis.add(di);
-
-          // How long is the buffer?
-          int buffersize = data.bufferSizes.get(f);
-
-          if (log.isDetailed()) {
-            logDetailed(
-                BaseMessages.getString(
-                    PKG, "SortRows.Detailed.FromFileExpectingRows", filename, buffersize));
-          }
-
-          if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
-            data.tempRows.add(new RowTempFile(row, f));
-          }
+        // Too many files to merge at once? Merge them down in intermediate passes first.
+        //
+        while (data.files.size() > data.mergeFanIn && !isStopped()) {
+          mergePass();
         }
 
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
+        if (log.isBasic()) {
+          logBasic(
+              BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
+        }
+        data.mergeQueue = openRuns(data.files, data.bufferSizes);
       } catch (Exception e) {
+        // The sorted rows in the temporary files can't be read back: fail instead of dropping them
+        //
         logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
+        setErrors(1);
+        stopAll();
+        clearBuffers();
+        throw new HopException(
+            BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
       }
     }
 
@@ -287,82 +259,193 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         retval = null;
       }
     } else {
-      // read from disk processing
-
-      if (data.rowbuffer.isEmpty()) {
+      // read from disk processing: the run with the smallest row is at the head of the queue
+      //
+      SortRunReader reader = data.mergeQueue.poll();
+      if (reader == null) {
         retval = null;
       } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
+        retval = reader.getRow();
+
+        // now get another row from the same run
         //
-        if (log.isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
-            logRowlevel(
-                BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
+        try {
+          if (reader.next()) {
+            data.mergeQueue.add(reader);
+          } else {
+            closeRun(reader);
           }
+        } catch (HopException e) {
+          throw new HopValueException(
+              BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
         }
+      }
+    }
+    return retval;
+  }
 
-        RowTempFile rowTempFile = data.tempRows.remove(0);
-        retval = rowTempFile.row;
-        int smallest = rowTempFile.fileNumber;
+  /**
+   * Open the given sorted runs and read the first row of each of them.
+   *
+   * @param files The temporary files to open
+   * @param sizes The number of rows in each of the files
+   * @return A queue with all the runs which have rows, ordered by their first row
+   * @throws HopException in case a file can't be read
+   */
+  private PriorityQueue<SortRunReader> openRuns(List<FileObject> files, List<Long> sizes)
+      throws HopException {
+    PriorityQueue<SortRunReader> queue =
+        new PriorityQueue<>(Math.max(1, files.size()), data.comparator);
+    try {
+      openRuns(files, sizes, queue);
+    } catch (HopException | RuntimeException e) {
+      // Don't leave the runs which were already opened behind
+      //
+      for (SortRunReader reader : queue) {
+        reader.close();
+      }
+      throw e;
+    }
+    return queue;
+  }
 
-        // now get another Row for position smallest
+  private void openRuns(
+      List<FileObject> files, List<Long> sizes, PriorityQueue<SortRunReader> queue)
+      throws HopException {
+    for (int f = 0; f < files.size() && !isStopped(); f++) {
+      FileObject fileObject = files.get(f);
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "SortRows.Detailed.OpeningTempFile", HopVfs.getFilename(fileObject)));
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "SortRows.Detailed.FromFileExpectingRows",
+                HopVfs.getFilename(fileObject),
+                sizes.get(f)));
+      }
+      SortRunReader reader =
+          new SortRunReader(
+              fileObject,
+              data.outputRowMeta,
+              sizes.get(f),
+              data.compressFiles,
+              SortRunReader.DEFAULT_BUFFER_SIZE,
+              f);
+      boolean hasRows;
+      try {
+        hasRows = reader.next();
+      } catch (HopException | RuntimeException e) {
+        reader.close();
+        throw e;
+      }
+      if (hasRows) {
+        queue.add(reader);
+      } else {
+        reader.close();
+      }
+    }
+  }
 
-        FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
+  /** We're done reading a sorted run: close and remove the temporary file. */
+  private void closeRun(SortRunReader reader) throws HopException {
+    int index = data.files.indexOf(reader.getFileObject());
+    try {
+      reader.delete();
+    } catch (HopException e) {
+      logError(
+          BaseMessages.getString(
+              PKG, "SortRows.Error.UnableToCloseFile", index, reader.getFileObject().toString()),
+          e);
+      setErrors(1);
+      stopAll();
+    }
+    if (index >= 0) {
+      data.files.remove(index);
+      data.bufferSizes.remove(index);
+    }
+  }
 
-        try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
+  /**
+   * Merge the sorted runs in groups of at most "merge fan-in" files into larger sorted runs. This
+   * keeps the number of open files and read buffers during the final merge under control.
+   */
+  private void mergePass() throws HopException {
+    List<FileObject> mergedFiles = new ArrayList<>();
+    List<Long> mergedSizes = new ArrayList<>();
 
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
-          try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
-            file.delete();
-          } catch (IOException e) {
-            logError(
-                BaseMessages.getString(
-                    PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString()));
-            setErrors(1);
-            stopAll();
-            return null;
-          }
+    if (log.isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG, "SortRows.Basic.MergingTempFiles", data.files.size(), data.mergeFanIn));
+    }
 
-          data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
+    for (int start = 0; start < data.files.size() && !isStopped(); start += data.mergeFanIn) {
+      int end = Math.min(start + data.mergeFanIn, data.files.size());
+      if (end - start == 1) {
+        // Nothing to merge
+        mergedFiles.add(data.files.get(start));
+        mergedSizes.add(data.bufferSizes.get(start));
+        continue;
+      }
 
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
+      List<FileObject> files = data.files.subList(start, end);
+      PriorityQueue<SortRunReader> queue = openRuns(files, data.bufferSizes.subList(start, end));
 
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for (RowTempFile rtf : data.tempRows) {
-            if (rtf.fileNumber > smallest) {
-              rtf.fileNumber--;
-            }
+      FileObject fileObject =
+          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
+      mergedFiles.add(fileObject);
+      long nrRows = 0L;
+      try (DataOutputStream dos = createTempFileOutputStream(fileObject)) {
+        SortRunReader reader;
+        while ((reader = queue.poll()) != null && !isStopped()) {
+          data.outputRowMeta.writeData(dos, reader.getRow());
+          nrRows++;
+          if (reader.next()) {
+            queue.add(reader);
+          } else {
+            reader.close();
           }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
+        }
+      } catch (IOException e) {
+        throw new HopException("Error writing temp-file!", e);
+      } finally {
+        for (SortRunReader reader : queue) {
+          reader.close();
+        }
+      }
+      mergedSizes.add(nrRows);
+
+      // The merged files are no longer needed
+      //
+      for (FileObject file : files) {
+        try {
+          file.delete();
+        } catch (FileSystemException e) {
+          logError(e.getLocalizedMessage(), e);
         }
       }
     }
-    return retval;
+
+    data.files = mergedFiles;
+    data.bufferSizes = mergedSizes;
+  }
+
+  private DataOutputStream createTempFileOutputStream(FileObject fileObject) throws HopException {
+    OutputStream outputStream = null;
+    try {
+      outputStream = HopVfs.getOutputStream(fileObject, false);
+      if (data.compressFiles) {
+        return new DataOutputStream(
+            new GZIPOutputStream(new BufferedOutputStream(outputStream, 500000)));
+      } else {
+        return new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
+      }
+    } catch (IOException e) {
+      BaseTransform.closeQuietly(outputStream);
+      throw new HopException("Error opening temp-file!", e);
+    }
   }
 
   @Override
@@ -413,7 +496,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       // Metadata
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
-      data.comparator = new RowTemapFileComparator(data.outputRowMeta, data.fieldnrs);
+      data.comparator = new SortRunReaderComparator(data.outputRowMeta, data.fieldnrs);
 
       for (int i = 0; i < fieldNames.length; i++) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue(fieldNames[i]);
@@ -437,6 +520,13 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator(data.outputRowMeta, data.fieldnrs);
+
+      if (meta.isParallelSort()) {
+        data.sortKeyEncoder = SortKeyEncoder.create(data.outputRowMeta, data.fieldnrs);
+        if (data.sortKeyEncoder == null && log.isDetailed()) {
+          logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.NoParallelSort"));
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -562,15 +652,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     //
     data.buffer = new ArrayList<>(5000);
 
-    // Buffer for reading from disk
-    //
-    data.rowbuffer = new ArrayList<>(5000);
+    data.mergeFanIn =
+        Math.max(2, Const.toInt(resolve(meta.getMergeFanIn()), SortRowsMeta.DEFAULT_MERGE_FAN_IN));
 
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.getCompressFiles());
 
-    data.tempRows = new ArrayList<>();
-
     data.minSortSize = 5000;
 
     return true;
@@ -587,19 +674,13 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     // Clean out the sort buffer
     data.buffer.clear();
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
 
-    // close any open DataInputStream objects
-    if (CollectionUtils.isNotEmpty(data.dis)) {
-      for (DataInputStream dis : data.dis) {
-        BaseTransform.closeQuietly(dis);
-      }
-    }
-    // close any open InputStream objects
-    if (CollectionUtils.isNotEmpty(data.fis)) {
-      for (InputStream is : data.fis) {
-        BaseTransform.closeQuietly(is);
+    // close any open sorted runs
+    if (data.mergeQueue != null) {
+      for (SortRunReader reader : data.mergeQueue) {
+        reader.close();
       }
+      data.mergeQueue = null;
     }
     // remove temp files
     for (int f = 0; f < data.files.size(); f++) {
@@ -612,12 +693,16 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         logError(e.getLocalizedMessage(), e);
       }
     }
+    data.files.clear();
+    data.bufferSizes.clear();
   }
 
   /** Sort the entire vector, if it is not empty. */
-  void quickSort(List<Object[]> elements) {
+  void quickSort(List<Object[]> elements) throws HopException {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (data.sortKeyEncoder == null || !parallelSort(elements)) {
+        Collections.sort(elements, data.rowComparator);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -667,6 +752,59 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
+  /**
+   * Sort the rows on their binary sort keys using all available processors. The keys are extracted
+   * once per row, in parallel as well.
+   *
+   * @param elements The rows to sort
+   * @return false if the sort keys of some rows couldn't be encoded and nothing was sorted
+   * @throws HopException In case a value couldn't be converted
+   */
+  private boolean parallelSort(List<Object[]> elements) throws HopException {
+    SortKeyEncoder encoder = data.sortKeyEncoder;
+    AtomicReference<HopValueException> error = new AtomicReference<>();
+    KeyedRow[] keyedRows = new KeyedRow[elements.size()];
+    Arrays.parallelSetAll(
+        keyedRows,
+        i -> {
+          Object[] row = elements.get(i);
+          try {
+            byte[] key = encoder.encode(row);
+            return key == null ? null : new KeyedRow(key, row);
+          } catch (HopValueException e) {
+            error.compareAndSet(null, e);
+            return null;
+          }
+        });
+    if (error.get() != null) {
+      throw error.get();
+    }
+    for (KeyedRow keyedRow : keyedRows) {
+      if (keyedRow == null) {
+        return false;
+      }
+    }
+
+    // This sort is stable, just like Collections.sort()
+    //
+    Arrays.parallelSort(keyedRows, (o1, o2) -> SortKeyEncoder.compare(o1.key, o2.key));
+
+    for (int i = 0; i < keyedRows.length; i++) {
+      elements.set(i, keyedRows[i].row);
+    }
+    return true;
+  }
+
+  private static final class KeyedRow {
+    private final byte[] key;
+    private final Object[] row;
+
+    private KeyedRow(byte[] key, Object[] row) {
+      this.key = key;
+      this.row = row;
+    }
+  }
+
   /*
    * Group Fields Implementation heroic
    */
@@ -694,16 +832,21 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
-  private class RowTemapFileComparator extends SortRowsComparator
-      implements Comparator<RowTempFile> {
-    RowTemapFileComparator(IRowMeta rowMeta, int[] fieldNrs) {
+  private class SortRunReaderComparator extends SortRowsComparator
+      implements Comparator<SortRunReader> {
+    SortRunReaderComparator(IRowMeta rowMeta, int[] fieldNrs) {
       super(rowMeta, fieldNrs);
     }
 
     @Override
-    public int compare(RowTempFile o1, RowTempFile o2) {
+    public int compare(SortRunReader o1, SortRunReader o2) {
       try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
+        int cmp = rowMeta.compare(o1.getRow(), o2.getRow(), fieldNrs);
+        if (cmp == 0) {
+          // Keep the merge stable: rows from earlier runs go first
+          cmp = Integer.compare(o1.getRunNumber(), o2.getRunNumber());
+        }
+        return cmp;
       } catch (HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
@@ -19,29 +19,27 @@ package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.SortKeyEncoder;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.PriorityQueue;
 
 public class SortRowsData extends BaseTransformData implements ITransformData {
   public List<FileObject> files;
   public List<Object[]> buffer;
   public int getBufferIndex;
 
-  public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
-  public List<Object[]> rowbuffer;
-  public List<Integer> bufferSizes;
+  public List<Long> bufferSizes;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  // The open sorted runs, ordered by their current row
+  public PriorityQueue<SortRunReader> mergeQueue;
+
+  // The maximum number of sorted runs to merge at once
+  public int mergeFanIn;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
@@ -51,9 +49,12 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
-    Comparator<RowTempFile> comparator;
+  Comparator<SortRunReader> comparator;
   Comparator<Object[]> rowComparator;
 
+  // Extracts binary sort keys for the parallel sort, null if the sort fields can't be encoded
+  public SortKeyEncoder sortKeyEncoder;
+
   public int freeCounter;
   public int freeMemoryPct;
   public int minSortSize;
@@ -71,9 +72,6 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
     super();
 
     files = new ArrayList<>();
-    fis = new ArrayList<>();
-    gzis = new ArrayList<>();
-    dis = new ArrayList<>();
     bufferSizes = new ArrayList<>();
 
     previous = null; // Heroic
@@ -60,6 +60,9 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
   private static final long serialVersionUID = -9075883720765645655L;
   private static final Class<?> PKG = SortRowsMeta.class; // For Translator
 
+  /** The default maximum number of temp files merged at once */
+  public static final int DEFAULT_MERGE_FAN_IN = 64;
+
   /** order by which fields? */
   @Injection(name = "NAME", group = "FIELDS")
   private String[] fieldName;
@@ -102,6 +105,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
   @Injection(name = "FREE_MEMORY_TRESHOLD")
   private String freeMemoryLimit;
 
+  /** The maximum number of temp files to merge at once */
+  @Injection(name = "MERGE_FAN_IN")
+  private String mergeFanIn;
+
   /** only pass unique rows to the output stream(s) */
   @Injection(name = "ONLY_PASS_UNIQUE_ROWS")
   private boolean onlyPassingUniqueRows;
@@ -116,6 +123,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /** Sort the rows in memory on binary sort keys using all available processors */
+  @Injection(name = "PARALLEL_SORT")
+  private boolean parallelSort;
+
   public SortRowsMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -199,8 +210,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
       prefix = XmlHandler.getTagValue(transformNode, "prefix");
       sortSize = XmlHandler.getTagValue(transformNode, "sort_size");
       freeMemoryLimit = XmlHandler.getTagValue(transformNode, "free_memory");
+      mergeFanIn = XmlHandler.getTagValue(transformNode, "merge_fan_in");
       compressFiles = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "compress"));
       compressFilesVariable = XmlHandler.getTagValue(transformNode, "compress_variable");
+      parallelSort = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "parallel_sort"));
       onlyPassingUniqueRows =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "unique_rows"));
 
@@ -237,8 +250,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     prefix = "out";
     sortSize = "1000000";
     freeMemoryLimit = null;
+    mergeFanIn = Integer.toString(DEFAULT_MERGE_FAN_IN);
     compressFiles = false;
     compressFilesVariable = null;
+    parallelSort = false;
     onlyPassingUniqueRows = false;
 
     int nrFields = 0;
@@ -261,10 +276,12 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     retval.append("      ").append(XmlHandler.addTagValue("prefix", prefix));
     retval.append("      ").append(XmlHandler.addTagValue("sort_size", sortSize));
     retval.append("      ").append(XmlHandler.addTagValue("free_memory", freeMemoryLimit));
+    retval.append("      ").append(XmlHandler.addTagValue("merge_fan_in", mergeFanIn));
     retval.append("      ").append(XmlHandler.addTagValue("compress", compressFiles));
     retval
         .append("      ")
         .append(XmlHandler.addTagValue("compress_variable", compressFilesVariable));
+    retval.append("      ").append(XmlHandler.addTagValue("parallel_sort", parallelSort));
     retval.append("      ").append(XmlHandler.addTagValue("unique_rows", onlyPassingUniqueRows));
 
     retval.append("    <fields>").append(Const.CR);
@@ -544,6 +561,26 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     this.freeMemoryLimit = freeMemoryLimit;
   }
 
+  /** @return true if the rows are sorted in memory on binary sort keys using all processors */
+  public boolean isParallelSort() {
+    return parallelSort;
+  }
+
+  /** @param parallelSort true to sort the rows on binary sort keys using all processors */
+  public void setParallelSort(boolean parallelSort) {
+    this.parallelSort = parallelSort;
+  }
+
+  /** @return the maximum number of temp files to merge at once */
+  public String getMergeFanIn() {
+    return mergeFanIn;
+  }
+
+  /** @param mergeFanIn the maximum number of temp files to merge at once */
+  public void setMergeFanIn(String mergeFanIn) {
+    this.mergeFanIn = mergeFanIn;
+  }
+
   /** @return the preSortedField */
   public boolean[] getPreSortedField() {
     return preSortedField;
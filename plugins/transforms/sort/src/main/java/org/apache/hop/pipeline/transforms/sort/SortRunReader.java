@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads back the rows of one sorted run (temporary file) during the merge phase. The reader keeps
+ * the current row around so it can be ordered in the merge heap.
+ */
+public class SortRunReader implements Closeable {
+
+  /** The size of the read buffer of every run */
+  public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+  private final FileObject fileObject;
+  private final IRowMeta rowMeta;
+  private final int runNumber;
+  private long rowsLeft;
+
+  private InputStream inputStream;
+  private DataInputStream dataInputStream;
+  private Object[] row;
+
+  /**
+   * Open a sorted run for reading.
+   *
+   * @param fileObject The temporary file to read from
+   * @param rowMeta The layout of the rows in the file
+   * @param nrRows The number of rows in the file
+   * @param compressed true if the file is gzip compressed
+   * @param bufferSize The size of the read buffer
+   * @param runNumber The number of the run, used to keep the merge stable
+   * @throws HopException in case the file can't be opened
+   */
+  public SortRunReader(
+      FileObject fileObject,
+      IRowMeta rowMeta,
+      long nrRows,
+      boolean compressed,
+      int bufferSize,
+      int runNumber)
+      throws HopException {
+    this.fileObject = fileObject;
+    this.rowMeta = rowMeta;
+    this.rowsLeft = nrRows;
+    this.runNumber = runNumber;
+
+    try {
+      inputStream = HopVfs.getInputStream(fileObject);
+      if (compressed) {
+        // Buffer on both sides of the inflater: the data stream reads a few bytes at a time
+        //
+        dataInputStream =
+            new DataInputStream(
+                new BufferedInputStream(
+                    new GZIPInputStream(new BufferedInputStream(inputStream, bufferSize), 65536),
+                    bufferSize));
+      } else {
+        dataInputStream = new DataInputStream(new BufferedInputStream(inputStream, bufferSize));
+      }
+    } catch (IOException e) {
+      close();
+      throw new HopFileException("Unable to open temporary file " + fileObject, e);
+    }
+  }
+
+  /**
+   * Read the next row of the run.
+   *
+   * @return true if a row was read, false if the run is exhausted
+   * @throws HopException in case there was an error reading the row
+   */
+  public boolean next() throws HopException {
+    if (rowsLeft <= 0) {
+      row = null;
+      return false;
+    }
+    try {
+      row = rowMeta.readData(dataInputStream);
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException(e); // should never happen on local files
+    }
+    rowsLeft--;
+    return true;
+  }
+
+  /** Close the run and delete the temporary file. */
+  public void delete() throws HopException {
+    close();
+    try {
+      fileObject.delete();
+    } catch (IOException e) {
+      throw new HopFileException("Unable to delete temporary file " + fileObject, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    BaseTransform.closeQuietly(dataInputStream);
+    BaseTransform.closeQuietly(inputStream);
+    dataInputStream = null;
+    inputStream = null;
+  }
+
+  /**
+   * Gets the current row
+   *
+   * @return value of row
+   */
+  public Object[] getRow() {
+    return row;
+  }
+
+  /**
+   * Gets fileObject
+   *
+   * @return value of fileObject
+   */
+  public FileObject getFileObject() {
+    return fileObject;
+  }
+
+  /**
+   * Gets runNumber
+   *
+   * @return value of runNumber
+   */
+  public int getRunNumber() {
+    return runNumber;
+  }
+}
@@ -53,8 +53,10 @@ public class SortRowsMetaTest {
             "Prefix",
             "SortSize",
             "FreeMemoryLimit",
+            "MergeFanIn",
             "CompressFiles",
             "CompressFilesVariable",
+            "ParallelSort",
             "OnlyPassingUniqueRows",
             "FieldName",
             "Ascending",
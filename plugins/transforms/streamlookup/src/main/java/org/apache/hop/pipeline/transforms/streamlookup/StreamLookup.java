@@ -22,7 +22,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
-import org.apache.hop.core.hash.ByteArrayHashIndex;
+import org.apache.hop.core.hash.PackedByteArrayHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -215,6 +215,15 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       rowData = getRowFrom(rowSet);
     }
 
+    if (data.hashIndex != null && log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "StreamLookup.Log.HashIndexMemoryUsage",
+              Integer.toString(data.hashIndex.getSize()),
+              Long.toString(data.hashIndex.getMemoryUsage())));
+    }
+
     return true;
   }
 
@@ -327,7 +336,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
           data.longIndex.put(key, value);
         } else {
           if (data.hashIndex == null) {
-            data.hashIndex = new ByteArrayHashIndex(keyMeta);
+            data.hashIndex = new PackedByteArrayHashIndex();
           }
           data.hashIndex.put(
               RowMeta.extractData(keyMeta, keyData), RowMeta.extractData(valueMeta, valueData));
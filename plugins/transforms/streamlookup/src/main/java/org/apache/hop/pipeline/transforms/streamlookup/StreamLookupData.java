@@ -19,8 +19,8 @@ package org.apache.hop.pipeline.transforms.streamlookup;
 
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopValueException;
-import org.apache.hop.core.hash.ByteArrayHashIndex;
 import org.apache.hop.core.hash.LongHashIndex;
+import org.apache.hop.core.hash.PackedByteArrayHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -62,7 +62,7 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
 
   public Comparator<KeyValue> comparator;
 
-  public ByteArrayHashIndex hashIndex;
+  public PackedByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
   public IRowMeta lookupMeta;
@@ -39,6 +39,7 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -229,6 +230,17 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       throw new HopTransformException("The tablename is not defined (empty)");
     }
 
+    if (data.nrWriters > 1) {
+      // The batches are written over several connections, the rows are passed on once committed
+      //
+      if (data.writerPool == null) {
+        data.writerPool = createWriterPool();
+      }
+      data.writerPool.addRow(tableName, insertRowData, outputRowData);
+      processWriterResults(data.writerPool.getFinishedBatches());
+      return null;
+    }
+
     insertStatement = data.preparedStatements.get(tableName);
     if (insertStatement == null) {
       String sql =
@@ -327,17 +339,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       } else {
         data.db.clearBatch(insertStatement);
         data.db.rollback();
-        StringBuilder msg =
-            new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
-        msg.append(Const.CR);
-        msg.append("Errors encountered (first 10):").append(Const.CR);
-        for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
-          Exception exception = be.getExceptionsList().get(x);
-          if (exception.getMessage() != null) {
-            msg.append(exception.getMessage()).append(Const.CR);
-          }
-        }
-        throw new HopException(msg.toString(), be);
+        throw createBatchException(tableName, be);
       }
     } catch (HopDatabaseException dbe) {
       if (getTransformMeta().isDoingErrorHandling()) {
@@ -427,6 +429,77 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return outputRowData;
   }
 
+  private HopException createBatchException(String tableName, HopDatabaseBatchException be) {
+    StringBuilder msg =
+        new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
+    msg.append(Const.CR);
+    msg.append("Errors encountered (first 10):").append(Const.CR);
+    for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
+      Exception exception = be.getExceptionsList().get(x);
+      if (exception.getMessage() != null) {
+        msg.append(exception.getMessage()).append(Const.CR);
+      }
+    }
+    return new HopException(msg.toString(), be);
+  }
+
+  /** Open a connection for every parallel writer and start them */
+  private TableOutputWriterPool createWriterPool() throws HopException {
+    List<Database> databases = new ArrayList<>();
+    try {
+      for (int i = 0; i < data.nrWriters; i++) {
+        Database database = new Database(this, this, data.databaseMeta);
+        databases.add(database);
+        database.connect();
+        database.setCommit(data.commitSize);
+      }
+    } catch (HopException e) {
+      for (Database database : databases) {
+        database.disconnect();
+      }
+      throw e;
+    }
+    if (log.isDetailed()) {
+      logDetailed("Started " + data.nrWriters + " parallel writers");
+    }
+    return new TableOutputWriterPool(
+        getTransformName(),
+        databases,
+        resolve(meta.getSchemaName()),
+        data.insertRowMeta,
+        data.commitSize,
+        meta.isOrderedCommits(),
+        getTransformMeta().isDoingErrorHandling());
+  }
+
+  /** Pass on the rows of the batches committed by the parallel writers */
+  private void processWriterResults(List<TableOutputBatch> batches) throws HopException {
+    for (TableOutputBatch batch : batches) {
+      if (batch.getException() != null) {
+        throw new HopException(
+            "Error inserting rows into table [" + batch.getTableName() + "]",
+            batch.getException());
+      }
+      if (batch.isCancelled()) {
+        // Rolled back because another batch failed
+        continue;
+      }
+      HopDatabaseBatchException be = batch.getBatchException();
+      if (be != null) {
+        if (!getTransformMeta().isDoingErrorHandling()) {
+          throw createBatchException(batch.getTableName(), be);
+        }
+        data.batchBuffer.addAll(batch.getOutputRows());
+        processBatchException(be.toString(), be.getUpdateCounts(), be.getExceptionsList());
+      } else {
+        for (Object[] row : batch.getOutputRows()) {
+          putRow(data.outputRowMeta, row);
+          incrementLinesOutput();
+        }
+      }
+    }
+  }
+
   @Override
   public boolean isRowLevel() {
     return log.isRowLevel();
@@ -541,6 +614,20 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         }
         data.db.setCommit(data.commitSize);
 
+        // Parallel writers only work with batches, each batch is committed on its own
+        //
+        data.nrWriters = Const.toInt(resolve(meta.getNrWriters()), 1);
+        if (data.nrWriters > 1 && !Utils.isEmpty(data.db.getConnectionGroup())) {
+          // A transactional pipeline writes everything in a single transaction on a shared
+          // connection: writers with their own connections would commit outside of it.
+          //
+          logMinimal(BaseMessages.getString(PKG, "TableOutput.Log.ParallelWritersTransactional"));
+          data.nrWriters = 1;
+        } else if (data.nrWriters > 1 && !(data.batchMode && data.db.getUseBatchInsert(true))) {
+          logBasic(BaseMessages.getString(PKG, "TableOutput.Log.ParallelWritersNotSupported"));
+          data.nrWriters = 1;
+        }
+
         if (!meta.isPartitioningEnabled() && !meta.isTableNameInField()) {
           data.tableName = resolve(meta.getTableName());
         }
@@ -595,6 +682,9 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private void emptyAndCommitBatchBuffers(boolean dispose) {
     try {
+      if (data.writerPool != null && getErrors() == 0 && !isStopped()) {
+        processWriterResults(data.writerPool.finish());
+      }
       for (String schemaTable : data.preparedStatements.keySet()) {
         // Get a commit counter per prepared statement to keep track of separate tables, etc.
         //
@@ -636,6 +726,10 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       setErrors(1);
       stopAll();
     } finally {
+      if (dispose && data.writerPool != null) {
+        data.writerPool.close();
+        data.writerPool = null;
+      }
       setOutputDone();
 
       if (getErrors() > 0) {
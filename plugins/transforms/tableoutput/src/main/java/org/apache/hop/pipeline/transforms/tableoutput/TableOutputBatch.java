@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of rows for a single table, written and committed in one go by one of the writers of a
+ * {@link TableOutputWriterPool}. Once the batch is handed back to the transform it also contains
+ * the outcome of the write.
+ */
+public class TableOutputBatch {
+  private final String tableName;
+  private final List<Object[]> insertRows;
+  private final List<Object[]> outputRows;
+  private long sequenceNr;
+
+  private HopDatabaseBatchException batchException;
+  private HopException exception;
+  private boolean cancelled;
+
+  public TableOutputBatch(String tableName, int capacity) {
+    this.tableName = tableName;
+    this.insertRows = new ArrayList<>(capacity);
+    this.outputRows = new ArrayList<>(capacity);
+  }
+
+  /**
+   * Add a row to the batch
+   *
+   * @param insertRow The values to insert into the table
+   * @param outputRow The row to pass to the next transforms once the batch is committed
+   */
+  public void addRow(Object[] insertRow, Object[] outputRow) {
+    insertRows.add(insertRow);
+    outputRows.add(outputRow);
+  }
+
+  /** @return The number of rows in the batch */
+  public int size() {
+    return insertRows.size();
+  }
+
+  /** @return true if the rows were written and committed without a problem */
+  public boolean isSuccessful() {
+    return batchException == null && exception == null && !cancelled;
+  }
+
+  /**
+   * Gets tableName
+   *
+   * @return value of tableName
+   */
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Gets insertRows
+   *
+   * @return value of insertRows
+   */
+  public List<Object[]> getInsertRows() {
+    return insertRows;
+  }
+
+  /**
+   * Gets outputRows
+   *
+   * @return value of outputRows
+   */
+  public List<Object[]> getOutputRows() {
+    return outputRows;
+  }
+
+  /**
+   * Gets sequenceNr: the order in which the batch was handed to the writers
+   *
+   * @return value of sequenceNr
+   */
+  public long getSequenceNr() {
+    return sequenceNr;
+  }
+
+  /** @param sequenceNr The sequenceNr to set */
+  public void setSequenceNr(long sequenceNr) {
+    this.sequenceNr = sequenceNr;
+  }
+
+  /**
+   * Gets batchException: the error executing the batch, the update counts tell which rows failed
+   *
+   * @return value of batchException
+   */
+  public HopDatabaseBatchException getBatchException() {
+    return batchException;
+  }
+
+  /** @param batchException The batchException to set */
+  public void setBatchException(HopDatabaseBatchException batchException) {
+    this.batchException = batchException;
+  }
+
+  /**
+   * Gets exception: an error other than a batch error, the whole batch was rolled back
+   *
+   * @return value of exception
+   */
+  public HopException getException() {
+    return exception;
+  }
+
+  /** @param exception The exception to set */
+  public void setException(HopException exception) {
+    this.exception = exception;
+  }
+
+  /**
+   * Gets cancelled: the batch was rolled back because another batch failed
+   *
+   * @return value of cancelled
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /** @param cancelled The cancelled to set */
+  public void setCancelled(boolean cancelled) {
+    this.cancelled = cancelled;
+  }
+}
@@ -69,6 +69,11 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** The parallel batch writers or null if the rows are written by the transform itself */
+  public TableOutputWriterPool writerPool;
+
+  public int nrWriters;
+
   public TableOutputData() {
     super();
 
@@ -106,6 +106,12 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlNrWriters;
+  private TextVar wNrWriters;
+
+  private Label wlOrderedCommits;
+  private Button wOrderedCommits;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -552,13 +558,52 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
           }
         });
 
+    // Number of parallel writers
+    wlNrWriters = new Label(wMainComp, SWT.RIGHT);
+    wlNrWriters.setText(BaseMessages.getString(PKG, "TableOutputDialog.NrWriters.Label"));
+    wlNrWriters.setToolTipText(BaseMessages.getString(PKG, "TableOutputDialog.NrWriters.Tooltip"));
+    PropsUi.setLook(wlNrWriters);
+    FormData fdlNrWriters = new FormData();
+    fdlNrWriters.left = new FormAttachment(0, 0);
+    fdlNrWriters.top = new FormAttachment(wBatch, margin);
+    fdlNrWriters.right = new FormAttachment(middle, -margin);
+    wlNrWriters.setLayoutData(fdlNrWriters);
+    wNrWriters = new TextVar(variables, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wNrWriters);
+    FormData fdNrWriters = new FormData();
+    fdNrWriters.left = new FormAttachment(middle, 0);
+    fdNrWriters.top = new FormAttachment(wlNrWriters, 0, SWT.CENTER);
+    fdNrWriters.right = new FormAttachment(100, 0);
+    wNrWriters.setLayoutData(fdNrWriters);
+    wNrWriters.addModifyListener(lsMod);
+
+    // Commit the parallel batches in order
+    wlOrderedCommits = new Label(wMainComp, SWT.RIGHT);
+    wlOrderedCommits.setText(BaseMessages.getString(PKG, "TableOutputDialog.OrderedCommits.Label"));
+    wlOrderedCommits.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.OrderedCommits.Tooltip"));
+    PropsUi.setLook(wlOrderedCommits);
+    FormData fdlOrderedCommits = new FormData();
+    fdlOrderedCommits.left = new FormAttachment(0, 0);
+    fdlOrderedCommits.top = new FormAttachment(wNrWriters, margin);
+    fdlOrderedCommits.right = new FormAttachment(middle, -margin);
+    wlOrderedCommits.setLayoutData(fdlOrderedCommits);
+    wOrderedCommits = new Button(wMainComp, SWT.CHECK);
+    PropsUi.setLook(wOrderedCommits);
+    FormData fdOrderedCommits = new FormData();
+    fdOrderedCommits.left = new FormAttachment(middle, 0);
+    fdOrderedCommits.top = new FormAttachment(wlOrderedCommits, 0, SWT.CENTER);
+    fdOrderedCommits.right = new FormAttachment(100, 0);
+    wOrderedCommits.setLayoutData(fdOrderedCommits);
+    wOrderedCommits.addSelectionListener(lsSelMod);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     PropsUi.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wOrderedCommits, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1229,6 +1274,12 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wlBatch.setEnabled(enableBatch);
     wBatch.setEnabled(enableBatch);
 
+    // The parallel writers only write batches
+    wlNrWriters.setEnabled(useBatch);
+    wNrWriters.setEnabled(useBatch);
+    wlOrderedCommits.setEnabled(useBatch);
+    wOrderedCommits.setEnabled(useBatch);
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled(specifyFields);
     wGetFields.setEnabled(specifyFields);
@@ -1275,6 +1326,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wBatch.setSelection(input.isUseBatchUpdate());
 
     wCommit.setText(input.getCommitSize());
+    wNrWriters.setText(Const.NVL(input.getNrWriters(), "1"));
+    wOrderedCommits.setSelection(input.isOrderedCommits());
 
     wUsePart.setSelection(input.isPartitioningEnabled());
     wPartDaily.setSelection(input.isPartitioningDaily());
@@ -1329,6 +1382,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     info.setOnlyWhenHaveRows(wOnlyWhenHaveRows.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setNrWriters(wNrWriters.getText());
+    info.setOrderedCommits(wOrderedCommits.getSelection());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
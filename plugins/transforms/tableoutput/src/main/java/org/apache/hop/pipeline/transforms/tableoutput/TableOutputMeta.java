@@ -110,6 +110,21 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  /** The number of connections writing batches in parallel */
+  @HopMetadataProperty(
+      key = "nr_writers",
+      injectionKey = "NR_WRITERS",
+      injectionKeyDescription = "TableOutputMeta.Injection.NrWriters.Field")
+  private String nrWriters;
+
+  /** Commit the batches of the parallel writers in the order of the input rows */
+  @HopMetadataProperty(
+      key = "ordered_commits",
+      injectionKey = "ORDERED_COMMITS",
+      defaultBoolean = true,
+      injectionKeyDescription = "TableOutputMeta.Injection.OrderedCommits.Field")
+  private boolean orderedCommits;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -334,6 +349,8 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     super(); // allocate BaseTransformMeta
     useBatchUpdate = true;
     commitSize = "1000";
+    nrWriters = "1";
+    orderedCommits = true;
 
     fields = new ArrayList<>();
   }
@@ -459,10 +476,40 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     return useBatchUpdate;
   }
 
+  /**
+   * @return Returns the number of parallel writers.
+   */
+  public String getNrWriters() {
+    return nrWriters;
+  }
+
+  /**
+   * @param nrWriters The number of parallel writers to set.
+   */
+  public void setNrWriters(String nrWriters) {
+    this.nrWriters = nrWriters;
+  }
+
+  /**
+   * @return Returns the ordered commits flag.
+   */
+  public boolean isOrderedCommits() {
+    return orderedCommits;
+  }
+
+  /**
+   * @param orderedCommits The ordered commits flag to set.
+   */
+  public void setOrderedCommits(boolean orderedCommits) {
+    this.orderedCommits = orderedCommits;
+  }
+
   @Override
   public void setDefault() {
     tableName = "";
     commitSize = "1000";
+    nrWriters = "1";
+    orderedCommits = true;
 
     partitioningEnabled = false;
     partitioningDaily = false;
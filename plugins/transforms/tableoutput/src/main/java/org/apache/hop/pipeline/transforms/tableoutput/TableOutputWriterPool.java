@@ -0,0 +1,460 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes batches of rows over several database connections at the same time. The transform thread
+ * collects the rows in a batch per table. Full batches are put on a bounded queue and picked up by
+ * the writer threads, each with its own connection and prepared statements. Every batch is
+ * executed and committed on its own, the finished batches are handed back to the transform thread
+ * which passes the rows on or sends them to error handling.
+ *
+ * <p>With ordered commits, the batches are committed in the order in which they were created
+ * while the batches are still executed in parallel. When a batch fails, all the batches before it
+ * are committed and none of the batches after it: the table contains exactly the rows read before
+ * the failing batch. Without ordered commits every writer commits as soon as its batch is
+ * executed. The finished batches are handed back in the same order as they were committed.
+ *
+ * <p>An executed batch which waits for its turn to commit holds on to its locks in the database.
+ * When an earlier batch needs one of these locks, neither of them can continue. That's why a
+ * writer which waited longer than the turn time-out for its turn rolls back its batch, waits for
+ * its turn without holding any locks and then executes the batch again.
+ *
+ * <p>All the methods of this class except the writers themselves are called from the transform
+ * thread.
+ */
+public class TableOutputWriterPool {
+
+  /** The default time (ms) an executed batch waits for its turn to commit before rolling back */
+  public static final long DEFAULT_TURN_TIMEOUT_MILLIS = 5000L;
+
+  /** Put on the queue to stop a writer */
+  private static final TableOutputBatch END_OF_DATA = new TableOutputBatch(null, 0);
+
+  private final String schemaName;
+  private final IRowMeta insertRowMeta;
+  private final int batchSize;
+  private final boolean orderedCommits;
+  private final boolean commitFailedBatches;
+  private final long turnTimeoutMillis;
+  private final List<Database> databases;
+
+  private final BlockingQueue<TableOutputBatch> batchQueue;
+  private final BlockingQueue<TableOutputBatch> finishedQueue;
+  private final List<Thread> threads;
+
+  /** The batches being filled, by table name */
+  private final Map<String, TableOutputBatch> openBatches;
+
+  /** Finished batches we can't hand back yet because an earlier batch is still busy */
+  private final Map<Long, TableOutputBatch> waitingBatches;
+
+  private long nextSequenceNr;
+  private long nextToHandBack;
+  private int pendingBatches;
+
+  private final Object commitLock = new Object();
+
+  /** The sequence number of the next batch to commit in ordered mode, guarded by commitLock */
+  private long nextToCommit;
+
+  /** Set when a batch failed and no other batch should be committed anymore */
+  private volatile boolean failed;
+
+  /**
+   * Start the writers, one per connection.
+   *
+   * @param name The name of the writer threads
+   * @param databases The connections to write with, auto-commit needs to be off
+   * @param schemaName The schema of the tables
+   * @param insertRowMeta The layout of the rows to insert
+   * @param batchSize The number of rows in a batch, a commit is done after every batch
+   * @param orderedCommits true to commit the batches in the order in which they were created
+   * @param commitFailedBatches true to commit the rows of a failing batch which did make it: the
+   *     other rows are sent to error handling
+   */
+  public TableOutputWriterPool(
+      String name,
+      List<Database> databases,
+      String schemaName,
+      IRowMeta insertRowMeta,
+      int batchSize,
+      boolean orderedCommits,
+      boolean commitFailedBatches) {
+    this(
+        name,
+        databases,
+        schemaName,
+        insertRowMeta,
+        batchSize,
+        orderedCommits,
+        commitFailedBatches,
+        DEFAULT_TURN_TIMEOUT_MILLIS);
+  }
+
+  TableOutputWriterPool(
+      String name,
+      List<Database> databases,
+      String schemaName,
+      IRowMeta insertRowMeta,
+      int batchSize,
+      boolean orderedCommits,
+      boolean commitFailedBatches,
+      long turnTimeoutMillis) {
+    this.turnTimeoutMillis = turnTimeoutMillis;
+    this.databases = databases;
+    this.schemaName = schemaName;
+    this.insertRowMeta = insertRowMeta;
+    this.batchSize = batchSize;
+    this.orderedCommits = orderedCommits;
+    this.commitFailedBatches = commitFailedBatches;
+
+    // A few batches in the queue keep all writers busy without holding on to too many rows
+    //
+    this.batchQueue = new ArrayBlockingQueue<>(databases.size() * 2);
+    this.finishedQueue = new LinkedBlockingQueue<>();
+    this.openBatches = new HashMap<>();
+    this.waitingBatches = new HashMap<>();
+
+    this.threads = new ArrayList<>();
+    for (int i = 0; i < databases.size(); i++) {
+      Thread thread = new Thread(new Writer(databases.get(i)), name + " - writer " + (i + 1));
+      thread.setDaemon(true);
+      threads.add(thread);
+      thread.start();
+    }
+  }
+
+  /**
+   * Add a row. The batch of the table is handed to the writers when it's full, this blocks when
+   * all the writers are busy.
+   *
+   * @param tableName The table to insert the row into
+   * @param insertRow The values to insert
+   * @param outputRow The row to pass on once the batch is committed
+   * @throws HopException In case we were interrupted
+   */
+  public void addRow(String tableName, Object[] insertRow, Object[] outputRow)
+      throws HopException {
+    TableOutputBatch batch = openBatches.get(tableName);
+    if (batch == null) {
+      batch = new TableOutputBatch(tableName, batchSize);
+      openBatches.put(tableName, batch);
+    }
+    batch.addRow(insertRow, outputRow);
+    if (batch.size() >= batchSize) {
+      openBatches.remove(tableName);
+      submit(batch);
+    }
+  }
+
+  private void submit(TableOutputBatch batch) throws HopException {
+    batch.setSequenceNr(nextSequenceNr++);
+    pendingBatches++;
+    try {
+      batchQueue.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while handing a batch to the database writers", e);
+    }
+  }
+
+  /**
+   * Get the batches which are done, without waiting.
+   *
+   * @return The finished batches in the order in which they need to be processed
+   */
+  public List<TableOutputBatch> getFinishedBatches() {
+    List<TableOutputBatch> batches = new ArrayList<>();
+    TableOutputBatch batch;
+    while ((batch = finishedQueue.poll()) != null) {
+      handBack(batch, batches);
+    }
+    return batches;
+  }
+
+  /**
+   * Hand all the partially filled batches to the writers and wait until every batch is done.
+   *
+   * @return The finished batches in the order in which they need to be processed
+   * @throws HopException In case we were interrupted
+   */
+  public List<TableOutputBatch> finish() throws HopException {
+    for (TableOutputBatch batch : new ArrayList<>(openBatches.values())) {
+      submit(batch);
+    }
+    openBatches.clear();
+
+    List<TableOutputBatch> batches = new ArrayList<>();
+    try {
+      while (pendingBatches > 0) {
+        handBack(finishedQueue.take(), batches);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for the database writers", e);
+    }
+    return batches;
+  }
+
+  private void handBack(TableOutputBatch batch, List<TableOutputBatch> batches) {
+    pendingBatches--;
+    if (!orderedCommits) {
+      batches.add(batch);
+      return;
+    }
+    waitingBatches.put(batch.getSequenceNr(), batch);
+    TableOutputBatch next;
+    while ((next = waitingBatches.remove(nextToHandBack)) != null) {
+      batches.add(next);
+      nextToHandBack++;
+    }
+  }
+
+  /**
+   * Stop the writers and close the connections. Batches which are not committed yet are rolled
+   * back.
+   */
+  public void close() {
+    failed = true;
+    synchronized (commitLock) {
+      commitLock.notifyAll();
+    }
+    // Drop the batches nobody picked up yet and tell every writer to stop
+    //
+    batchQueue.clear();
+    for (Thread ignored : threads) {
+      try {
+        batchQueue.put(END_OF_DATA);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    for (Database database : databases) {
+      database.disconnect();
+    }
+  }
+
+  /** A writer thread with its own connection and prepared statements */
+  private class Writer implements Runnable {
+    private final Database db;
+    private final IRowMeta rowMeta;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    private Writer(Database db) {
+      this.db = db;
+      // The value metadata isn't thread safe, every writer gets its own copy
+      this.rowMeta = insertRowMeta.clone();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          TableOutputBatch batch = batchQueue.take();
+          if (batch == END_OF_DATA) {
+            break;
+          }
+          try {
+            write(batch);
+          } catch (Throwable e) {
+            // The driver can throw anything: fail the batch and end its turn instead of leaving the
+            // other writers and the transform waiting for it forever.
+            //
+            batch.setException(new HopException("Unexpected error writing rows", e));
+            failed = true;
+            synchronized (commitLock) {
+              commitLock.notifyAll();
+            }
+            endTurn();
+          }
+          finishedQueue.add(batch);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        for (PreparedStatement statement : statements.values()) {
+          try {
+            statement.close();
+          } catch (SQLException e) {
+            // Ignore: we're closing down
+          }
+        }
+      }
+    }
+
+    private void write(TableOutputBatch batch) {
+      PreparedStatement statement = null;
+      boolean myTurn;
+      if (failed) {
+        batch.setCancelled(true);
+        myTurn = waitForTurn(batch, 0L);
+      } else {
+        statement = execute(batch);
+        myTurn = waitForTurn(batch, turnTimeoutMillis);
+        if (!myTurn && !failed && !Thread.currentThread().isInterrupted()) {
+          // An earlier batch might be waiting for the locks of this one: release them by rolling
+          // back and execute the batch again once it's our turn.
+          //
+          try {
+            if (statement != null) {
+              db.clearBatch(statement);
+            }
+            db.rollback();
+            batch.setBatchException(null);
+            batch.setException(null);
+            myTurn = waitForTurn(batch, 0L);
+            if (myTurn) {
+              statement = execute(batch);
+            }
+          } catch (HopDatabaseException e) {
+            batch.setException(e);
+          }
+        }
+      }
+
+      try {
+        if (batch.isSuccessful() && myTurn) {
+          db.commit();
+        } else if (batch.getBatchException() != null && commitFailedBatches && myTurn) {
+          // The rows which made it are committed, the others go to error handling
+          db.clearBatch(statement);
+          db.commit(true);
+        } else {
+          if (statement != null) {
+            db.clearBatch(statement);
+          }
+          db.rollback();
+          if (batch.isSuccessful()) {
+            batch.setCancelled(true);
+          } else if (batch.getBatchException() == null || !commitFailedBatches) {
+            failed = true;
+          }
+        }
+      } catch (HopDatabaseException e) {
+        batch.setException(e);
+        failed = true;
+      }
+      endTurn();
+    }
+
+    /**
+     * Execute the insert statements of a batch, without committing.
+     *
+     * @return The statement of the table of the batch, null if it couldn't be prepared
+     */
+    private PreparedStatement execute(TableOutputBatch batch) {
+      PreparedStatement statement = null;
+      try {
+        statement = getStatement(batch.getTableName());
+        for (Object[] row : batch.getInsertRows()) {
+          db.setValues(rowMeta, row, statement);
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        statement.clearBatch();
+      } catch (SQLException e) {
+        batch.setBatchException(
+            Database.createHopDatabaseBatchException("Error updating batch", e));
+      } catch (HopException e) {
+        batch.setException(e);
+      } catch (Exception e) {
+        batch.setException(new HopException("Unexpected error inserting rows", e));
+      }
+      return statement;
+    }
+
+    private PreparedStatement getStatement(String tableName) throws HopDatabaseException {
+      PreparedStatement statement = statements.get(tableName);
+      if (statement == null) {
+        String sql = db.getInsertStatement(schemaName, tableName, rowMeta);
+        statement = db.prepareSql(sql, false);
+        statements.put(tableName, statement);
+      }
+      return statement;
+    }
+  }
+
+  /**
+   * In ordered mode, wait until all the earlier batches are committed.
+   *
+   * @param batch The batch to commit
+   * @param timeoutMillis The maximum time to wait in ms, 0 to wait for as long as it takes
+   * @return false if the batch can't be committed because another batch failed or because the
+   *     time-out expired
+   */
+  private boolean waitForTurn(TableOutputBatch batch, long timeoutMillis) {
+    if (!orderedCommits) {
+      return !failed;
+    }
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    synchronized (commitLock) {
+      while (nextToCommit != batch.getSequenceNr() && !failed) {
+        try {
+          if (timeoutMillis > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+              return false;
+            }
+            commitLock.wait(remaining);
+          } else {
+            commitLock.wait();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      return !failed;
+    }
+  }
+
+  private void endTurn() {
+    if (!orderedCommits) {
+      return;
+    }
+    synchronized (commitLock) {
+      nextToCommit++;
+      commitLock.notifyAll();
+    }
+  }
+}
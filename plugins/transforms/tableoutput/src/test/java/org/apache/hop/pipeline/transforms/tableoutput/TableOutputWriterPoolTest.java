@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TableOutputWriterPoolTest {
+
+  private IRowMeta rowMeta;
+  private List<Database> databases;
+  private AtomicInteger commits;
+
+  @Before
+  public void setUp() throws Exception {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    commits = new AtomicInteger();
+    databases = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Database database = mock(Database.class);
+      doReturn("INSERT").when(database).getInsertStatement(any(), anyString(), any());
+      doReturn(mock(PreparedStatement.class)).when(database).prepareSql(anyString(), anyBoolean());
+      doAnswer(invocation -> commits.incrementAndGet()).when(database).commit();
+      databases.add(database);
+    }
+  }
+
+  /** Fail the batch with the row with the given id */
+  private void failOnRow(long id) throws Exception {
+    for (Database database : databases) {
+      doAnswer(
+              invocation -> {
+                Object[] row = invocation.getArgument(1);
+                if (((Long) row[0]) == id) {
+                  throw new HopDatabaseException("Invalid row " + id);
+                }
+                return null;
+              })
+          .when(database)
+          .setValues(any(IRowMeta.class), any(Object[].class), any(PreparedStatement.class));
+    }
+  }
+
+  @Test
+  public void testAllRowsCommittedInOrder() throws Exception {
+    TableOutputWriterPool pool =
+        new TableOutputWriterPool("test", databases, null, rowMeta, 10, true, false);
+    List<TableOutputBatch> batches = new ArrayList<>();
+    try {
+      for (long i = 0; i < 1005; i++) {
+        pool.addRow("table", new Object[] {i}, new Object[] {i});
+        batches.addAll(pool.getFinishedBatches());
+      }
+      batches.addAll(pool.finish());
+    } finally {
+      pool.close();
+    }
+
+    assertEquals(101, batches.size());
+    long expected = 0;
+    for (TableOutputBatch batch : batches) {
+      assertTrue(batch.isSuccessful());
+      for (Object[] row : batch.getOutputRows()) {
+        assertEquals(expected++, row[0]);
+      }
+    }
+    assertEquals(1005L, expected);
+
+    assertEquals(101, commits.get());
+    for (Database database : databases) {
+      verify(database, times(1)).disconnect();
+    }
+  }
+
+  @Test
+  public void testFailingBatchStopsOrderedCommits() throws Exception {
+    failOnRow(55);
+    TableOutputWriterPool pool =
+        new TableOutputWriterPool("test", databases, null, rowMeta, 10, true, false);
+    List<TableOutputBatch> batches = new ArrayList<>();
+    try {
+      for (long i = 0; i < 100; i++) {
+        pool.addRow("table", new Object[] {i}, new Object[] {i});
+        batches.addAll(pool.getFinishedBatches());
+      }
+      batches.addAll(pool.finish());
+    } finally {
+      pool.close();
+    }
+
+    assertEquals(10, batches.size());
+    assertEquals(5, commits.get());
+    for (int i = 0; i < batches.size(); i++) {
+      TableOutputBatch batch = batches.get(i);
+      assertEquals(i, batch.getSequenceNr());
+      if (i < 5) {
+        assertTrue(batch.isSuccessful());
+      } else if (i == 5) {
+        assertNotNull(batch.getException());
+      } else {
+        assertFalse(batch.isSuccessful());
+        assertTrue(batch.isCancelled());
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRuntimeExceptionOnCommit() throws Exception {
+    for (Database database : databases) {
+      doAnswer(
+              invocation -> {
+                if (commits.incrementAndGet() == 3) {
+                  throw new IllegalStateException("Connection reset");
+                }
+                return null;
+              })
+          .when(database)
+          .commit();
+    }
+    TableOutputWriterPool pool =
+        new TableOutputWriterPool("test", databases, null, rowMeta, 10, true, false);
+    List<TableOutputBatch> batches = new ArrayList<>();
+    try {
+      for (long i = 0; i < 100; i++) {
+        pool.addRow("table", new Object[] {i}, new Object[] {i});
+        batches.addAll(pool.getFinishedBatches());
+      }
+      batches.addAll(pool.finish());
+    } finally {
+      pool.close();
+    }
+
+    assertEquals(10, batches.size());
+    assertEquals(3, commits.get());
+    for (int i = 0; i < batches.size(); i++) {
+      TableOutputBatch batch = batches.get(i);
+      assertEquals(i, batch.getSequenceNr());
+      if (i < 2) {
+        assertTrue(batch.isSuccessful());
+      } else if (i == 2) {
+        assertNotNull(batch.getException());
+      } else {
+        assertFalse(batch.isSuccessful());
+      }
+    }
+  }
+
+  @Test
+  public void testLaterBatchReleasesLocksNeededByEarlierBatch() throws Exception {
+    // The database has a single lock: taken when a batch is executed, released at commit or
+    // rollback. The first batch is slow so the second one takes the lock first and then has to wait
+    // for its turn to commit, while the first batch waits for the lock.
+    //
+    Semaphore tableLock = new Semaphore(1);
+    AtomicInteger rollbacks = new AtomicInteger();
+    List<Database> lockingDatabases = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      AtomicBoolean holdsLock = new AtomicBoolean();
+      PreparedStatement statement = mock(PreparedStatement.class);
+      when(statement.executeBatch())
+          .thenAnswer(
+              invocation -> {
+                if (!tableLock.tryAcquire(10, TimeUnit.SECONDS)) {
+                  throw new IllegalStateException("Deadlock");
+                }
+                holdsLock.set(true);
+                return new int[0];
+              });
+      Database database = mock(Database.class);
+      doReturn("INSERT").when(database).getInsertStatement(any(), anyString(), any());
+      doReturn(statement).when(database).prepareSql(anyString(), anyBoolean());
+      doAnswer(
+              invocation -> {
+                Object[] row = invocation.getArgument(1);
+                if (((Long) row[0]) == 0L) {
+                  Thread.sleep(200);
+                }
+                return null;
+              })
+          .when(database)
+          .setValues(any(IRowMeta.class), any(Object[].class), any(PreparedStatement.class));
+      doAnswer(
+              invocation -> {
+                commits.incrementAndGet();
+                if (holdsLock.getAndSet(false)) {
+                  tableLock.release();
+                }
+                return null;
+              })
+          .when(database)
+          .commit();
+      doAnswer(
+              invocation -> {
+                rollbacks.incrementAndGet();
+                if (holdsLock.getAndSet(false)) {
+                  tableLock.release();
+                }
+                return null;
+              })
+          .when(database)
+          .rollback();
+      lockingDatabases.add(database);
+    }
+
+    TableOutputWriterPool pool =
+        new TableOutputWriterPool("test", lockingDatabases, null, rowMeta, 1, true, false, 500L);
+    List<TableOutputBatch> batches = new ArrayList<>();
+    try {
+      pool.addRow("table", new Object[] {0L}, new Object[] {0L});
+      pool.addRow("table", new Object[] {1L}, new Object[] {1L});
+      batches.addAll(pool.finish());
+    } finally {
+      pool.close();
+    }
+
+    assertEquals(2, batches.size());
+    for (int i = 0; i < batches.size(); i++) {
+      assertEquals(i, batches.get(i).getSequenceNr());
+      assertTrue(batches.get(i).isSuccessful());
+    }
+    assertEquals(2, commits.get());
+    assertEquals(1, rollbacks.get());
+  }
+
+  @Test
+  public void testBatchPerTable() throws Exception {
+    TableOutputWriterPool pool =
+        new TableOutputWriterPool("test", databases, null, rowMeta, 10, false, false);
+    List<TableOutputBatch> batches = new ArrayList<>();
+    try {
+      for (long i = 0; i < 30; i++) {
+        pool.addRow(i % 2 == 0 ? "even" : "odd", new Object[] {i}, new Object[] {i});
+        batches.addAll(pool.getFinishedBatches());
+      }
+      batches.addAll(pool.finish());
+    } finally {
+      pool.close();
+    }
+
+    assertEquals(4, batches.size());
+    int nrRows = 0;
+    for (TableOutputBatch batch : batches) {
+      assertTrue(batch.isSuccessful());
+      for (Object[] row : batch.getInsertRows()) {
+        assertEquals(batch.getTableName().equals("even"), ((Long) row[0]) % 2 == 0);
+        nrRows++;
+      }
+    }
+    assertEquals(30, nrRows);
+  }
+}
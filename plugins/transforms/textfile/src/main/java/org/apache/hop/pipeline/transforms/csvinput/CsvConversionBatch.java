@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import org.apache.hop.core.exception.HopConversionException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of rows read by the CSV Input transform with the fields still in binary form. The fields
+ * of a batch are converted to their data types in a worker thread while the transform thread reads
+ * the next rows. The rows stay in the order in which they were read.
+ */
+public class CsvConversionBatch {
+  private final Object[][] rows;
+  private final long[] lineNrs;
+  private final HopConversionException[] errors;
+  private int size;
+
+  /** @param capacity the maximum number of rows in the batch */
+  public CsvConversionBatch(int capacity) {
+    rows = new Object[capacity][];
+    lineNrs = new long[capacity];
+    errors = new HopConversionException[capacity];
+  }
+
+  /**
+   * Add a row to the batch
+   *
+   * @param row The row with the binary fields
+   * @param lineNr The number of the line, used in the error messages
+   */
+  public void add(Object[] row, long lineNr) {
+    rows[size] = row;
+    lineNrs[size] = lineNr;
+    size++;
+  }
+
+  public boolean isFull() {
+    return size == rows.length;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Convert the fields of all the rows in the batch. A row with conversion errors keeps null values
+   * for these fields and gets an error, see {@link #getError(int)}.
+   *
+   * @param convertRowMeta The metadata of the binary fields, not shared with other threads
+   * @param nrFields The number of fields to convert
+   */
+  public void convert(IRowMeta convertRowMeta, int nrFields) {
+    for (int r = 0; r < size; r++) {
+      Object[] row = rows[r];
+      List<Exception> conversionExceptions = null;
+      List<IValueMeta> exceptionFields = null;
+
+      for (int i = 0; i < nrFields; i++) {
+        if (row[i] == null) {
+          continue; // the field was not present on the line
+        }
+        IValueMeta sourceValueMeta = convertRowMeta.getValueMeta(i);
+        try {
+          row[i] = sourceValueMeta.convertBinaryStringToNativeType((byte[]) row[i]);
+        } catch (HopValueException e) {
+          row[i] = null;
+          if (conversionExceptions == null) {
+            conversionExceptions = new ArrayList<>();
+            exceptionFields = new ArrayList<>();
+          }
+          conversionExceptions.add(e);
+          exceptionFields.add(sourceValueMeta);
+        }
+      }
+
+      if (conversionExceptions != null) {
+        errors[r] =
+            new HopConversionException(
+                "There were "
+                    + conversionExceptions.size()
+                    + " conversion errors on line "
+                    + lineNrs[r],
+                conversionExceptions,
+                exceptionFields,
+                row);
+      }
+    }
+  }
+
+  /** @return the number of rows in the batch */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param index the row number in the batch
+   * @return the row
+   */
+  public Object[] getRow(int index) {
+    return rows[index];
+  }
+
+  /**
+   * @param index the row number in the batch
+   * @return the conversion error of the row or null if the fields were converted without error
+   */
+  public HopConversionException getError(int index) {
+    return errors[index];
+  }
+}
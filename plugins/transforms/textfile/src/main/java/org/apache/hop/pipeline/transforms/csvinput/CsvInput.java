@@ -21,6 +21,7 @@ import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.exception.HopConversionException;
 import org.apache.hop.core.exception.HopException;
@@ -28,6 +29,7 @@ import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.file.EncodingType;
 import org.apache.hop.core.file.TextFileInputField;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
@@ -49,14 +51,21 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Read a simple CSV file Just output Strings found in the file... */
 public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
 
   private static final Class<?> PKG = CsvInput.class; // For Translator
 
+  /** The number of rows converted at once by a conversion thread */
+  private static final int CONVERSION_BATCH_SIZE = 1000;
+
   public CsvInput(
       TransformMeta transformMeta,
       CsvInputMeta meta,
@@ -118,6 +127,8 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         prepareToRunInParallel();
       }
 
+      startConversionThreads();
+
       // Open the next file...
       //
       if (!openNextFile()) {
@@ -130,6 +141,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
     //
     if (data.parallel) {
       if (data.totalBytesRead >= data.blockToRead) {
+        putConvertedRows(0);
         setOutputDone(); // stop reading
         return false;
       }
@@ -142,47 +154,134 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         if (openNextFile()) {
           return true; // try again on the next loop...
         } else {
+          putConvertedRows(0);
           setOutputDone(); // last file, end here
           return false;
         }
+      } else if (data.conversionExecutor != null) {
+        // The fields are converted in the conversion threads
+        //
+        data.conversionBatch.add(outputRowData, getLinesInput());
+        if (data.conversionBatch.isFull()) {
+          putConvertedRows(data.maxConversionBatches);
+        }
       } else {
         putRow(data.outputRowMeta, outputRowData); // copy row to possible alternate rowset(s).
-        if (checkFeedback(getLinesInput())) {
-          if (log.isBasic()) {
-            logBasic(
-                BaseMessages.getString(
-                    PKG, "CsvInput.Log.LineNumber", Long.toString(getLinesInput())));
-          }
-        }
+        checkLineNumberFeedback();
       }
     } catch (HopConversionException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        StringBuilder errorDescriptions = new StringBuilder(100);
-        StringBuilder errorFields = new StringBuilder(50);
-        for (int i = 0; i < e.getCauses().size(); i++) {
-          if (i > 0) {
-            errorDescriptions.append(", ");
-            errorFields.append(", ");
-          }
-          errorDescriptions.append(e.getCauses().get(i).getMessage());
-          errorFields.append(e.getFields().get(i).toStringMeta());
-        }
+      handleConversionException(e);
+    }
 
-        putError(
-            data.outputRowMeta,
-            e.getRowData(),
-            e.getCauses().size(),
-            errorDescriptions.toString(),
-            errorFields.toString(),
-            "CSVINPUT001");
-      } else {
-        // Only forward the first cause.
-        //
-        throw new HopException(e.getMessage(), e.getCauses().get(0));
+    return true;
+  }
+
+  private void checkLineNumberFeedback() {
+    if (checkFeedback(getLinesInput())) {
+      if (log.isBasic()) {
+        logBasic(
+            BaseMessages.getString(PKG, "CsvInput.Log.LineNumber", Long.toString(getLinesInput())));
       }
     }
+  }
 
-    return true;
+  private void handleConversionException(HopConversionException e) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      StringBuilder errorDescriptions = new StringBuilder(100);
+      StringBuilder errorFields = new StringBuilder(50);
+      for (int i = 0; i < e.getCauses().size(); i++) {
+        if (i > 0) {
+          errorDescriptions.append(", ");
+          errorFields.append(", ");
+        }
+        errorDescriptions.append(e.getCauses().get(i).getMessage());
+        errorFields.append(e.getFields().get(i).toStringMeta());
+      }
+
+      putError(
+          data.outputRowMeta,
+          e.getRowData(),
+          e.getCauses().size(),
+          errorDescriptions.toString(),
+          errorFields.toString(),
+          "CSVINPUT001");
+    } else {
+      // Only forward the first cause.
+      //
+      throw new HopException(e.getMessage(), e.getCauses().get(0));
+    }
+  }
+
+  /**
+   * Start the threads to convert the fields to their data types if this was asked for. This is not
+   * needed with lazy conversion: the fields are not converted at all in that case.
+   */
+  private void startConversionThreads() {
+    int nrThreads = Const.toInt(resolve(meta.getConversionThreads()), 0);
+    if (nrThreads <= 0 || meta.isLazyConversionActive()) {
+      return;
+    }
+    String threadName = getTransformName() + " conversion thread ";
+    AtomicInteger threadNr = new AtomicInteger(1);
+    data.conversionExecutor =
+        Executors.newFixedThreadPool(
+            nrThreads,
+            r -> {
+              Thread thread = Executors.defaultThreadFactory().newThread(r);
+              thread.setDaemon(true);
+              thread.setName(threadName + threadNr.getAndIncrement());
+              return thread;
+            });
+    IRowMeta convertRowMeta = data.convertRowMeta;
+    data.conversionRowMeta = ThreadLocal.withInitial(convertRowMeta::clone);
+    data.conversionBatches = new ArrayDeque<>();
+    data.maxConversionBatches = nrThreads * 2;
+    data.conversionBatch = new CsvConversionBatch(CONVERSION_BATCH_SIZE);
+  }
+
+  /**
+   * Hand over the current batch to the conversion threads. Then pass on the converted rows, in the
+   * order they were read, until at most the given number of batches are still being converted.
+   *
+   * @param maxBatches The number of batches which can still be converting after this call
+   * @throws HopException In case a conversion can't be handled
+   */
+  private void putConvertedRows(int maxBatches) throws HopException {
+    if (data.conversionExecutor == null) {
+      return;
+    }
+    if (!data.conversionBatch.isEmpty()) {
+      CsvConversionBatch batch = data.conversionBatch;
+      ThreadLocal<IRowMeta> conversionRowMeta = data.conversionRowMeta;
+      int nrFields = meta.getInputFields().length;
+      data.conversionBatches.add(
+          data.conversionExecutor.submit(
+              () -> {
+                batch.convert(conversionRowMeta.get(), nrFields);
+                return batch;
+              }));
+      data.conversionBatch = new CsvConversionBatch(CONVERSION_BATCH_SIZE);
+    }
+
+    while (data.conversionBatches.size() > maxBatches) {
+      CsvConversionBatch batch;
+      try {
+        batch = data.conversionBatches.removeFirst().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException(e);
+      } catch (ExecutionException e) {
+        throw new HopException(e.getCause());
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        if (batch.getError(i) != null) {
+          handleConversionException(batch.getError(i));
+        } else {
+          putRow(data.outputRowMeta, batch.getRow(i));
+        }
+      }
+      checkLineNumberFeedback();
+    }
   }
 
   public void prepareToRunInParallel() throws HopException {
@@ -298,6 +397,11 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
 
   @Override
   public void dispose() {
+    if (data.conversionExecutor != null) {
+      data.conversionExecutor.shutdownNow();
+      data.conversionExecutor = null;
+    }
+
     try {
       // Close the previous file...
       //
@@ -759,7 +863,8 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         final int actualFieldIndex = outputIndex++;
         if (actualFieldIndex != IFieldsMapping.FIELD_DOES_NOT_EXIST) {
           if (!skipRow) {
-            if (meta.isLazyConversionActive()) {
+            if (meta.isLazyConversionActive() || data.conversionExecutor != null) {
+              // Lazy conversion or converted later on in a conversion thread
               outputRowData[actualFieldIndex] = field;
             } else {
               // We're not lazy so we convert the data right here and now.
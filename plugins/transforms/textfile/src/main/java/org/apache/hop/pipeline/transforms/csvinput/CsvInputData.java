@@ -27,7 +27,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class CsvInputData extends BaseTransformData implements ITransformData {
   public FileChannel fc;
@@ -74,6 +77,17 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
 
   public IFieldsMapping fieldsMapping;
 
+  /** The threads converting the fields, null if the fields are converted while reading */
+  public ExecutorService conversionExecutor;
+  /** The metadata to convert with in every conversion thread */
+  public ThreadLocal<IRowMeta> conversionRowMeta;
+  /** The batches being converted, in the order they were read */
+  public Deque<Future<CsvConversionBatch>> conversionBatches;
+  /** The maximum number of batches being converted at once */
+  public int maxConversionBatches;
+  /** The batch being filled with the rows read */
+  public CsvConversionBatch conversionBatch;
+
   /**
    * Data class for CsvInput transform
    *
@@ -105,6 +105,8 @@ public class CsvInputDialog extends BaseTransformDialog
   private TextVar wDelimiter;
   private TextVar wEnclosure;
   private TextVar wBufferSize;
+
+  private TextVar wConversionThreads;
   private Button wLazyConversion;
   private Button wHeaderPresent;
   private TableView wFields;
@@ -337,6 +339,29 @@ public class CsvInputDialog extends BaseTransformDialog
     wBufferSize.setLayoutData(fdBufferSize);
     lastControl = wBufferSize;
 
+    // conversionThreads
+    //
+    Label wlConversionThreads = new Label(shell, SWT.RIGHT);
+    wlConversionThreads.setText(
+        BaseMessages.getString(PKG, "CsvInputDialog.ConversionThreads.Label"));
+    PropsUi.setLook(wlConversionThreads);
+    FormData fdlConversionThreads = new FormData();
+    fdlConversionThreads.top = new FormAttachment(lastControl, margin);
+    fdlConversionThreads.left = new FormAttachment(0, 0);
+    fdlConversionThreads.right = new FormAttachment(middle, -margin);
+    wlConversionThreads.setLayoutData(fdlConversionThreads);
+    wConversionThreads = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wConversionThreads.setToolTipText(
+        BaseMessages.getString(PKG, "CsvInputDialog.ConversionThreads.Tooltip"));
+    PropsUi.setLook(wConversionThreads);
+    wConversionThreads.addModifyListener(lsMod);
+    FormData fdConversionThreads = new FormData();
+    fdConversionThreads.top = new FormAttachment(lastControl, margin);
+    fdConversionThreads.left = new FormAttachment(middle, 0);
+    fdConversionThreads.right = new FormAttachment(100, 0);
+    wConversionThreads.setLayoutData(fdConversionThreads);
+    lastControl = wConversionThreads;
+
     // performingLazyConversion?
     //
     Label wlLazyConversion = new Label(shell, SWT.RIGHT);
@@ -705,6 +730,7 @@ public class CsvInputDialog extends BaseTransformDialog
     wDelimiter.setText(Const.NVL(inputMeta.getDelimiter(), ""));
     wEnclosure.setText(Const.NVL(inputMeta.getEnclosure(), ""));
     wBufferSize.setText(Const.NVL(inputMeta.getBufferSize(), ""));
+    wConversionThreads.setText(Const.NVL(inputMeta.getConversionThreads(), ""));
     wLazyConversion.setSelection(inputMeta.isLazyConversionActive());
     wHeaderPresent.setSelection(inputMeta.isHeaderPresent());
     wRunningInParallel.setSelection(inputMeta.isRunningInParallel());
@@ -764,6 +790,7 @@ public class CsvInputDialog extends BaseTransformDialog
     inputMeta.setDelimiter(wDelimiter.getText());
     inputMeta.setEnclosure(wEnclosure.getText());
     inputMeta.setBufferSize(wBufferSize.getText());
+    inputMeta.setConversionThreads(wConversionThreads.getText());
     inputMeta.setLazyConversionActive(wLazyConversion.getSelection());
     inputMeta.setHeaderPresent(wHeaderPresent.getSelection());
     inputMeta.setRowNumField(wRowNumField.getText());
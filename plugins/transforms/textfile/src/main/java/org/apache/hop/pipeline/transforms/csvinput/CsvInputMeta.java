@@ -116,6 +116,9 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
   @Injection(name = "NEWLINES_IN_FIELDS")
   private boolean newlinePossibleInFields;
 
+  @Injection(name = "CONVERSION_THREADS")
+  private String conversionThreads;
+
   public CsvInputMeta() {
     super();
     allocate(0);
@@ -145,6 +148,7 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
     lazyConversionActive = true;
     isaddresult = false;
     bufferSize = "50000";
+    conversionThreads = "0";
   }
 
   private void readData(Node transformNode) throws HopXmlException {
@@ -174,6 +178,7 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
         newlinePossibleInFields = "Y".equalsIgnoreCase(nlp);
       }
       encoding = XmlHandler.getTagValue(transformNode, "encoding");
+      conversionThreads = XmlHandler.getTagValue(transformNode, "conversion_threads");
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
       int nrFields = XmlHandler.countNodes(fields, "field");
@@ -225,6 +230,9 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
         .append("    ")
         .append(XmlHandler.addTagValue("newline_possible", newlinePossibleInFields));
     retval.append("    ").append(XmlHandler.addTagValue("encoding", encoding));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("conversion_threads", conversionThreads));
 
     retval.append("    ").append(XmlHandler.openTag("fields")).append(Const.CR);
     for (int i = 0; i < inputFields.length; i++) {
@@ -657,6 +665,19 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
     this.newlinePossibleInFields = newlinePossibleInFields;
   }
 
+  /**
+   * @return the number of threads converting the fields to their data types, 0 to convert them in
+   *     the transform thread. Not used with lazy conversion.
+   */
+  public String getConversionThreads() {
+    return conversionThreads;
+  }
+
+  /** @param conversionThreads the conversionThreads to set */
+  public void setConversionThreads(String conversionThreads) {
+    this.conversionThreads = conversionThreads;
+  }
+
   @Override
   public FileObject getHeaderFileObject(final IVariables variables) {
     final String filename = variables.resolve(getFilename());
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.csvinput;
 
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.file.TextFileInputField;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -27,6 +28,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 public class CsvInputContentParsingTest extends BaseCsvParsingTest {
   @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
 
@@ -145,6 +149,32 @@ public class CsvInputContentParsingTest extends BaseCsvParsingTest {
         });
   }
 
+  @Test
+  public void testConversionThreads() throws Exception {
+    StringBuilder content = new StringBuilder("id,name\n");
+    int nrRows = 2500;
+    for (int i = 0; i < nrRows; i++) {
+      content.append(i).append(",name").append(i).append("\n");
+    }
+    meta.setLazyConversionActive(false);
+    meta.setConversionThreads("2");
+    init(createTestFile("UTF-8", content.toString()).getAbsolutePath(), true);
+
+    TextFileInputField id = new TextFileInputField("id", -1, -1);
+    id.setType(IValueMeta.TYPE_INTEGER);
+    TextFileInputField name = new TextFileInputField("name", -1, -1);
+    name.setType(IValueMeta.TYPE_STRING);
+    setFields(id, name);
+
+    process();
+
+    checkErrors();
+    assertEquals(nrRows, rows.size());
+    for (int i = 0; i < nrRows; i++) {
+      assertArrayEquals(new Object[] {(long) i, "name" + i}, rows.get(i));
+    }
+  }
+
   @Test(expected = HopTransformException.class)
   public void testNoHeaderOptions() throws Exception {
     meta.setHeaderPresent(false);
@@ -76,6 +76,7 @@ public class CsvInputMetaTest implements IInitializer<ITransformMeta> {
     List<String> attributes =
         Arrays.asList(
             "bufferSize",
+            "conversionThreads",
             "delimiter",
             "enclosure",
             "encoding",
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+/**
+ * An exact set of 128-bit row key hashes. The hashes are stored in open addressing tables of
+ * primitive longs: 16 bytes per row key plus the free slots, instead of a key object, a field
+ * values array and a hash set entry per row.
+ *
+ * <p>The set is split in segments on the first bits of the hash. Every segment grows on its own so
+ * that a resize only copies a small part of the set, and the set can grow beyond the size of a
+ * single Java array.
+ */
+class CompactRowKeySet implements IRowKeyStore {
+  private static final int SEGMENT_BITS = 6;
+  private static final int NR_SEGMENTS = 1 << SEGMENT_BITS;
+  private static final int MINIMUM_SEGMENT_CAPACITY = 1 << 10;
+  private static final int MAXIMUM_SEGMENT_CAPACITY = 1 << 29;
+  private static final double LOAD_FACTOR = 0.75;
+
+  /** Per segment: 2 longs per slot, a slot with 2 zeros is free */
+  private final long[][] segments;
+
+  private final int[] segmentSizes;
+  private long size;
+  private long nrLookups;
+  private long nrCollisions;
+
+  /** @param expectedRows The number of distinct rows we expect to store */
+  CompactRowKeySet(long expectedRows) {
+    long segmentCapacity = MINIMUM_SEGMENT_CAPACITY;
+    while (segmentCapacity * LOAD_FACTOR < (double) expectedRows / NR_SEGMENTS
+        && segmentCapacity < MAXIMUM_SEGMENT_CAPACITY) {
+      segmentCapacity <<= 1;
+    }
+    segments = new long[NR_SEGMENTS][];
+    for (int i = 0; i < NR_SEGMENTS; i++) {
+      segments[i] = new long[2 * (int) segmentCapacity];
+    }
+    segmentSizes = new int[NR_SEGMENTS];
+  }
+
+  @Override
+  public boolean add(long hash1, long hash2) {
+    if (hash1 == 0L && hash2 == 0L) {
+      hash1 = 1L; // 2 zeros mark a free slot
+    }
+    int segmentNr = (int) (hash2 >>> (64 - SEGMENT_BITS));
+    long[] slots = segments[segmentNr];
+    int capacity = slots.length / 2;
+    if (segmentSizes[segmentNr] >= capacity * LOAD_FACTOR) {
+      if (capacity >= MAXIMUM_SEGMENT_CAPACITY) {
+        if (segmentSizes[segmentNr] >= capacity - 1) {
+          throw new IllegalStateException("Too many distinct row keys to store");
+        }
+      } else {
+        slots = grow(segmentNr);
+        capacity = slots.length / 2;
+      }
+    }
+
+    nrLookups++;
+    int mask = capacity - 1;
+    int index = (int) hash1 & mask;
+    boolean collision = false;
+    while (true) {
+      long slot1 = slots[2 * index];
+      long slot2 = slots[2 * index + 1];
+      if (slot1 == 0L && slot2 == 0L) {
+        slots[2 * index] = hash1;
+        slots[2 * index + 1] = hash2;
+        segmentSizes[segmentNr]++;
+        size++;
+        if (collision) {
+          nrCollisions++;
+        }
+        return true;
+      }
+      if (slot1 == hash1 && slot2 == hash2) {
+        if (collision) {
+          nrCollisions++;
+        }
+        return false;
+      }
+      collision = true;
+      index = (index + 1) & mask;
+    }
+  }
+
+  private long[] grow(int segmentNr) {
+    long[] oldSlots = segments[segmentNr];
+    long[] slots = new long[oldSlots.length * 2];
+    int mask = slots.length / 2 - 1;
+    for (int i = 0; i < oldSlots.length; i += 2) {
+      long hash1 = oldSlots[i];
+      long hash2 = oldSlots[i + 1];
+      if (hash1 != 0L || hash2 != 0L) {
+        int index = (int) hash1 & mask;
+        while (slots[2 * index] != 0L || slots[2 * index + 1] != 0L) {
+          index = (index + 1) & mask;
+        }
+        slots[2 * index] = hash1;
+        slots[2 * index + 1] = hash2;
+      }
+    }
+    segments[segmentNr] = slots;
+    return slots;
+  }
+
+  @Override
+  public long getDistinctCount() {
+    return size;
+  }
+
+  @Override
+  public long getMemoryUsed() {
+    long memory = 0L;
+    for (long[] slots : segments) {
+      memory += 8L * slots.length;
+    }
+    return memory;
+  }
+
+  @Override
+  public double getCollisionRate() {
+    return nrLookups == 0 ? 0.0 : (double) nrCollisions / nrLookups;
+  }
+}
@@ -15,15 +15,29 @@
  * limitations under the License.
  */
 
-package org.apache.hop.pipeline.transforms.sort;
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
-/** Keeps track of which temporary file a row is coming from */
-public class RowTempFile {
-  public Object[] row;
-  public int fileNumber;
+/**
+ * Keeps track of the rows which were seen by their 128-bit row key hash, see {@link
+ * RowKeyHasher}. This is the compact alternative to the set of {@link RowKey} objects.
+ */
+interface IRowKeyStore {
+
+  /**
+   * Add a row key
+   *
+   * @param hash1 The first 64 bits of the row key hash
+   * @param hash2 The last 64 bits of the row key hash
+   * @return true if the row key wasn't seen before
+   */
+  boolean add(long hash1, long hash2);
+
+  /** @return The (estimated) number of distinct row keys */
+  long getDistinctCount();
+
+  /** @return The number of bytes used by the store */
+  long getMemoryUsed();
 
-  public RowTempFile(Object[] row, int fileNumber) {
-    this.row = row;
-    this.fileNumber = fileNumber;
-  }
+  /** @return The fraction of the lookups which ran into another row key */
+  double getCollisionRate();
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+/**
+ * An approximate set of row keys. A Bloom filter never takes a duplicate row for a unique one, but
+ * with the configured false positive rate a unique row is taken for a duplicate. In return it only
+ * needs about 10 bits per row for a false positive rate of 1%.
+ *
+ * <p>The bit positions are derived from the 128-bit row key hash with double hashing: position i
+ * is hash1 + i * hash2.
+ */
+class RowKeyBloomFilter implements IRowKeyStore {
+  private static final long MAXIMUM_NR_BITS = 64L * (Integer.MAX_VALUE - 8);
+
+  private final long[] bits;
+  private final long nrBits;
+  private final int nrHashes;
+
+  private long nrBitsSet;
+  private long nrLookups;
+  private long nrDuplicates;
+
+  /**
+   * @param expectedRows The number of distinct rows we expect to store
+   * @param falsePositiveRate The chance that a unique row is taken for a duplicate once the
+   *     expected number of rows is stored, between 0 and 1
+   */
+  RowKeyBloomFilter(long expectedRows, double falsePositiveRate) {
+    expectedRows = Math.max(1L, expectedRows);
+    double ln2 = Math.log(2);
+    long optimalNrBits =
+        (long) Math.ceil(-expectedRows * Math.log(falsePositiveRate) / (ln2 * ln2));
+    optimalNrBits = Math.min(MAXIMUM_NR_BITS, Math.max(64L, optimalNrBits));
+
+    bits = new long[(int) ((optimalNrBits + 63) / 64)];
+    nrBits = 64L * bits.length;
+    nrHashes = Math.max(1, (int) Math.round((double) nrBits / expectedRows * ln2));
+  }
+
+  @Override
+  public boolean add(long hash1, long hash2) {
+    nrLookups++;
+    boolean added = false;
+    long combined = hash1;
+    for (int i = 0; i < nrHashes; i++) {
+      long bit = Long.remainderUnsigned(combined, nrBits);
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      if ((bits[index] & mask) == 0L) {
+        bits[index] |= mask;
+        nrBitsSet++;
+        added = true;
+      }
+      combined += hash2;
+    }
+    if (!added) {
+      nrDuplicates++;
+    }
+    return added;
+  }
+
+  /** @return The number of distinct rows, estimated from the fraction of the bits which are set */
+  @Override
+  public long getDistinctCount() {
+    if (nrBitsSet >= nrBits) {
+      return nrLookups - nrDuplicates;
+    }
+    return Math.round(-(double) nrBits / nrHashes * Math.log1p(-(double) nrBitsSet / nrBits));
+  }
+
+  @Override
+  public long getMemoryUsed() {
+    return 8L * bits.length;
+  }
+
+  /** @return The chance that the next unique row is taken for a duplicate */
+  @Override
+  public double getCollisionRate() {
+    return Math.pow((double) nrBitsSet / nrBits, nrHashes);
+  }
+
+  /**
+   * Gets nrHashes
+   *
+   * @return value of nrHashes
+   */
+  int getNrHashes() {
+    return nrHashes;
+  }
+}
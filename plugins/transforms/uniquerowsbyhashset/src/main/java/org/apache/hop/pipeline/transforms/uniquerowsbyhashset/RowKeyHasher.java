@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Calculates a 128-bit hash of the key fields of a row as 2 independent 64-bit hashes. Key fields
+ * which are equal get the same hash. With 128 bits the chance that 2 different keys get the same
+ * hash is negligible, even for billions of rows.
+ *
+ * <p>The hash of the last row is kept in this object to avoid allocations: use one hasher per
+ * thread.
+ */
+class RowKeyHasher {
+  private static final long MULTIPLIER1 = 0x9E3779B97F4A7C15L;
+  private static final long MULTIPLIER2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long SEED2 = 0x165667B19E3779F9L;
+
+  private static final long TAG_NULL = 1;
+  private static final long TAG_STRING = 2;
+  private static final long TAG_LONG = 3;
+  private static final long TAG_DOUBLE = 4;
+  private static final long TAG_BOOLEAN = 5;
+  private static final long TAG_DATE = 6;
+  private static final long TAG_TIMESTAMP = 7;
+  private static final long TAG_BIGNUMBER = 8;
+  private static final long TAG_BINARY = 9;
+  private static final long TAG_OBJECT = 10;
+
+  private final int[] fieldnrs;
+
+  private long hash1;
+  private long hash2;
+  private int length;
+
+  /**
+   * @param fieldnrs The indexes of the key fields in the row
+   * @param nrFields The number of fields in the row, used if there are no key fields
+   */
+  RowKeyHasher(int[] fieldnrs, int nrFields) {
+    if (fieldnrs.length == 0) {
+      // Key on the entire row
+      //
+      fieldnrs = new int[nrFields];
+      for (int i = 0; i < nrFields; i++) {
+        fieldnrs[i] = i;
+      }
+    }
+    this.fieldnrs = fieldnrs;
+  }
+
+  /**
+   * Calculate the hash of the key fields of a row. Get the result with {@link #getHash1()} and
+   * {@link #getHash2()}.
+   *
+   * @param row The row
+   */
+  void hash(Object[] row) {
+    hash1 = 0L;
+    hash2 = SEED2;
+    length = 0;
+    for (int fieldnr : fieldnrs) {
+      addValue(row[fieldnr]);
+    }
+    hash1 = mix(hash1 ^ length);
+    hash2 = mix(hash2 ^ length);
+  }
+
+  private void addValue(Object value) {
+    // The type tags make sure that equal content of a different type gives a different hash
+    //
+    if (value == null) {
+      add(TAG_NULL);
+    } else if (value instanceof String) {
+      String string = (String) value;
+      add(TAG_STRING);
+      add(string.length());
+      long chars = 0L;
+      for (int i = 0; i < string.length(); i++) {
+        chars = (chars << 16) | string.charAt(i);
+        if ((i & 3) == 3) {
+          add(chars);
+          chars = 0L;
+        }
+      }
+      if ((string.length() & 3) != 0) {
+        add(chars);
+      }
+    } else if (value instanceof Long) {
+      add(TAG_LONG);
+      add((Long) value);
+    } else if (value instanceof Double) {
+      add(TAG_DOUBLE);
+      add(Double.doubleToLongBits((Double) value));
+    } else if (value instanceof Boolean) {
+      add(TAG_BOOLEAN);
+      add(((Boolean) value) ? 1L : 0L);
+    } else if (value instanceof Timestamp) {
+      add(TAG_TIMESTAMP);
+      add(((Timestamp) value).getTime());
+      add(((Timestamp) value).getNanos());
+    } else if (value instanceof Date) {
+      add(TAG_DATE);
+      add(((Date) value).getTime());
+    } else if (value instanceof BigDecimal) {
+      // BigDecimal.equals() takes the scale into account
+      //
+      BigDecimal bigDecimal = (BigDecimal) value;
+      add(TAG_BIGNUMBER);
+      add(bigDecimal.scale());
+      BigInteger unscaledValue = bigDecimal.unscaledValue();
+      if (unscaledValue.bitLength() < 64) {
+        add(unscaledValue.longValue());
+      } else {
+        addBytes(unscaledValue.toByteArray());
+      }
+    } else if (value instanceof byte[]) {
+      add(TAG_BINARY);
+      addBytes((byte[]) value);
+    } else {
+      add(TAG_OBJECT);
+      add(value.getClass().getName().hashCode());
+      add(value.hashCode());
+    }
+  }
+
+  private void addBytes(byte[] bytes) {
+    add(bytes.length);
+    long packed = 0L;
+    for (int i = 0; i < bytes.length; i++) {
+      packed = (packed << 8) | (bytes[i] & 0xFF);
+      if ((i & 7) == 7) {
+        add(packed);
+        packed = 0L;
+      }
+    }
+    if ((bytes.length & 7) != 0) {
+      add(packed);
+    }
+  }
+
+  private void add(long value) {
+    hash1 = Long.rotateLeft(hash1 ^ mix(value * MULTIPLIER1), 27) * 5 + 0x52DCE729L;
+    hash2 = Long.rotateLeft(hash2 ^ mix(value * MULTIPLIER2 + SEED2), 31) * 5 + 0x38495AB5L;
+    length++;
+  }
+
+  /** The finalizer of MurmurHash3: spreads every input bit over the whole result */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+  /** @return The first 64 bits of the hash of the last row */
+  long getHash1() {
+    return hash1;
+  }
+
+  /** @return The last 64 bits of the hash of the last row */
+  long getHash2() {
+    return hash2;
+  }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -40,6 +41,10 @@ public class UniqueRowsByHashSet
   }
 
   private boolean isUniqueRow(Object[] row) {
+    if (data.rowKeyStore != null) {
+      data.rowKeyHasher.hash(row);
+      return data.rowKeyStore.add(data.rowKeyHasher.getHash1(), data.rowKeyHasher.getHash2());
+    }
     return data.seen.add(new RowKey(row, data));
   }
 
@@ -49,6 +54,15 @@ public class UniqueRowsByHashSet
     Object[] r = getRow(); // get row!
     if (r == null) { // no more input to be expected...
 
+      if (data.rowKeyStore != null && log.isBasic()) {
+        logBasic(
+            BaseMessages.getString(
+                PKG,
+                "UniqueRowsByHashSet.Log.Statistics",
+                Long.toString(data.rowKeyStore.getDistinctCount()),
+                Long.toString(data.rowKeyStore.getMemoryUsed()),
+                String.format("%.6f", data.rowKeyStore.getCollisionRate())));
+      }
       data.clearHashSet();
       setOutputDone();
       return false;
@@ -88,6 +102,9 @@ public class UniqueRowsByHashSet
       if (data.sendDuplicateRows && !Utils.isEmpty(meta.getErrorDescription())) {
         data.realErrorDescription = resolve(meta.getErrorDescription());
       }
+      if (data.rowKeyStore != null) {
+        data.rowKeyHasher = new RowKeyHasher(data.fieldnrs, getInputRowMeta().size());
+      }
     }
 
     if (isUniqueRow(r)) {
@@ -123,6 +140,23 @@ public class UniqueRowsByHashSet
       // Add init code here.
       data.sendDuplicateRows =
           getTransformMeta().getTransformErrorMeta() != null && meta.supportsErrorHandling();
+
+      String storageMethod = meta.getStorageMethod();
+      long expectedRows = Const.toLong(resolve(meta.getExpectedRows()), 1000000L);
+      if (UniqueRowsByHashSetMeta.STORAGE_METHOD_COMPACT.equals(storageMethod)) {
+        data.rowKeyStore = new CompactRowKeySet(expectedRows);
+      } else if (UniqueRowsByHashSetMeta.STORAGE_METHOD_BLOOM_FILTER.equals(storageMethod)) {
+        double falsePositiveRate = Const.toDouble(resolve(meta.getFalsePositiveRate()), -1.0);
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+          logError(
+              BaseMessages.getString(
+                  PKG,
+                  "UniqueRowsByHashSet.Log.InvalidFalsePositiveRate",
+                  meta.getFalsePositiveRate()));
+          return false;
+        }
+        data.rowKeyStore = new RowKeyBloomFilter(expectedRows, falsePositiveRate);
+      }
       return true;
     }
     return false;
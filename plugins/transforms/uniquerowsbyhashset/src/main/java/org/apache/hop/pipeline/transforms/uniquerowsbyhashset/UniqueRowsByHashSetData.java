@@ -34,6 +34,11 @@ public class UniqueRowsByHashSetData extends BaseTransformData implements ITrans
 
   public HashSet<RowKey> seen = new HashSet<>();
 
+  /** The compact storage of the row keys, null when the row keys are kept in the hash set */
+  IRowKeyStore rowKeyStore;
+
+  RowKeyHasher rowKeyHasher;
+
   public UniqueRowsByHashSetData() {
     super();
   }
@@ -42,5 +47,7 @@ public class UniqueRowsByHashSetData extends BaseTransformData implements ITrans
     sendDuplicateRows = false;
     compareFields = null;
     realErrorDescription = null;
+    rowKeyStore = null;
+    rowKeyHasher = null;
   }
 }
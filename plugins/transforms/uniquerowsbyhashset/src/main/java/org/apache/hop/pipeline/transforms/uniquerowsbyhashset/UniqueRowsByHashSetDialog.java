@@ -35,6 +35,7 @@ import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -72,6 +73,13 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
   private Label wlErrorDesc;
   private TextVar wErrorDesc;
 
+  private Label wlStoreValues;
+  private CCombo wStorageMethod;
+  private Label wlExpectedRows;
+  private TextVar wExpectedRows;
+  private Label wlFalsePositiveRate;
+  private TextVar wFalsePositiveRate;
+
   public UniqueRowsByHashSetDialog(
       Shell parent, IVariables variables, Object in, PipelineMeta pipelineMeta, String sname) {
     super(parent, variables, (BaseTransformMeta) in, pipelineMeta, sname);
@@ -133,7 +141,7 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     settingsgroupLayout.marginHeight = 10;
     wSettings.setLayout(settingsgroupLayout);
 
-    Label wlStoreValues = new Label(wSettings, SWT.RIGHT);
+    wlStoreValues = new Label(wSettings, SWT.RIGHT);
     wlStoreValues.setText(
         BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.StoreValues.Label"));
     PropsUi.setLook(wlStoreValues);
@@ -202,6 +210,74 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     fdErrorDesc.right = new FormAttachment(100, 0);
     wErrorDesc.setLayoutData(fdErrorDesc);
 
+    Label wlStorageMethod = new Label(wSettings, SWT.RIGHT);
+    wlStorageMethod.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.StorageMethod.Label"));
+    PropsUi.setLook(wlStorageMethod);
+    FormData fdlStorageMethod = new FormData();
+    fdlStorageMethod.left = new FormAttachment(0, 0);
+    fdlStorageMethod.top = new FormAttachment(wErrorDesc, margin);
+    fdlStorageMethod.right = new FormAttachment(middle, -margin);
+    wlStorageMethod.setLayoutData(fdlStorageMethod);
+    wStorageMethod = new CCombo(wSettings, SWT.BORDER | SWT.READ_ONLY);
+    PropsUi.setLook(wStorageMethod);
+    wStorageMethod.setItems(UniqueRowsByHashSetMeta.STORAGE_METHOD_DESCRIPTIONS);
+    wStorageMethod.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.StorageMethod.ToolTip"));
+    FormData fdStorageMethod = new FormData();
+    fdStorageMethod.left = new FormAttachment(middle, 0);
+    fdStorageMethod.top = new FormAttachment(wlStorageMethod, 0, SWT.CENTER);
+    fdStorageMethod.right = new FormAttachment(100, 0);
+    wStorageMethod.setLayoutData(fdStorageMethod);
+    wStorageMethod.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            setStorageMethod();
+          }
+        });
+
+    wlExpectedRows = new Label(wSettings, SWT.RIGHT);
+    wlExpectedRows.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.ExpectedRows.Label"));
+    PropsUi.setLook(wlExpectedRows);
+    FormData fdlExpectedRows = new FormData();
+    fdlExpectedRows.left = new FormAttachment(0, 0);
+    fdlExpectedRows.top = new FormAttachment(wStorageMethod, margin);
+    fdlExpectedRows.right = new FormAttachment(middle, -margin);
+    wlExpectedRows.setLayoutData(fdlExpectedRows);
+    wExpectedRows = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wExpectedRows);
+    wExpectedRows.addModifyListener(lsMod);
+    wExpectedRows.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.ExpectedRows.ToolTip"));
+    FormData fdExpectedRows = new FormData();
+    fdExpectedRows.left = new FormAttachment(middle, 0);
+    fdExpectedRows.top = new FormAttachment(wStorageMethod, margin);
+    fdExpectedRows.right = new FormAttachment(100, 0);
+    wExpectedRows.setLayoutData(fdExpectedRows);
+
+    wlFalsePositiveRate = new Label(wSettings, SWT.RIGHT);
+    wlFalsePositiveRate.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FalsePositiveRate.Label"));
+    PropsUi.setLook(wlFalsePositiveRate);
+    FormData fdlFalsePositiveRate = new FormData();
+    fdlFalsePositiveRate.left = new FormAttachment(0, 0);
+    fdlFalsePositiveRate.top = new FormAttachment(wExpectedRows, margin);
+    fdlFalsePositiveRate.right = new FormAttachment(middle, -margin);
+    wlFalsePositiveRate.setLayoutData(fdlFalsePositiveRate);
+    wFalsePositiveRate = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wFalsePositiveRate);
+    wFalsePositiveRate.addModifyListener(lsMod);
+    wFalsePositiveRate.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FalsePositiveRate.ToolTip"));
+    FormData fdFalsePositiveRate = new FormData();
+    fdFalsePositiveRate.left = new FormAttachment(middle, 0);
+    fdFalsePositiveRate.top = new FormAttachment(wExpectedRows, margin);
+    fdFalsePositiveRate.right = new FormAttachment(100, 0);
+    wFalsePositiveRate.setLayoutData(fdFalsePositiveRate);
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment(0, margin);
     fdSettings.top = new FormAttachment(wTransformName, margin);
@@ -286,6 +362,7 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
 
     getData();
     setErrorDesc();
+    setStorageMethod();
     input.setChanged(changed);
 
     BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
@@ -298,6 +375,20 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     wErrorDesc.setEnabled(wRejectDuplicateRow.getSelection());
   }
 
+  private void setStorageMethod() {
+    String storageMethod = UniqueRowsByHashSetMeta.getStorageMethodCode(wStorageMethod.getText());
+    boolean hashSet = UniqueRowsByHashSetMeta.STORAGE_METHOD_HASHSET.equals(storageMethod);
+    boolean bloomFilter =
+        UniqueRowsByHashSetMeta.STORAGE_METHOD_BLOOM_FILTER.equals(storageMethod);
+
+    wlStoreValues.setEnabled(hashSet);
+    wStoreValues.setEnabled(hashSet);
+    wlExpectedRows.setEnabled(!hashSet);
+    wExpectedRows.setEnabled(!hashSet);
+    wlFalsePositiveRate.setEnabled(bloomFilter);
+    wFalsePositiveRate.setEnabled(bloomFilter);
+  }
+
   protected void setComboBoxes() {
     // Something was changed in the row.
     //
@@ -322,6 +413,10 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     if (input.getErrorDescription() != null) {
       wErrorDesc.setText(input.getErrorDescription());
     }
+    wStorageMethod.setText(
+        UniqueRowsByHashSetMeta.getStorageMethodDescription(input.getStorageMethod()));
+    wExpectedRows.setText(Const.NVL(input.getExpectedRows(), ""));
+    wFalsePositiveRate.setText(Const.NVL(input.getFalsePositiveRate(), ""));
     for (int i = 0; i < input.getCompareFields().length; i++) {
       TableItem item = wFields.table.getItem(i);
       if (input.getCompareFields()[i] != null) {
@@ -359,6 +454,10 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     input.setStoreValues(wStoreValues.getSelection());
     input.setRejectDuplicateRow(wRejectDuplicateRow.getSelection());
     input.setErrorDescription(wErrorDesc.getText());
+    input.setStorageMethod(
+        UniqueRowsByHashSetMeta.getStorageMethodCode(wStorageMethod.getText()));
+    input.setExpectedRows(wExpectedRows.getText());
+    input.setFalsePositiveRate(wFalsePositiveRate.getText());
     dispose();
   }
 
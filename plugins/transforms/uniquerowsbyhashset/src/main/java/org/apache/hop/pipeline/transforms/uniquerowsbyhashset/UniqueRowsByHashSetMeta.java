@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
 import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.annotations.Transform;
 import org.apache.hop.core.exception.HopTransformException;
@@ -45,6 +46,25 @@ import java.util.List;
 public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashSet, UniqueRowsByHashSetData> {
   private static final Class<?> PKG = UniqueRowsByHashSetMeta.class; // For Translator
 
+  /** Keep a set of the (stored) row values */
+  public static final String STORAGE_METHOD_HASHSET = "hashset";
+
+  /** Keep a compact set of 128-bit hashes of the row values */
+  public static final String STORAGE_METHOD_COMPACT = "compact";
+
+  /** Keep an approximate Bloom filter of the hashes of the row values */
+  public static final String STORAGE_METHOD_BLOOM_FILTER = "bloom_filter";
+
+  public static final String[] STORAGE_METHOD_CODES = {
+    STORAGE_METHOD_HASHSET, STORAGE_METHOD_COMPACT, STORAGE_METHOD_BLOOM_FILTER,
+  };
+
+  public static final String[] STORAGE_METHOD_DESCRIPTIONS = {
+    BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.StorageMethod.HashSet"),
+    BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.StorageMethod.Compact"),
+    BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.StorageMethod.BloomFilter"),
+  };
+
   /**
    * Whether to compare strictly by hash value or to store the row values for strict equality
    * checking
@@ -57,6 +77,15 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
   private boolean rejectDuplicateRow;
   private String errorDescription;
 
+  /** How to keep track of the rows which were seen, see STORAGE_METHOD_CODES */
+  private String storageMethod;
+
+  /** The number of distinct rows to size the compact set or the Bloom filter for */
+  private String expectedRows;
+
+  /** The chance that the Bloom filter takes a unique row for a duplicate */
+  private String falsePositiveRate;
+
   public UniqueRowsByHashSetMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -103,6 +132,46 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
     return errorDescription;
   }
 
+  /** @return Returns the storageMethod. */
+  public String getStorageMethod() {
+    return storageMethod;
+  }
+
+  /** @param storageMethod The storageMethod to set. */
+  public void setStorageMethod(String storageMethod) {
+    this.storageMethod = storageMethod;
+  }
+
+  /** @return Returns the expectedRows. */
+  public String getExpectedRows() {
+    return expectedRows;
+  }
+
+  /** @param expectedRows The expectedRows to set. */
+  public void setExpectedRows(String expectedRows) {
+    this.expectedRows = expectedRows;
+  }
+
+  /** @return Returns the falsePositiveRate. */
+  public String getFalsePositiveRate() {
+    return falsePositiveRate;
+  }
+
+  /** @param falsePositiveRate The falsePositiveRate to set. */
+  public void setFalsePositiveRate(String falsePositiveRate) {
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  public static String getStorageMethodDescription(String code) {
+    int index = Const.indexOfString(code, STORAGE_METHOD_CODES);
+    return STORAGE_METHOD_DESCRIPTIONS[Math.max(0, index)];
+  }
+
+  public static String getStorageMethodCode(String description) {
+    int index = Const.indexOfString(description, STORAGE_METHOD_DESCRIPTIONS);
+    return STORAGE_METHOD_CODES[Math.max(0, index)];
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -127,6 +196,11 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
       rejectDuplicateRow =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "reject_duplicate_row"));
       errorDescription = XmlHandler.getTagValue(transformNode, "error_description");
+      storageMethod =
+          Const.NVL(
+              XmlHandler.getTagValue(transformNode, "storage_method"), STORAGE_METHOD_HASHSET);
+      expectedRows = XmlHandler.getTagValue(transformNode, "expected_rows");
+      falsePositiveRate = XmlHandler.getTagValue(transformNode, "false_positive_rate");
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
       int nrFields = XmlHandler.countNodes(fields, "field");
@@ -151,6 +225,9 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
   public void setDefault() {
     rejectDuplicateRow = false;
     errorDescription = null;
+    storageMethod = STORAGE_METHOD_HASHSET;
+    expectedRows = "1000000";
+    falsePositiveRate = "0.01";
     int nrFields = 0;
 
     allocate(nrFields);
@@ -177,6 +254,9 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
     retval.append("      " + XmlHandler.addTagValue("store_values", storeValues));
     retval.append("      " + XmlHandler.addTagValue("reject_duplicate_row", rejectDuplicateRow));
     retval.append("      " + XmlHandler.addTagValue("error_description", errorDescription));
+    retval.append("      " + XmlHandler.addTagValue("storage_method", storageMethod));
+    retval.append("      " + XmlHandler.addTagValue("expected_rows", expectedRows));
+    retval.append("      " + XmlHandler.addTagValue("false_positive_rate", falsePositiveRate));
     retval.append("    <fields>");
     for (int i = 0; i < compareFields.length; i++) {
       retval.append("      <field>");
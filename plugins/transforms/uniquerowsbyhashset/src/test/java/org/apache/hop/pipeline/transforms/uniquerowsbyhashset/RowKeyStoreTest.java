@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RowKeyStoreTest {
+
+  private static long[] hash(RowKeyHasher hasher, Object... row) {
+    hasher.hash(row);
+    return new long[] {hasher.getHash1(), hasher.getHash2()};
+  }
+
+  @Test
+  public void testHasher() {
+    RowKeyHasher hasher = new RowKeyHasher(new int[0], 3);
+    long[] hash = hash(hasher, "a", 1L, new BigDecimal("1.0"));
+
+    assertEquals(hash[0], hash(hasher, "a", 1L, new BigDecimal("1.0"))[0]);
+    assertEquals(hash[1], hash(hasher, "a", 1L, new BigDecimal("1.0"))[1]);
+
+    // BigDecimal.equals() takes the scale into account
+    assertNotEquals(hash[0], hash(hasher, "a", 1L, new BigDecimal("1.00"))[0]);
+    // Same content, different types
+    assertNotEquals(hash[0], hash(hasher, 1L, "a", new BigDecimal("1.0"))[0]);
+    assertNotEquals(hash[0], hash(hasher, "a", "1", new BigDecimal("1.0"))[0]);
+    assertNotEquals(hash[0], hash(hasher, "a", null, new BigDecimal("1.0"))[0]);
+    // Field boundaries matter
+    assertNotEquals(hash(hasher, "ab", "c", null)[0], hash(hasher, "a", "bc", null)[0]);
+
+    // Only the key fields are hashed
+    RowKeyHasher keyHasher = new RowKeyHasher(new int[] {1}, 3);
+    assertEquals(
+        hash(keyHasher, "a", new Date(1000L), new byte[] {1, 2})[0],
+        hash(keyHasher, "b", new Date(1000L), null)[0]);
+  }
+
+  @Test
+  public void testCompactRowKeySet() {
+    RowKeyHasher hasher = new RowKeyHasher(new int[0], 2);
+    CompactRowKeySet set = new CompactRowKeySet(10);
+    for (long i = 0; i < 100000; i++) {
+      long[] hash = hash(hasher, "key" + (i % 50000), i % 50000);
+      assertEquals(i < 50000, set.add(hash[0], hash[1]));
+    }
+    assertEquals(50000L, set.getDistinctCount());
+    assertTrue(set.getMemoryUsed() >= 16L * 50000);
+    assertTrue(set.getCollisionRate() < 1.0);
+
+    assertTrue(set.add(0L, 0L));
+    assertFalse(set.add(0L, 0L));
+  }
+
+  @Test
+  public void testBloomFilter() {
+    RowKeyHasher hasher = new RowKeyHasher(new int[0], 1);
+    RowKeyBloomFilter filter = new RowKeyBloomFilter(100000, 0.01);
+    assertEquals(7, filter.getNrHashes());
+    assertTrue(filter.getMemoryUsed() < 2L * 100000);
+
+    int nrFalsePositives = 0;
+    for (long i = 0; i < 100000; i++) {
+      long[] hash = hash(hasher, i);
+      if (!filter.add(hash[0], hash[1])) {
+        nrFalsePositives++;
+      }
+    }
+    // Duplicates are always detected
+    for (long i = 0; i < 100000; i++) {
+      long[] hash = hash(hasher, i);
+      assertFalse(filter.add(hash[0], hash[1]));
+    }
+
+    assertTrue(nrFalsePositives < 2000);
+    assertEquals(100000.0, filter.getDistinctCount(), 2000.0);
+    assertEquals(0.01, filter.getCollisionRate(), 0.005);
+  }
+}
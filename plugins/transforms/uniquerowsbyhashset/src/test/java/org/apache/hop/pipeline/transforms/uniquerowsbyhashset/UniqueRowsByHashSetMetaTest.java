@@ -37,19 +37,32 @@ public class UniqueRowsByHashSetMetaTest {
   @Test
   public void testRoundTrip() throws HopException {
     List<String> attributes =
-        Arrays.asList("store_values", "reject_duplicate_row", "error_description", "name");
+        Arrays.asList(
+            "store_values",
+            "reject_duplicate_row",
+            "error_description",
+            "name",
+            "storage_method",
+            "expected_rows",
+            "false_positive_rate");
 
     Map<String, String> getterMap = new HashMap<>();
     getterMap.put("store_values", "getStoreValues");
     getterMap.put("reject_duplicate_row", "isRejectDuplicateRow");
     getterMap.put("error_description", "getErrorDescription");
     getterMap.put("name", "getCompareFields");
+    getterMap.put("storage_method", "getStorageMethod");
+    getterMap.put("expected_rows", "getExpectedRows");
+    getterMap.put("false_positive_rate", "getFalsePositiveRate");
 
     Map<String, String> setterMap = new HashMap<>();
     setterMap.put("store_values", "setStoreValues");
     setterMap.put("reject_duplicate_row", "setRejectDuplicateRow");
     setterMap.put("error_description", "setErrorDescription");
     setterMap.put("name", "setCompareFields");
+    setterMap.put("storage_method", "setStorageMethod");
+    setterMap.put("expected_rows", "setExpectedRows");
+    setterMap.put("false_positive_rate", "setFalsePositiveRate");
 
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap = new HashMap<>();
 
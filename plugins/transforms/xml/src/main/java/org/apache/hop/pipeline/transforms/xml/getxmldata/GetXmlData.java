@@ -639,6 +639,14 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
               BaseMessages.getString(PKG, "GetXMLData.Log.OpeningFile", data.file.toString()));
         }
 
+        if (data.pullParser != null) {
+          // Stream the file: the rows are read one by one in getPullParserRow()
+          String encoding = Utils.isEmpty(meta.getEncoding()) ? "UTF-8" : meta.getEncoding();
+          data.pullParser.open(HopVfs.getInputStream(data.file), encoding);
+          addFileToResultFilesname(data.file);
+          return true;
+        }
+
         // Open the XML document
         if (!setDocument(null, data.file, false, false)) {
           if (data.stopPruning) {
@@ -739,6 +747,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
   private Object[] getXmlRow() throws HopException {
 
+    if (data.pullParser != null) {
+      return getPullParserRow();
+    }
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
         if (!openNextFile()) {
@@ -750,6 +761,28 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return getXmlRowPutRowWithErrorhandling();
   }
 
+  /**
+   * Read the next row with the pull parser, moving on to the next file when the current one is
+   * exhausted. No document is built: only the values of the current loop element are kept.
+   */
+  private Object[] getPullParserRow() throws HopException {
+    data.errorInRowButContinue = false;
+    while (true) {
+      String[] values = data.file == null ? null : data.pullParser.next();
+      if (values != null) {
+        try {
+          return processPutRow(null, values);
+        } catch (Exception e) {
+          throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
+        }
+      }
+      data.pullParser.close();
+      if (!openNextFile()) {
+        return null;
+      }
+    }
+  }
+
   private Object[] getXmlRowPutRowWithErrorhandling() throws HopException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -766,7 +799,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
-      r = processPutRow(data.an.get(data.nodenr));
+      r = processPutRow(data.an.get(data.nodenr), null);
     } catch (Exception e) {
       throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
     }
@@ -774,7 +807,14 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return r;
   }
 
-  private Object[] processPutRow(Node node) throws HopException {
+  /**
+   * Build an output row for a loop node.
+   *
+   * @param node The loop node to evaluate the field paths on
+   * @param values The field values read by the pull parser, null to use the loop node
+   * @return The output row or null if the row was sent to the error handling
+   */
+  private Object[] processPutRow(Node node, String[] values) throws HopException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -806,8 +846,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         // Get node value
         String nodevalue;
 
-        // Handle namespaces
-        if (meta.isNamespaceAware()) {
+        if (values != null) {
+          nodevalue = values[i];
+        } else if (meta.isNamespaceAware()) {
+          // Handle namespaces
           XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
           xpathField.setNamespaceURIs(data.NAMESPACE);
           if (xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF) {
@@ -1017,6 +1059,12 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.LoopXPath", data.PathValue));
       }
 
+      if (meta.isPullParser()) {
+        if (!createPullParser()) {
+          return false;
+        }
+      }
+
       data.prunePath = resolve(meta.getPrunePath());
       if (data.prunePath != null) {
         if (Utils.isEmpty(data.prunePath.trim())) {
@@ -1027,7 +1075,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
             data.prunePath = GetXmlDataMeta.N0DE_SEPARATOR + data.prunePath;
           }
           // check if other conditions apply that do not allow pruning
-          if (meta.isInFields()) {
+          if (meta.isInFields() || data.pullParser != null) {
             data.prunePath = null; // not possible by design, could be changed later on
           }
         }
@@ -1038,8 +1086,44 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return false;
   }
 
+  /**
+   * Set up the pull parser if the options and the paths allow for it. Otherwise we fall back to
+   * building the document in memory.
+   *
+   * @return false if the pull parser couldn't be created
+   */
+  private boolean createPullParser() {
+    String[] fieldPaths = new String[data.nrInputFields];
+    boolean supported = !meta.isInFields() && !meta.isValidating() && !meta.isuseToken();
+    for (int i = 0; i < data.nrInputFields; i++) {
+      GetXmlDataField field = meta.getInputFields()[i];
+      fieldPaths[i] = field.getResolvedXPath();
+      if (field.getResultType() != GetXmlDataField.RESULT_TYPE_VALUE_OF) {
+        supported = false;
+      }
+    }
+    if (!supported || !StaxXmlReader.isSupported(data.PathValue, fieldPaths)) {
+      logBasic(BaseMessages.getString(PKG, "GetXMLData.Log.PullParser.NotSupported"));
+      return true;
+    }
+    try {
+      data.pullParser = new StaxXmlReader(data.PathValue, fieldPaths);
+    } catch (HopException e) {
+      logError(BaseMessages.getString(PKG, "GetXMLData.Log.UnexpectedError", e.toString()));
+      return false;
+    }
+    if (log.isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.PullParser.Activated"));
+    }
+    return true;
+  }
+
   @Override
   public void dispose() {
+    if (data.pullParser != null) {
+      data.pullParser.close();
+      data.pullParser = null;
+    }
     if (data.file != null) {
       try {
         data.file.close();
@@ -60,6 +60,10 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
       prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when
   // no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+
+  /** The pull parser reading the current file, null when the document is built in memory */
+  public StaxXmlReader pullParser;
+
   public boolean
       errorInRowButContinue; // true when actual row has an error and error handling is active:
   // means
@@ -135,6 +135,9 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
   private Label wlPrunePath;
   private TextVar wPrunePath;
 
+  private Label wlPullParser;
+  private Button wPullParser;
+
   private Label wlEncoding;
   private CCombo wEncoding;
 
@@ -813,6 +816,24 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Stream the files with a pull parser?
+    wlPullParser = new Label(wXmlConf, SWT.RIGHT);
+    wlPullParser.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.PullParser.Label"));
+    PropsUi.setLook(wlPullParser);
+    FormData fdlPullParser = new FormData();
+    fdlPullParser.left = new FormAttachment(0, 0);
+    fdlPullParser.top = new FormAttachment(wPrunePath, margin);
+    fdlPullParser.right = new FormAttachment(middle, -margin);
+    wlPullParser.setLayoutData(fdlPullParser);
+    wPullParser = new Button(wXmlConf, SWT.CHECK);
+    PropsUi.setLook(wPullParser);
+    wPullParser.setToolTipText(BaseMessages.getString(PKG, "GetXMLDataDialog.PullParser.Tooltip"));
+    FormData fdPullParser = new FormData();
+    fdPullParser.left = new FormAttachment(middle, 0);
+    fdPullParser.top = new FormAttachment(wlPullParser, 0, SWT.CENTER);
+    wPullParser.setLayoutData(fdPullParser);
+    wPullParser.addListener(SWT.Selection, e -> input.setChanged());
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1412,6 +1433,8 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     wPreview.setEnabled(!wXMLStreamField.getSelection());
     wPrunePath.setEnabled(!wXMLStreamField.getSelection());
     wlPrunePath.setEnabled(!wXMLStreamField.getSelection());
+    wPullParser.setEnabled(!wXMLStreamField.getSelection());
+    wlPullParser.setEnabled(!wXMLStreamField.getSelection());
     wlShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wlPathFieldName.setEnabled(!wXMLStreamField.getSelection());
@@ -1742,6 +1765,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     if (in.getPrunePath() != null) {
       wPrunePath.setText(in.getPrunePath());
     }
+    wPullParser.setSelection(in.isPullParser());
     if (in.getLoopXPath() != null) {
       wLoopXPath.setText(in.getLoopXPath());
     }
@@ -1880,6 +1904,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     // copy info to TextFileInputMeta class (input)
     in.setRowLimit(Const.toLong(wLimit.getText(), 0L));
     in.setPrunePath(wPrunePath.getText());
+    in.setPullParser(wPullParser.getSelection());
     in.setLoopXPath(wLoopXPath.getText());
     in.setEncoding(wEncoding.getText());
     in.setFilenameField(wInclFilenameField.getText());
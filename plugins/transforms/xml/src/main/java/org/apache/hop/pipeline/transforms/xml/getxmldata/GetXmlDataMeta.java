@@ -148,6 +148,9 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag : stream the file with a pull parser instead of building a document */
+  private boolean pullParser;
+
   /** Additional fields * */
   private String shortFileFieldName;
 
@@ -490,6 +493,16 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     this.prunePath = prunePath;
   }
 
+  /** @return true if the files are streamed with a pull parser */
+  public boolean isPullParser() {
+    return pullParser;
+  }
+
+  /** @param pullParser true to stream the files with a pull parser */
+  public void setPullParser(boolean pullParser) {
+    this.pullParser = pullParser;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -567,6 +580,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     retval.append("    ").append(XmlHandler.addTagValue("IsAFile", isAFile));
     retval.append("    ").append(XmlHandler.addTagValue("XmlField", xmlField));
     retval.append("    ").append(XmlHandler.addTagValue("prunePath", prunePath));
+    retval.append("    ").append(XmlHandler.addTagValue("pullParser", pullParser));
     retval.append("    ").append(XmlHandler.addTagValue("shortFileFieldName", shortFileFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("pathFieldName", pathFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("hiddenFieldName", hiddenFieldName));
@@ -664,6 +678,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
 
       xmlField = XmlHandler.getTagValue(transformNode, "XmlField");
       prunePath = XmlHandler.getTagValue(transformNode, "prunePath");
+      pullParser = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "pullParser"));
 
       shortFileFieldName = XmlHandler.getTagValue(transformNode, "shortFileFieldName");
       pathFieldName = XmlHandler.getTagValue(transformNode, "pathFieldName");
@@ -741,6 +756,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     inFields = false;
     xmlField = "";
     prunePath = "";
+    pullParser = false;
   }
 
   @Override
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the rows of an XML document with a StAX pull parser, without building a document tree in
+ * memory. Only simple paths are supported: an absolute loop path like <code>/a/b/c</code> and
+ * field paths relative to the loop element made of child element names, optionally ending with an
+ * attribute (<code>d/e</code>, <code>@id</code>, <code>d/@id</code>, <code>.</code>).
+ *
+ * <p>The values are the same as the XPath string values in the DOM mode: the first matching node
+ * in document order wins, a missing node gives an empty string. Element names are matched as they
+ * are written in the document, including the namespace prefix if there is one.
+ */
+public class StaxXmlReader implements Closeable {
+
+  private final String[] loopPath;
+  private final FieldPath[] fields;
+  private final String[] values;
+
+  private InputStream inputStream;
+  private XMLStreamReader reader;
+
+  /** The number of steps of the loop path matched by the currently open elements */
+  private int loopMatched;
+
+  /** The depth of the currently open element in the document */
+  private int depth;
+
+  /**
+   * Create a new reader
+   *
+   * @param loopPath The absolute loop path
+   * @param fieldPaths The field paths relative to the loop element
+   * @throws HopException in case one of the paths is not supported
+   */
+  public StaxXmlReader(String loopPath, String[] fieldPaths) throws HopException {
+    if (!isSupported(loopPath, fieldPaths)) {
+      throw new HopException(
+          "The loop path '" + loopPath + "' or one of the field paths can't be streamed");
+    }
+    this.loopPath = loopPath.substring(1).split(GetXmlDataMeta.N0DE_SEPARATOR);
+    this.fields = new FieldPath[fieldPaths.length];
+    for (int i = 0; i < fieldPaths.length; i++) {
+      fields[i] = new FieldPath(fieldPaths[i]);
+    }
+    this.values = new String[fieldPaths.length];
+  }
+
+  /**
+   * See if the given paths can be read with this reader.
+   *
+   * @param loopPath The absolute loop path
+   * @param fieldPaths The field paths relative to the loop element
+   * @return true if the paths are simple enough to be streamed
+   */
+  public static boolean isSupported(String loopPath, String[] fieldPaths) {
+    if (Utils.isEmpty(loopPath) || !loopPath.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)) {
+      return false;
+    }
+    for (String step : loopPath.substring(1).split(GetXmlDataMeta.N0DE_SEPARATOR, -1)) {
+      if (!isName(step)) {
+        return false;
+      }
+    }
+    for (String fieldPath : fieldPaths) {
+      if (Utils.isEmpty(fieldPath)) {
+        return false;
+      }
+      String[] steps = stripCurrent(fieldPath).split(GetXmlDataMeta.N0DE_SEPARATOR, -1);
+      for (int i = 0; i < steps.length; i++) {
+        String step = steps[i];
+        boolean attribute = step.startsWith(GetXmlDataMeta.AT) && i == steps.length - 1;
+        if (!isName(attribute ? step.substring(1) : step)
+            && !(step.equals(".") && steps.length == 1)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static String stripCurrent(String fieldPath) {
+    if (fieldPath.startsWith("./")) {
+      return fieldPath.substring(2);
+    }
+    return fieldPath;
+  }
+
+  /** A (possibly prefixed) element or attribute name, no wildcards, predicates or functions */
+  private static boolean isName(String step) {
+    if (step.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < step.length(); i++) {
+      char c = step.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.' && c != ':') {
+        return false;
+      }
+    }
+    return !step.equals(".") && !step.equals("..");
+  }
+
+  /**
+   * Start reading a document. The stream is closed when the reader is closed.
+   *
+   * @param inputStream The XML document
+   * @param encoding The encoding of the document or null to use the XML declaration
+   * @throws HopException in case the parser can't be created
+   */
+  public void open(InputStream inputStream, String encoding) throws HopException {
+    close();
+    this.inputStream = inputStream;
+    this.loopMatched = 0;
+    this.depth = 0;
+    try {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      // Like the DOM mode: DTD declarations and external entities are ignored
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+      if (Utils.isEmpty(encoding)) {
+        reader = factory.createXMLStreamReader(inputStream);
+      } else {
+        reader = factory.createXMLStreamReader(inputStream, encoding);
+      }
+    } catch (XMLStreamException e) {
+      close();
+      throw new HopException("Unable to start reading the XML document", e);
+    }
+  }
+
+  /**
+   * Read the field values of the next loop element. The returned array is re-used for every loop
+   * element so the values need to be copied before the next call.
+   *
+   * @return The values of the fields or null if there are no more loop elements
+   * @throws HopException in case the document can't be parsed
+   */
+  public String[] next() throws HopException {
+    if (reader == null) {
+      return null;
+    }
+    try {
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          if (loopMatched == depth - 1
+              && depth <= loopPath.length
+              && loopPath[depth - 1].equals(getName())) {
+            loopMatched = depth;
+            if (loopMatched == loopPath.length) {
+              readLoopElement();
+              return values;
+            }
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          if (loopMatched == depth) {
+            loopMatched--;
+          }
+          depth--;
+        }
+      }
+      return null;
+    } catch (XMLStreamException e) {
+      throw new HopException("Error reading the XML document", e);
+    }
+  }
+
+  /**
+   * Read the content of the current loop element up to and including its end tag and collect the
+   * field values on the way.
+   */
+  private void readLoopElement() throws XMLStreamException {
+    for (FieldPath field : fields) {
+      field.reset();
+      field.startElement(this, 0);
+    }
+    int relativeDepth = 0;
+    while (relativeDepth >= 0) {
+      int event = reader.next();
+      switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+          relativeDepth++;
+          for (FieldPath field : fields) {
+            field.startElement(this, relativeDepth);
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          for (FieldPath field : fields) {
+            field.endElement(relativeDepth);
+          }
+          relativeDepth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          for (FieldPath field : fields) {
+            field.characters(reader);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    // We consumed the end tag of the loop element
+    loopMatched--;
+    depth--;
+
+    for (int i = 0; i < fields.length; i++) {
+      values[i] = fields[i].getValue();
+    }
+  }
+
+  /** @return The name of the current element as written in the document */
+  private String getName() {
+    String prefix = reader.getPrefix();
+    if (Utils.isEmpty(prefix)) {
+      return reader.getLocalName();
+    }
+    return prefix + ":" + reader.getLocalName();
+  }
+
+  private String getAttribute(String name) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String prefix = reader.getAttributePrefix(i);
+      String localName = reader.getAttributeLocalName(i);
+      if (Utils.isEmpty(prefix) ? name.equals(localName) : name.equals(prefix + ":" + localName)) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        // Ignore close errors
+      }
+      reader = null;
+    }
+    BaseTransform.closeQuietly(inputStream);
+    inputStream = null;
+  }
+
+  /**
+   * The state of a single field path while reading a loop element. The text buffer is re-used for
+   * all loop elements.
+   */
+  private static final class FieldPath {
+    private final String[] elements;
+    private final String attribute;
+    private final StringBuilder text = new StringBuilder();
+
+    /** The number of element steps matched by the currently open elements */
+    private int matched;
+
+    /** The relative depth of the element we're collecting the text of, -1 if none */
+    private int collectingDepth;
+
+    private boolean found;
+    private String attributeValue;
+
+    private FieldPath(String fieldPath) {
+      String path = stripCurrent(fieldPath);
+      List<String> steps = new ArrayList<>();
+      String attr = null;
+      if (!path.equals(".")) {
+        for (String step : path.split(GetXmlDataMeta.N0DE_SEPARATOR)) {
+          if (step.startsWith(GetXmlDataMeta.AT)) {
+            attr = step.substring(1);
+          } else {
+            steps.add(step);
+          }
+        }
+      }
+      this.elements = steps.toArray(new String[0]);
+      this.attribute = attr;
+    }
+
+    private void reset() {
+      text.setLength(0);
+      matched = 0;
+      collectingDepth = -1;
+      found = false;
+      attributeValue = null;
+    }
+
+    private void startElement(StaxXmlReader staxReader, int relativeDepth) {
+      if (relativeDepth > 0) {
+        if (matched != relativeDepth - 1
+            || relativeDepth > elements.length
+            || !elements[relativeDepth - 1].equals(staxReader.getName())) {
+          return;
+        }
+        matched = relativeDepth;
+      }
+      if (found || matched != elements.length) {
+        return;
+      }
+      if (attribute == null) {
+        found = true;
+        collectingDepth = relativeDepth;
+      } else {
+        // Keep looking if the element doesn't have the attribute: the next one might
+        attributeValue = staxReader.getAttribute(attribute);
+        found = attributeValue != null;
+      }
+    }
+
+    private void endElement(int relativeDepth) {
+      if (collectingDepth == relativeDepth) {
+        collectingDepth = -1;
+      }
+      if (relativeDepth > 0 && matched == relativeDepth) {
+        matched--;
+      }
+    }
+
+    private void characters(XMLStreamReader reader) {
+      if (collectingDepth >= 0) {
+        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+
+    private String getValue() {
+      if (attribute != null) {
+        return found ? attributeValue : "";
+      }
+      return text.toString();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StaxXmlReaderTest {
+
+  private static final String XML =
+      "<?xml version=\"1.0\"?>"
+          + "<!DOCTYPE root SYSTEM \"root.dtd\">"
+          + "<root>"
+          + " <items>"
+          + "  <item id=\"1\"><name>one<sub>!</sub></name><name>uno</name><tag k=\"a\"/></item>"
+          + "  <item><name><![CDATA[two & more]]></name><tag/><tag k=\"b\"/></item>"
+          + "  <other><item id=\"ignored\"/></other>"
+          + "  <item id=\"3\"><item id=\"nested\"/></item>"
+          + " </items>"
+          + "</root>";
+
+  @Test
+  public void testReadRows() throws Exception {
+    String[] fieldPaths = {"name", "@id", "tag/@k", "./name/sub", "missing"};
+    try (StaxXmlReader reader = new StaxXmlReader("/root/items/item", fieldPaths)) {
+      reader.open(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+
+      assertArrayEquals(new String[] {"one!", "1", "a", "!", ""}, reader.next());
+      assertArrayEquals(new String[] {"two & more", "", "b", "", ""}, reader.next());
+      assertArrayEquals(new String[] {"", "3", "", "", ""}, reader.next());
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  public void testSupportedPaths() {
+    assertTrue(StaxXmlReader.isSupported("/a/b", new String[] {"c", "@id", "c/@id", "."}));
+    assertTrue(StaxXmlReader.isSupported("/ns:a/b", new String[] {"ns:c", "./d/e"}));
+
+    assertFalse(StaxXmlReader.isSupported("a/b", new String[] {"c"}));
+    assertFalse(StaxXmlReader.isSupported("/a//b", new String[] {"c"}));
+    assertFalse(StaxXmlReader.isSupported("/a/b[1]", new String[] {"c"}));
+    assertFalse(StaxXmlReader.isSupported("/a/b", new String[] {"../c"}));
+    assertFalse(StaxXmlReader.isSupported("/a/b", new String[] {"c/text()"}));
+    assertFalse(StaxXmlReader.isSupported("/a/b", new String[] {"@id/c"}));
+    assertFalse(StaxXmlReader.isSupported("/a/b", new String[] {"*"}));
+  }
+}